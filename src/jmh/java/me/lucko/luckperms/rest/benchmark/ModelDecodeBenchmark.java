@@ -0,0 +1,104 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.rest.benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import net.luckperms.rest.model.Context;
+import net.luckperms.rest.model.Metadata;
+import net.luckperms.rest.model.ModelTypeAdapterFactory;
+import net.luckperms.rest.model.Node;
+import net.luckperms.rest.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares decoding a {@link User} using Gson's reflective adapter with the hand-written
+ * adapters from {@link ModelTypeAdapterFactory}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ModelDecodeBenchmark {
+    private static final Gson REFLECTIVE = new Gson();
+    private static final Gson ADAPTERS = new GsonBuilder().registerTypeAdapterFactory(ModelTypeAdapterFactory.create()).create();
+
+    @Param({"100", "10000"})
+    private int nodeCount;
+
+    private String json;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(0);
+        List<Node> nodes = new ArrayList<>(this.nodeCount);
+        for (int i = 0; i < this.nodeCount; i++) {
+            Set<Context> context = new HashSet<>();
+            if (random.nextBoolean()) {
+                context.add(new Context("server", "survival"));
+            }
+            String key = "plugin" + (i % 50) + ".feature" + (i % 200) + ".action" + i;
+            Long expiry = random.nextInt(10) == 0 ? (long) random.nextInt() : null;
+            nodes.add(new Node(key, random.nextBoolean(), context, expiry));
+        }
+        Metadata metadata = new Metadata(Collections.singletonMap("key", "value"), "[Prefix] ", null, "default");
+        User user = new User(UUID.randomUUID(), "benchmark", Arrays.asList("default", "vip"), nodes, metadata);
+        this.json = REFLECTIVE.toJson(user);
+    }
+
+    @Benchmark
+    public User reflective() {
+        return REFLECTIVE.fromJson(this.json, User.class);
+    }
+
+    @Benchmark
+    public User adapters() {
+        return ADAPTERS.fromJson(this.json, User.class);
+    }
+
+}
@@ -0,0 +1,158 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.rest.benchmark;
+
+import com.google.gson.Gson;
+import net.luckperms.rest.model.CompactNodeList;
+import net.luckperms.rest.model.Context;
+import net.luckperms.rest.model.Metadata;
+import net.luckperms.rest.model.ModelTypeAdapterFactory;
+import net.luckperms.rest.model.Node;
+import net.luckperms.rest.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the structural {@link User#equals(Object)} with comparing Gson JSON trees, which is
+ * how models were previously compared.
+ *
+ * <p>Users built in code hold their nodes in an {@link ArrayList}, while decoded users hold a
+ * {@link CompactNodeList}, which is compared and hashed column by column. Both are measured.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ModelEqualityBenchmark {
+    private static final Gson GSON = new Gson();
+    private static final Gson MODEL = ModelTypeAdapterFactory.gson();
+
+    @Param({"1000", "10000"})
+    private int nodeCount;
+
+    private User user;
+    private User copy;
+    private User decoded;
+    private User decodedCopy;
+    private Map<Node, Boolean> nodeMap;
+    private Node[] lookups;
+    private int index = 0;
+
+    @Setup
+    public void setup() {
+        UUID uniqueId = UUID.randomUUID();
+        this.user = createUser(uniqueId, new Random(0));
+        this.copy = createUser(uniqueId, new Random(0));
+
+        String json = GSON.toJson(this.user);
+        this.decoded = MODEL.fromJson(json, User.class);
+        this.decodedCopy = MODEL.fromJson(json, User.class);
+        if (!(this.decoded.nodes() instanceof CompactNodeList)) {
+            throw new IllegalStateException("expected decoded nodes to be compact");
+        }
+
+        this.nodeMap = new HashMap<>();
+        for (Node node : this.user.nodes()) {
+            this.nodeMap.put(node, node.value());
+        }
+        // a power of two, no larger than the smallest node count
+        this.lookups = this.copy.nodes().subList(0, 512).toArray(new Node[0]);
+    }
+
+    private User createUser(UUID uniqueId, Random random) {
+        List<Node> nodes = new ArrayList<>(this.nodeCount);
+        for (int i = 0; i < this.nodeCount; i++) {
+            Set<Context> context = new HashSet<>();
+            if (random.nextBoolean()) {
+                context.add(new Context("server", "survival"));
+            }
+            if (random.nextInt(4) == 0) {
+                context.add(new Context("world", "world_" + random.nextInt(3)));
+            }
+            String key = "plugin" + (i % 50) + ".feature" + (i % 200) + ".action" + i;
+            Long expiry = random.nextInt(10) == 0 ? (long) random.nextInt() : null;
+            nodes.add(new Node(key, random.nextBoolean(), context, expiry));
+        }
+        Metadata metadata = new Metadata(Collections.singletonMap("key", "value"), "[Prefix] ", null, "default");
+        return new User(uniqueId, "benchmark", Arrays.asList("default", "vip"), nodes, metadata);
+    }
+
+    @Benchmark
+    public boolean structuralEquals() {
+        return this.user.equals(this.copy);
+    }
+
+    @Benchmark
+    public boolean structuralEqualsDecoded() {
+        return this.decoded.equals(this.decodedCopy);
+    }
+
+    @Benchmark
+    public int nodesHashCode() {
+        return this.user.nodes().hashCode();
+    }
+
+    @Benchmark
+    public int nodesHashCodeDecoded() {
+        return this.decoded.nodes().hashCode();
+    }
+
+    @Benchmark
+    public boolean jsonTreeEquals() {
+        return GSON.toJsonTree(this.user).equals(GSON.toJsonTree(this.copy));
+    }
+
+    @Benchmark
+    public Boolean nodeMapLookup() {
+        Node node = this.lookups[this.index];
+        this.index = (this.index + 1) & (this.lookups.length - 1);
+        return this.nodeMap.get(node);
+    }
+
+}
@@ -0,0 +1,143 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.rest.benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import net.luckperms.rest.model.Context;
+import net.luckperms.rest.model.Metadata;
+import net.luckperms.rest.model.ModelTypeAdapterFactory;
+import net.luckperms.rest.model.Node;
+import net.luckperms.rest.model.User;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Measures the heap retained by decoded {@link User}s which share most of their node keys and
+ * contexts, as users of the same server do. The hand-written adapters from
+ * {@link ModelTypeAdapterFactory} intern those values, and store nodes column-wise, while Gson's
+ * reflective adapter allocates a copy of every value per user.
+ *
+ * <p>The result of interest is the {@code retainedBytes} counter, the growth in used heap after
+ * a full collection while the decoded users are still reachable. The time taken includes the
+ * collections, and is not meaningful.</p>
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class ModelRetainedHeapBenchmark {
+    private static final Gson REFLECTIVE = new Gson();
+    private static final Gson ADAPTERS = new GsonBuilder().registerTypeAdapterFactory(ModelTypeAdapterFactory.create()).create();
+
+    @Param({"1000"})
+    private int userCount;
+
+    @Param({"100"})
+    private int nodeCount;
+
+    private String[] json;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Retained {
+        public long retainedBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            this.retainedBytes = 0;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        Random random = new Random(0);
+        this.json = new String[this.userCount];
+        for (int i = 0; i < this.userCount; i++) {
+            List<Node> nodes = new ArrayList<>(this.nodeCount);
+            for (int j = 0; j < this.nodeCount; j++) {
+                Set<Context> context = new HashSet<>();
+                if (random.nextBoolean()) {
+                    context.add(new Context("server", random.nextBoolean() ? "survival" : "creative"));
+                }
+                // drawn from a shared set of keys, so most are repeated across users
+                String key = "plugin" + random.nextInt(20) + ".feature" + random.nextInt(50);
+                nodes.add(new Node(key, random.nextBoolean(), context, null));
+            }
+            Metadata metadata = new Metadata(Collections.singletonMap("key", "value"), "[Prefix] ", null, "default");
+            User user = new User(UUID.randomUUID(), "user" + i, Arrays.asList("default", "vip"), nodes, metadata);
+            this.json[i] = REFLECTIVE.toJson(user);
+        }
+    }
+
+    @Benchmark
+    public List<User> reflective(Retained retained) {
+        return decodeAll(REFLECTIVE, retained);
+    }
+
+    @Benchmark
+    public List<User> adapters(Retained retained) {
+        return decodeAll(ADAPTERS, retained);
+    }
+
+    private List<User> decodeAll(Gson gson, Retained retained) {
+        long before = usedHeap();
+        List<User> users = new ArrayList<>(this.json.length);
+        for (String json : this.json) {
+            users.add(gson.fromJson(json, User.class));
+        }
+        retained.retainedBytes = usedHeap() - before;
+        return users;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
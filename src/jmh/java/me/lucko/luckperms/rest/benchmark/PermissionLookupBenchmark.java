@@ -0,0 +1,148 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.rest.benchmark;
+
+import net.luckperms.rest.local.CompiledPermissions;
+import net.luckperms.rest.local.PermissionEvaluator;
+import net.luckperms.rest.model.Node;
+import net.luckperms.rest.model.PermissionCheckResult;
+import net.luckperms.rest.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares checking a permission against a compiled {@link CompiledPermissions} trie with a
+ * naive scan over {@link User#nodes()}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PermissionLookupBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int nodeCount;
+
+    private User user;
+    private CompiledPermissions compiled;
+    private String[] permissions;
+    private int index = 0;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(0);
+
+        List<Node> nodes = new ArrayList<>(this.nodeCount);
+        for (int i = 0; i < this.nodeCount; i++) {
+            String key = "plugin" + (i % 50) + ".feature" + (i % 200) + ".action" + i;
+            nodes.add(new Node(key, random.nextBoolean(), Collections.emptySet(), null));
+        }
+        for (int i = 0; i < 10; i++) {
+            nodes.add(new Node("plugin" + i + ".wildcard.*", true, Collections.emptySet(), null));
+        }
+
+        this.user = new User(UUID.randomUUID(), "benchmark", Collections.emptyList(), nodes, null);
+        this.compiled = PermissionEvaluator.create(Collections.emptyList()).compile(this.user.nodes(), null);
+
+        // a mix of exact matches, wildcard matches and misses
+        this.permissions = new String[1024];
+        for (int i = 0; i < this.permissions.length; i++) {
+            int n = random.nextInt(this.nodeCount);
+            switch (i % 3) {
+                case 0:
+                    this.permissions[i] = "plugin" + (n % 50) + ".feature" + (n % 200) + ".action" + n;
+                    break;
+                case 1:
+                    this.permissions[i] = "plugin" + (n % 10) + ".wildcard.something";
+                    break;
+                default:
+                    this.permissions[i] = "unknown.permission." + n;
+                    break;
+            }
+        }
+    }
+
+    private String nextPermission() {
+        String permission = this.permissions[this.index];
+        this.index = (this.index + 1) & (this.permissions.length - 1);
+        return permission;
+    }
+
+    @Benchmark
+    public PermissionCheckResult.Tristate compiledTrie() {
+        return this.compiled.check(nextPermission()).result();
+    }
+
+    @Benchmark
+    public PermissionCheckResult.Tristate naiveScan() {
+        String permission = nextPermission();
+
+        Node exact = null;
+        Node wildcard = null;
+        int wildcardLength = -1;
+
+        for (Node node : this.user.nodes()) {
+            String key = node.key();
+            if (key.equalsIgnoreCase(permission)) {
+                exact = node;
+                break;
+            }
+
+            if (key.endsWith(".*")) {
+                int prefixLength = key.length() - 1;
+                if (prefixLength > wildcardLength && permission.length() > prefixLength && permission.regionMatches(true, 0, key, 0, prefixLength)) {
+                    wildcard = node;
+                    wildcardLength = prefixLength;
+                }
+            }
+        }
+
+        Node result = exact != null ? exact : wildcard;
+        if (result == null) {
+            return PermissionCheckResult.Tristate.UNDEFINED;
+        }
+        return result.value() ? PermissionCheckResult.Tristate.TRUE : PermissionCheckResult.Tristate.FALSE;
+    }
+
+}
@@ -0,0 +1,240 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest;
+
+import net.luckperms.rest.cache.CacheStats;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * A size and time bounded cache, with lock-free reads.
+ *
+ * <p>Entries are held in a {@link ConcurrentHashMap}, so lookups never block. When the cache
+ * is full, entries are evicted using the CLOCK algorithm, an approximation of LRU: reads set a
+ * flag on the entry, and the eviction sweep gives flagged entries a second chance. All writes
+ * and invalidations are serialized by a single lock, which is fine as each one follows an
+ * HTTP request.</p>
+ *
+ * <p>Entries can optionally be indexed by a group (for example, the user a key belongs to),
+ * so that all entries in a group can be invalidated without scanning the whole cache.</p>
+ *
+ * <p>Each invalidation increments a generation counter, and values are only stored if the
+ * generation has not changed since the load started. This prevents a load that raced with an
+ * invalidation from putting stale data back into the cache.</p>
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+class BoundedCache<K, V> {
+    private final long maximumSize;
+    private final long expireAfterWriteNanos;
+    private final Function<? super K, ?> groupFunction;
+
+    private final ConcurrentHashMap<K, Node<K, V>> map = new ConcurrentHashMap<>();
+    private volatile long generation = 0;
+
+    // guarded by lock
+    private final Object lock = new Object();
+    private final ArrayDeque<Node<K, V>> clock = new ArrayDeque<>();
+    private final Map<Object, Set<K>> groups = new HashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    BoundedCache(long maximumSize, long expireAfterWrite, TimeUnit unit) {
+        this(maximumSize, expireAfterWrite, unit, null);
+    }
+
+    BoundedCache(long maximumSize, long expireAfterWrite, TimeUnit unit, Function<? super K, ?> groupFunction) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize must be positive");
+        }
+        this.maximumSize = maximumSize;
+        this.expireAfterWriteNanos = unit.toNanos(expireAfterWrite);
+        this.groupFunction = groupFunction;
+    }
+
+    V getIfPresent(K key) {
+        Node<K, V> node = this.map.get(key);
+        if (node != null && isExpired(node, System.nanoTime())) {
+            synchronized (this.lock) {
+                if (removeLocked(node)) {
+                    this.evictions.increment();
+                }
+            }
+            node = null;
+        }
+
+        if (node == null) {
+            this.misses.increment();
+            return null;
+        }
+
+        if (!node.referenced) {
+            node.referenced = true;
+        }
+        this.hits.increment();
+        return node.value;
+    }
+
+    long generation() {
+        return this.generation;
+    }
+
+    void put(K key, V value, long generation) {
+        Node<K, V> node = new Node<>(key, value, System.nanoTime());
+        synchronized (this.lock) {
+            if (generation != this.generation) {
+                return;
+            }
+
+            this.map.put(key, node);
+            this.clock.addLast(node);
+            if (this.groupFunction != null) {
+                this.groups.computeIfAbsent(this.groupFunction.apply(key), g -> new HashSet<>()).add(key);
+            }
+
+            while (this.map.size() > this.maximumSize) {
+                Node<K, V> candidate = this.clock.pollFirst();
+                if (candidate == null) {
+                    break;
+                }
+                if (this.map.get(candidate.key) != candidate) {
+                    // already removed
+                    continue;
+                }
+                if (candidate.referenced) {
+                    candidate.referenced = false;
+                    this.clock.addLast(candidate);
+                    continue;
+                }
+                removeLocked(candidate);
+                this.evictions.increment();
+            }
+
+            compactLocked();
+        }
+    }
+
+    void invalidate(K key) {
+        synchronized (this.lock) {
+            this.generation++;
+            Node<K, V> node = this.map.get(key);
+            if (node != null) {
+                removeLocked(node);
+            }
+            compactLocked();
+        }
+    }
+
+    /**
+     * Invalidates all entries whose key is mapped to the given group.
+     *
+     * @param group the group
+     */
+    void invalidateGroup(Object group) {
+        if (this.groupFunction == null) {
+            throw new IllegalStateException("cache is not grouped");
+        }
+
+        synchronized (this.lock) {
+            this.generation++;
+            Set<K> keys = this.groups.remove(group);
+            if (keys != null) {
+                for (K key : keys) {
+                    this.map.remove(key);
+                }
+            }
+            compactLocked();
+        }
+    }
+
+    void invalidateAll() {
+        synchronized (this.lock) {
+            this.generation++;
+            this.map.clear();
+            this.clock.clear();
+            this.groups.clear();
+        }
+    }
+
+    long size() {
+        return this.map.size();
+    }
+
+    CacheStats stats() {
+        return new CacheStats(this.hits.sum(), this.misses.sum(), this.evictions.sum());
+    }
+
+    private boolean isExpired(Node<K, V> node, long now) {
+        return this.expireAfterWriteNanos > 0 && now - node.writeTime >= this.expireAfterWriteNanos;
+    }
+
+    private boolean removeLocked(Node<K, V> node) {
+        if (!this.map.remove(node.key, node)) {
+            return false;
+        }
+        if (this.groupFunction != null) {
+            Object group = this.groupFunction.apply(node.key);
+            Set<K> keys = this.groups.get(group);
+            if (keys != null && keys.remove(node.key) && keys.isEmpty()) {
+                this.groups.remove(group);
+            }
+        }
+        return true;
+    }
+
+    // removed entries are left in the clock queue, so drop them once they make up most of it
+    private void compactLocked() {
+        if (this.clock.size() > 2 * this.map.size() + 16) {
+            this.clock.removeIf(node -> this.map.get(node.key) != node);
+        }
+    }
+
+    private static final class Node<K, V> {
+        private final K key;
+        private final V value;
+        private final long writeTime;
+
+        /** Set when the entry is read, cleared by the eviction sweep */
+        private volatile boolean referenced = true;
+
+        Node(K key, V value, long writeTime) {
+            this.key = key;
+            this.value = value;
+            this.writeTime = writeTime;
+        }
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest;
+
+import com.launchdarkly.eventsource.StreamException;
+import net.luckperms.rest.event.EventCall;
+import net.luckperms.rest.event.EventProducer;
+import net.luckperms.rest.model.PostNetworkSyncEvent;
+import net.luckperms.rest.model.PreNetworkSyncEvent;
+import net.luckperms.rest.service.EventService;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Invalidates client-side caches in response to sync events emitted by the REST API, and
+ * writes made using this client.
+ *
+ * <p>Caches should only serve entries while {@link #ensureSubscribed()} returns true, as
+ * there is otherwise no way to know when an entry has become stale. This includes the time
+ * between an event stream losing its connection and reconnecting.</p>
+ *
+ * <p>The event streams are subscribed to in the background once the client is built, and
+ * caches are bypassed until they are connected. If subscribing fails, it is retried in the
+ * background, so callers never wait for a connection.</p>
+ */
+class CacheInvalidator implements Interceptor, AutoCloseable {
+    private static final long RESUBSCRIBE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final List<Target> targets = new CopyOnWriteArrayList<>();
+    private final List<EventProducer<?>> producers = new CopyOnWriteArrayList<>();
+    private final Set<EventProducer<?>> disconnected = ConcurrentHashMap.newKeySet();
+    private final Object subscribeLock = new Object();
+
+    private EventService eventService;
+    private Executor retryExecutor;
+    private volatile boolean subscribed = false;
+    private long lastSubscribeAttempt = 0;
+    private boolean retryScheduled = false;
+    private boolean closed = false;
+
+    /**
+     * Starts subscribing to the event streams in the background.
+     *
+     * @param eventService the event service
+     * @param executor the executor used to subscribe, and to retry if that fails
+     */
+    void start(EventService eventService, Executor executor) {
+        synchronized (this) {
+            this.eventService = eventService;
+            this.retryExecutor = executor;
+            this.retryScheduled = true;
+            try {
+                executor.execute(this::trySubscribe);
+            } catch (RuntimeException e) {
+                // retried by the next call to ensureSubscribed
+                this.retryScheduled = false;
+            }
+        }
+    }
+
+    void register(Target target) {
+        this.targets.add(target);
+    }
+
+    void invalidate(UUID uniqueId) {
+        for (Target target : this.targets) {
+            target.invalidate(uniqueId);
+        }
+    }
+
+    void invalidateAll() {
+        for (Target target : this.targets) {
+            target.invalidateAll();
+        }
+    }
+
+    /**
+     * Gets whether cached entries can currently be trusted. Never blocks.
+     *
+     * <p>If the event streams are not subscribed, a new attempt is scheduled in the
+     * background (at most once every few seconds) and false is returned.</p>
+     *
+     * @return true if the event streams are subscribed and connected
+     */
+    boolean ensureSubscribed() {
+        if (this.subscribed) {
+            return this.disconnected.isEmpty();
+        }
+
+        synchronized (this) {
+            if (this.subscribed) {
+                return this.disconnected.isEmpty();
+            }
+            if (this.closed || this.retryScheduled || this.retryExecutor == null) {
+                return false;
+            }
+            if (System.nanoTime() - this.lastSubscribeAttempt < RESUBSCRIBE_INTERVAL_NANOS) {
+                return false;
+            }
+
+            this.retryScheduled = true;
+            try {
+                this.retryExecutor.execute(this::trySubscribe);
+            } catch (RuntimeException e) {
+                this.retryScheduled = false;
+            }
+            return false;
+        }
+    }
+
+    private void trySubscribe() {
+        // connecting can take a while, so don't hold the monitor used by ensureSubscribed
+        synchronized (this.subscribeLock) {
+            synchronized (this) {
+                this.retryScheduled = false;
+                if (this.subscribed || this.closed) {
+                    return;
+                }
+                this.lastSubscribeAttempt = System.nanoTime();
+            }
+
+            try {
+                subscribe(this.eventService.preNetworkSync(), this::handlePreNetworkSync);
+                subscribe(this.eventService.postNetworkSync(), this::handlePostNetworkSync);
+                subscribe(this.eventService.postSync(), e -> invalidateAll());
+            } catch (Exception e) {
+                closeProducers();
+                return;
+            }
+
+            synchronized (this) {
+                if (this.closed) {
+                    closeProducers();
+                    return;
+                }
+                this.subscribed = true;
+            }
+        }
+    }
+
+    private <E> void subscribe(EventCall<E> call, Consumer<E> handler) throws Exception {
+        EventProducer<E> producer = call.subscribe();
+        this.producers.add(producer);
+        producer.subscribe(handler);
+        producer.errorHandler(e -> {
+            // other errors come from handlers or from decoding a single event, and say nothing
+            // about whether the cached entries are still current
+            if (e instanceof StreamException) {
+                // stop serving cached entries until the stream reconnects
+                this.disconnected.add(producer);
+                invalidateAll();
+            }
+        });
+        producer.gapHandler(gap -> {
+            // any events sent while disconnected were missed
+            invalidateAll();
+            this.disconnected.remove(producer);
+        });
+    }
+
+    private void handlePreNetworkSync(PreNetworkSyncEvent event) {
+        UUID uniqueId = event.specificUserUniqueId();
+        if (uniqueId != null) {
+            invalidate(uniqueId);
+        } else {
+            invalidateAll();
+        }
+    }
+
+    private void handlePostNetworkSync(PostNetworkSyncEvent event) {
+        if (!event.didSyncOccur()) {
+            return;
+        }
+
+        UUID uniqueId = event.specificUserUniqueId();
+        if (uniqueId != null) {
+            invalidate(uniqueId);
+        } else {
+            invalidateAll();
+        }
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        String method = request.method();
+        if (method.equals("GET") || method.equals("HEAD")) {
+            return chain.proceed(request);
+        }
+
+        // invalidate after the request has completed, so that any concurrent
+        // loads that started before the write are discarded
+        try {
+            return chain.proceed(request);
+        } finally {
+            handleWrite(request.url().pathSegments());
+        }
+    }
+
+    private void handleWrite(List<String> path) {
+        if (path.size() >= 3 && path.get(2).equals("permission-check")) {
+            return;
+        }
+
+        String type = path.get(0);
+        if (type.equals("user") && path.size() >= 2) {
+            UUID uniqueId;
+            try {
+                uniqueId = UUID.fromString(path.get(1));
+            } catch (IllegalArgumentException e) {
+                return;
+            }
+            invalidate(uniqueId);
+        } else if (type.equals("group")) {
+            // group changes can affect the inherited data of any user
+            invalidateAll();
+        }
+    }
+
+    private void closeProducers() {
+        for (EventProducer<?> producer : this.producers) {
+            producer.close();
+        }
+        this.producers.clear();
+        this.disconnected.clear();
+    }
+
+    @Override
+    public synchronized void close() {
+        this.closed = true;
+        this.subscribed = false;
+        closeProducers();
+    }
+
+    /**
+     * A cache that can be invalidated by a {@link CacheInvalidator}.
+     */
+    interface Target {
+
+        void invalidate(UUID uniqueId);
+
+        void invalidateAll();
+
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest;
+
+import okhttp3.Request;
+import okio.Timeout;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * A {@link Call} which is served from a {@link BoundedCache} if possible, and otherwise
+ * populates the cache with the successful response of the delegate call.
+ *
+ * <p>Cached responses are passed to {@link #enqueue(Callback) enqueued} callbacks on the same
+ * executor as responses from the network.</p>
+ *
+ * @param <K> the cache key type
+ * @param <V> the response type
+ */
+class CachingCall<K, V> implements Call<V> {
+    private final Call<V> delegate;
+    private final BoundedCache<K, V> cache;
+    private final K key;
+    private final Executor callbackExecutor;
+
+    private volatile boolean executed;
+    private volatile boolean canceled;
+
+    CachingCall(Call<V> delegate, BoundedCache<K, V> cache, K key, Executor callbackExecutor) {
+        this.delegate = delegate;
+        this.cache = cache;
+        this.key = key;
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    private synchronized void markExecuted() {
+        if (this.executed) {
+            throw new IllegalStateException("Already executed.");
+        }
+        this.executed = true;
+    }
+
+    private void cacheResponse(Response<V> response, long generation) {
+        V body = response.body();
+        if (response.isSuccessful() && body != null) {
+            this.cache.put(this.key, body, generation);
+        }
+    }
+
+    @Override
+    public Response<V> execute() throws IOException {
+        markExecuted();
+        if (this.canceled) {
+            throw new IOException("Canceled");
+        }
+
+        V cached = this.cache.getIfPresent(this.key);
+        if (cached != null) {
+            return Response.success(cached);
+        }
+
+        long generation = this.cache.generation();
+        Response<V> response = this.delegate.execute();
+        cacheResponse(response, generation);
+        return response;
+    }
+
+    @Override
+    public void enqueue(Callback<V> callback) {
+        markExecuted();
+
+        V cached = this.cache.getIfPresent(this.key);
+        if (cached != null) {
+            try {
+                this.callbackExecutor.execute(() -> {
+                    if (this.canceled) {
+                        callback.onFailure(this, new IOException("Canceled"));
+                    } else {
+                        callback.onResponse(this, Response.success(cached));
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                InterruptedIOException exception = new InterruptedIOException("executor rejected");
+                exception.initCause(e);
+                callback.onFailure(this, exception);
+            }
+            return;
+        }
+
+        long generation = this.cache.generation();
+        this.delegate.enqueue(new Callback<V>() {
+            @Override
+            public void onResponse(Call<V> call, Response<V> response) {
+                cacheResponse(response, generation);
+                callback.onResponse(CachingCall.this, response);
+            }
+
+            @Override
+            public void onFailure(Call<V> call, Throwable t) {
+                callback.onFailure(CachingCall.this, t);
+            }
+        });
+    }
+
+    @Override
+    public boolean isExecuted() {
+        return this.executed;
+    }
+
+    @Override
+    public void cancel() {
+        this.canceled = true;
+        this.delegate.cancel();
+    }
+
+    @Override
+    public boolean isCanceled() {
+        return this.canceled || this.delegate.isCanceled();
+    }
+
+    @Override
+    public Call<V> clone() {
+        return new CachingCall<>(this.delegate.clone(), this.cache, this.key, this.callbackExecutor);
+    }
+
+    @Override
+    public Request request() {
+        return this.delegate.request();
+    }
+
+    @Override
+    public Timeout timeout() {
+        return this.delegate.timeout();
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest;
+
+import net.luckperms.rest.service.Calls;
+import okhttp3.Request;
+import okio.Timeout;
+import retrofit2.Call;
+import retrofit2.CallAdapter;
+import retrofit2.Callback;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.http.GET;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link CallAdapter.Factory} which collapses identical GET calls that are in flight at the
+ * same time into a single HTTP request.
+ *
+ * <p>The first call to execute becomes the "leader" and performs the request. Calls for the
+ * same URL that start before the leader completes wait for it and share its decoded response.
+ * Error responses are not shared, as their bodies can only be read once, so any waiting calls
+ * will perform their own request instead. The same applies if the leader is cancelled.</p>
+ *
+ * <p>Cancelling a waiting call releases it immediately; the leader is unaffected.</p>
+ */
+class CoalescingCallAdapterFactory extends CallAdapter.Factory {
+    private final ConcurrentHashMap<String, CompletableFuture<Response<?>>> inFlight = new ConcurrentHashMap<>();
+
+    @Override
+    public CallAdapter<?, ?> get(Type returnType, Annotation[] annotations, Retrofit retrofit) {
+        if (getRawType(returnType) != Call.class || !isGet(annotations)) {
+            return null;
+        }
+        // a lazily decoded body can only be consumed once
+        if (returnType instanceof ParameterizedType && StreamingConverterFactory.isStream(getParameterUpperBound(0, (ParameterizedType) returnType))) {
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        CallAdapter<Object, Call<Object>> delegate = (CallAdapter<Object, Call<Object>>) retrofit.nextCallAdapter(this, returnType, annotations);
+        return new CallAdapter<Object, Call<Object>>() {
+            @Override
+            public Type responseType() {
+                return delegate.responseType();
+            }
+
+            @Override
+            public Call<Object> adapt(Call<Object> call) {
+                return new CoalescingCall<>(delegate.adapt(call), delegate.responseType().getTypeName());
+            }
+        };
+    }
+
+    private static boolean isGet(Annotation[] annotations) {
+        for (Annotation annotation : annotations) {
+            if (annotation instanceof GET) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private final class CoalescingCall<T> implements Call<T> {
+        private final Call<T> delegate;
+        private final String responseType;
+
+        private volatile boolean executed;
+        private volatile boolean canceled;
+        private volatile CompletableFuture<Response<T>> waiting;
+
+        CoalescingCall(Call<T> delegate, String responseType) {
+            this.delegate = delegate;
+            this.responseType = responseType;
+        }
+
+        private synchronized void markExecuted() {
+            if (this.executed) {
+                throw new IllegalStateException("Already executed.");
+            }
+            this.executed = true;
+        }
+
+        private String key() {
+            Request request = this.delegate.request();
+            return request.method() + ' ' + request.url() + ' ' + this.responseType;
+        }
+
+        @SuppressWarnings("unchecked")
+        private CompletableFuture<Response<T>> register(String key, CompletableFuture<Response<T>> future) {
+            return (CompletableFuture<Response<T>>) (CompletableFuture<?>) CoalescingCallAdapterFactory.this.inFlight.putIfAbsent(key, (CompletableFuture<Response<?>>) (CompletableFuture<?>) future);
+        }
+
+        private void unregister(String key, CompletableFuture<Response<T>> future) {
+            CoalescingCallAdapterFactory.this.inFlight.remove(key, future);
+        }
+
+        @Override
+        public Response<T> execute() throws IOException {
+            markExecuted();
+
+            String key = key();
+            CompletableFuture<Response<T>> future = new CompletableFuture<>();
+            CompletableFuture<Response<T>> leader = register(key, future);
+
+            if (leader != null) {
+                Response<T> response = Calls.await(follow(leader));
+                if (this.canceled) {
+                    throw new IOException("Canceled");
+                }
+                if (response != null && response.isSuccessful()) {
+                    return response;
+                }
+                return this.delegate.execute();
+            }
+
+            // unregister before completing, so that no call can follow a result that has already
+            // been delivered
+            Response<T> response;
+            try {
+                response = this.delegate.execute();
+            } catch (Throwable e) {
+                unregister(key, future);
+                fail(future, e);
+                throw e;
+            }
+            unregister(key, future);
+            future.complete(response);
+            return response;
+        }
+
+        /**
+         * Returns a future which completes with the leader's result, or exceptionally if
+         * this call is cancelled first.
+         */
+        private CompletableFuture<Response<T>> follow(CompletableFuture<Response<T>> leader) {
+            CompletableFuture<Response<T>> waiting = new CompletableFuture<>();
+            leader.whenComplete((response, error) -> {
+                if (error != null) {
+                    waiting.completeExceptionally(error);
+                } else {
+                    waiting.complete(response);
+                }
+            });
+            this.waiting = waiting;
+            if (this.canceled) {
+                waiting.completeExceptionally(new IOException("Canceled"));
+            }
+            return waiting;
+        }
+
+        private void fail(CompletableFuture<Response<T>> future, Throwable error) {
+            if (this.delegate.isCanceled()) {
+                // let the waiting calls make their own request
+                future.complete(null);
+            } else {
+                future.completeExceptionally(error);
+            }
+        }
+
+        @Override
+        public void enqueue(Callback<T> callback) {
+            markExecuted();
+
+            String key = key();
+            CompletableFuture<Response<T>> future = new CompletableFuture<>();
+            CompletableFuture<Response<T>> leader = register(key, future);
+
+            if (leader != null) {
+                follow(leader).whenComplete((response, error) -> {
+                    if (this.canceled) {
+                        callback.onFailure(this, new IOException("Canceled"));
+                    } else if (error != null) {
+                        callback.onFailure(this, error);
+                    } else if (response != null && response.isSuccessful()) {
+                        callback.onResponse(this, response);
+                    } else {
+                        this.delegate.enqueue(forwardTo(callback));
+                    }
+                });
+                return;
+            }
+
+            this.delegate.enqueue(new Callback<T>() {
+                @Override
+                public void onResponse(Call<T> call, Response<T> response) {
+                    unregister(key, future);
+                    future.complete(response);
+                    callback.onResponse(CoalescingCall.this, response);
+                }
+
+                @Override
+                public void onFailure(Call<T> call, Throwable t) {
+                    unregister(key, future);
+                    fail(future, t);
+                    callback.onFailure(CoalescingCall.this, t);
+                }
+            });
+        }
+
+        private Callback<T> forwardTo(Callback<T> callback) {
+            return new Callback<T>() {
+                @Override
+                public void onResponse(Call<T> call, Response<T> response) {
+                    callback.onResponse(CoalescingCall.this, response);
+                }
+
+                @Override
+                public void onFailure(Call<T> call, Throwable t) {
+                    callback.onFailure(CoalescingCall.this, t);
+                }
+            };
+        }
+
+        @Override
+        public boolean isExecuted() {
+            return this.executed;
+        }
+
+        @Override
+        public void cancel() {
+            this.canceled = true;
+            CompletableFuture<Response<T>> waiting = this.waiting;
+            if (waiting != null) {
+                waiting.completeExceptionally(new IOException("Canceled"));
+            }
+            this.delegate.cancel();
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return this.canceled || this.delegate.isCanceled();
+        }
+
+        @Override
+        public Call<T> clone() {
+            return new CoalescingCall<>(this.delegate.clone(), this.responseType);
+        }
+
+        @Override
+        public Request request() {
+            return this.delegate.request();
+        }
+
+        @Override
+        public Timeout timeout() {
+            return this.delegate.timeout();
+        }
+    }
+}
@@ -25,35 +25,21 @@
 
 package net.luckperms.rest;
 
-import com.google.gson.Gson;
-import com.launchdarkly.eventsource.ConnectStrategy;
-import com.launchdarkly.eventsource.EventSource;
-import com.launchdarkly.eventsource.FaultEvent;
-import com.launchdarkly.eventsource.MessageEvent;
-import com.launchdarkly.eventsource.StreamEvent;
 import net.luckperms.rest.event.EventCall;
 import net.luckperms.rest.event.EventProducer;
 import okhttp3.HttpUrl;
-import okhttp3.OkHttpClient;
 import retrofit2.Call;
 import retrofit2.CallAdapter;
 
 import java.lang.reflect.Type;
-import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.Executor;
-import java.util.concurrent.ExecutorService;
-import java.util.function.Consumer;
 
 class EventCallAdapter implements CallAdapter<Object, EventCall<?>> {
     private final Type eventType;
-    private final OkHttpClient client;
-    private final ExecutorService executorService;
+    private final EventCallAdapterFactory factory;
 
-    EventCallAdapter(Type eventType, OkHttpClient client, ExecutorService executorService) {
+    EventCallAdapter(Type eventType, EventCallAdapterFactory factory) {
         this.eventType = eventType;
-        this.client = client;
-        this.executorService = executorService;
+        this.factory = factory;
     }
 
     @Override
@@ -63,109 +49,23 @@ class EventCallAdapter implements CallAdapter<Object, EventCall<?>> {
 
     @Override
     public EventCall<Object> adapt(Call<Object> call) {
-        return new EventCallImpl<>(call.request().url(), this.eventType, this.client, this.executorService);
+        return new EventCallImpl<>(call.request().url(), this.eventType, this.factory);
     }
 
     private static final class EventCallImpl<E> implements EventCall<E> {
         private final HttpUrl url;
         private final Type eventType;
-        private final OkHttpClient client;
-        private final Executor executor;
+        private final EventCallAdapterFactory factory;
 
-        EventCallImpl(HttpUrl url, Type eventType, OkHttpClient client, Executor executor) {
+        EventCallImpl(HttpUrl url, Type eventType, EventCallAdapterFactory factory) {
             this.url = url;
             this.eventType = eventType;
-            this.client = client;
-            this.executor = executor;
+            this.factory = factory;
         }
 
         @Override
         public EventProducer<E> subscribe() throws Exception {
-            EventSource eventSource = new EventSource.Builder(ConnectStrategy.http(this.url).httpClient(this.client)).build();
-            eventSource.start();
-
-            return new EventProducerImpl<>(eventSource, this.eventType, this.executor);
-        }
-    }
-
-    private static final class EventProducerImpl<E> implements EventProducer<E> {
-        private static final Gson GSON = new Gson();
-
-        private final EventSource eventSource;
-        private final Type eventType;
-
-        private final List<Consumer<E>> handlers;
-        private final List<Consumer<Exception>> errorHandlers;
-
-        private EventProducerImpl(EventSource eventSource, Type eventType, Executor executor) {
-            this.eventSource = eventSource;
-            this.eventType = eventType;
-            this.handlers = new CopyOnWriteArrayList<>();
-            this.errorHandlers = new CopyOnWriteArrayList<>();
-
-            executor.execute(this::pollForEvents);
-        }
-
-        private void pollForEvents() {
-            try {
-                for (StreamEvent event : this.eventSource.anyEvents()) {
-                    if (event instanceof MessageEvent) {
-                        handleMessage((MessageEvent) event);
-                    } else if (event instanceof FaultEvent) {
-                        handleError(((FaultEvent) event).getCause());
-                    }
-                }
-            } catch (Exception e) {
-                handleError(e);
-            }
-        }
-
-        private void handleMessage(MessageEvent e) {
-            String eventName = e.getEventName();
-            if (!eventName.equals("message")) {
-                return;
-            }
-
-            E parsedEvent;
-            try {
-                parsedEvent = GSON.fromJson(e.getData(), this.eventType);
-            } catch (Exception ex) {
-                handleError(ex);
-                return;
-            }
-
-            for (Consumer<E> handler : this.handlers) {
-                try {
-                    handler.accept(parsedEvent);
-                } catch (Exception ex) {
-                    handleError(ex);
-                }
-            }
-        }
-
-        private void handleError(Exception e) {
-            for (Consumer<Exception> errorHandler : this.errorHandlers) {
-                try {
-                    errorHandler.accept(e);
-                } catch (Exception ex) {
-                    // ignore
-                }
-            }
-        }
-
-        @Override
-        public void subscribe(Consumer<E> consumer) {
-            this.handlers.add(consumer);
-        }
-
-        @Override
-        public void errorHandler(Consumer<Exception> errorHandler) {
-            this.errorHandlers.add(errorHandler);
-        }
-
-        @Override
-        public void close() {
-            this.eventSource.close();
+            return this.factory.subscribe(this.url, this.eventType);
         }
     }
 
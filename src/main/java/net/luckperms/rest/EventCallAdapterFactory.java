@@ -25,7 +25,12 @@
 
 package net.luckperms.rest;
 
+import com.google.gson.Gson;
+import com.launchdarkly.eventsource.ConnectStrategy;
+import com.launchdarkly.eventsource.EventSource;
 import net.luckperms.rest.event.EventCall;
+import net.luckperms.rest.event.EventProducer;
+import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
 import retrofit2.CallAdapter;
 import retrofit2.Retrofit;
@@ -33,16 +38,34 @@ import retrofit2.Retrofit;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 class EventCallAdapterFactory extends CallAdapter.Factory implements AutoCloseable {
     private final OkHttpClient client;
-    private final ExecutorService executorService;
+    private final Gson gson;
+    private final Executor readerExecutor;
+    private final ExecutorService ownedReaderExecutor;
+    private final Executor handlerExecutor;
 
-    EventCallAdapterFactory(OkHttpClient client) {
+    // one connection per endpoint, shared by all subscriptions
+    private final ConcurrentHashMap<String, EventStream> streams = new ConcurrentHashMap<>();
+
+    EventCallAdapterFactory(OkHttpClient client, Gson gson, Executor readerExecutor, Executor handlerExecutor) {
         this.client = client;
-        this.executorService = Executors.newCachedThreadPool();
+        this.gson = gson;
+        if (readerExecutor != null) {
+            this.readerExecutor = readerExecutor;
+            this.ownedReaderExecutor = null;
+        } else {
+            this.ownedReaderExecutor = Executors.newCachedThreadPool(new ReaderThreadFactory());
+            this.readerExecutor = this.ownedReaderExecutor;
+        }
+        this.handlerExecutor = handlerExecutor;
     }
 
     @Override
@@ -56,11 +79,42 @@ class EventCallAdapterFactory extends CallAdapter.Factory implements AutoCloseab
         }
 
         Type responseType = getParameterUpperBound(0, (ParameterizedType) returnType);
-        return new EventCallAdapter(responseType, this.client, this.executorService);
+        return new EventCallAdapter(responseType, this);
+    }
+
+    <E> EventProducer<E> subscribe(HttpUrl url, Type eventType) throws Exception {
+        String key = url + " " + eventType.getTypeName();
+        while (true) {
+            EventStream stream = this.streams.computeIfAbsent(key, k -> createStream(k, url, eventType));
+            EventProducer<E> producer = stream.join(this.readerExecutor);
+            if (producer != null) {
+                return producer;
+            }
+
+            // the stream closed before we could join it
+            this.streams.remove(key, stream);
+        }
+    }
+
+    private EventStream createStream(String key, HttpUrl url, Type eventType) {
+        EventSource.Builder eventSourceBuilder = new EventSource.Builder(ConnectStrategy.http(url).httpClient(this.client));
+        Executor bufferedExecutor = this.handlerExecutor != null ? this.handlerExecutor : this.readerExecutor;
+        return new EventStream(eventSourceBuilder, this.gson, eventType, this.handlerExecutor, bufferedExecutor, stream -> this.streams.remove(key, stream));
     }
 
     @Override
     public void close() {
-        this.executorService.shutdown();
+        if (this.ownedReaderExecutor != null) {
+            this.ownedReaderExecutor.shutdown();
+        }
+    }
+
+    private static final class ReaderThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            return new Thread(r, "luckperms-rest-event-reader-" + this.counter.getAndIncrement());
+        }
     }
 }
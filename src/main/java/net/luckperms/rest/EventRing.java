@@ -0,0 +1,255 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest;
+
+import net.luckperms.rest.event.EventSubscription;
+import net.luckperms.rest.event.OverflowPolicy;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * A single-writer, multi-reader ring buffer used to fan events out to buffered subscribers.
+ *
+ * <p>The writer publishes each event into the next slot. Every subscriber tracks its own
+ * sequence through the ring and is drained on an executor, so a slow subscriber only
+ * affects itself, unless it uses {@link OverflowPolicy#BLOCK}. In that case the writer parks
+ * until the subscriber has consumed enough to free a slot.</p>
+ *
+ * @param <T> the event type
+ */
+class EventRing<T> {
+    static final int DEFAULT_CAPACITY = 1024;
+
+    /** Upper bound on a single park while blocked, in case a wake up is missed */
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final AtomicReferenceArray<Slot<T>> slots;
+    private final int mask;
+    private final Executor executor;
+
+    /** The sequence of the last published event, written only by the publishing thread */
+    private final AtomicLong cursor = new AtomicLong(-1);
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    /** The publishing thread, while it is waiting for a blocking subscriber */
+    private volatile Thread blockedWriter;
+
+    EventRing(int capacity, Executor executor) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two");
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+        this.executor = executor;
+    }
+
+    int capacity() {
+        return this.mask + 1;
+    }
+
+    boolean hasSubscribers() {
+        return !this.subscribers.isEmpty();
+    }
+
+    /**
+     * Publishes an event. Must only be called from a single thread.
+     *
+     * @param event the event
+     */
+    void publish(T event) {
+        long sequence = this.cursor.get() + 1;
+
+        for (Subscriber subscriber : this.subscribers) {
+            if (subscriber.policy == OverflowPolicy.BLOCK) {
+                awaitCapacity(subscriber, sequence);
+            }
+        }
+
+        this.slots.set((int) sequence & this.mask, new Slot<>(sequence, event));
+        this.cursor.set(sequence);
+
+        for (Subscriber subscriber : this.subscribers) {
+            subscriber.signal();
+        }
+    }
+
+    private void awaitCapacity(Subscriber subscriber, long sequence) {
+        if (sequence - subscriber.consumed.get() <= capacity()) {
+            return;
+        }
+
+        this.blockedWriter = Thread.currentThread();
+        try {
+            while (sequence - subscriber.consumed.get() > capacity() && !subscriber.closed) {
+                subscriber.signal();
+                LockSupport.parkNanos(this, BLOCK_PARK_NANOS);
+            }
+        } finally {
+            this.blockedWriter = null;
+        }
+    }
+
+    private void wakeWriter() {
+        Thread writer = this.blockedWriter;
+        if (writer != null) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    /**
+     * Subscribes a consumer to events published after this call.
+     *
+     * @param consumer the consumer
+     * @param policy the overflow policy
+     * @param errorHandler called with any exception thrown by the consumer
+     * @return the subscription
+     */
+    EventSubscription subscribe(Consumer<? super T> consumer, OverflowPolicy policy, Consumer<Exception> errorHandler) {
+        Subscriber subscriber = new Subscriber(consumer, policy, errorHandler, this.cursor.get());
+        this.subscribers.add(subscriber);
+        return subscriber;
+    }
+
+    void closeAll() {
+        for (Subscriber subscriber : this.subscribers) {
+            subscriber.close();
+        }
+    }
+
+    private static final class Slot<T> {
+        private final long sequence;
+        private final T value;
+
+        Slot(long sequence, T value) {
+            this.sequence = sequence;
+            this.value = value;
+        }
+    }
+
+    private final class Subscriber implements EventSubscription, Runnable {
+        private final Consumer<? super T> consumer;
+        private final OverflowPolicy policy;
+        private final Consumer<Exception> errorHandler;
+
+        /** The sequence of the last event consumed (or skipped) by this subscriber */
+        private final AtomicLong consumed;
+        private final AtomicBoolean scheduled = new AtomicBoolean(false);
+        private final LongAdder dropped = new LongAdder();
+        private volatile boolean closed = false;
+
+        Subscriber(Consumer<? super T> consumer, OverflowPolicy policy, Consumer<Exception> errorHandler, long cursor) {
+            this.consumer = consumer;
+            this.policy = policy;
+            this.errorHandler = errorHandler;
+            this.consumed = new AtomicLong(cursor);
+        }
+
+        void signal() {
+            if (!this.closed && this.scheduled.compareAndSet(false, true)) {
+                try {
+                    EventRing.this.executor.execute(this);
+                } catch (RuntimeException e) {
+                    this.scheduled.set(false);
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                drain();
+            } finally {
+                this.scheduled.set(false);
+            }
+
+            // events may have been published after the last check
+            if (EventRing.this.cursor.get() > this.consumed.get()) {
+                signal();
+            }
+        }
+
+        private void drain() {
+            while (!this.closed) {
+                long head = EventRing.this.cursor.get();
+                long next = this.consumed.get() + 1;
+                if (next > head) {
+                    return;
+                }
+
+                if (head - next >= capacity()) {
+                    // the writer has lapped us
+                    next = skip(next, head);
+                }
+
+                Slot<T> slot = EventRing.this.slots.get((int) next & EventRing.this.mask);
+                if (slot.sequence != next) {
+                    // overwritten while we were reading, try again
+                    continue;
+                }
+
+                try {
+                    this.consumer.accept(slot.value);
+                } catch (Exception e) {
+                    this.errorHandler.accept(e);
+                }
+                this.consumed.set(next);
+                if (this.policy == OverflowPolicy.BLOCK) {
+                    wakeWriter();
+                }
+            }
+        }
+
+        private long skip(long next, long head) {
+            long target = this.policy == OverflowPolicy.COALESCE ? head : head - capacity() + 1;
+            if (target > next) {
+                this.dropped.add(target - next);
+                this.consumed.set(target - 1);
+                return target;
+            }
+            return next;
+        }
+
+        @Override
+        public long droppedEvents() {
+            return this.dropped.sum();
+        }
+
+        @Override
+        public void close() {
+            this.closed = true;
+            EventRing.this.subscribers.remove(this);
+            wakeWriter();
+        }
+    }
+}
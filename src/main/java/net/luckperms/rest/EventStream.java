@@ -0,0 +1,340 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest;
+
+import com.google.gson.Gson;
+import com.launchdarkly.eventsource.DefaultRetryDelayStrategy;
+import com.launchdarkly.eventsource.ErrorStrategy;
+import com.launchdarkly.eventsource.EventSource;
+import com.launchdarkly.eventsource.FaultEvent;
+import com.launchdarkly.eventsource.MessageEvent;
+import com.launchdarkly.eventsource.StartedEvent;
+import com.launchdarkly.eventsource.StreamEvent;
+import com.launchdarkly.eventsource.StreamException;
+import net.luckperms.rest.event.EventGap;
+import net.luckperms.rest.event.EventProducer;
+import net.luckperms.rest.event.EventSubscription;
+import net.luckperms.rest.event.OverflowPolicy;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * A single SSE connection, shared between all {@link EventProducer}s subscribed to the
+ * same endpoint.
+ *
+ * <p>The connection is opened when the first producer joins, and closed when the last
+ * producer is closed. Events are decoded at most once, then dispatched to every producer.
+ * Decoding is skipped entirely while nobody is listening.</p>
+ *
+ * <p>If a handler executor is set, each producer delivers to its handlers on that executor,
+ * one event at a time and in order, so slow handlers do not hold up the reader. Buffered
+ * subscriptions are always fed through an {@link EventRing}, each at its own pace.</p>
+ *
+ * <p>Once connected, the underlying source reconnects by itself after a failure. When that
+ * happens an {@link EventGap} is sent to every producer.</p>
+ */
+class EventStream {
+    private static final long RETRY_DELAY_SECONDS = 1;
+    private static final long MAX_RETRY_DELAY_SECONDS = 30;
+
+    private final EventSource eventSource;
+    private final ReconnectStrategy reconnectStrategy;
+    private final Gson gson;
+    private final Type eventType;
+    private final Consumer<EventStream> onClose;
+    private final Executor handlerExecutor;
+    private final EventRing<Object> ring;
+    private final List<Producer<?>> producers = new CopyOnWriteArrayList<>();
+
+    private boolean started = false;
+    private boolean closed = false;
+
+    /** The time the connection was lost, or 0 if connected. Only accessed by the reader */
+    private long disconnectedAt = 0;
+
+    EventStream(EventSource.Builder eventSourceBuilder, Gson gson, Type eventType, Executor handlerExecutor, Executor bufferedExecutor, Consumer<EventStream> onClose) {
+        this.reconnectStrategy = new ReconnectStrategy();
+        this.eventSource = eventSourceBuilder
+                .errorStrategy(this.reconnectStrategy)
+                .retryDelay(RETRY_DELAY_SECONDS, TimeUnit.SECONDS)
+                .retryDelayStrategy(DefaultRetryDelayStrategy.defaultStrategy()
+                        .maxDelay(MAX_RETRY_DELAY_SECONDS, TimeUnit.SECONDS)
+                        .backoffMultiplier(2))
+                .build();
+        this.gson = gson;
+        this.eventType = eventType;
+        this.handlerExecutor = handlerExecutor;
+        this.ring = new EventRing<>(EventRing.DEFAULT_CAPACITY, bufferedExecutor);
+        this.onClose = onClose;
+    }
+
+    /**
+     * Creates a new producer backed by this stream, starting the stream if necessary.
+     *
+     * @param executor the executor to run the reader on
+     * @return the producer, or null if the stream has already been closed
+     * @throws Exception if the connection could not be established
+     */
+    synchronized <E> EventProducer<E> join(Executor executor) throws Exception {
+        if (this.closed) {
+            return null;
+        }
+
+        if (!this.started) {
+            try {
+                this.eventSource.start();
+                this.reconnectStrategy.connected();
+                executor.execute(this::pollForEvents);
+            } catch (Exception e) {
+                close();
+                throw e;
+            }
+            this.started = true;
+        }
+
+        Producer<E> producer = new Producer<>();
+        this.producers.add(producer);
+        return producer;
+    }
+
+    private synchronized void leave(Producer<?> producer) {
+        if (this.producers.remove(producer) && this.producers.isEmpty()) {
+            close();
+        }
+    }
+
+    private synchronized void close() {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        this.onClose.accept(this);
+        this.eventSource.close();
+        this.ring.closeAll();
+    }
+
+    private synchronized boolean isClosed() {
+        return this.closed;
+    }
+
+    private void pollForEvents() {
+        try {
+            for (StreamEvent event : this.eventSource.anyEvents()) {
+                if (event instanceof MessageEvent) {
+                    handleMessage((MessageEvent) event);
+                } else if (event instanceof FaultEvent) {
+                    if (this.disconnectedAt == 0) {
+                        this.disconnectedAt = System.currentTimeMillis();
+                    }
+                    handleError(((FaultEvent) event).getCause());
+                } else if (event instanceof StartedEvent && this.disconnectedAt != 0) {
+                    EventGap gap = new EventGap(this.eventSource.getLastEventId(), this.disconnectedAt, System.currentTimeMillis());
+                    this.disconnectedAt = 0;
+                    handleGap(gap);
+                }
+            }
+        } catch (Exception e) {
+            if (!isClosed()) {
+                handleError(e);
+            }
+        } finally {
+            close();
+        }
+    }
+
+    private void handleMessage(MessageEvent e) {
+        String eventName = e.getEventName();
+        if (!eventName.equals("message")) {
+            return;
+        }
+
+        if (!hasListeners()) {
+            return;
+        }
+
+        Object parsedEvent;
+        try {
+            parsedEvent = this.gson.fromJson(e.getData(), this.eventType);
+        } catch (Exception ex) {
+            handleError(ex);
+            return;
+        }
+
+        for (Producer<?> producer : this.producers) {
+            producer.handleEvent(parsedEvent);
+        }
+        if (this.ring.hasSubscribers()) {
+            this.ring.publish(parsedEvent);
+        }
+    }
+
+    private boolean hasListeners() {
+        if (this.ring.hasSubscribers()) {
+            return true;
+        }
+        for (Producer<?> producer : this.producers) {
+            if (!producer.handlers.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void handleError(Exception e) {
+        for (Producer<?> producer : this.producers) {
+            producer.handleError(e);
+        }
+    }
+
+    private void handleGap(EventGap gap) {
+        for (Producer<?> producer : this.producers) {
+            producer.handleGap(gap);
+        }
+    }
+
+    private final class Producer<E> implements EventProducer<E> {
+        private final List<Consumer<E>> handlers = new CopyOnWriteArrayList<>();
+        private final List<Consumer<Exception>> errorHandlers = new CopyOnWriteArrayList<>();
+        private final List<Consumer<EventGap>> gapHandlers = new CopyOnWriteArrayList<>();
+        private final List<EventSubscription> subscriptions = new CopyOnWriteArrayList<>();
+        private final Executor executor = EventStream.this.handlerExecutor == null ? null : new SerialExecutor(EventStream.this.handlerExecutor);
+
+        private void handleEvent(Object event) {
+            if (this.executor == null) {
+                dispatchEvent(event);
+            } else {
+                this.executor.execute(() -> dispatchEvent(event));
+            }
+        }
+
+        private void handleError(Exception e) {
+            if (this.executor == null) {
+                dispatchError(e);
+            } else {
+                this.executor.execute(() -> dispatchError(e));
+            }
+        }
+
+        private void handleGap(EventGap gap) {
+            if (this.executor == null) {
+                dispatchGap(gap);
+            } else {
+                this.executor.execute(() -> dispatchGap(gap));
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void dispatchEvent(Object event) {
+            for (Consumer<E> handler : this.handlers) {
+                try {
+                    handler.accept((E) event);
+                } catch (Exception ex) {
+                    dispatchError(ex);
+                }
+            }
+        }
+
+        private void dispatchError(Exception e) {
+            for (Consumer<Exception> errorHandler : this.errorHandlers) {
+                try {
+                    errorHandler.accept(e);
+                } catch (Exception ex) {
+                    // ignore
+                }
+            }
+        }
+
+        @Override
+        public void subscribe(Consumer<E> consumer) {
+            this.handlers.add(consumer);
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public EventSubscription subscribe(Consumer<E> consumer, OverflowPolicy overflowPolicy) {
+            Objects.requireNonNull(consumer, "consumer");
+            Objects.requireNonNull(overflowPolicy, "overflowPolicy");
+            if (overflowPolicy == OverflowPolicy.BLOCK && this.executor == null) {
+                // otherwise the subscriber is drained on the reader executor, which may be the one blocked
+                throw new IllegalStateException("OverflowPolicy.BLOCK requires an event handler executor");
+            }
+            EventSubscription subscription = EventStream.this.ring.subscribe(event -> consumer.accept((E) event), overflowPolicy, this::handleError);
+            this.subscriptions.add(subscription);
+            return subscription;
+        }
+
+        private void dispatchGap(EventGap gap) {
+            for (Consumer<EventGap> gapHandler : this.gapHandlers) {
+                try {
+                    gapHandler.accept(gap);
+                } catch (Exception ex) {
+                    dispatchError(ex);
+                }
+            }
+        }
+
+        @Override
+        public void errorHandler(Consumer<Exception> errorHandler) {
+            this.errorHandlers.add(errorHandler);
+        }
+
+        @Override
+        public void gapHandler(Consumer<EventGap> gapHandler) {
+            this.gapHandlers.add(gapHandler);
+        }
+
+        @Override
+        public void close() {
+            for (EventSubscription subscription : this.subscriptions) {
+                subscription.close();
+            }
+            leave(this);
+        }
+    }
+
+    /**
+     * Fails fast if the initial connection can't be made, so that subscribing reports the
+     * error, but keeps retrying after the stream has been established.
+     */
+    private static final class ReconnectStrategy extends ErrorStrategy {
+        private volatile boolean connected = false;
+
+        void connected() {
+            this.connected = true;
+        }
+
+        @Override
+        public Result apply(StreamException exception) {
+            return new Result(this.connected ? Action.CONTINUE : Action.THROW, this);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest;
+
+import com.google.gson.reflect.TypeToken;
+import net.luckperms.rest.service.Calls;
+import retrofit2.Call;
+import retrofit2.CallAdapter;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * A {@link CallAdapter.Factory} for service methods returning {@link CompletableFuture}.
+ *
+ * <p>Calls are enqueued on the OkHttp dispatcher, so no thread is held while a request is in
+ * flight. Futures are completed using the configured executor, or directly on the OkHttp
+ * callback thread if none was set. Cancelling a future cancels the underlying call.</p>
+ *
+ * <p>The call is first adapted by the next {@link CallAdapter} for the equivalent
+ * {@code Call<Foo>} return type, so adapters registered later (such as the
+ * {@link CoalescingCallAdapterFactory}) also apply to asynchronous calls.</p>
+ */
+class FutureCallAdapterFactory extends CallAdapter.Factory {
+    private final Executor executor;
+
+    FutureCallAdapterFactory(Executor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public CallAdapter<?, ?> get(Type returnType, Annotation[] annotations, Retrofit retrofit) {
+        if (getRawType(returnType) != CompletableFuture.class) {
+            return null;
+        }
+        if (!(returnType instanceof ParameterizedType)) {
+            throw new IllegalStateException("CompletableFuture return type must be parameterized as CompletableFuture<Foo> or CompletableFuture<? extends Foo>");
+        }
+
+        Type innerType = getParameterUpperBound(0, (ParameterizedType) returnType);
+        boolean wrapResponse = getRawType(innerType) == Response.class;
+        if (wrapResponse) {
+            if (!(innerType instanceof ParameterizedType)) {
+                throw new IllegalStateException("Response must be parameterized as Response<Foo> or Response<? extends Foo>");
+            }
+            innerType = getParameterUpperBound(0, (ParameterizedType) innerType);
+        }
+
+        Type callType = TypeToken.getParameterized(Call.class, innerType).getType();
+        @SuppressWarnings("unchecked")
+        CallAdapter<Object, Call<Object>> delegate = (CallAdapter<Object, Call<Object>>) retrofit.nextCallAdapter(this, callType, annotations);
+        return new FutureCallAdapter(delegate, wrapResponse);
+    }
+
+    private final class FutureCallAdapter implements CallAdapter<Object, CompletableFuture<?>> {
+        private final CallAdapter<Object, Call<Object>> delegate;
+        private final boolean wrapResponse;
+
+        FutureCallAdapter(CallAdapter<Object, Call<Object>> delegate, boolean wrapResponse) {
+            this.delegate = delegate;
+            this.wrapResponse = wrapResponse;
+        }
+
+        @Override
+        public Type responseType() {
+            return this.delegate.responseType();
+        }
+
+        @Override
+        public CompletableFuture<?> adapt(Call<Object> rawCall) {
+            Call<Object> call = this.delegate.adapt(rawCall);
+            if (this.wrapResponse) {
+                return Calls.enqueueForResponse(call, FutureCallAdapterFactory.this.executor);
+            }
+            return Calls.enqueue(call, FutureCallAdapterFactory.this.executor);
+        }
+    }
+}
@@ -25,7 +25,19 @@
 
 package net.luckperms.rest;
 
+import com.google.gson.GsonBuilder;
+import net.luckperms.rest.batch.NodeWriteBatcher;
+import net.luckperms.rest.cache.PermissionCheckCache;
+import net.luckperms.rest.cache.UserCache;
+import net.luckperms.rest.model.ModelTypeAdapterFactory;
+import net.luckperms.rest.model.PermissionCheckRequest;
 import net.luckperms.rest.service.ActionService;
+import net.luckperms.rest.service.AsyncActionService;
+import net.luckperms.rest.service.AsyncGroupService;
+import net.luckperms.rest.service.AsyncMessagingService;
+import net.luckperms.rest.service.AsyncMiscService;
+import net.luckperms.rest.service.AsyncTrackService;
+import net.luckperms.rest.service.AsyncUserService;
 import net.luckperms.rest.service.EventService;
 import net.luckperms.rest.service.GroupService;
 import net.luckperms.rest.service.MessagingService;
@@ -34,6 +46,10 @@ import net.luckperms.rest.service.TrackService;
 import net.luckperms.rest.service.UserService;
 import okhttp3.OkHttpClient;
 
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 /**
@@ -101,6 +117,38 @@ public interface LuckPermsRestClient extends AutoCloseable {
      */
     MiscService misc();
 
+    /**
+     * Gets the asynchronous variants of the services, which return {@link CompletableFuture}s
+     * instead of calls.
+     *
+     * @return the async services
+     */
+    Async async();
+
+    /**
+     * Gets the user cache.
+     *
+     * @return the user cache
+     * @throws IllegalStateException if the cache was not enabled using {@link Builder#userCache(long, long, TimeUnit)}
+     */
+    UserCache userCache();
+
+    /**
+     * Gets the permission check cache.
+     *
+     * @return the permission check cache
+     * @throws IllegalStateException if the cache was not enabled using {@link Builder#permissionCheckCache(long, long, TimeUnit)}
+     */
+    PermissionCheckCache permissionCheckCache();
+
+    /**
+     * Gets the node write batcher.
+     *
+     * @return the node write batcher
+     * @throws IllegalStateException if batching was not enabled using {@link Builder#nodeWriteBatching(long, TimeUnit)}
+     */
+    NodeWriteBatcher nodeWriteBatcher();
+
     /**
      * Close the underlying resources used by the client.
      */
@@ -136,6 +184,108 @@ public interface LuckPermsRestClient extends AutoCloseable {
          */
         Builder httpClientConfigurer(Consumer<OkHttpClient.Builder> clientConfigurer);
 
+        /**
+         * Sets a custom Gson configurer.
+         *
+         * <p>The configurer is given a builder derived from {@link ModelTypeAdapterFactory#gson()},
+         * and can register additional type adapters. The resulting instance is used to decode
+         * all responses and events for this client. Adapters registered here take precedence
+         * over the built-in model adapters.</p>
+         *
+         * @param gsonConfigurer the Gson configurer
+         * @return this builder
+         */
+        Builder gsonConfigurer(Consumer<GsonBuilder> gsonConfigurer);
+
+        /**
+         * Sets the executor used to complete the futures returned by the {@link LuckPermsRestClient#async() async}
+         * services.
+         *
+         * <p>By default, futures are completed directly on the HTTP client's callback threads,
+         * so any dependent stages should avoid blocking.</p>
+         *
+         * @param asyncExecutor the executor
+         * @return this builder
+         */
+        Builder asyncExecutor(Executor asyncExecutor);
+
+        /**
+         * Sets the executor used to read from event stream connections.
+         *
+         * <p>Each open event stream holds one task on this executor for as long as it is
+         * connected. Subscriptions to the same event share a connection, so at most one task
+         * is used per event type. On Java 21+, a virtual thread executor is a good fit.</p>
+         *
+         * <p>By default, a cached thread pool is used.</p>
+         *
+         * @param eventReaderExecutor the executor
+         * @return this builder
+         */
+        Builder eventReaderExecutor(Executor eventReaderExecutor);
+
+        /**
+         * Sets the executor used to pass events to subscribers.
+         *
+         * <p>Events are delivered to each {@link net.luckperms.rest.event.EventProducer} one at a
+         * time and in order, but separate producers may run concurrently. This stops slow
+         * handlers from blocking the connection reader.</p>
+         *
+         * <p>By default, handlers are called directly on the reader thread.</p>
+         *
+         * @param eventHandlerExecutor the executor
+         * @return this builder
+         */
+        Builder eventHandlerExecutor(Executor eventHandlerExecutor);
+
+        /**
+         * Sets whether identical GET requests that are in flight at the same time should be
+         * collapsed into a single HTTP request, with the decoded response shared between
+         * all callers.
+         *
+         * <p>Disabled by default. When enabled, callers must not mutate the returned
+         * objects, as they may be shared.</p>
+         *
+         * @param requestCoalescing true to enable request coalescing
+         * @return this builder
+         */
+        Builder requestCoalescing(boolean requestCoalescing);
+
+        /**
+         * Enables a cache for {@link UserService#get(UUID)} lookups.
+         *
+         * @param maximumSize the maximum number of users to hold in the cache
+         * @param expireAfterWrite how long users should be cached for
+         * @param unit the unit of {@code expireAfterWrite}
+         * @return this builder
+         * @see LuckPermsRestClient#userCache()
+         */
+        Builder userCache(long maximumSize, long expireAfterWrite, TimeUnit unit);
+
+        /**
+         * Enables a cache for {@link UserService#permissionCheck(UUID, PermissionCheckRequest)} results.
+         *
+         * @param maximumSize the maximum number of results to hold in the cache
+         * @param expireAfterWrite how long results should be cached for
+         * @param unit the unit of {@code expireAfterWrite}
+         * @return this builder
+         * @see LuckPermsRestClient#permissionCheckCache()
+         */
+        Builder permissionCheckCache(long maximumSize, long expireAfterWrite, TimeUnit unit);
+
+        /**
+         * Enables batching of single node writes made using the {@link NodeWriteBatcher}.
+         *
+         * <p>Writes are held for up to {@code window} before being sent, and all writes for
+         * the same user or group within the window are combined into as few requests as
+         * possible. Pending writes are flushed when the client is closed.</p>
+         *
+         * @param window how long to buffer writes for
+         * @param unit the unit of {@code window}
+         * @return this builder
+         * @see LuckPermsRestClient#nodeWriteBatcher()
+         */
+        Builder nodeWriteBatching(long window, TimeUnit unit);
+
         /**
          * Builds a client.
          *
@@ -143,4 +293,56 @@ public interface LuckPermsRestClient extends AutoCloseable {
          */
         LuckPermsRestClient build();
     }
+
+    /**
+     * Asynchronous variants of the client services.
+     *
+     * <p>Requests are sent without blocking the calling thread, and the returned futures are
+     * completed exceptionally with a {@link retrofit2.HttpException} if the response is not
+     * successful.</p>
+     */
+    interface Async {
+
+        /**
+         * Gets the async user service.
+         *
+         * @return the async user service
+         */
+        AsyncUserService users();
+
+        /**
+         * Gets the async group service.
+         *
+         * @return the async group service
+         */
+        AsyncGroupService groups();
+
+        /**
+         * Gets the async track service.
+         *
+         * @return the async track service
+         */
+        AsyncTrackService tracks();
+
+        /**
+         * Gets the async action service.
+         *
+         * @return the async action service
+         */
+        AsyncActionService actions();
+
+        /**
+         * Gets the async messaging service.
+         *
+         * @return the async messaging service
+         */
+        AsyncMessagingService messaging();
+
+        /**
+         * Gets the async misc service.
+         *
+         * @return the async misc service
+         */
+        AsyncMiscService misc();
+    }
 }
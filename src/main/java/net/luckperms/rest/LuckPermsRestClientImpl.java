@@ -25,7 +25,19 @@
 
 package net.luckperms.rest;
 
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import net.luckperms.rest.batch.NodeWriteBatcher;
+import net.luckperms.rest.cache.PermissionCheckCache;
+import net.luckperms.rest.cache.UserCache;
+import net.luckperms.rest.model.ModelTypeAdapterFactory;
 import net.luckperms.rest.service.ActionService;
+import net.luckperms.rest.service.AsyncActionService;
+import net.luckperms.rest.service.AsyncGroupService;
+import net.luckperms.rest.service.AsyncMessagingService;
+import net.luckperms.rest.service.AsyncMiscService;
+import net.luckperms.rest.service.AsyncTrackService;
+import net.luckperms.rest.service.AsyncUserService;
 import net.luckperms.rest.service.EventService;
 import net.luckperms.rest.service.GroupService;
 import net.luckperms.rest.service.MessagingService;
@@ -41,12 +53,15 @@ import retrofit2.converter.gson.GsonConverterFactory;
 
 import java.io.IOException;
 import java.util.Objects;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 class LuckPermsRestClientImpl implements LuckPermsRestClient {
     private final OkHttpClient httpClient;
     private final EventCallAdapterFactory eventCallAdapterFactory;
+    private final CacheInvalidator cacheInvalidator;
 
     private final UserService userService;
     private final GroupService groupService;
@@ -55,30 +70,56 @@ class LuckPermsRestClientImpl implements LuckPermsRestClient {
     private final MessagingService messagingService;
     private final EventService eventService;
     private final MiscService miscService;
+    private final AsyncImpl async;
 
-    LuckPermsRestClientImpl(String baseUrl, String apiKey, Consumer<OkHttpClient.Builder> clientConfigurer) {
+    private final UserCacheImpl userCache;
+    private final PermissionCheckCacheImpl permissionCheckCache;
+    private final NodeWriteBatcherImpl nodeWriteBatcher;
+
+    LuckPermsRestClientImpl(BuilderImpl builder) {
         OkHttpClient.Builder clientBuilder = new OkHttpClient.Builder();
 
-        if (apiKey != null && !apiKey.isEmpty()) {
-            clientBuilder.addInterceptor(new AuthInterceptor(apiKey));
+        if (builder.apiKey != null && !builder.apiKey.isEmpty()) {
+            clientBuilder.addInterceptor(new AuthInterceptor(builder.apiKey));
+        }
+
+        if (builder.userCache != null || builder.permissionCheckCache != null) {
+            this.cacheInvalidator = new CacheInvalidator();
+            clientBuilder.addInterceptor(this.cacheInvalidator);
+        } else {
+            this.cacheInvalidator = null;
         }
 
         clientBuilder.readTimeout(60, TimeUnit.SECONDS);
 
-        if (clientConfigurer != null) {
-            clientConfigurer.accept(clientBuilder);
+        if (builder.clientConfigurer != null) {
+            builder.clientConfigurer.accept(clientBuilder);
         }
 
         this.httpClient = clientBuilder.build();
-        this.eventCallAdapterFactory = new EventCallAdapterFactory(this.httpClient);
 
-        Retrofit retrofit = new Retrofit.Builder()
+        Gson gson = ModelTypeAdapterFactory.gson();
+        if (builder.gsonConfigurer != null) {
+            GsonBuilder gsonBuilder = gson.newBuilder();
+            builder.gsonConfigurer.accept(gsonBuilder);
+            gson = gsonBuilder.create();
+        }
+        this.eventCallAdapterFactory = new EventCallAdapterFactory(this.httpClient, gson, builder.eventReaderExecutor, builder.eventHandlerExecutor);
+
+        Retrofit.Builder retrofitBuilder = new Retrofit.Builder()
                 .client(this.httpClient)
-                .baseUrl(baseUrl)
+                .baseUrl(builder.baseUrl)
                 .addCallAdapterFactory(this.eventCallAdapterFactory)
-                .addConverterFactory(GsonConverterFactory.create())
-                .validateEagerly(true)
-                .build();
+                .addCallAdapterFactory(new FutureCallAdapterFactory(builder.asyncExecutor))
+                .addConverterFactory(new StreamingConverterFactory(gson))
+                .addConverterFactory(GsonConverterFactory.create(gson))
+                .validateEagerly(true);
+
+        if (builder.requestCoalescing) {
+            retrofitBuilder.addCallAdapterFactory(new CoalescingCallAdapterFactory());
+        }
+
+        Retrofit retrofit = retrofitBuilder.build();
 
         this.userService = retrofit.create(UserService.class);
         this.groupService = retrofit.create(GroupService.class);
@@ -87,6 +128,31 @@ class LuckPermsRestClientImpl implements LuckPermsRestClient {
         this.messagingService = retrofit.create(MessagingService.class);
         this.eventService = retrofit.create(EventService.class);
         this.miscService = retrofit.create(MiscService.class);
+        this.async = new AsyncImpl(retrofit);
+
+        if (builder.userCache != null) {
+            this.userCache = new UserCacheImpl(this.userService, this.cacheInvalidator, builder.userCache.build(), this.httpClient.dispatcher().executorService());
+            this.cacheInvalidator.register(this.userCache);
+        } else {
+            this.userCache = null;
+        }
+
+        if (builder.permissionCheckCache != null) {
+            this.permissionCheckCache = new PermissionCheckCacheImpl(this.userService, this.cacheInvalidator, builder.permissionCheckCache.build(PermissionCheckKey::uniqueId), this.httpClient.dispatcher().executorService());
+            this.cacheInvalidator.register(this.permissionCheckCache);
+        } else {
+            this.permissionCheckCache = null;
+        }
+
+        if (this.cacheInvalidator != null) {
+            this.cacheInvalidator.start(this.eventService, this.httpClient.dispatcher().executorService());
+        }
+
+        if (builder.nodeWriteBatchWindow > 0) {
+            this.nodeWriteBatcher = new NodeWriteBatcherImpl(this.userService, this.groupService, builder.nodeWriteBatchWindow, builder.nodeWriteBatchWindowUnit);
+        } else {
+            this.nodeWriteBatcher = null;
+        }
     }
 
     @Override
@@ -123,8 +189,43 @@ class LuckPermsRestClientImpl implements LuckPermsRestClient {
         return this.miscService;
     }
 
+    @Override
+    public Async async() {
+        return this.async;
+    }
+
+    @Override
+    public UserCache userCache() {
+        if (this.userCache == null) {
+            throw new IllegalStateException("User cache is not enabled");
+        }
+        return this.userCache;
+    }
+
+    @Override
+    public PermissionCheckCache permissionCheckCache() {
+        if (this.permissionCheckCache == null) {
+            throw new IllegalStateException("Permission check cache is not enabled");
+        }
+        return this.permissionCheckCache;
+    }
+
+    @Override
+    public NodeWriteBatcher nodeWriteBatcher() {
+        if (this.nodeWriteBatcher == null) {
+            throw new IllegalStateException("Node write batching is not enabled");
+        }
+        return this.nodeWriteBatcher;
+    }
+
     @Override
     public void close() {
+        if (this.nodeWriteBatcher != null) {
+            this.nodeWriteBatcher.close();
+        }
+        if (this.cacheInvalidator != null) {
+            this.cacheInvalidator.close();
+        }
         this.httpClient.dispatcher().executorService().shutdown();
         this.httpClient.connectionPool().evictAll();
         this.eventCallAdapterFactory.close();
@@ -134,6 +235,15 @@ class LuckPermsRestClientImpl implements LuckPermsRestClient {
         private String baseUrl = null;
         private String apiKey = null;
         private Consumer<OkHttpClient.Builder> clientConfigurer = null;
+        private Consumer<GsonBuilder> gsonConfigurer = null;
+        private Executor asyncExecutor = null;
+        private Executor eventReaderExecutor = null;
+        private Executor eventHandlerExecutor = null;
+        private boolean requestCoalescing = false;
+        private CacheSpec userCache = null;
+        private CacheSpec permissionCheckCache = null;
+        private long nodeWriteBatchWindow = 0;
+        private TimeUnit nodeWriteBatchWindowUnit = null;
 
         BuilderImpl() {
 
@@ -157,10 +267,133 @@ class LuckPermsRestClientImpl implements LuckPermsRestClient {
             return this;
         }
 
+        @Override
+        public Builder gsonConfigurer(Consumer<GsonBuilder> gsonConfigurer) {
+            this.gsonConfigurer = gsonConfigurer;
+            return this;
+        }
+
+        @Override
+        public Builder asyncExecutor(Executor asyncExecutor) {
+            this.asyncExecutor = asyncExecutor;
+            return this;
+        }
+
+        @Override
+        public Builder eventReaderExecutor(Executor eventReaderExecutor) {
+            this.eventReaderExecutor = eventReaderExecutor;
+            return this;
+        }
+
+        @Override
+        public Builder eventHandlerExecutor(Executor eventHandlerExecutor) {
+            this.eventHandlerExecutor = eventHandlerExecutor;
+            return this;
+        }
+
+        @Override
+        public Builder requestCoalescing(boolean requestCoalescing) {
+            this.requestCoalescing = requestCoalescing;
+            return this;
+        }
+
+        @Override
+        public Builder userCache(long maximumSize, long expireAfterWrite, TimeUnit unit) {
+            this.userCache = new CacheSpec(maximumSize, expireAfterWrite, unit);
+            return this;
+        }
+
+        @Override
+        public Builder permissionCheckCache(long maximumSize, long expireAfterWrite, TimeUnit unit) {
+            this.permissionCheckCache = new CacheSpec(maximumSize, expireAfterWrite, unit);
+            return this;
+        }
+
+        @Override
+        public Builder nodeWriteBatching(long window, TimeUnit unit) {
+            if (window <= 0) {
+                throw new IllegalArgumentException("window must be positive");
+            }
+            this.nodeWriteBatchWindow = window;
+            this.nodeWriteBatchWindowUnit = Objects.requireNonNull(unit, "unit");
+            return this;
+        }
+
         @Override
         public LuckPermsRestClient build() {
             Objects.requireNonNull(this.baseUrl, "baseUrl must be configured!");
-            return new LuckPermsRestClientImpl(this.baseUrl, this.apiKey, this.clientConfigurer);
+            return new LuckPermsRestClientImpl(this);
+        }
+    }
+
+    static final class AsyncImpl implements Async {
+        private final AsyncUserService userService;
+        private final AsyncGroupService groupService;
+        private final AsyncTrackService trackService;
+        private final AsyncActionService actionService;
+        private final AsyncMessagingService messagingService;
+        private final AsyncMiscService miscService;
+
+        AsyncImpl(Retrofit retrofit) {
+            this.userService = retrofit.create(AsyncUserService.class);
+            this.groupService = retrofit.create(AsyncGroupService.class);
+            this.trackService = retrofit.create(AsyncTrackService.class);
+            this.actionService = retrofit.create(AsyncActionService.class);
+            this.messagingService = retrofit.create(AsyncMessagingService.class);
+            this.miscService = retrofit.create(AsyncMiscService.class);
+        }
+
+        @Override
+        public AsyncUserService users() {
+            return this.userService;
+        }
+
+        @Override
+        public AsyncGroupService groups() {
+            return this.groupService;
+        }
+
+        @Override
+        public AsyncTrackService tracks() {
+            return this.trackService;
+        }
+
+        @Override
+        public AsyncActionService actions() {
+            return this.actionService;
+        }
+
+        @Override
+        public AsyncMessagingService messaging() {
+            return this.messagingService;
+        }
+
+        @Override
+        public AsyncMiscService misc() {
+            return this.miscService;
+        }
+    }
+
+    static final class CacheSpec {
+        private final long maximumSize;
+        private final long expireAfterWrite;
+        private final TimeUnit unit;
+
+        CacheSpec(long maximumSize, long expireAfterWrite, TimeUnit unit) {
+            if (maximumSize <= 0) {
+                throw new IllegalArgumentException("maximumSize must be positive");
+            }
+            this.maximumSize = maximumSize;
+            this.expireAfterWrite = expireAfterWrite;
+            this.unit = Objects.requireNonNull(unit, "unit");
+        }
+
+        <K, V> BoundedCache<K, V> build() {
+            return new BoundedCache<>(this.maximumSize, this.expireAfterWrite, this.unit);
+        }
+
+        <K, V> BoundedCache<K, V> build(Function<? super K, ?> groupFunction) {
+            return new BoundedCache<>(this.maximumSize, this.expireAfterWrite, this.unit, groupFunction);
         }
     }
 
@@ -0,0 +1,359 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest;
+
+import net.luckperms.rest.batch.NodeWriteBatcher;
+import net.luckperms.rest.model.Node;
+import net.luckperms.rest.model.TemporaryNodeMergeStrategy;
+import net.luckperms.rest.service.Calls;
+import net.luckperms.rest.service.GroupService;
+import net.luckperms.rest.service.UserService;
+import retrofit2.Call;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+class NodeWriteBatcherImpl implements NodeWriteBatcher, AutoCloseable {
+    private static final long CLOSE_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final UserService userService;
+    private final GroupService groupService;
+    private final long windowNanos;
+    private final long closeTimeoutNanos;
+    private final ScheduledExecutorService scheduler;
+
+    // keyed by UUID for users and String for groups
+    private final Map<Object, Buffer> buffers = new HashMap<>();
+    private boolean closed = false;
+
+    NodeWriteBatcherImpl(UserService userService, GroupService groupService, long window, TimeUnit unit) {
+        this(userService, groupService, unit.toNanos(window), CLOSE_TIMEOUT_NANOS);
+    }
+
+    NodeWriteBatcherImpl(UserService userService, GroupService groupService, long windowNanos, long closeTimeoutNanos) {
+        this.userService = userService;
+        this.groupService = groupService;
+        this.windowNanos = windowNanos;
+        this.closeTimeoutNanos = closeTimeoutNanos;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "luckperms-rest-node-write-batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<Node>> userNodesAdd(UUID uniqueId, Node node) {
+        return userNodesAdd(uniqueId, node, null);
+    }
+
+    @Override
+    public CompletableFuture<List<Node>> userNodesAdd(UUID uniqueId, Node node, TemporaryNodeMergeStrategy temporaryNodeMergeStrategy) {
+        Objects.requireNonNull(uniqueId, "uniqueId");
+        return submit(uniqueId, new Write<>(false, node, temporaryNodeMergeStrategy));
+    }
+
+    @Override
+    public CompletableFuture<Void> userNodesDelete(UUID uniqueId, Node node) {
+        Objects.requireNonNull(uniqueId, "uniqueId");
+        return submit(uniqueId, new Write<>(true, node, null));
+    }
+
+    @Override
+    public CompletableFuture<List<Node>> groupNodesAdd(String name, Node node) {
+        return groupNodesAdd(name, node, null);
+    }
+
+    @Override
+    public CompletableFuture<List<Node>> groupNodesAdd(String name, Node node, TemporaryNodeMergeStrategy temporaryNodeMergeStrategy) {
+        Objects.requireNonNull(name, "name");
+        return submit(name, new Write<>(false, node, temporaryNodeMergeStrategy));
+    }
+
+    @Override
+    public CompletableFuture<Void> groupNodesDelete(String name, Node node) {
+        Objects.requireNonNull(name, "name");
+        return submit(name, new Write<>(true, node, null));
+    }
+
+    private <T> CompletableFuture<T> submit(Object holder, Write<T> write) {
+        Objects.requireNonNull(write.node, "node");
+        synchronized (this) {
+            if (this.closed) {
+                CompletableFuture<T> future = new CompletableFuture<>();
+                future.completeExceptionally(new RejectedExecutionException("node write batcher is closed"));
+                return future;
+            }
+            Buffer buffer = this.buffers.computeIfAbsent(holder, Buffer::new);
+            buffer.pending.add(write);
+            if (buffer.scheduled == null) {
+                buffer.scheduled = this.scheduler.schedule(() -> flush(buffer), this.windowNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+        return write.future;
+    }
+
+    @Override
+    public void flush() {
+        synchronized (this) {
+            for (Buffer buffer : new ArrayList<>(this.buffers.values())) {
+                flush(buffer);
+            }
+        }
+    }
+
+    private synchronized void flush(Buffer buffer) {
+        if (buffer.scheduled != null) {
+            buffer.scheduled.cancel(false);
+            buffer.scheduled = null;
+        }
+        if (buffer.pending.isEmpty()) {
+            return;
+        }
+
+        List<Batch> batches = new ArrayList<>();
+        Batch current = null;
+        for (Write<?> write : buffer.pending) {
+            if (current == null || !current.accepts(write)) {
+                current = new Batch(write.delete, write.temporaryNodeMergeStrategy);
+                batches.add(current);
+            }
+            current.writes.add(write);
+        }
+        buffer.pending.clear();
+        buffer.outstanding.addAll(batches);
+
+        // writes to the same holder are applied strictly in order, including across flushes
+        CompletableFuture<Void> tail = buffer.tail;
+        for (Batch batch : batches) {
+            tail = tail.thenCompose(v -> send(buffer, batch));
+        }
+        buffer.tail = tail;
+
+        CompletableFuture<Void> flushed = tail;
+        flushed.thenRun(() -> {
+            synchronized (this) {
+                if (buffer.tail == flushed && buffer.pending.isEmpty()) {
+                    this.buffers.remove(buffer.holder, buffer);
+                }
+            }
+        });
+    }
+
+    private CompletableFuture<Void> send(Buffer buffer, Batch batch) {
+        if (batch.isDone()) {
+            // failed by close(), or cancelled by the caller
+            return CompletableFuture.completedFuture(null);
+        }
+
+        Object holder = buffer.holder;
+        List<Node> nodes = new ArrayList<>(batch.writes.size());
+        for (Write<?> write : batch.writes) {
+            nodes.add(write.node);
+        }
+
+        CompletableFuture<Object> future;
+        try {
+            Call<Object> call;
+            if (holder instanceof UUID) {
+                UUID uniqueId = (UUID) holder;
+                if (batch.delete) {
+                    call = cast(this.userService.nodesDelete(uniqueId, nodes));
+                } else if (batch.temporaryNodeMergeStrategy != null) {
+                    call = cast(this.userService.nodesAdd(uniqueId, nodes, batch.temporaryNodeMergeStrategy));
+                } else {
+                    call = cast(this.userService.nodesAdd(uniqueId, nodes));
+                }
+            } else {
+                String name = (String) holder;
+                if (batch.delete) {
+                    call = cast(this.groupService.nodesDelete(name, nodes));
+                } else if (batch.temporaryNodeMergeStrategy != null) {
+                    call = cast(this.groupService.nodesAdd(name, nodes, batch.temporaryNodeMergeStrategy));
+                } else {
+                    call = cast(this.groupService.nodesAdd(name, nodes));
+                }
+            }
+            future = Calls.enqueue(call);
+        } catch (Exception e) {
+            batch.completeExceptionally(e);
+            completed(buffer, batch);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        synchronized (this) {
+            batch.call = future;
+            if (batch.isDone()) {
+                future.cancel(false);
+            }
+        }
+        return future.handle((result, error) -> {
+            if (error != null) {
+                batch.completeExceptionally(error);
+            } else {
+                batch.complete(result);
+            }
+            completed(buffer, batch);
+            return null;
+        });
+    }
+
+    private synchronized void completed(Buffer buffer, Batch batch) {
+        buffer.outstanding.remove(batch);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Call<Object> cast(Call<?> call) {
+        return (Call<Object>) call;
+    }
+
+    /**
+     * Sends all queued writes, and waits for them to be applied.
+     *
+     * <p>Writes submitted after this method is called are rejected. Writes which have not been
+     * applied when the timeout elapses are failed with a {@link TimeoutException}.</p>
+     */
+    @Override
+    public void close() {
+        List<CompletableFuture<Void>> tails = new ArrayList<>();
+        synchronized (this) {
+            if (this.closed) {
+                return;
+            }
+            flush();
+            this.closed = true;
+            for (Buffer buffer : this.buffers.values()) {
+                tails.add(buffer.tail);
+            }
+        }
+        this.scheduler.shutdown();
+
+        try {
+            CompletableFuture.allOf(tails.toArray(new CompletableFuture[0])).get(this.closeTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failOutstanding(new InterruptedException("interrupted while closing the node write batcher"));
+        } catch (TimeoutException e) {
+            failOutstanding(new TimeoutException("node write batcher closed before the write was applied"));
+        } catch (ExecutionException e) {
+            failOutstanding(e.getCause());
+        }
+    }
+
+    private synchronized void failOutstanding(Throwable error) {
+        List<Batch> batches = new ArrayList<>();
+        for (Buffer buffer : this.buffers.values()) {
+            batches.addAll(buffer.outstanding);
+            buffer.outstanding.clear();
+        }
+
+        // fail everything first, so queued batches are not sent as the cancelled calls complete
+        for (Batch batch : batches) {
+            batch.completeExceptionally(error);
+        }
+        for (Batch batch : batches) {
+            if (batch.call != null) {
+                batch.call.cancel(false);
+            }
+        }
+    }
+
+    private static final class Buffer {
+        private final Object holder;
+        private final List<Write<?>> pending = new ArrayList<>();
+        // flushed batches which have not been applied yet
+        private final List<Batch> outstanding = new ArrayList<>();
+        private ScheduledFuture<?> scheduled;
+        private CompletableFuture<Void> tail = CompletableFuture.completedFuture(null);
+
+        Buffer(Object holder) {
+            this.holder = holder;
+        }
+    }
+
+    private static final class Write<T> {
+        private final boolean delete;
+        private final Node node;
+        private final TemporaryNodeMergeStrategy temporaryNodeMergeStrategy;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        Write(boolean delete, Node node, TemporaryNodeMergeStrategy temporaryNodeMergeStrategy) {
+            this.delete = delete;
+            this.node = node;
+            this.temporaryNodeMergeStrategy = temporaryNodeMergeStrategy;
+        }
+    }
+
+    private static final class Batch {
+        private final boolean delete;
+        private final TemporaryNodeMergeStrategy temporaryNodeMergeStrategy;
+        private final List<Write<?>> writes = new ArrayList<>();
+        private CompletableFuture<?> call;
+
+        Batch(boolean delete, TemporaryNodeMergeStrategy temporaryNodeMergeStrategy) {
+            this.delete = delete;
+            this.temporaryNodeMergeStrategy = temporaryNodeMergeStrategy;
+        }
+
+        boolean accepts(Write<?> write) {
+            return this.delete == write.delete && this.temporaryNodeMergeStrategy == write.temporaryNodeMergeStrategy;
+        }
+
+        @SuppressWarnings("unchecked")
+        void complete(Object result) {
+            for (Write<?> write : this.writes) {
+                ((CompletableFuture<Object>) write.future).complete(result);
+            }
+        }
+
+        boolean isDone() {
+            for (Write<?> write : this.writes) {
+                if (!write.future.isDone()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void completeExceptionally(Throwable t) {
+            for (Write<?> write : this.writes) {
+                write.future.completeExceptionally(t);
+            }
+        }
+    }
+}
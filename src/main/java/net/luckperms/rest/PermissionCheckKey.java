@@ -0,0 +1,136 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest;
+
+import net.luckperms.rest.model.Context;
+import net.luckperms.rest.model.QueryOptions;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Cache key for a permission check.
+ *
+ * <p>The query options are normalised into a flags bitmask and a sorted array of context
+ * keys and values when the key is created, and the hash code is computed once up front, so lookups don't need
+ * to hash the model objects.</p>
+ */
+final class PermissionCheckKey {
+    private static final String[] NO_CONTEXTS = new String[0];
+    private static final Comparator<String[]> CONTEXT_ORDER = Comparator.<String[], String>comparing(pair -> pair[0]).thenComparing(pair -> pair[1]);
+
+    private final UUID uniqueId;
+    private final String permission;
+    private final QueryOptions.Mode mode; // nullable
+    private final int flags; // -1 if not specified
+    private final String[] contexts; // key, value, key, value, ...; null if not specified
+    private final int hashCode;
+
+    PermissionCheckKey(UUID uniqueId, String permission, QueryOptions queryOptions) {
+        this.uniqueId = Objects.requireNonNull(uniqueId, "uniqueId");
+        this.permission = permission.toLowerCase(Locale.ROOT);
+
+        if (queryOptions != null) {
+            this.mode = queryOptions.queryMode();
+            this.flags = flagsToBitmask(queryOptions.flags());
+            this.contexts = normaliseContexts(queryOptions.contexts());
+        } else {
+            this.mode = null;
+            this.flags = -1;
+            this.contexts = null;
+        }
+
+        int result = this.uniqueId.hashCode();
+        result = 31 * result + this.permission.hashCode();
+        result = 31 * result + Objects.hashCode(this.mode);
+        result = 31 * result + this.flags;
+        result = 31 * result + Arrays.hashCode(this.contexts);
+        this.hashCode = result;
+    }
+
+    UUID uniqueId() {
+        return this.uniqueId;
+    }
+
+    private static int flagsToBitmask(Set<QueryOptions.Flag> flags) {
+        if (flags == null) {
+            return -1;
+        }
+
+        int bitmask = 0;
+        for (QueryOptions.Flag flag : flags) {
+            bitmask |= 1 << flag.ordinal();
+        }
+        return bitmask;
+    }
+
+    private static String[] normaliseContexts(Set<Context> contexts) {
+        if (contexts == null) {
+            return null;
+        }
+        if (contexts.isEmpty()) {
+            return NO_CONTEXTS;
+        }
+
+        String[][] pairs = new String[contexts.size()][];
+        int i = 0;
+        for (Context context : contexts) {
+            pairs[i++] = new String[]{context.key().toLowerCase(Locale.ROOT), context.value().toLowerCase(Locale.ROOT)};
+        }
+        Arrays.sort(pairs, CONTEXT_ORDER);
+
+        // keys and values are stored as separate elements, so that no choice of separator
+        // can make two different contexts look the same
+        String[] array = new String[pairs.length * 2];
+        for (i = 0; i < pairs.length; i++) {
+            array[i * 2] = pairs[i][0];
+            array[i * 2 + 1] = pairs[i][1];
+        }
+        return array;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PermissionCheckKey)) return false;
+        PermissionCheckKey other = (PermissionCheckKey) o;
+        return this.hashCode == other.hashCode &&
+                this.flags == other.flags &&
+                this.mode == other.mode &&
+                this.uniqueId.equals(other.uniqueId) &&
+                this.permission.equals(other.permission) &&
+                Arrays.equals(this.contexts, other.contexts);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hashCode;
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonIOException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import okhttp3.ResponseBody;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A {@link Converter.Factory} which decodes JSON array responses into a lazy {@link Stream}.
+ *
+ * <p>Elements are decoded one at a time straight from the response body as the stream is
+ * consumed, so the whole array is never held in memory, and the first element is available
+ * before the body has finished downloading. The response body is held open until the stream is
+ * fully consumed or closed.</p>
+ */
+class StreamingConverterFactory extends Converter.Factory {
+    private final Gson gson;
+
+    StreamingConverterFactory(Gson gson) {
+        this.gson = gson;
+    }
+
+    @Override
+    public Converter<ResponseBody, ?> responseBodyConverter(Type type, Annotation[] annotations, Retrofit retrofit) {
+        if (getRawType(type) != Stream.class) {
+            return null;
+        }
+        if (!(type instanceof ParameterizedType)) {
+            throw new IllegalArgumentException("Stream return type must be parameterized as Stream<Foo>");
+        }
+
+        TypeAdapter<?> adapter = this.gson.getAdapter(TypeToken.get(getParameterUpperBound(0, (ParameterizedType) type)));
+        return body -> stream(body, adapter);
+    }
+
+    static boolean isStream(Type type) {
+        return getRawType(type) == Stream.class;
+    }
+
+    private <T> Stream<T> stream(ResponseBody body, TypeAdapter<T> adapter) throws IOException {
+        JsonReader reader = this.gson.newJsonReader(body.charStream());
+        try {
+            reader.beginArray();
+        } catch (IOException | RuntimeException e) {
+            body.close();
+            throw e;
+        }
+
+        ElementSpliterator<T> spliterator = new ElementSpliterator<>(reader, adapter, body);
+        return StreamSupport.stream(spliterator, false).onClose(body::close);
+    }
+
+    private static final class ElementSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+        private final JsonReader reader;
+        private final TypeAdapter<T> adapter;
+        private final ResponseBody body;
+        private boolean done = false;
+
+        ElementSpliterator(JsonReader reader, TypeAdapter<T> adapter, ResponseBody body) {
+            // not NONNULL: a null in the array is decoded as a null element, as it would be for a List
+            super(Long.MAX_VALUE, Spliterator.ORDERED);
+            this.reader = reader;
+            this.adapter = adapter;
+            this.body = body;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (this.done) {
+                return false;
+            }
+
+            T element;
+            try {
+                if (!this.reader.hasNext()) {
+                    this.reader.endArray();
+                    if (this.reader.peek() != JsonToken.END_DOCUMENT) {
+                        throw new JsonIOException("JSON document was not fully consumed.");
+                    }
+                    finish();
+                    return false;
+                }
+                element = this.adapter.read(this.reader);
+            } catch (IOException e) {
+                finish();
+                throw new UncheckedIOException(e);
+            } catch (RuntimeException e) {
+                finish();
+                throw e;
+            }
+
+            action.accept(element);
+            return true;
+        }
+
+        private void finish() {
+            this.done = true;
+            this.body.close();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest;
+
+import net.luckperms.rest.cache.CacheStats;
+import net.luckperms.rest.cache.UserCache;
+import net.luckperms.rest.model.User;
+import net.luckperms.rest.service.UserService;
+import retrofit2.Call;
+
+import java.util.UUID;
+import java.util.concurrent.Executor;
+
+class UserCacheImpl implements UserCache, CacheInvalidator.Target {
+    private final UserService service;
+    private final CacheInvalidator invalidator;
+    private final BoundedCache<UUID, User> cache;
+    private final Executor callbackExecutor;
+
+    UserCacheImpl(UserService service, CacheInvalidator invalidator, BoundedCache<UUID, User> cache, Executor callbackExecutor) {
+        this.service = service;
+        this.invalidator = invalidator;
+        this.cache = cache;
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    @Override
+    public Call<User> get(UUID uniqueId) {
+        Call<User> call = this.service.get(uniqueId);
+        if (!this.invalidator.ensureSubscribed()) {
+            return call;
+        }
+        return new CachingCall<>(call, this.cache, uniqueId, this.callbackExecutor);
+    }
+
+    @Override
+    public void invalidate(UUID uniqueId) {
+        this.cache.invalidate(uniqueId);
+    }
+
+    @Override
+    public void invalidateAll() {
+        this.cache.invalidateAll();
+    }
+
+    @Override
+    public long size() {
+        return this.cache.size();
+    }
+
+    @Override
+    public CacheStats stats() {
+        return this.cache.stats();
+    }
+}
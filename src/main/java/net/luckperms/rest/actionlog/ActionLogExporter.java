@@ -0,0 +1,308 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest.actionlog;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonWriter;
+import net.luckperms.rest.model.Action;
+import net.luckperms.rest.model.ActionPage;
+import net.luckperms.rest.model.ModelTypeAdapterFactory;
+import net.luckperms.rest.service.ActionPageQuery;
+import net.luckperms.rest.service.Calls;
+import retrofit2.Call;
+import retrofit2.HttpException;
+import retrofit2.Response;
+
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Exports the action log in bulk by fetching several pages concurrently.
+ *
+ * <p>The number of pages is worked out from {@link ActionPage#overallSize()} when the export
+ * starts. Up to {@code parallelism} pages are then requested at once, and are passed to the
+ * sink one at a time in page order, so no more than {@code parallelism} pages are held in
+ * memory.</p>
+ *
+ * <p>Actions are exported newest first. If actions are logged while an export is running,
+ * entries near page boundaries may be exported twice.</p>
+ */
+public final class ActionLogExporter {
+    /**
+     * Creates a new exporter builder.
+     *
+     * @param query the query to export the results of
+     * @return the builder
+     */
+    public static Builder builder(ActionPageQuery query) {
+        return new Builder(query);
+    }
+
+    private final ActionPageQuery query;
+    private final int pageSize;
+    private final int parallelism;
+    private final Consumer<ExportStats> progressListener;
+    private final TypeAdapter<Action> actionAdapter;
+
+    private ActionLogExporter(Builder builder) {
+        this.query = builder.query;
+        this.pageSize = builder.pageSize;
+        this.parallelism = builder.parallelism;
+        this.progressListener = builder.progressListener;
+        this.actionAdapter = builder.gson.getAdapter(Action.class);
+    }
+
+    /**
+     * Exports every action to the given consumer, in order.
+     *
+     * @param sink the consumer
+     * @return the export statistics
+     * @throws IOException if a page could not be fetched
+     * @throws HttpException if the server returned an unsuccessful response
+     */
+    public ExportStats export(Consumer<? super Action> sink) throws IOException {
+        Objects.requireNonNull(sink, "sink");
+        return run(entries -> {
+            entries.forEach(sink);
+            return 0;
+        });
+    }
+
+    /**
+     * Exports every action to the given stream as newline-delimited JSON, in order.
+     *
+     * <p>The stream is flushed after every page but is not closed.</p>
+     *
+     * @param out the output stream
+     * @return the export statistics
+     * @throws IOException if a page could not be fetched, or writing failed
+     * @throws HttpException if the server returned an unsuccessful response
+     */
+    public ExportStats exportNdjson(OutputStream out) throws IOException {
+        CountingOutputStream counter = new CountingOutputStream(Objects.requireNonNull(out, "out"));
+        Writer writer = new BufferedWriter(new OutputStreamWriter(counter, StandardCharsets.UTF_8));
+        // lenient, so that one writer can emit a top-level value per line
+        JsonWriter json = new JsonWriter(writer);
+        json.setHtmlSafe(false);
+        json.setLenient(true);
+        return run(entries -> {
+            long before = counter.count;
+            for (Action action : entries) {
+                this.actionAdapter.write(json, action);
+                writer.write('\n');
+            }
+            writer.flush();
+            return counter.count - before;
+        });
+    }
+
+    private ExportStats run(PageSink sink) throws IOException {
+        long start = System.nanoTime();
+
+        ActionPage first = execute(this.query.page(this.pageSize, 1));
+        int totalPages = (int) Math.max(1, (first.overallSize() + (long) this.pageSize - 1) / this.pageSize);
+
+        Progress progress = new Progress(totalPages, start);
+        progress.add(first.entries().size(), sink.accept(first.entries()));
+        this.progressListener.accept(progress.stats());
+
+        ArrayDeque<CompletableFuture<ActionPage>> window = new ArrayDeque<>();
+        int nextRequest = 2;
+        try {
+            for (int pageNumber = 2; pageNumber <= totalPages; pageNumber++) {
+                while (nextRequest <= totalPages && nextRequest < pageNumber + this.parallelism) {
+                    window.add(Calls.enqueue(this.query.page(this.pageSize, nextRequest++)));
+                }
+
+                Collection<Action> entries = checkPage(Calls.await(window.remove())).entries();
+                if (entries.isEmpty()) {
+                    // the log has shrunk since the export started
+                    break;
+                }
+
+                progress.add(entries.size(), sink.accept(entries));
+                this.progressListener.accept(progress.stats());
+            }
+        } finally {
+            for (CompletableFuture<ActionPage> page : window) {
+                page.cancel(false);
+            }
+        }
+
+        return progress.stats();
+    }
+
+    static ActionPage execute(Call<ActionPage> call) throws IOException {
+        Response<ActionPage> response = call.execute();
+        if (!response.isSuccessful()) {
+            throw new HttpException(response);
+        }
+        return checkPage(response.body());
+    }
+
+    private static ActionPage checkPage(ActionPage page) {
+        if (page == null) {
+            throw new IllegalStateException("empty action page response");
+        }
+        return page;
+    }
+
+    private interface PageSink {
+        long accept(Collection<Action> entries) throws IOException;
+    }
+
+    private static final class Progress {
+        private final int totalPages;
+        private final long start;
+        private long actions = 0;
+        private int pages = 0;
+        private long bytes = 0;
+
+        Progress(int totalPages, long start) {
+            this.totalPages = totalPages;
+            this.start = start;
+        }
+
+        void add(int actions, long bytes) {
+            this.actions += actions;
+            this.pages++;
+            this.bytes += bytes;
+        }
+
+        ExportStats stats() {
+            return new ExportStats(this.actions, this.pages, this.totalPages, this.bytes, System.nanoTime() - this.start);
+        }
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count = 0;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            this.out.write(b);
+            this.count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            this.out.write(b, off, len);
+            this.count += len;
+        }
+    }
+
+    /**
+     * A builder for {@link ActionLogExporter}.
+     */
+    public static final class Builder {
+        private final ActionPageQuery query;
+        private int pageSize = 500;
+        private int parallelism = 4;
+        private Consumer<ExportStats> progressListener = stats -> {};
+        private Gson gson = ModelTypeAdapterFactory.gson();
+
+        private Builder(ActionPageQuery query) {
+            this.query = Objects.requireNonNull(query, "query");
+        }
+
+        /**
+         * Sets the number of actions to request per page. Defaults to 500.
+         *
+         * @param pageSize the page size
+         * @return this builder
+         */
+        public Builder pageSize(int pageSize) {
+            if (pageSize <= 0) {
+                throw new IllegalArgumentException("pageSize must be positive");
+            }
+            this.pageSize = pageSize;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of pages to request at once. Defaults to 4.
+         *
+         * <p>Note that the HTTP client also limits the number of concurrent requests to the
+         * same host, to 5 by default.</p>
+         *
+         * @param parallelism the parallelism
+         * @return this builder
+         */
+        public Builder parallelism(int parallelism) {
+            if (parallelism <= 0) {
+                throw new IllegalArgumentException("parallelism must be positive");
+            }
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * Sets a listener which is called with updated statistics after each page is exported.
+         *
+         * @param progressListener the listener
+         * @return this builder
+         */
+        public Builder progressListener(Consumer<ExportStats> progressListener) {
+            this.progressListener = Objects.requireNonNull(progressListener, "progressListener");
+            return this;
+        }
+
+        /**
+         * Sets the {@link Gson} instance used to write actions in
+         * {@link #exportNdjson(OutputStream)}. Defaults to {@link ModelTypeAdapterFactory#gson()}.
+         *
+         * @param gson the gson instance
+         * @return this builder
+         */
+        public Builder gson(Gson gson) {
+            this.gson = Objects.requireNonNull(gson, "gson");
+            return this;
+        }
+
+        /**
+         * Builds the exporter.
+         *
+         * @return the exporter
+         */
+        public ActionLogExporter build() {
+            return new ActionLogExporter(this);
+        }
+    }
+}
@@ -0,0 +1,933 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest.actionlog;
+
+import net.luckperms.rest.model.Action;
+import net.luckperms.rest.model.ActionPage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+
+/**
+ * A local, indexed copy of the action log.
+ *
+ * <p>Actions are appended to memory-mapped segment files in a directory, so the store survives
+ * restarts, and are indexed in memory by timestamp, source and target. The same queries as
+ * {@link net.luckperms.rest.service.ActionService} can then be answered without a request to
+ * the REST API. Free-text searches are not indexed, and scan every action.</p>
+ *
+ * <p>The store is usually filled using an {@link ActionLogExporter}, and then kept up to date
+ * using an {@link ActionLogTailer}. Adding an action which is already stored has no effect.</p>
+ *
+ * <p>Only one store may have a directory open at a time, which is enforced using a lock file.</p>
+ */
+public final class ActionLogStore implements AutoCloseable {
+    private static final String LOCK_FILE = "store.lock";
+    private static final int MAGIC = 0x4c50414c; // LPAL
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 8;
+    // each record is prefixed by its length and a CRC32 checksum of its payload
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    private static final int FLAG_TIMESTAMP = 1;
+    private static final int FLAG_SOURCE_UUID = 1 << 1;
+    private static final int FLAG_TARGET_UUID = 1 << 2;
+
+    private static final Action.Target.Type[] TARGET_TYPES = Action.Target.Type.values();
+
+    /**
+     * Creates a new store builder.
+     *
+     * @param directory the directory to store segment files in
+     * @return the builder
+     */
+    public static Builder builder(Path directory) {
+        return new Builder(directory);
+    }
+
+    private final Path directory;
+    private final int segmentSize;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final FileChannel lockChannel;
+
+    private final List<Segment> segments = new ArrayList<>();
+    private Segment current;
+    private int nextSegmentNumber = 0;
+
+    // record data, indexed by id
+    private long[] positions = new long[1024];
+    private long[] timestamps = new long[1024];
+    private int size = 0;
+
+    private final IdList all = new IdList();
+    private final Map<UUID, IdList> bySource = new HashMap<>();
+    private final Map<UUID, IdList> byTargetUser = new HashMap<>();
+    private final Map<String, IdList> byTargetGroup = new HashMap<>();
+    private final Map<String, IdList> byTargetTrack = new HashMap<>();
+    private final HashIndex byHash = new HashIndex();
+
+    private boolean closed = false;
+
+    private ActionLogStore(Builder builder) throws IOException {
+        this.directory = builder.directory;
+        this.segmentSize = builder.segmentSize;
+
+        Files.createDirectories(this.directory);
+        this.lockChannel = acquireLock(this.directory.resolve(LOCK_FILE));
+
+        try {
+            TreeMap<Integer, Path> files = new TreeMap<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(this.directory, "segment-*.log")) {
+                for (Path file : stream) {
+                    int number = segmentNumber(file);
+                    if (number >= 0) {
+                        files.put(number, file);
+                    }
+                }
+            }
+
+            if (!files.isEmpty() && Files.size(files.lastEntry().getValue()) == 0) {
+                // created just before a crash, before its header was written
+                Map.Entry<Integer, Path> empty = files.pollLastEntry();
+                Files.delete(empty.getValue());
+                this.nextSegmentNumber = empty.getKey() + 1;
+            }
+
+            for (Map.Entry<Integer, Path> file : files.entrySet()) {
+                // numbers may have gaps if files were removed, so new segments follow the highest
+                this.nextSegmentNumber = Math.max(this.nextSegmentNumber, file.getKey() + 1);
+                Segment segment = Segment.open(this.segments.size(), file.getValue(), 0);
+                this.segments.add(segment);
+                recover(segment);
+            }
+            if (this.segments.isEmpty()) {
+                newSegment();
+            } else {
+                this.current = this.segments.get(this.segments.size() - 1);
+            }
+        } catch (IOException | RuntimeException e) {
+            closeFiles();
+            throw e;
+        }
+    }
+
+    private static FileChannel acquireLock(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            FileLock lock;
+            try {
+                lock = channel.tryLock();
+            } catch (OverlappingFileLockException e) {
+                // held by another store in this process
+                lock = null;
+            }
+            if (lock == null) {
+                throw new IOException("Action log store is already open: " + file.getParent());
+            }
+            return channel;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void recover(Segment segment) throws IOException {
+        ByteBuffer buffer = segment.buffer;
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not an action log segment: " + segment.file);
+        }
+
+        int offset = HEADER_SIZE;
+        while (offset + RECORD_HEADER_SIZE <= buffer.capacity()) {
+            int length = buffer.getInt(offset);
+            if (length == 0) {
+                // end of segment
+                break;
+            }
+            int payload = offset + RECORD_HEADER_SIZE;
+            if (length < 0 || payload + length > buffer.capacity() || buffer.getInt(offset + 4) != checksum(buffer, payload, length)) {
+                // a partially written or corrupt record: discard it, and everything after it
+                truncate(buffer, offset);
+                break;
+            }
+            Action action = decode(buffer, payload);
+            index(action, hash(buffer, payload, length), position(segment.index, offset));
+            offset = payload + length;
+        }
+        segment.writeOffset = offset;
+    }
+
+    private static void truncate(ByteBuffer buffer, int offset) {
+        byte[] zeros = new byte[8192];
+        ByteBuffer out = buffer.duplicate();
+        out.position(offset);
+        while (out.hasRemaining()) {
+            out.put(zeros, 0, Math.min(zeros.length, out.remaining()));
+        }
+    }
+
+    private static int segmentNumber(Path file) {
+        String name = file.getFileName().toString();
+        String number = name.substring("segment-".length(), name.length() - ".log".length());
+        try {
+            return Integer.parseInt(number);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void newSegment() throws IOException {
+        int number = this.nextSegmentNumber;
+        Path file = this.directory.resolve(String.format("segment-%08d.log", number));
+        if (Files.exists(file)) {
+            throw new IOException("Segment file already exists: " + file);
+        }
+        Segment segment = Segment.open(this.segments.size(), file, this.segmentSize);
+        this.nextSegmentNumber = number + 1;
+        segment.buffer.putInt(0, MAGIC);
+        segment.buffer.putInt(4, VERSION);
+        segment.writeOffset = HEADER_SIZE;
+        this.segments.add(segment);
+        this.current = segment;
+    }
+
+    /**
+     * Adds an action to the store.
+     *
+     * @param action the action
+     * @return true if the action was added, false if it was already stored
+     * @throws IOException if a new segment file could not be created
+     */
+    public boolean add(Action action) throws IOException {
+        byte[] record = encode(action);
+        int hash = Arrays.hashCode(record);
+        CRC32 crc = new CRC32();
+        crc.update(record);
+        int checksum = (int) crc.getValue();
+
+        this.lock.writeLock().lock();
+        try {
+            ensureOpen();
+
+            if (this.byHash.anyMatch(hash, id -> recordEquals(id, record))) {
+                return false;
+            }
+
+            int required = RECORD_HEADER_SIZE + record.length;
+            if (HEADER_SIZE + required > this.segmentSize) {
+                throw new IllegalArgumentException("Action is too large for a segment: " + required + " bytes");
+            }
+            if (this.current.writeOffset + required > this.current.buffer.capacity()) {
+                newSegment();
+            }
+
+            Segment segment = this.current;
+            int offset = segment.writeOffset;
+            ByteBuffer buffer = segment.buffer.duplicate();
+            buffer.position(offset + RECORD_HEADER_SIZE);
+            buffer.put(record);
+            segment.buffer.putInt(offset + 4, checksum);
+            // written last, so a partially written record is never read back
+            segment.buffer.putInt(offset, record.length);
+            segment.writeOffset = offset + required;
+
+            index(action, hash, position(segment.index, offset));
+            return true;
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds several actions to the store.
+     *
+     * @param actions the actions
+     * @return the number of actions which were added
+     * @throws IOException if a new segment file could not be created
+     */
+    public int addAll(Iterable<Action> actions) throws IOException {
+        int added = 0;
+        for (Action action : actions) {
+            if (add(action)) {
+                added++;
+            }
+        }
+        return added;
+    }
+
+    private void index(Action action, int hash, long position) {
+        int id = this.size;
+        if (id == this.positions.length) {
+            this.positions = Arrays.copyOf(this.positions, id * 2);
+            this.timestamps = Arrays.copyOf(this.timestamps, id * 2);
+        }
+        this.positions[id] = position;
+        this.timestamps[id] = action.timestamp() != null ? action.timestamp() : 0;
+        this.size++;
+
+        this.all.add(id, this.timestamps);
+        this.byHash.add(hash, id);
+
+        Action.Source source = action.source();
+        if (source != null && source.uniqueId() != null) {
+            this.bySource.computeIfAbsent(source.uniqueId(), k -> new IdList()).add(id, this.timestamps);
+        }
+
+        Action.Target target = action.target();
+        if (target != null && target.type() != null) {
+            switch (target.type()) {
+                case USER:
+                    if (target.uniqueId() != null) {
+                        this.byTargetUser.computeIfAbsent(target.uniqueId(), k -> new IdList()).add(id, this.timestamps);
+                    }
+                    break;
+                case GROUP:
+                    if (target.name() != null) {
+                        this.byTargetGroup.computeIfAbsent(lower(target.name()), k -> new IdList()).add(id, this.timestamps);
+                    }
+                    break;
+                case TRACK:
+                    if (target.name() != null) {
+                        this.byTargetTrack.computeIfAbsent(lower(target.name()), k -> new IdList()).add(id, this.timestamps);
+                    }
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Gets the number of actions in the store.
+     *
+     * @return the number of actions
+     */
+    public int size() {
+        this.lock.readLock().lock();
+        try {
+            return this.size;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    public ActionPage query() {
+        return query(Integer.MAX_VALUE, 1);
+    }
+
+    public ActionPage query(int pageSize, int pageNumber) {
+        return page(store -> store.all, pageSize, pageNumber);
+    }
+
+    public ActionPage querySource(UUID source) {
+        return querySource(source, Integer.MAX_VALUE, 1);
+    }
+
+    public ActionPage querySource(UUID source, int pageSize, int pageNumber) {
+        return page(store -> store.bySource.get(source), pageSize, pageNumber);
+    }
+
+    public ActionPage queryTargetUser(UUID user) {
+        return queryTargetUser(user, Integer.MAX_VALUE, 1);
+    }
+
+    public ActionPage queryTargetUser(UUID user, int pageSize, int pageNumber) {
+        return page(store -> store.byTargetUser.get(user), pageSize, pageNumber);
+    }
+
+    public ActionPage queryTargetGroup(String group) {
+        return queryTargetGroup(group, Integer.MAX_VALUE, 1);
+    }
+
+    public ActionPage queryTargetGroup(String group, int pageSize, int pageNumber) {
+        return page(store -> store.byTargetGroup.get(lower(group)), pageSize, pageNumber);
+    }
+
+    public ActionPage queryTargetTrack(String track) {
+        return queryTargetTrack(track, Integer.MAX_VALUE, 1);
+    }
+
+    public ActionPage queryTargetTrack(String track, int pageSize, int pageNumber) {
+        return page(store -> store.byTargetTrack.get(lower(track)), pageSize, pageNumber);
+    }
+
+    public ActionPage querySearch(String search) {
+        return querySearch(search, Integer.MAX_VALUE, 1);
+    }
+
+    /**
+     * Searches for actions whose source name, target name or description contain the given
+     * string, ignoring case.
+     *
+     * @param search the string to search for
+     * @param pageSize the page size
+     * @param pageNumber the page number, starting from 1
+     * @return the page
+     */
+    public ActionPage querySearch(String search, int pageSize, int pageNumber) {
+        String query = lower(search);
+        Predicate<Action> filter = action -> contains(action.description(), query)
+                || (action.source() != null && contains(action.source().name(), query))
+                || (action.target() != null && contains(action.target().name(), query));
+
+        checkPage(pageSize, pageNumber);
+        this.lock.readLock().lock();
+        try {
+            ensureOpen();
+            IdList ids = this.all.sorted(this.timestamps);
+
+            long skip = (long) (pageNumber - 1) * pageSize;
+            List<Action> entries = new ArrayList<>();
+            int matches = 0;
+            for (int i = ids.size - 1; i >= 0; i--) {
+                Action action = read(ids.ids[i]);
+                if (!filter.test(action)) {
+                    continue;
+                }
+                if (matches >= skip && entries.size() < pageSize) {
+                    entries.add(action);
+                }
+                matches++;
+            }
+            return new ActionPage(entries, matches);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Queries actions logged between the given timestamps.
+     *
+     * @param from the earliest timestamp, inclusive
+     * @param until the latest timestamp, inclusive
+     * @param pageSize the page size
+     * @param pageNumber the page number, starting from 1
+     * @return the page
+     */
+    public ActionPage queryTimeRange(long from, long until, int pageSize, int pageNumber) {
+        checkPage(pageSize, pageNumber);
+        this.lock.readLock().lock();
+        try {
+            ensureOpen();
+            IdList ids = this.all.sorted(this.timestamps);
+            int start = ids.lowerBound(from, this.timestamps);
+            int end = until == Long.MAX_VALUE ? ids.size : ids.lowerBound(until + 1, this.timestamps);
+            return page(ids, start, Math.max(start, end), pageSize, pageNumber);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    private ActionPage page(IndexSelector selector, int pageSize, int pageNumber) {
+        checkPage(pageSize, pageNumber);
+        this.lock.readLock().lock();
+        try {
+            ensureOpen();
+            IdList ids = selector.select(this);
+            if (ids == null) {
+                return new ActionPage(Collections.emptyList(), 0);
+            }
+            ids = ids.sorted(this.timestamps);
+            return page(ids, 0, ids.size, pageSize, pageNumber);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    // ids are sorted oldest first, pages are returned newest first
+    private ActionPage page(IdList ids, int start, int end, int pageSize, int pageNumber) {
+        int count = end - start;
+        long skip = (long) (pageNumber - 1) * pageSize;
+        if (skip >= count) {
+            return new ActionPage(Collections.emptyList(), count);
+        }
+
+        int from = (int) (end - 1 - skip);
+        int to = (int) Math.max(start - 1, from - (long) pageSize);
+        List<Action> entries = new ArrayList<>(from - to);
+        for (int i = from; i > to; i--) {
+            entries.add(read(ids.ids[i]));
+        }
+        return new ActionPage(entries, count);
+    }
+
+    private static void checkPage(int pageSize, int pageNumber) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("pageSize must be positive");
+        }
+        if (pageNumber <= 0) {
+            throw new IllegalArgumentException("pageNumber must be positive");
+        }
+    }
+
+    private Action read(int id) {
+        long position = this.positions[id];
+        return decode(this.segments.get((int) (position >>> 32)).buffer, (int) position + RECORD_HEADER_SIZE);
+    }
+
+    private boolean recordEquals(int id, byte[] record) {
+        long position = this.positions[id];
+        ByteBuffer buffer = this.segments.get((int) (position >>> 32)).buffer;
+        int offset = (int) position;
+        if (buffer.getInt(offset) != record.length) {
+            return false;
+        }
+        for (int i = 0; i < record.length; i++) {
+            if (buffer.get(offset + RECORD_HEADER_SIZE + i) != record[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int hash(ByteBuffer buffer, int offset, int length) {
+        int hash = 1;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + buffer.get(offset + i);
+        }
+        return hash;
+    }
+
+    private static int checksum(ByteBuffer buffer, int offset, int length) {
+        ByteBuffer in = buffer.duplicate();
+        in.position(offset);
+        in.limit(offset + length);
+        CRC32 crc = new CRC32();
+        crc.update(in);
+        return (int) crc.getValue();
+    }
+
+    private static long position(int segment, int offset) {
+        return ((long) segment << 32) | offset;
+    }
+
+    /**
+     * Forces any changes to be written to disk.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public void flush() throws IOException {
+        this.lock.readLock().lock();
+        try {
+            ensureOpen();
+            for (Segment segment : this.segments) {
+                segment.buffer.force();
+            }
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.lock.writeLock().lock();
+        try {
+            if (this.closed) {
+                return;
+            }
+            this.closed = true;
+            for (Segment segment : this.segments) {
+                segment.buffer.force();
+            }
+            closeFiles();
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    private void closeFiles() throws IOException {
+        IOException exception = null;
+        for (Segment segment : this.segments) {
+            try {
+                segment.channel.close();
+            } catch (IOException e) {
+                exception = e;
+            }
+        }
+        try {
+            // releases the lock
+            this.lockChannel.close();
+        } catch (IOException e) {
+            exception = e;
+        }
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+    private void ensureOpen() {
+        if (this.closed) {
+            throw new IllegalStateException("Store has been closed");
+        }
+    }
+
+    private static String lower(String string) {
+        return string.toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean contains(String string, String lowerQuery) {
+        return string != null && lower(string).contains(lowerQuery);
+    }
+
+    // record encoding
+
+    private static byte[] encode(Action action) {
+        Action.Source source = action.source();
+        Action.Target target = action.target();
+        if (source == null || target == null) {
+            throw new IllegalArgumentException("Action must have a source and target");
+        }
+
+        byte[] sourceName = bytes(source.name());
+        byte[] targetName = bytes(target.name());
+        byte[] description = bytes(action.description());
+
+        int flags = (action.timestamp() != null ? FLAG_TIMESTAMP : 0)
+                | (source.uniqueId() != null ? FLAG_SOURCE_UUID : 0)
+                | (target.uniqueId() != null ? FLAG_TARGET_UUID : 0);
+
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 8 + 16 + 16 + 1 + 12 + length(sourceName) + length(targetName) + length(description));
+        buffer.put((byte) flags);
+        buffer.putLong(action.timestamp() != null ? action.timestamp() : 0);
+        putUuid(buffer, source.uniqueId());
+        putUuid(buffer, target.uniqueId());
+        buffer.put((byte) (target.type() != null ? target.type().ordinal() : -1));
+        putBytes(buffer, sourceName);
+        putBytes(buffer, targetName);
+        putBytes(buffer, description);
+        return buffer.array();
+    }
+
+    private static Action decode(ByteBuffer buffer, int offset) {
+        ByteBuffer in = buffer.duplicate();
+        in.position(offset);
+
+        int flags = in.get();
+        long timestamp = in.getLong();
+        UUID sourceUuid = getUuid(in, (flags & FLAG_SOURCE_UUID) != 0);
+        UUID targetUuid = getUuid(in, (flags & FLAG_TARGET_UUID) != 0);
+        int type = in.get();
+        String sourceName = getString(in);
+        String targetName = getString(in);
+        String description = getString(in);
+
+        return new Action(
+                (flags & FLAG_TIMESTAMP) != 0 ? timestamp : null,
+                new Action.Source(sourceUuid, sourceName),
+                new Action.Target(targetUuid, targetName, type >= 0 ? TARGET_TYPES[type] : null),
+                description
+        );
+    }
+
+    private static byte[] bytes(String string) {
+        return string != null ? string.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static int length(byte[] bytes) {
+        return bytes != null ? bytes.length : 0;
+    }
+
+    private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void putUuid(ByteBuffer buffer, UUID uuid) {
+        buffer.putLong(uuid != null ? uuid.getMostSignificantBits() : 0);
+        buffer.putLong(uuid != null ? uuid.getLeastSignificantBits() : 0);
+    }
+
+    private static UUID getUuid(ByteBuffer buffer, boolean present) {
+        long most = buffer.getLong();
+        long least = buffer.getLong();
+        return present ? new UUID(most, least) : null;
+    }
+
+    private interface IndexSelector {
+        IdList select(ActionLogStore store);
+    }
+
+    private static final class Segment {
+        private final int index;
+        private final Path file;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int writeOffset;
+
+        private Segment(int index, Path file, FileChannel channel, MappedByteBuffer buffer) {
+            this.index = index;
+            this.file = file;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        static Segment open(int index, Path file, int size) throws IOException {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            try {
+                long length = Math.max(channel.size(), size);
+                if (length < HEADER_SIZE || length > Integer.MAX_VALUE) {
+                    throw new IOException("Invalid segment size: " + file);
+                }
+                return new Segment(index, file, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, length));
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * A list of record ids, kept sorted by timestamp (then id) when read.
+     */
+    private static final class IdList {
+        private int[] ids = new int[4];
+        private int size = 0;
+        private boolean sorted = true;
+
+        void add(int id, long[] timestamps) {
+            if (this.size == this.ids.length) {
+                this.ids = Arrays.copyOf(this.ids, this.size * 2);
+            }
+            if (this.size > 0 && timestamps[this.ids[this.size - 1]] > timestamps[id]) {
+                this.sorted = false;
+            }
+            this.ids[this.size++] = id;
+        }
+
+        // callers hold the read lock, so sorting in place needs its own lock
+        synchronized IdList sorted(long[] timestamps) {
+            if (!this.sorted) {
+                int[] buffer = new int[this.size];
+                mergeSort(this.ids, buffer, 0, this.size, timestamps);
+                this.sorted = true;
+            }
+            return this;
+        }
+
+        int lowerBound(long timestamp, long[] timestamps) {
+            int low = 0;
+            int high = this.size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (timestamps[this.ids[mid]] < timestamp) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private static void mergeSort(int[] ids, int[] buffer, int from, int to, long[] timestamps) {
+            if (to - from < 2) {
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            mergeSort(ids, buffer, from, mid, timestamps);
+            mergeSort(ids, buffer, mid, to, timestamps);
+            if (timestamps[ids[mid - 1]] <= timestamps[ids[mid]]) {
+                return;
+            }
+
+            System.arraycopy(ids, from, buffer, from, to - from);
+            int i = from;
+            int j = mid;
+            for (int k = from; k < to; k++) {
+                if (j >= to || (i < mid && timestamps[buffer[i]] <= timestamps[buffer[j]])) {
+                    ids[k] = buffer[i++];
+                } else {
+                    ids[k] = buffer[j++];
+                }
+            }
+        }
+    }
+
+    /**
+     * Record ids by the hash of their record, used to find duplicates.
+     *
+     * <p>An open-addressing table keyed by the hash, which stores a single id inline. Only hashes
+     * shared by several records need a separate array of ids.</p>
+     */
+    private static final class HashIndex {
+        private static final int EMPTY = -1;
+
+        private int[] hashes = new int[1024];
+        // an id, or -2 - n for the nth array in collisions
+        private int[] slots = newSlots(1024);
+        private final List<int[]> collisions = new ArrayList<>();
+        private int size = 0;
+
+        private static int[] newSlots(int capacity) {
+            int[] slots = new int[capacity];
+            Arrays.fill(slots, EMPTY);
+            return slots;
+        }
+
+        private static int mix(int hash) {
+            hash ^= hash >>> 16;
+            hash *= 0x85ebca6b;
+            hash ^= hash >>> 13;
+            return hash;
+        }
+
+        private int find(int hash) {
+            int mask = this.hashes.length - 1;
+            int i = mix(hash) & mask;
+            while (this.slots[i] != EMPTY && this.hashes[i] != hash) {
+                i = (i + 1) & mask;
+            }
+            return i;
+        }
+
+        boolean anyMatch(int hash, IntPredicate predicate) {
+            int slot = this.slots[find(hash)];
+            if (slot == EMPTY) {
+                return false;
+            }
+            if (slot >= 0) {
+                return predicate.test(slot);
+            }
+            int[] ids = this.collisions.get(-2 - slot);
+            for (int i = 1; i <= ids[0]; i++) {
+                if (predicate.test(ids[i])) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void add(int hash, int id) {
+            int i = find(hash);
+            int slot = this.slots[i];
+            if (slot == EMPTY) {
+                this.hashes[i] = hash;
+                this.slots[i] = id;
+                if (++this.size * 2 > this.hashes.length) {
+                    resize();
+                }
+            } else if (slot >= 0) {
+                // the first collision for this hash, the count is stored first
+                this.collisions.add(new int[]{2, slot, id, 0});
+                this.slots[i] = -2 - (this.collisions.size() - 1);
+            } else {
+                int n = -2 - slot;
+                int[] ids = this.collisions.get(n);
+                if (ids[0] + 1 == ids.length) {
+                    ids = Arrays.copyOf(ids, ids.length * 2);
+                    this.collisions.set(n, ids);
+                }
+                ids[++ids[0]] = id;
+            }
+        }
+
+        private void resize() {
+            int[] oldHashes = this.hashes;
+            int[] oldSlots = this.slots;
+            this.hashes = new int[oldHashes.length * 2];
+            this.slots = newSlots(oldSlots.length * 2);
+            for (int i = 0; i < oldSlots.length; i++) {
+                if (oldSlots[i] != EMPTY) {
+                    int j = find(oldHashes[i]);
+                    this.hashes[j] = oldHashes[i];
+                    this.slots[j] = oldSlots[i];
+                }
+            }
+        }
+    }
+
+    /**
+     * A builder for {@link ActionLogStore}.
+     */
+    public static final class Builder {
+        private final Path directory;
+        private int segmentSize = 16 * 1024 * 1024;
+
+        private Builder(Path directory) {
+            this.directory = Objects.requireNonNull(directory, "directory");
+        }
+
+        /**
+         * Sets the size of each segment file, in bytes. Defaults to 16 MiB.
+         *
+         * @param segmentSize the segment size
+         * @return this builder
+         */
+        public Builder segmentSize(int segmentSize) {
+            if (segmentSize < 1024) {
+                throw new IllegalArgumentException("segmentSize must be at least 1024 bytes");
+            }
+            this.segmentSize = segmentSize;
+            return this;
+        }
+
+        /**
+         * Opens the store, reading any segment files which already exist in the directory.
+         *
+         * @return the store
+         * @throws IOException if the segment files could not be opened, or the directory is
+         *         already open in another store
+         */
+        public ActionLogStore open() throws IOException {
+            return new ActionLogStore(this);
+        }
+    }
+}
@@ -0,0 +1,499 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest.actionlog;
+
+import net.luckperms.rest.event.EventCall;
+import net.luckperms.rest.event.EventGap;
+import net.luckperms.rest.event.EventProducer;
+import net.luckperms.rest.model.Action;
+import net.luckperms.rest.model.ActionPage;
+import net.luckperms.rest.model.LogBroadcastEvent;
+import net.luckperms.rest.service.ActionPageQuery;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Follows the action log, delivering each new action exactly once.
+ *
+ * <p>The tailer remembers the timestamp of the newest action it has seen, and each poll only
+ * fetches pages until it reaches an action older than that. In the steady state a poll costs a
+ * single request for one small page.</p>
+ *
+ * <p>Optionally, entries from the {@link net.luckperms.rest.service.EventService#logBroadcast()
+ * log broadcast} event stream can be merged in, so that new actions are delivered as soon as they
+ * are logged. Polling still catches anything the event stream misses, and actions received from
+ * both are only delivered once.</p>
+ *
+ * <p>Actions are delivered one at a time, in the order they are found, and the listener is never
+ * called while the tailer holds a lock. Each poll delivers the actions it finds oldest first. With
+ * the log broadcast merged in, an action which the event stream missed is only delivered by the
+ * next poll, and so may arrive after newer actions.</p>
+ */
+public final class ActionLogTailer implements AutoCloseable {
+    private static final int MAX_BROADCAST_BACKLOG = 10_000;
+
+    /**
+     * Creates a new tailer builder.
+     *
+     * @param query the query to follow the results of
+     * @return the builder
+     */
+    public static Builder builder(ActionPageQuery query) {
+        return new Builder(query);
+    }
+
+    private final ActionPageQuery query;
+    private final int pageSize;
+    private final long pollIntervalNanos;
+    private final Consumer<Exception> errorHandler;
+    private final EventCall<LogBroadcastEvent> logBroadcast;
+    private final Predicate<? super Action> logBroadcastFilter;
+
+    private final Object pollLock = new Object();
+    private int lastOverallSize = -1; // guarded by pollLock
+
+    // guarded by this
+    private boolean initialized;
+    private long watermark;
+    private final Set<Action> seenAtWatermark = new HashSet<>();
+    private final Set<Action> broadcastDelivered = new LinkedHashSet<>();
+    private final ArrayDeque<Action> pending = new ArrayDeque<>();
+    private boolean delivering = false;
+    private Consumer<? super Action> listener;
+    private ScheduledExecutorService scheduler;
+    private EventProducer<LogBroadcastEvent> producer;
+    private boolean closed = false;
+
+    private ActionLogTailer(Builder builder) {
+        this.query = builder.query;
+        this.pageSize = builder.pageSize;
+        this.pollIntervalNanos = builder.pollIntervalNanos;
+        this.errorHandler = builder.errorHandler;
+        this.logBroadcast = builder.logBroadcast;
+        this.logBroadcastFilter = builder.logBroadcastFilter;
+        this.initialized = builder.since != null;
+        this.watermark = builder.since != null ? builder.since : Long.MIN_VALUE;
+    }
+
+    /**
+     * Starts polling in the background, and subscribes to the log broadcast event stream if
+     * one was configured.
+     *
+     * @param listener the listener to deliver new actions to
+     * @throws Exception if the event stream could not be subscribed to
+     */
+    public synchronized void start(Consumer<? super Action> listener) throws Exception {
+        Objects.requireNonNull(listener, "listener");
+        if (this.closed) {
+            throw new IllegalStateException("Tailer has been closed");
+        }
+        if (this.listener != null) {
+            throw new IllegalStateException("Tailer has already been started");
+        }
+        this.listener = listener;
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "luckperms-rest-action-log-tailer");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        if (this.logBroadcast != null) {
+            try {
+                this.producer = this.logBroadcast.subscribe();
+            } catch (Exception e) {
+                this.scheduler.shutdown();
+                this.listener = null;
+                throw e;
+            }
+            this.producer.subscribe(this::handleBroadcast);
+            this.producer.errorHandler(this.errorHandler);
+            this.producer.gapHandler(this::handleGap);
+        }
+
+        this.scheduler.scheduleWithFixedDelay(this::pollQuietly, 0, this.pollIntervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Polls for new actions now.
+     *
+     * <p>The actions are also delivered to the listener if the tailer has been
+     * {@link #start(Consumer) started}.</p>
+     *
+     * <p>Unless a {@link Builder#since(long) start time} was set, the first poll only records
+     * the newest action, and returns nothing.</p>
+     *
+     * @return the new actions, oldest first
+     * @throws IOException if a page could not be fetched
+     * @throws retrofit2.HttpException if the server returned an unsuccessful response
+     */
+    public List<Action> poll() throws IOException {
+        List<Action> delivered;
+        synchronized (this.pollLock) {
+            boolean initialized;
+            long watermark;
+            synchronized (this) {
+                initialized = this.initialized;
+                watermark = this.watermark;
+            }
+
+            List<Action> found = fetch(initialized, watermark);
+            synchronized (this) {
+                if (!initialized) {
+                    advance(found);
+                    this.initialized = true;
+                    return Collections.emptyList();
+                }
+                delivered = deliver(found);
+            }
+        }
+        flush();
+        return delivered;
+    }
+
+    // returns actions newest first, as the api does
+    private List<Action> fetch(boolean initialized, long watermark) throws IOException {
+        Set<Action> found = new LinkedHashSet<>();
+        long newest = Long.MIN_VALUE;
+        int passed = 0;
+        int added = -1;
+
+        for (int pageNumber = 1; ; pageNumber++) {
+            ActionPage page = ActionLogExporter.execute(this.query.page(this.pageSize, pageNumber));
+            if (pageNumber == 1) {
+                if (this.lastOverallSize >= 0 && page.overallSize() >= this.lastOverallSize) {
+                    added = page.overallSize() - this.lastOverallSize;
+                }
+                this.lastOverallSize = page.overallSize();
+            }
+
+            boolean caughtUp = false;
+            for (Action action : page.entries()) {
+                long timestamp = timestamp(action);
+
+                if (!initialized) {
+                    // only the newest actions need to be recorded, but several can share a timestamp
+                    if (!found.isEmpty() && timestamp < newest) {
+                        caughtUp = true;
+                        break;
+                    }
+                    newest = Math.max(newest, timestamp);
+                    found.add(action);
+                    continue;
+                }
+
+                if (timestamp < watermark) {
+                    caughtUp = true;
+                    break;
+                }
+                if (timestamp == watermark && this.seenAtWatermark.contains(action)) {
+                    // once every action seen at the watermark has been passed, or as many actions
+                    // have been found as were added to the log, the rest have been seen too
+                    if (++passed == this.seenAtWatermark.size() || (added >= 0 && found.size() >= added)) {
+                        caughtUp = true;
+                        break;
+                    }
+                } else {
+                    found.add(action);
+                }
+            }
+
+            if (caughtUp || page.entries().size() < this.pageSize || (long) pageNumber * this.pageSize >= page.overallSize()) {
+                return new ArrayList<>(found);
+            }
+        }
+    }
+
+    private List<Action> deliver(List<Action> found) {
+        List<Action> delivered = new ArrayList<>(found.size());
+        for (int i = found.size() - 1; i >= 0; i--) {
+            Action action = found.get(i);
+            if (!this.broadcastDelivered.remove(action)) {
+                delivered.add(action);
+            }
+        }
+        advance(found);
+
+        if (this.listener != null && !this.closed) {
+            this.pending.addAll(delivered);
+        }
+        return delivered;
+    }
+
+    /**
+     * Passes pending actions to the listener, unless another thread is already doing so.
+     */
+    private void flush() {
+        synchronized (this) {
+            if (this.delivering) {
+                return;
+            }
+            this.delivering = true;
+        }
+
+        boolean drained = false;
+        try {
+            while (true) {
+                Action action;
+                Consumer<? super Action> listener;
+                synchronized (this) {
+                    action = this.pending.poll();
+                    if (action == null) {
+                        this.delivering = false;
+                        drained = true;
+                        return;
+                    }
+                    listener = this.listener;
+                }
+                listener.accept(action);
+            }
+        } finally {
+            if (!drained) {
+                synchronized (this) {
+                    this.delivering = false;
+                }
+            }
+        }
+    }
+
+    private void advance(List<Action> newestFirst) {
+        if (!newestFirst.isEmpty()) {
+            long newest = timestamp(newestFirst.get(0));
+            if (newest > this.watermark) {
+                this.watermark = newest;
+                this.seenAtWatermark.clear();
+            }
+            for (Action action : newestFirst) {
+                if (timestamp(action) == this.watermark) {
+                    this.seenAtWatermark.add(action);
+                }
+            }
+        }
+
+        // anything older than the watermark can no longer be returned by a poll
+        this.broadcastDelivered.removeIf(action -> timestamp(action) < this.watermark || this.seenAtWatermark.contains(action));
+    }
+
+    private void handleBroadcast(LogBroadcastEvent event) {
+        Action action = event.entry();
+        if (action == null || !this.logBroadcastFilter.test(action)) {
+            return;
+        }
+
+        synchronized (this) {
+            if (this.closed) {
+                return;
+            }
+
+            long timestamp = timestamp(action);
+            if (this.initialized && (timestamp < this.watermark || (timestamp == this.watermark && this.seenAtWatermark.contains(action)))) {
+                return;
+            }
+            if (!this.broadcastDelivered.add(action)) {
+                return;
+            }
+
+            if (this.broadcastDelivered.size() > MAX_BROADCAST_BACKLOG) {
+                Iterator<Action> it = this.broadcastDelivered.iterator();
+                it.next();
+                it.remove();
+            }
+            this.pending.add(action);
+        }
+        flush();
+    }
+
+    private void handleGap(EventGap gap) {
+        // anything logged while disconnected was missed, so catch up straight away
+        ScheduledExecutorService scheduler;
+        synchronized (this) {
+            if (this.closed) {
+                return;
+            }
+            scheduler = this.scheduler;
+        }
+        try {
+            scheduler.execute(this::pollQuietly);
+        } catch (RejectedExecutionException e) {
+            // closed concurrently
+        }
+    }
+
+    private void pollQuietly() {
+        try {
+            poll();
+        } catch (Exception e) {
+            this.errorHandler.accept(e);
+        }
+    }
+
+    private static long timestamp(Action action) {
+        Long timestamp = action.timestamp();
+        return timestamp != null ? timestamp : 0;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        this.pending.clear();
+
+        if (this.producer != null) {
+            this.producer.close();
+        }
+        if (this.scheduler != null) {
+            this.scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * A builder for {@link ActionLogTailer}.
+     */
+    public static final class Builder {
+        private final ActionPageQuery query;
+        private int pageSize = 20;
+        private long pollIntervalNanos = TimeUnit.SECONDS.toNanos(5);
+        private Long since = null;
+        private Consumer<Exception> errorHandler = e -> {};
+        private EventCall<LogBroadcastEvent> logBroadcast = null;
+        private Predicate<? super Action> logBroadcastFilter = action -> true;
+
+        private Builder(ActionPageQuery query) {
+            this.query = Objects.requireNonNull(query, "query");
+        }
+
+        /**
+         * Sets the number of actions to request per page. Defaults to 20.
+         *
+         * <p>This should be a little larger than the number of actions usually logged between
+         * polls.</p>
+         *
+         * @param pageSize the page size
+         * @return this builder
+         */
+        public Builder pageSize(int pageSize) {
+            if (pageSize <= 0) {
+                throw new IllegalArgumentException("pageSize must be positive");
+            }
+            this.pageSize = pageSize;
+            return this;
+        }
+
+        /**
+         * Sets how long to wait between polls. Defaults to 5 seconds.
+         *
+         * @param interval the interval
+         * @param unit the unit of the interval
+         * @return this builder
+         */
+        public Builder pollInterval(long interval, TimeUnit unit) {
+            if (interval <= 0) {
+                throw new IllegalArgumentException("interval must be positive");
+            }
+            this.pollIntervalNanos = unit.toNanos(interval);
+            return this;
+        }
+
+        /**
+         * Delivers actions logged at or after the given timestamp, instead of only those
+         * logged after the tailer starts.
+         *
+         * @param timestamp the timestamp, as returned by {@link Action#timestamp()}
+         * @return this builder
+         */
+        public Builder since(long timestamp) {
+            this.since = timestamp;
+            return this;
+        }
+
+        /**
+         * Sets a handler for errors which occur while polling in the background, or on the
+         * log broadcast event stream.
+         *
+         * @param errorHandler the error handler
+         * @return this builder
+         */
+        public Builder errorHandler(Consumer<Exception> errorHandler) {
+            this.errorHandler = Objects.requireNonNull(errorHandler, "errorHandler");
+            return this;
+        }
+
+        /**
+         * Merges in actions from the log broadcast event stream.
+         *
+         * <p>The event stream includes every action, so this should only be used when
+         * following {@link ActionPageQuery#all(net.luckperms.rest.service.ActionService) all}
+         * actions.</p>
+         *
+         * @param logBroadcast the log broadcast event call
+         * @return this builder
+         */
+        public Builder logBroadcast(EventCall<LogBroadcastEvent> logBroadcast) {
+            return logBroadcast(logBroadcast, action -> true);
+        }
+
+        /**
+         * Merges in actions from the log broadcast event stream which match the given filter.
+         *
+         * <p>The filter should match the same actions as the query being followed.</p>
+         *
+         * @param logBroadcast the log broadcast event call
+         * @param filter the filter
+         * @return this builder
+         */
+        public Builder logBroadcast(EventCall<LogBroadcastEvent> logBroadcast, Predicate<? super Action> filter) {
+            this.logBroadcast = Objects.requireNonNull(logBroadcast, "logBroadcast");
+            this.logBroadcastFilter = Objects.requireNonNull(filter, "filter");
+            return this;
+        }
+
+        /**
+         * Builds the tailer.
+         *
+         * @return the tailer
+         */
+        public ActionLogTailer build() {
+            return new ActionLogTailer(this);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest.actionlog;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Progress and throughput statistics for an action log export.
+ */
+public final class ExportStats {
+    private final long actions;
+    private final int pages;
+    private final int totalPages;
+    private final long bytes;
+    private final long elapsedNanos;
+
+    public ExportStats(long actions, int pages, int totalPages, long bytes, long elapsedNanos) {
+        this.actions = actions;
+        this.pages = pages;
+        this.totalPages = totalPages;
+        this.bytes = bytes;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Gets the number of actions exported so far.
+     *
+     * @return the number of actions
+     */
+    public long actions() {
+        return this.actions;
+    }
+
+    /**
+     * Gets the number of pages exported so far.
+     *
+     * @return the number of pages
+     */
+    public int pages() {
+        return this.pages;
+    }
+
+    /**
+     * Gets the number of pages the export expects to fetch, based on the size of the log
+     * when it started.
+     *
+     * @return the total number of pages
+     */
+    public int totalPages() {
+        return this.totalPages;
+    }
+
+    /**
+     * Gets the number of bytes written so far, or 0 if the export is not writing to a stream.
+     *
+     * @return the number of bytes
+     */
+    public long bytes() {
+        return this.bytes;
+    }
+
+    /**
+     * Gets the time elapsed since the export started.
+     *
+     * @param unit the unit to return the time in
+     * @return the elapsed time
+     */
+    public long elapsed(TimeUnit unit) {
+        return unit.convert(this.elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Gets the average number of actions exported per second.
+     *
+     * @return the throughput
+     */
+    public double actionsPerSecond() {
+        return this.elapsedNanos == 0 ? 0 : this.actions / (this.elapsedNanos / 1e9);
+    }
+
+    @Override
+    public String toString() {
+        return "ExportStats(actions=" + this.actions + ", pages=" + this.pages + "/" + this.totalPages +
+                ", bytes=" + this.bytes + ", elapsed=" + elapsed(TimeUnit.MILLISECONDS) + "ms" +
+                ", actionsPerSecond=" + String.format("%.1f", actionsPerSecond()) + ")";
+    }
+}
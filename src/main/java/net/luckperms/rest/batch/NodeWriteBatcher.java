@@ -0,0 +1,109 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest.batch;
+
+import net.luckperms.rest.model.Node;
+import net.luckperms.rest.model.TemporaryNodeMergeStrategy;
+import net.luckperms.rest.service.GroupService;
+import net.luckperms.rest.service.UserService;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Buffers single node writes for a short window, and sends all writes queued for the same
+ * user or group as a single request.
+ *
+ * <p>Consecutive additions are sent using {@link UserService#nodesAdd(UUID, List)} (or the
+ * group equivalent), and consecutive removals using {@link UserService#nodesDelete(UUID, List)}.
+ * Writes for the same holder are always applied in the order they were submitted.</p>
+ */
+public interface NodeWriteBatcher {
+
+    /**
+     * Queues a node to be added to a user.
+     *
+     * @param uniqueId the unique id of the user
+     * @param node the node to add
+     * @return a future encapsulating the nodes held by the user after the batch was applied
+     */
+    CompletableFuture<List<Node>> userNodesAdd(UUID uniqueId, Node node);
+
+    /**
+     * Queues a node to be added to a user.
+     *
+     * @param uniqueId the unique id of the user
+     * @param node the node to add
+     * @param temporaryNodeMergeStrategy the merge strategy to use for temporary nodes
+     * @return a future encapsulating the nodes held by the user after the batch was applied
+     */
+    CompletableFuture<List<Node>> userNodesAdd(UUID uniqueId, Node node, TemporaryNodeMergeStrategy temporaryNodeMergeStrategy);
+
+    /**
+     * Queues a node to be removed from a user.
+     *
+     * @param uniqueId the unique id of the user
+     * @param node the node to remove
+     * @return a future which completes when the batch has been applied
+     */
+    CompletableFuture<Void> userNodesDelete(UUID uniqueId, Node node);
+
+    /**
+     * Queues a node to be added to a group.
+     *
+     * @param name the name of the group
+     * @param node the node to add
+     * @return a future encapsulating the nodes held by the group after the batch was applied
+     */
+    CompletableFuture<List<Node>> groupNodesAdd(String name, Node node);
+
+    /**
+     * Queues a node to be added to a group.
+     *
+     * @param name the name of the group
+     * @param node the node to add
+     * @param temporaryNodeMergeStrategy the merge strategy to use for temporary nodes
+     * @return a future encapsulating the nodes held by the group after the batch was applied
+     * @see GroupService#nodesAdd(String, List, TemporaryNodeMergeStrategy)
+     */
+    CompletableFuture<List<Node>> groupNodesAdd(String name, Node node, TemporaryNodeMergeStrategy temporaryNodeMergeStrategy);
+
+    /**
+     * Queues a node to be removed from a group.
+     *
+     * @param name the name of the group
+     * @param node the node to remove
+     * @return a future which completes when the batch has been applied
+     */
+    CompletableFuture<Void> groupNodesDelete(String name, Node node);
+
+    /**
+     * Sends all queued writes immediately, without waiting for the batching window to elapse.
+     */
+    void flush();
+
+}
@@ -0,0 +1,95 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest.cache;
+
+/**
+ * A snapshot of the statistics recorded by a client-side cache.
+ */
+public final class CacheStats {
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+
+    public CacheStats(long hitCount, long missCount, long evictionCount) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+    }
+
+    /**
+     * Gets the number of lookups that were served from the cache.
+     *
+     * @return the hit count
+     */
+    public long hitCount() {
+        return this.hitCount;
+    }
+
+    /**
+     * Gets the number of lookups that had to be loaded from the REST API.
+     *
+     * @return the miss count
+     */
+    public long missCount() {
+        return this.missCount;
+    }
+
+    /**
+     * Gets the number of entries that were evicted because the cache was full, or
+     * because they expired.
+     *
+     * <p>Entries removed by invalidation are not counted.</p>
+     *
+     * @return the eviction count
+     */
+    public long evictionCount() {
+        return this.evictionCount;
+    }
+
+    /**
+     * Gets the total number of lookups.
+     *
+     * @return the request count
+     */
+    public long requestCount() {
+        return this.hitCount + this.missCount;
+    }
+
+    /**
+     * Gets the ratio of lookups that were served from the cache.
+     *
+     * @return the hit rate, between 0 and 1
+     */
+    public double hitRate() {
+        long requestCount = requestCount();
+        return requestCount == 0 ? 1.0 : (double) this.hitCount / requestCount;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats(hitCount=" + this.hitCount + ", missCount=" + this.missCount + ", evictionCount=" + this.evictionCount + ")";
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest.cache;
+
+import net.luckperms.rest.model.User;
+import net.luckperms.rest.service.UserService;
+import retrofit2.Call;
+
+import java.util.UUID;
+
+/**
+ * A read-through cache for {@link User}s.
+ *
+ * <p>Entries are invalidated automatically when the REST API emits a sync event, and when a
+ * user (or any group) is modified using the same client.</p>
+ */
+public interface UserCache {
+
+    /**
+     * Gets a user, using a cached copy if one is available.
+     *
+     * <p>Cache misses are loaded using {@link UserService#get(UUID)}. Only successful responses
+     * are cached.</p>
+     *
+     * @param uniqueId the unique id of the user
+     * @return a call that returns the user
+     */
+    Call<User> get(UUID uniqueId);
+
+    /**
+     * Removes the cached copy of a user, if present.
+     *
+     * @param uniqueId the unique id of the user
+     */
+    void invalidate(UUID uniqueId);
+
+    /**
+     * Removes all cached users.
+     */
+    void invalidateAll();
+
+    /**
+     * Gets the number of users currently held in the cache.
+     *
+     * @return the size of the cache
+     */
+    long size();
+
+    /**
+     * Gets a snapshot of the cache statistics.
+     *
+     * @return the cache statistics
+     */
+    CacheStats stats();
+
+}
@@ -0,0 +1,77 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest.event;
+
+/**
+ * Signals that an event stream was disconnected and has since reconnected, so events sent
+ * while it was disconnected may have been missed.
+ *
+ * @see EventProducer#gapHandler(java.util.function.Consumer)
+ */
+public final class EventGap {
+    private final String lastEventId;
+    private final long disconnectedAt;
+    private final long reconnectedAt;
+
+    public EventGap(String lastEventId, long disconnectedAt, long reconnectedAt) {
+        this.lastEventId = lastEventId;
+        this.disconnectedAt = disconnectedAt;
+        this.reconnectedAt = reconnectedAt;
+    }
+
+    /**
+     * Gets the id of the last event received before the connection was lost, which was sent
+     * as the {@code Last-Event-ID} when reconnecting.
+     *
+     * @return the last event id, or null if the server does not assign event ids
+     */
+    public String lastEventId() {
+        return this.lastEventId;
+    }
+
+    /**
+     * Gets the time the connection was lost, in milliseconds since the epoch.
+     *
+     * @return the disconnect time
+     */
+    public long disconnectedAt() {
+        return this.disconnectedAt;
+    }
+
+    /**
+     * Gets the time the connection was re-established, in milliseconds since the epoch.
+     *
+     * @return the reconnect time
+     */
+    public long reconnectedAt() {
+        return this.reconnectedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "EventGap(lastEventId=" + this.lastEventId + ", disconnectedAt=" + this.disconnectedAt + ", reconnectedAt=" + this.reconnectedAt + ")";
+    }
+}
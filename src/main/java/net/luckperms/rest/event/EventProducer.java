@@ -25,14 +25,69 @@
 
 package net.luckperms.rest.event;
 
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 
 public interface EventProducer<E> extends AutoCloseable {
 
     void subscribe(Consumer<E> consumer);
 
+    /**
+     * Subscribes a consumer through a bounded buffer, so that it receives events on its own
+     * schedule without holding up the connection or other subscribers.
+     *
+     * <p>Exceptions thrown by the consumer are passed to the
+     * {@link #errorHandler(Consumer) error handlers}.</p>
+     *
+     * <p>The default implementation does not buffer: it {@link #subscribe(Consumer) subscribes}
+     * the consumer directly, so the overflow policy never applies and no events are dropped.</p>
+     *
+     * @param consumer the consumer
+     * @param overflowPolicy what to do if the consumer falls too far behind
+     * @return the subscription
+     * @throws IllegalStateException if the policy is {@link OverflowPolicy#BLOCK} and the client
+     *         has no event handler executor
+     */
+    default EventSubscription subscribe(Consumer<E> consumer, OverflowPolicy overflowPolicy) {
+        Objects.requireNonNull(overflowPolicy, "overflowPolicy");
+        AtomicBoolean closed = new AtomicBoolean();
+        subscribe(event -> {
+            if (!closed.get()) {
+                consumer.accept(event);
+            }
+        });
+        return new EventSubscription() {
+            @Override
+            public long droppedEvents() {
+                return 0;
+            }
+
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        };
+    }
+
     void errorHandler(Consumer<Exception> errorHandler);
 
+    /**
+     * Registers a handler which is called when the stream reconnects after losing its
+     * connection.
+     *
+     * <p>The stream reconnects automatically with an exponential backoff, passing the
+     * {@code Last-Event-ID} of the last event received. Any connection errors are passed to the
+     * {@link #errorHandler(Consumer) error handlers} in the meantime.</p>
+     *
+     * <p>The default implementation ignores the handler, for producers which never reconnect.</p>
+     *
+     * @param gapHandler the gap handler
+     */
+    default void gapHandler(Consumer<EventGap> gapHandler) {
+        Objects.requireNonNull(gapHandler, "gapHandler");
+    }
+
     @Override
     void close();
 
@@ -0,0 +1,55 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest.event;
+
+/**
+ * Determines what happens when a buffered subscriber falls too far behind the event stream.
+ *
+ * @see EventProducer#subscribe(java.util.function.Consumer, OverflowPolicy)
+ */
+public enum OverflowPolicy {
+
+    /**
+     * The oldest undelivered events are discarded to make room for new ones.
+     */
+    DROP_OLDEST,
+
+    /**
+     * The event stream waits for the subscriber to catch up. This applies backpressure to
+     * the connection, and so delays delivery to every other subscriber of the same event.
+     *
+     * <p>Only available if the client was built with an
+     * {@link net.luckperms.rest.LuckPermsRestClient.Builder#eventHandlerExecutor(java.util.concurrent.Executor) event handler executor},
+     * which is used to drain the subscriber while the connection waits.</p>
+     */
+    BLOCK,
+
+    /**
+     * All undelivered events are discarded except for the most recent one.
+     */
+    COALESCE
+
+}
@@ -0,0 +1,63 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest.local;
+
+import net.luckperms.rest.model.Node;
+import net.luckperms.rest.model.PermissionCheckResult;
+
+import java.util.Collection;
+
+/**
+ * The resolved permissions of a holder, compiled into a structure that can answer permission
+ * checks without scanning every node.
+ *
+ * <p>Instances are immutable snapshots for a fixed set of nodes and query options. Temporary
+ * nodes are still removed once they expire.</p>
+ *
+ * @see PermissionEvaluator#compile(Collection, net.luckperms.rest.model.QueryOptions)
+ */
+public interface CompiledPermissions {
+
+    /**
+     * Checks a permission.
+     *
+     * @param permission the permission to check
+     * @return the result
+     */
+    PermissionCheckResult check(String permission);
+
+    /**
+     * Compiles the permissions again after the holder's nodes have changed.
+     *
+     * <p>If the change doesn't affect which groups are inherited, only the changed nodes are
+     * updated and everything else is reused.</p>
+     *
+     * @param nodes the new nodes held directly by the holder
+     * @return the updated permissions
+     */
+    CompiledPermissions update(Collection<Node> nodes);
+
+}
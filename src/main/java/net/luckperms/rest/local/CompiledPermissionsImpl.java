@@ -0,0 +1,165 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest.local;
+
+import net.luckperms.rest.model.Group;
+import net.luckperms.rest.model.Node;
+import net.luckperms.rest.model.PermissionCheckResult;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+class CompiledPermissionsImpl implements CompiledPermissions {
+    private final PermissionEvaluatorImpl evaluator;
+    private final PermissionEvaluatorImpl.Query query;
+    private final Collection<Node> nodes;
+    private final String groupName; // nullable
+
+    private final List<PermissionTrie.Entry> ownEntries;
+    private final List<String> parents;
+    private final long inheritedExpiresAt;
+    private final long expiresAt;
+    private final PermissionTrie trie;
+
+    // recompiled copy, used once a temporary node has expired
+    private volatile CompiledPermissionsImpl refreshed;
+
+    private CompiledPermissionsImpl(PermissionEvaluatorImpl evaluator, PermissionEvaluatorImpl.Query query, Collection<Node> nodes, String groupName, List<PermissionTrie.Entry> ownEntries, List<String> parents, long inheritedExpiresAt, long expiresAt, PermissionTrie trie) {
+        this.evaluator = evaluator;
+        this.query = query;
+        this.nodes = nodes;
+        this.groupName = groupName;
+        this.ownEntries = ownEntries;
+        this.parents = parents;
+        this.inheritedExpiresAt = inheritedExpiresAt;
+        this.expiresAt = expiresAt;
+        this.trie = trie;
+    }
+
+    static CompiledPermissionsImpl compile(PermissionEvaluatorImpl evaluator, Collection<Node> nodes, String groupName, PermissionEvaluatorImpl.Query query) {
+        long now = System.currentTimeMillis() / 1000L;
+
+        PermissionEvaluatorImpl.Resolution own = new PermissionEvaluatorImpl.Resolution(0);
+        List<Group> parents = evaluator.collect(nodes, query, now, 0, own);
+
+        Set<String> visited = new HashSet<>();
+        if (groupName != null) {
+            visited.add(groupName.toLowerCase(Locale.ROOT));
+        }
+
+        PermissionEvaluatorImpl.Resolution inherited = new PermissionEvaluatorImpl.Resolution(1);
+        evaluator.collectInherited(parents, query, now, visited, inherited);
+
+        List<PermissionTrie.Entry> entries = new ArrayList<>(own.entries.size() + inherited.entries.size());
+        entries.addAll(own.entries);
+        entries.addAll(inherited.entries);
+
+        return new CompiledPermissionsImpl(
+                evaluator, query, nodes, groupName,
+                own.entries, names(parents),
+                inherited.expiresAt, Math.min(own.expiresAt, inherited.expiresAt),
+                PermissionTrie.build(entries)
+        );
+    }
+
+    private static List<String> names(List<Group> groups) {
+        List<String> names = new ArrayList<>(groups.size());
+        for (Group group : groups) {
+            names.add(group.name());
+        }
+        return names;
+    }
+
+    @Override
+    public PermissionCheckResult check(String permission) {
+        CompiledPermissionsImpl current = this;
+
+        long now = System.currentTimeMillis() / 1000L;
+        if (now >= this.expiresAt) {
+            current = refresh(now);
+        }
+
+        return PermissionEvaluatorImpl.result(current.trie.lookup(permission.toLowerCase(Locale.ROOT)));
+    }
+
+    private CompiledPermissionsImpl refresh(long now) {
+        CompiledPermissionsImpl refreshed = this.refreshed;
+        if (refreshed == null || now >= refreshed.expiresAt) {
+            refreshed = compile(this.evaluator, this.nodes, this.groupName, this.query);
+            this.refreshed = refreshed;
+        }
+        return refreshed;
+    }
+
+    @Override
+    public CompiledPermissions update(Collection<Node> nodes) {
+        long now = System.currentTimeMillis() / 1000L;
+        if (now >= this.inheritedExpiresAt) {
+            return compile(this.evaluator, nodes, this.groupName, this.query);
+        }
+
+        PermissionEvaluatorImpl.Resolution own = new PermissionEvaluatorImpl.Resolution(0);
+        List<String> parents = names(this.evaluator.collect(nodes, this.query, now, 0, own));
+        if (!parents.equals(this.parents)) {
+            // inherited groups have changed, so the inherited layers need to be resolved again
+            return compile(this.evaluator, nodes, this.groupName, this.query);
+        }
+
+        // a holder can have the same node more than once, so count occurrences rather than
+        // comparing sets, otherwise removing one copy of a duplicate would be missed
+        Map<PermissionTrie.Entry, Integer> counts = new HashMap<>();
+        for (PermissionTrie.Entry entry : this.ownEntries) {
+            counts.merge(entry, 1, Integer::sum);
+        }
+        for (PermissionTrie.Entry entry : own.entries) {
+            counts.merge(entry, -1, Integer::sum);
+        }
+
+        List<PermissionTrie.Entry> removed = new ArrayList<>();
+        List<PermissionTrie.Entry> added = new ArrayList<>();
+        counts.forEach((entry, count) -> {
+            for (int i = 0; i < count; i++) {
+                removed.add(entry);
+            }
+            for (int i = 0; i > count; i--) {
+                added.add(entry);
+            }
+        });
+
+        return new CompiledPermissionsImpl(
+                this.evaluator, this.query, nodes, this.groupName,
+                own.entries, parents,
+                this.inheritedExpiresAt, Math.min(own.expiresAt, this.inheritedExpiresAt),
+                this.trie.with(added, removed)
+        );
+    }
+}
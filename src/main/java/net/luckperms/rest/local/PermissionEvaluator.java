@@ -0,0 +1,125 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest.local;
+
+import net.luckperms.rest.model.Group;
+import net.luckperms.rest.model.Node;
+import net.luckperms.rest.model.PermissionCheckResult;
+import net.luckperms.rest.model.QueryOptions;
+import net.luckperms.rest.model.User;
+import net.luckperms.rest.service.GroupService;
+
+import java.io.IOException;
+import java.util.Collection;
+
+/**
+ * Evaluates permission checks locally, using nodes previously fetched from the REST API.
+ *
+ * <p>The evaluator holds an immutable snapshot of the groups it was created with. Group
+ * inheritance is resolved depth-first, visiting parent groups in order of descending
+ * {@link Group#weight() weight}, with nodes belonging to the holder taking priority over
+ * inherited ones. Expired nodes are ignored, and node contexts are matched against the
+ * {@link QueryOptions} in the same way as the server.</p>
+ *
+ * <p>If no query options are given, the check is performed with no active contexts and the
+ * default set of {@link QueryOptions.Flag flags}. Unlike the server, the evaluator does not
+ * know about any contexts that would normally be applied by the platform.</p>
+ */
+public interface PermissionEvaluator {
+
+    /**
+     * Creates a new evaluator for the given groups.
+     *
+     * @param groups the groups
+     * @return the evaluator
+     */
+    static PermissionEvaluator create(Collection<Group> groups) {
+        return new PermissionEvaluatorImpl(groups);
+    }
+
+    /**
+     * Creates a new evaluator, loading all groups from the given service.
+     *
+     * @param groupService the group service
+     * @return the evaluator
+     * @throws IOException if the groups could not be loaded
+     */
+    static PermissionEvaluator load(GroupService groupService) throws IOException {
+        return create(PermissionEvaluatorImpl.loadGroups(groupService));
+    }
+
+    /**
+     * Compiles the permissions for a holder with the given nodes, so that they can be checked
+     * repeatedly.
+     *
+     * @param nodes the nodes held directly by the holder, e.g. from the user nodes endpoint
+     * @param queryOptions the query options, nullable
+     * @return the compiled permissions
+     */
+    CompiledPermissions compile(Collection<Node> nodes, QueryOptions queryOptions);
+
+    /**
+     * Compiles the permissions for a group, so that they can be checked repeatedly.
+     *
+     * @param group the group
+     * @param queryOptions the query options, nullable
+     * @return the compiled permissions
+     */
+    CompiledPermissions compile(Group group, QueryOptions queryOptions);
+
+    /**
+     * Checks a permission for a holder with the given nodes.
+     *
+     * @param nodes the nodes held directly by the holder, e.g. from the user nodes endpoint
+     * @param permission the permission to check
+     * @param queryOptions the query options, nullable
+     * @return the result
+     */
+    PermissionCheckResult check(Collection<Node> nodes, String permission, QueryOptions queryOptions);
+
+    /**
+     * Checks a permission for a user.
+     *
+     * @param user the user
+     * @param permission the permission to check
+     * @param queryOptions the query options, nullable
+     * @return the result
+     */
+    default PermissionCheckResult check(User user, String permission, QueryOptions queryOptions) {
+        return check(user.nodes(), permission, queryOptions);
+    }
+
+    /**
+     * Checks a permission for a group.
+     *
+     * @param group the group
+     * @param permission the permission to check
+     * @param queryOptions the query options, nullable
+     * @return the result
+     */
+    PermissionCheckResult check(Group group, String permission, QueryOptions queryOptions);
+
+}
@@ -0,0 +1,284 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest.local;
+
+import net.luckperms.rest.model.Context;
+import net.luckperms.rest.model.Group;
+import net.luckperms.rest.model.Node;
+import net.luckperms.rest.model.PermissionCheckResult;
+import net.luckperms.rest.model.QueryOptions;
+import net.luckperms.rest.service.GroupService;
+import retrofit2.HttpException;
+import retrofit2.Response;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+class PermissionEvaluatorImpl implements PermissionEvaluator {
+    private static final Set<QueryOptions.Flag> DEFAULT_FLAGS = Collections.unmodifiableSet(EnumSet.allOf(QueryOptions.Flag.class));
+
+    private static final String GROUP_NODE_PREFIX = "group.";
+
+    // sorts nodes with more specific contexts first, then temporary nodes before permanent ones.
+    // remaining ties are broken so that the order doesn't depend on the order of the nodes,
+    // otherwise an incrementally updated trie could disagree with a freshly compiled one
+    static final Comparator<Node> NODE_PRIORITY = Comparator
+            .comparingInt((Node node) -> node.context() == null ? 0 : node.context().size()).reversed()
+            .thenComparing(node -> node.expiry() == null)
+            .thenComparing(node -> !Boolean.FALSE.equals(node.value()))
+            .thenComparing(Node::expiry, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(PermissionEvaluatorImpl::contextString);
+
+    private final Map<String, Group> groups;
+
+    PermissionEvaluatorImpl(Collection<Group> groups) {
+        this.groups = new HashMap<>();
+        for (Group group : groups) {
+            this.groups.put(group.name().toLowerCase(Locale.ROOT), group);
+        }
+    }
+
+    static List<Group> loadGroups(GroupService service) throws IOException {
+        Response<Set<String>> listResp = service.list().execute();
+        Set<String> names = listResp.body();
+        if (!listResp.isSuccessful() || names == null) {
+            throw new HttpException(listResp);
+        }
+
+        List<Group> groups = new ArrayList<>(names.size());
+        for (String name : names) {
+            Response<Group> groupResp = service.get(name).execute();
+            if (groupResp.code() == 404) {
+                continue; // deleted since the list was fetched
+            }
+
+            Group group = groupResp.body();
+            if (!groupResp.isSuccessful() || group == null) {
+                throw new HttpException(groupResp);
+            }
+            groups.add(group);
+        }
+        return groups;
+    }
+
+    @Override
+    public CompiledPermissions compile(Collection<Node> nodes, QueryOptions queryOptions) {
+        return CompiledPermissionsImpl.compile(this, nodes, null, new Query(queryOptions));
+    }
+
+    @Override
+    public CompiledPermissions compile(Group group, QueryOptions queryOptions) {
+        return CompiledPermissionsImpl.compile(this, group.nodes(), group.name(), new Query(queryOptions));
+    }
+
+    @Override
+    public PermissionCheckResult check(Collection<Node> nodes, String permission, QueryOptions queryOptions) {
+        return compile(nodes, queryOptions).check(permission);
+    }
+
+    @Override
+    public PermissionCheckResult check(Group group, String permission, QueryOptions queryOptions) {
+        return compile(group, queryOptions).check(permission);
+    }
+
+    static PermissionCheckResult result(Node node) {
+        if (node == null) {
+            return new PermissionCheckResult(PermissionCheckResult.Tristate.UNDEFINED, null);
+        }
+
+        PermissionCheckResult.Tristate result = Boolean.FALSE.equals(node.value())
+                ? PermissionCheckResult.Tristate.FALSE
+                : PermissionCheckResult.Tristate.TRUE;
+        return new PermissionCheckResult(result, node);
+    }
+
+    /**
+     * Adds the applicable nodes held directly by a holder to the resolution.
+     *
+     * @return the groups the holder inherits from, in the order they should be visited
+     */
+    List<Group> collect(Collection<Node> nodes, Query query, long now, int layer, Resolution resolution) {
+        List<Group> parents = new ArrayList<>();
+        if (nodes == null) {
+            return parents;
+        }
+
+        for (Node node : nodes) {
+            Long expiry = node.expiry();
+            if (expiry != null) {
+                if (expiry <= now) {
+                    continue;
+                }
+                resolution.expiresAt = Math.min(resolution.expiresAt, expiry);
+            }
+
+            if (query.isApplicable(node, query.includeNodesWithoutServerContext, query.includeNodesWithoutWorldContext)) {
+                resolution.entries.add(new PermissionTrie.Entry(node, layer));
+            }
+
+            if (query.resolveInheritance && isInheritanceNode(node) && !Boolean.FALSE.equals(node.value()) &&
+                    query.isApplicable(node, query.applyInheritanceNodesWithoutServerContext, query.applyInheritanceNodesWithoutWorldContext)) {
+                Group parent = this.groups.get(node.key().substring(GROUP_NODE_PREFIX.length()).toLowerCase(Locale.ROOT));
+                if (parent != null && !parents.contains(parent)) {
+                    parents.add(parent);
+                }
+            }
+        }
+
+        // visit parents with the highest weight first
+        parents.sort(Comparator.comparingInt(Group::weight).reversed().thenComparing(Group::name));
+        return parents;
+    }
+
+    /**
+     * Adds the nodes inherited from the given parent groups to the resolution, visiting each
+     * group at most once in depth-first order.
+     */
+    void collectInherited(List<Group> parents, Query query, long now, Set<String> visited, Resolution resolution) {
+        for (Group parent : parents) {
+            if (visited.add(parent.name().toLowerCase(Locale.ROOT))) {
+                List<Group> grandparents = collect(parent.nodes(), query, now, resolution.nextLayer++, resolution);
+                collectInherited(grandparents, query, now, visited, resolution);
+            }
+        }
+    }
+
+    private static String contextString(Node node) {
+        Set<Context> contexts = node.context();
+        if (contexts == null || contexts.isEmpty()) {
+            return "";
+        }
+
+        List<String> pairs = new ArrayList<>(contexts.size());
+        for (Context context : contexts) {
+            pairs.add(context.key().toLowerCase(Locale.ROOT) + '\u0000' + context.value().toLowerCase(Locale.ROOT));
+        }
+        Collections.sort(pairs);
+        return String.join("\u0001", pairs);
+    }
+
+    private static boolean isInheritanceNode(Node node) {
+        String key = node.key();
+        return key.length() > GROUP_NODE_PREFIX.length() && key.regionMatches(true, 0, GROUP_NODE_PREFIX, 0, GROUP_NODE_PREFIX.length());
+    }
+
+    /**
+     * Accumulates trie entries while resolving a holder.
+     */
+    static final class Resolution {
+        final List<PermissionTrie.Entry> entries = new ArrayList<>();
+        int nextLayer;
+        long expiresAt = Long.MAX_VALUE;
+
+        Resolution(int firstLayer) {
+            this.nextLayer = firstLayer;
+        }
+    }
+
+    /**
+     * The normalised form of a {@link QueryOptions}.
+     */
+    static final class Query {
+        private final boolean contextual;
+        private final Map<String, Set<String>> contexts;
+
+        private final boolean resolveInheritance;
+        private final boolean includeNodesWithoutServerContext;
+        private final boolean includeNodesWithoutWorldContext;
+        private final boolean applyInheritanceNodesWithoutServerContext;
+        private final boolean applyInheritanceNodesWithoutWorldContext;
+
+        Query(QueryOptions options) {
+            QueryOptions.Mode mode = options == null ? null : options.queryMode();
+            this.contextual = mode != QueryOptions.Mode.NON_CONTEXTUAL;
+
+            this.contexts = new HashMap<>();
+            if (options != null && options.contexts() != null) {
+                for (Context context : options.contexts()) {
+                    this.contexts.computeIfAbsent(context.key().toLowerCase(Locale.ROOT), k -> new HashSet<>())
+                            .add(context.value().toLowerCase(Locale.ROOT));
+                }
+            }
+
+            Set<QueryOptions.Flag> flags = options == null || options.flags() == null ? DEFAULT_FLAGS : options.flags();
+            this.resolveInheritance = flags.contains(QueryOptions.Flag.RESOLVE_INHERITANCE);
+            this.includeNodesWithoutServerContext = flags.contains(QueryOptions.Flag.INCLUDE_NODES_WITHOUT_SERVER_CONTEXT);
+            this.includeNodesWithoutWorldContext = flags.contains(QueryOptions.Flag.INCLUDE_NODES_WITHOUT_WORLD_CONTEXT);
+            this.applyInheritanceNodesWithoutServerContext = flags.contains(QueryOptions.Flag.APPLY_INHERITANCE_NODES_WITHOUT_SERVER_CONTEXT);
+            this.applyInheritanceNodesWithoutWorldContext = flags.contains(QueryOptions.Flag.APPLY_INHERITANCE_NODES_WITHOUT_WORLD_CONTEXT);
+        }
+
+        boolean isApplicable(Node node, boolean includeWithoutServer, boolean includeWithoutWorld) {
+            if (!this.contextual) {
+                return true;
+            }
+
+            Set<Context> nodeContexts = node.context();
+            if (nodeContexts == null || nodeContexts.isEmpty()) {
+                return includeWithoutServer && includeWithoutWorld;
+            }
+
+            boolean hasServer = false;
+            boolean hasWorld = false;
+            for (Context context : nodeContexts) {
+                String key = context.key();
+                hasServer |= key.equalsIgnoreCase("server");
+                hasWorld |= key.equalsIgnoreCase("world");
+
+                // each key in the node context must be satisfied by at least one of its values
+                if (!contains(context) && !anyValueSatisfied(nodeContexts, key)) {
+                    return false;
+                }
+            }
+
+            return (hasServer || includeWithoutServer) && (hasWorld || includeWithoutWorld);
+        }
+
+        private boolean contains(Context context) {
+            Set<String> values = this.contexts.get(context.key().toLowerCase(Locale.ROOT));
+            return values != null && values.contains(context.value().toLowerCase(Locale.ROOT));
+        }
+
+        private boolean anyValueSatisfied(Set<Context> nodeContexts, String key) {
+            for (Context other : nodeContexts) {
+                if (other.key().equalsIgnoreCase(key) && contains(other)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
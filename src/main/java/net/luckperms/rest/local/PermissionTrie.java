@@ -0,0 +1,316 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest.local;
+
+import net.luckperms.rest.model.Node;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * An immutable trie over the dot-separated segments of permission node keys.
+ *
+ * <p>Each key in the trie holds the candidate nodes for that key in priority order, so the
+ * first entry is the one that applies. Keeping the other candidates around means entries can
+ * be added and removed without a full rebuild, using path copying.</p>
+ *
+ * <p>Lookups follow the same order as the server: an exact match, then regex nodes, then the
+ * most specific wildcard node, then root wildcards. Keys are matched case-insensitively, and
+ * regex nodes are compiled with {@link Pattern#CASE_INSENSITIVE}, so the permission being
+ * checked is expected in lower case. Each regex is compiled once per entry, the first time it
+ * is needed, so compiled patterns are released along with the trie.</p>
+ */
+final class PermissionTrie {
+    static final PermissionTrie EMPTY = new PermissionTrie(TrieNode.EMPTY, Collections.emptyList());
+
+    private static final String WILDCARD = "*";
+    private static final String[] ROOT_WILDCARDS = {"*", "'*'"};
+
+    private static final Pattern NEVER_MATCHES = Pattern.compile("(?!)");
+
+    private final TrieNode root;
+    private final List<Entry> regexEntries;
+
+    private PermissionTrie(TrieNode root, List<Entry> regexEntries) {
+        this.root = root;
+        this.regexEntries = regexEntries;
+    }
+
+    static PermissionTrie build(Collection<Entry> entries) {
+        BuilderNode root = new BuilderNode();
+        List<Entry> regexEntries = new ArrayList<>();
+
+        for (Entry entry : entries) {
+            if (entry.isRegex()) {
+                regexEntries.add(entry);
+                continue;
+            }
+
+            BuilderNode node = root;
+            for (String segment : entry.segments) {
+                node = node.children.computeIfAbsent(segment, s -> new BuilderNode());
+            }
+            node.entries.add(entry);
+        }
+
+        regexEntries.sort(Entry.PRIORITY);
+        return new PermissionTrie(root.freeze(), regexEntries.isEmpty() ? Collections.emptyList() : regexEntries);
+    }
+
+    PermissionTrie with(Collection<Entry> added, Collection<Entry> removed) {
+        TrieNode root = this.root;
+        List<Entry> regexEntries = new ArrayList<>(this.regexEntries);
+
+        for (Entry entry : removed) {
+            if (entry.isRegex()) {
+                regexEntries.remove(entry);
+            } else {
+                root = root.without(entry, 0);
+            }
+        }
+        for (Entry entry : added) {
+            if (entry.isRegex()) {
+                regexEntries.add(entry);
+            } else {
+                root = root.with(entry, 0);
+            }
+        }
+
+        regexEntries.sort(Entry.PRIORITY);
+        return new PermissionTrie(root, regexEntries.isEmpty() ? Collections.emptyList() : regexEntries);
+    }
+
+    /**
+     * Finds the node which determines the result of a permission check.
+     *
+     * @param permission the permission, in lower case
+     * @return the node, or null if no nodes apply
+     */
+    Node lookup(String permission) {
+        TrieNode node = this.root;
+        Entry wildcard = null;
+
+        int start = 0;
+        while (true) {
+            int end = permission.indexOf('.', start);
+            node = node.children.get(end == -1 ? permission.substring(start) : permission.substring(start, end));
+            if (node == null) {
+                break;
+            }
+
+            if (end == -1) {
+                if (node.entries.length != 0) {
+                    return node.entries[0].node;
+                }
+                break;
+            }
+
+            // deeper wildcards take priority over shallower ones
+            TrieNode wildcardNode = node.children.get(WILDCARD);
+            if (wildcardNode != null && wildcardNode.entries.length != 0) {
+                wildcard = wildcardNode.entries[0];
+            }
+            start = end + 1;
+        }
+
+        for (Entry entry : this.regexEntries) {
+            if (entry.pattern().matcher(permission).matches()) {
+                return entry.node;
+            }
+        }
+
+        if (wildcard != null) {
+            return wildcard.node;
+        }
+
+        for (String rootWildcard : ROOT_WILDCARDS) {
+            TrieNode rootWildcardNode = this.root.children.get(rootWildcard);
+            if (rootWildcardNode != null && rootWildcardNode.entries.length != 0) {
+                return rootWildcardNode.entries[0].node;
+            }
+        }
+        return null;
+    }
+
+    private static String[] split(String key) {
+        List<String> segments = new ArrayList<>();
+        int start = 0;
+        int end;
+        while ((end = key.indexOf('.', start)) != -1) {
+            segments.add(key.substring(start, end));
+            start = end + 1;
+        }
+        segments.add(key.substring(start));
+        return segments.toArray(new String[0]);
+    }
+
+    /**
+     * A node in the trie, along with the layer it was inherited from.
+     *
+     * <p>Entries from lower layers take priority, followed by nodes with more specific
+     * contexts, followed by temporary nodes.</p>
+     */
+    static final class Entry {
+        static final Comparator<Entry> PRIORITY = Comparator
+                .comparingInt((Entry entry) -> entry.layer)
+                .thenComparing(entry -> entry.node, PermissionEvaluatorImpl.NODE_PRIORITY);
+
+        private final Node node;
+        private final int layer;
+        private final String[] segments;
+        private volatile Pattern pattern; // only used by regex entries, compiled lazily
+
+        Entry(Node node, int layer) {
+            this.node = node;
+            this.layer = layer;
+            this.segments = split(node.key().toLowerCase(Locale.ROOT));
+        }
+
+        Node node() {
+            return this.node;
+        }
+
+        boolean isRegex() {
+            return this.segments[0].startsWith("r=");
+        }
+
+        Pattern pattern() {
+            Pattern pattern = this.pattern;
+            if (pattern == null) {
+                try {
+                    pattern = Pattern.compile(this.node.key().substring(2), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+                } catch (PatternSyntaxException e) {
+                    pattern = NEVER_MATCHES;
+                }
+                this.pattern = pattern;
+            }
+            return pattern;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Entry)) return false;
+            Entry other = (Entry) o;
+            return this.layer == other.layer && this.node.equals(other.node);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * this.layer + this.node.hashCode();
+        }
+    }
+
+    private static final class TrieNode {
+        static final Entry[] NO_ENTRIES = new Entry[0];
+        static final TrieNode EMPTY = new TrieNode(Collections.emptyMap(), NO_ENTRIES);
+
+        private final Map<String, TrieNode> children;
+        private final Entry[] entries;
+
+        TrieNode(Map<String, TrieNode> children, Entry[] entries) {
+            this.children = children;
+            this.entries = entries;
+        }
+
+        TrieNode with(Entry entry, int depth) {
+            if (depth == entry.segments.length) {
+                Entry[] entries = Arrays.copyOf(this.entries, this.entries.length + 1);
+                entries[entries.length - 1] = entry;
+                Arrays.sort(entries, Entry.PRIORITY);
+                return new TrieNode(this.children, entries);
+            }
+
+            String segment = entry.segments[depth];
+            TrieNode child = this.children.getOrDefault(segment, EMPTY);
+
+            Map<String, TrieNode> children = new HashMap<>(this.children);
+            children.put(segment, child.with(entry, depth + 1));
+            return new TrieNode(children, this.entries);
+        }
+
+        TrieNode without(Entry entry, int depth) {
+            if (depth == entry.segments.length) {
+                int index = Arrays.asList(this.entries).indexOf(entry);
+                if (index == -1) {
+                    return this;
+                }
+
+                Entry[] entries = new Entry[this.entries.length - 1];
+                System.arraycopy(this.entries, 0, entries, 0, index);
+                System.arraycopy(this.entries, index + 1, entries, index, entries.length - index);
+                return new TrieNode(this.children, entries.length == 0 ? NO_ENTRIES : entries);
+            }
+
+            String segment = entry.segments[depth];
+            TrieNode child = this.children.get(segment);
+            if (child == null) {
+                return this;
+            }
+
+            TrieNode newChild = child.without(entry, depth + 1);
+            if (newChild == child) {
+                return this;
+            }
+
+            Map<String, TrieNode> children = new HashMap<>(this.children);
+            if (newChild.children.isEmpty() && newChild.entries.length == 0) {
+                children.remove(segment);
+            } else {
+                children.put(segment, newChild);
+            }
+            return new TrieNode(children.isEmpty() ? Collections.emptyMap() : children, this.entries);
+        }
+    }
+
+    private static final class BuilderNode {
+        private final Map<String, BuilderNode> children = new HashMap<>();
+        private final List<Entry> entries = new ArrayList<>(1);
+
+        TrieNode freeze() {
+            Map<String, TrieNode> children;
+            if (this.children.isEmpty()) {
+                children = Collections.emptyMap();
+            } else {
+                children = new HashMap<>(this.children.size() * 4 / 3 + 1);
+                this.children.forEach((segment, child) -> children.put(segment, child.freeze()));
+            }
+
+            Entry[] entries = this.entries.isEmpty() ? TrieNode.NO_ENTRIES : this.entries.toArray(new Entry[0]);
+            Arrays.sort(entries, Entry.PRIORITY);
+            return new TrieNode(children, entries);
+        }
+    }
+}
@@ -25,45 +25,112 @@
 
 package net.luckperms.rest.model;
 
-import com.google.gson.Gson;
-import com.google.gson.JsonElement;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Objects;
 
 abstract class AbstractModel {
-    private static final Gson GSON = new Gson();
+    private transient int hashCode;
 
-    private transient String jsonString;
-    private transient JsonElement jsonTree;
+    /**
+     * Compares the fields of this model with another model of the same class.
+     *
+     * @param other the other model
+     * @return true if all fields are equal
+     */
+    abstract boolean fieldsEqual(AbstractModel other);
 
-    private String asJsonString() {
-        String json = this.jsonString;
-        if (json == null) {
-            json = GSON.toJson(this);
-            this.jsonString = json;
-        }
-        return json;
-    }
-
-    private JsonElement asJsonTree() {
-        JsonElement json = this.jsonTree;
-        if (json == null) {
-            json = GSON.toJsonTree(this);
-            this.jsonTree = json;
-        }
-        return json;
-    }
+    /**
+     * Computes a hash code from the fields of this model, consistent with
+     * {@link #fieldsEqual(AbstractModel)}.
+     *
+     * @return the hash code
+     */
+    abstract int fieldsHashCode();
 
     @Override
     public String toString() {
-        return getClass().getSimpleName() + "(" + asJsonString() + ")";
+        return getClass().getSimpleName() + "(" + ModelTypeAdapterFactory.gson().toJson(this) + ")";
     }
 
     @Override
     public boolean equals(Object obj) {
-        return obj == this || (obj instanceof AbstractModel && asJsonTree().equals(((AbstractModel) obj).asJsonTree()));
+        if (obj == this) {
+            return true;
+        }
+        if (obj == null || obj.getClass() != getClass()) {
+            return false;
+        }
+        AbstractModel other = (AbstractModel) obj;
+        int hashCode = this.hashCode;
+        int otherHashCode = other.hashCode;
+        if (hashCode != 0 && otherHashCode != 0 && hashCode != otherHashCode) {
+            return false;
+        }
+        return fieldsEqual(other);
     }
 
     @Override
     public int hashCode() {
-        return asJsonTree().hashCode();
+        // models are immutable, so the hash code only needs computing once
+        int hashCode = this.hashCode;
+        if (hashCode == 0) {
+            hashCode = fieldsHashCode();
+            if (hashCode == 0) {
+                hashCode = 1;
+            }
+            this.hashCode = hashCode;
+        }
+        return hashCode;
+    }
+
+    /**
+     * Compares two collections which are serialized as JSON arrays, element by element in
+     * iteration order, whatever the type of collection.
+     *
+     * @param a the first collection
+     * @param b the second collection
+     * @return true if the collections are equal
+     */
+    static boolean collectionsEqual(Collection<?> a, Collection<?> b) {
+        if (a == b) {
+            return true;
+        }
+        if (a == null || b == null || a.size() != b.size()) {
+            return false;
+        }
+        if (a instanceof CompactNodeList && b instanceof CompactNodeList) {
+            return a.equals(b);
+        }
+        Iterator<?> itA = a.iterator();
+        Iterator<?> itB = b.iterator();
+        while (itA.hasNext()) {
+            if (!Objects.equals(itA.next(), itB.next())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Computes a hash code for a collection which is consistent with
+     * {@link #collectionsEqual(Collection, Collection)}, using the same algorithm as
+     * {@link java.util.List#hashCode()}.
+     *
+     * @param collection the collection
+     * @return the hash code
+     */
+    static int collectionHashCode(Collection<?> collection) {
+        if (collection == null) {
+            return 0;
+        }
+        if (collection instanceof CompactNodeList) {
+            return collection.hashCode();
+        }
+        int hashCode = 1;
+        for (Object element : collection) {
+            hashCode = 31 * hashCode + Objects.hashCode(element);
+        }
+        return hashCode;
     }
 }
@@ -27,6 +27,7 @@ package net.luckperms.rest.model;
 
 import com.google.gson.annotations.SerializedName;
 
+import java.util.Objects;
 import java.util.UUID;
 
 public class Action extends AbstractModel {
@@ -58,6 +59,24 @@ public class Action extends AbstractModel {
         this.description = description;
     }
 
+    @Override
+    boolean fieldsEqual(AbstractModel obj) {
+        Action other = (Action) obj;
+        return Objects.equals(this.timestamp, other.timestamp)
+                && Objects.equals(this.source, other.source)
+                && Objects.equals(this.target, other.target)
+                && Objects.equals(this.description, other.description);
+    }
+
+    @Override
+    int fieldsHashCode() {
+        int result = Objects.hashCode(this.timestamp);
+        result = 31 * result + Objects.hashCode(this.source);
+        result = 31 * result + Objects.hashCode(this.target);
+        result = 31 * result + Objects.hashCode(this.description);
+        return result;
+    }
+
     public static class Source extends AbstractModel {
         private final UUID uniqueId;
         private final String name;
@@ -74,6 +93,20 @@ public class Action extends AbstractModel {
         public String name() {
             return this.name;
         }
+
+        @Override
+        boolean fieldsEqual(AbstractModel obj) {
+            Source other = (Source) obj;
+            return Objects.equals(this.uniqueId, other.uniqueId)
+                    && Objects.equals(this.name, other.name);
+        }
+
+        @Override
+        int fieldsHashCode() {
+            int result = Objects.hashCode(this.uniqueId);
+            result = 31 * result + Objects.hashCode(this.name);
+            return result;
+        }
     }
 
     public static class Target extends AbstractModel {
@@ -105,6 +138,22 @@ public class Action extends AbstractModel {
             return this.type;
         }
 
+        @Override
+        boolean fieldsEqual(AbstractModel obj) {
+            Target other = (Target) obj;
+            return Objects.equals(this.uniqueId, other.uniqueId)
+                    && Objects.equals(this.name, other.name)
+                    && Objects.equals(this.type, other.type);
+        }
+
+        @Override
+        int fieldsHashCode() {
+            int result = Objects.hashCode(this.uniqueId);
+            result = 31 * result + Objects.hashCode(this.name);
+            result = 31 * result + Objects.hashCode(this.type);
+            return result;
+        }
+
         public enum Type {
 
             @SerializedName("user")
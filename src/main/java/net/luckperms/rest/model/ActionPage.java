@@ -43,4 +43,18 @@ public class ActionPage extends AbstractModel {
     public int overallSize() {
         return this.overallSize;
     }
+
+    @Override
+    boolean fieldsEqual(AbstractModel obj) {
+        ActionPage other = (ActionPage) obj;
+        return collectionsEqual(this.entries, other.entries)
+                && this.overallSize == other.overallSize;
+    }
+
+    @Override
+    int fieldsHashCode() {
+        int result = collectionHashCode(this.entries);
+        result = 31 * result + this.overallSize;
+        return result;
+    }
 }
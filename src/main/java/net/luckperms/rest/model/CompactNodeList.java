@@ -0,0 +1,393 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest.model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * An immutable list of {@link Node}s stored in columns, rather than as individual objects.
+ *
+ * <p>Keys are stored as indexes into a table of distinct keys, values as bits, and expiry times
+ * in a {@code long[]} which is only allocated if some node expires. Identical context sets are
+ * stored once and shared. This uses a fraction of the memory of a list of {@link Node}s, which
+ * matters for holders with tens of thousands of nodes.</p>
+ *
+ * <p>{@link #get(int)} creates a new {@link Node} view on each call. The {@link #key(int)},
+ * {@link #value(int)}, {@link #context(int)} and {@link #expiry(int)} accessors can be used to
+ * read a node without creating one.</p>
+ */
+public final class CompactNodeList extends AbstractList<Node> implements RandomAccess {
+    private static final CompactNodeList EMPTY = new Builder(0).build();
+
+    /**
+     * Gets an empty list.
+     *
+     * @return an empty list
+     */
+    public static CompactNodeList empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Creates a list containing the given nodes.
+     *
+     * @param nodes the nodes
+     * @return the list
+     */
+    public static CompactNodeList copyOf(Collection<Node> nodes) {
+        if (nodes instanceof CompactNodeList) {
+            return (CompactNodeList) nodes;
+        }
+        Builder builder = new Builder(nodes.size());
+        for (Node node : nodes) {
+            builder.add(node);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Creates a new builder.
+     *
+     * @return the builder
+     */
+    public static Builder builder() {
+        return new Builder(16);
+    }
+
+    private final int size;
+    private final String[] keyTable;
+    private final int[] keys;
+    private final Set<Context>[] contextTable;
+    private final int[] contexts;
+    private final long[] trueValues;
+    private final long[] nullValues; // null if no values are null
+    private final long[] hasExpiry; // null if no nodes expire
+    private final long[] expiries; // null if no nodes expire
+
+    private CompactNodeList(Builder builder) {
+        this.size = builder.size;
+        this.keyTable = builder.keyIds.values(new String[0]);
+        this.keys = Arrays.copyOf(builder.keys, this.size);
+        this.contextTable = builder.contextIds.values(newContextArray(0));
+        this.contexts = Arrays.copyOf(builder.contexts, this.size);
+
+        int words = (this.size + 63) >>> 6;
+        this.trueValues = Arrays.copyOf(builder.trueValues, words);
+        this.nullValues = builder.anyNullValues ? Arrays.copyOf(builder.nullValues, words) : null;
+        this.hasExpiry = builder.expiries != null ? Arrays.copyOf(builder.hasExpiry, words) : null;
+        this.expiries = builder.expiries != null ? Arrays.copyOf(builder.expiries, this.size) : null;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public Node get(int index) {
+        checkIndex(index);
+        return new Node(key(index), value(index), context(index), expiry(index));
+    }
+
+    /**
+     * Gets the key of the node at the given index.
+     *
+     * @param index the index
+     * @return the key
+     */
+    public String key(int index) {
+        checkIndex(index);
+        return this.keyTable[this.keys[index]];
+    }
+
+    /**
+     * Gets the value of the node at the given index.
+     *
+     * @param index the index
+     * @return the value
+     */
+    public Boolean value(int index) {
+        checkIndex(index);
+        if (this.nullValues != null && bit(this.nullValues, index)) {
+            return null;
+        }
+        return bit(this.trueValues, index);
+    }
+
+    /**
+     * Gets the context of the node at the given index.
+     *
+     * @param index the index
+     * @return the context
+     */
+    public Set<Context> context(int index) {
+        checkIndex(index);
+        int id = this.contexts[index];
+        return id >= 0 ? this.contextTable[id] : null;
+    }
+
+    /**
+     * Gets the expiry time of the node at the given index.
+     *
+     * @param index the index
+     * @return the expiry time
+     */
+    public Long expiry(int index) {
+        checkIndex(index);
+        if (this.hasExpiry == null || !bit(this.hasExpiry, index)) {
+            return null;
+        }
+        return this.expiries[index];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        }
+        if (!(o instanceof CompactNodeList)) {
+            return super.equals(o);
+        }
+
+        // compare column by column, without creating nodes
+        CompactNodeList other = (CompactNodeList) o;
+        if (this.size != other.size) {
+            return false;
+        }
+        for (int i = 0; i < this.size; i++) {
+            if (!Objects.equals(key(i), other.key(i))
+                    || !Objects.equals(value(i), other.value(i))
+                    || !Objects.equals(expiry(i), other.expiry(i))
+                    || !Objects.equals(context(i), other.context(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        // the List#hashCode of the equivalent nodes, without creating them
+        int[] contextHashes = new int[this.contextTable.length];
+        for (int i = 0; i < contextHashes.length; i++) {
+            contextHashes[i] = Objects.hashCode(this.contextTable[i]);
+        }
+
+        int hashCode = 1;
+        for (int i = 0; i < this.size; i++) {
+            int id = this.contexts[i];
+            // as Node#fieldsHashCode, then AbstractModel#hashCode
+            int nodeHash = Objects.hashCode(this.keyTable[this.keys[i]]);
+            nodeHash = 31 * nodeHash + (this.nullValues != null && bit(this.nullValues, i) ? 0 : Boolean.hashCode(bit(this.trueValues, i)));
+            nodeHash = 31 * nodeHash + (id >= 0 ? contextHashes[id] : 0);
+            nodeHash = 31 * nodeHash + (this.hasExpiry != null && bit(this.hasExpiry, i) ? Long.hashCode(this.expiries[i]) : 0);
+            hashCode = 31 * hashCode + (nodeHash != 0 ? nodeHash : 1);
+        }
+        return hashCode;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+        }
+    }
+
+    private static boolean bit(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<Context>[] newContextArray(int length) {
+        return (Set<Context>[]) new Set<?>[length];
+    }
+
+    /**
+     * Assigns sequential ids to distinct values, using an open addressing table of ids so that
+     * looking up an existing value doesn't allocate.
+     *
+     * @param <T> the value type
+     */
+    private static final class IdTable<T> {
+        private T[] values;
+        private int size = 0;
+        private int[] slots = new int[16]; // id + 1, or 0 if empty
+
+        IdTable(T[] values) {
+            this.values = values;
+        }
+
+        int id(T value) {
+            int mask = this.slots.length - 1;
+            int slot = spread(Objects.hashCode(value)) & mask;
+            while (true) {
+                int id = this.slots[slot] - 1;
+                if (id < 0) {
+                    break;
+                }
+                if (Objects.equals(this.values[id], value)) {
+                    return id;
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            int id = this.size++;
+            if (id == this.values.length) {
+                this.values = Arrays.copyOf(this.values, Math.max(8, id * 2));
+            }
+            this.values[id] = value;
+            this.slots[slot] = id + 1;
+            if (this.size * 2 > this.slots.length) {
+                rehash();
+            }
+            return id;
+        }
+
+        private void rehash() {
+            int[] slots = new int[this.slots.length * 2];
+            int mask = slots.length - 1;
+            for (int id = 0; id < this.size; id++) {
+                int slot = spread(Objects.hashCode(this.values[id])) & mask;
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = id + 1;
+            }
+            this.slots = slots;
+        }
+
+        T[] values(T[] empty) {
+            return this.size == 0 ? empty : Arrays.copyOf(this.values, this.size);
+        }
+
+        private static int spread(int hash) {
+            int h = hash * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+
+    /**
+     * A builder for {@link CompactNodeList}.
+     */
+    public static final class Builder {
+        private final IdTable<String> keyIds = new IdTable<>(new String[8]);
+        private final IdTable<Set<Context>> contextIds = new IdTable<>(newContextArray(4));
+
+        private int size = 0;
+        private int[] keys;
+        private int[] contexts;
+        private long[] trueValues;
+        private long[] nullValues;
+        private boolean anyNullValues = false;
+        private long[] hasExpiry;
+        private long[] expiries; // allocated when the first node with an expiry is added
+
+        private Builder(int capacity) {
+            capacity = Math.max(capacity, 1);
+            this.keys = new int[capacity];
+            this.contexts = new int[capacity];
+            this.trueValues = new long[(capacity + 63) >>> 6];
+            this.nullValues = new long[this.trueValues.length];
+            this.hasExpiry = new long[this.trueValues.length];
+        }
+
+        /**
+         * Adds a node to the list.
+         *
+         * @param node the node
+         * @return this builder
+         */
+        public Builder add(Node node) {
+            return add(node.key(), node.value(), node.context(), node.expiry());
+        }
+
+        /**
+         * Adds a node to the list.
+         *
+         * <p>The context set should not be modified after it has been added.</p>
+         *
+         * @param key the key of the node
+         * @param value the value of the node
+         * @param context the context of the node
+         * @param expiry the expiry time of the node
+         * @return this builder
+         */
+        public Builder add(String key, Boolean value, Set<Context> context, Long expiry) {
+            int index = this.size;
+            if (index == this.keys.length) {
+                grow();
+            }
+
+            this.keys[index] = this.keyIds.id(key);
+            this.contexts[index] = context != null ? this.contextIds.id(context) : -1;
+
+            long bit = 1L << index;
+            if (value == null) {
+                this.nullValues[index >>> 6] |= bit;
+                this.anyNullValues = true;
+            } else if (value) {
+                this.trueValues[index >>> 6] |= bit;
+            }
+
+            if (expiry != null) {
+                if (this.expiries == null) {
+                    this.expiries = new long[this.keys.length];
+                }
+                this.hasExpiry[index >>> 6] |= bit;
+                this.expiries[index] = expiry;
+            }
+
+            this.size++;
+            return this;
+        }
+
+        private void grow() {
+            int capacity = this.keys.length + (this.keys.length >> 1) + 1;
+            int words = (capacity + 63) >>> 6;
+            this.keys = Arrays.copyOf(this.keys, capacity);
+            this.contexts = Arrays.copyOf(this.contexts, capacity);
+            this.trueValues = Arrays.copyOf(this.trueValues, words);
+            this.nullValues = Arrays.copyOf(this.nullValues, words);
+            this.hasExpiry = Arrays.copyOf(this.hasExpiry, words);
+            if (this.expiries != null) {
+                this.expiries = Arrays.copyOf(this.expiries, capacity);
+            }
+        }
+
+        /**
+         * Builds the list.
+         *
+         * @return the list
+         */
+        public CompactNodeList build() {
+            return new CompactNodeList(this);
+        }
+    }
+}
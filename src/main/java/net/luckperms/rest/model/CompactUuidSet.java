@@ -0,0 +1,363 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest.model;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+/**
+ * An immutable set of {@link UUID}s, stored as two sorted {@code long} arrays.
+ *
+ * <p>Each entry costs 16 bytes, compared to around 80 bytes for a {@link UUID} in a
+ * {@link java.util.HashSet}. Lookups use a binary search, and {@link UUID} objects are only
+ * created while iterating.</p>
+ *
+ * <p>Iteration is in {@link UUID#compareTo(UUID) natural order}.</p>
+ *
+ * <p>Gson decodes any {@link java.util.Collection} using its own built-in adapter, so the
+ * {@link #typeAdapter() type adapter} must be registered explicitly to decode this class, either
+ * directly or using {@link ModelTypeAdapterFactory}.</p>
+ */
+public final class CompactUuidSet extends AbstractSet<UUID> {
+    private static final CompactUuidSet EMPTY = new CompactUuidSet(new long[0], new long[0]);
+
+    /**
+     * Gets an empty set.
+     *
+     * @return an empty set
+     */
+    public static CompactUuidSet empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Gets a Gson type adapter which reads and writes the set as an array of strings.
+     *
+     * @return the type adapter
+     */
+    public static TypeAdapter<CompactUuidSet> typeAdapter() {
+        return Adapter.INSTANCE;
+    }
+
+    /**
+     * Creates a set containing the given unique ids.
+     *
+     * @param uniqueIds the unique ids
+     * @return the set
+     */
+    public static CompactUuidSet copyOf(Collection<UUID> uniqueIds) {
+        if (uniqueIds instanceof CompactUuidSet) {
+            return (CompactUuidSet) uniqueIds;
+        }
+        Builder builder = new Builder(uniqueIds.size());
+        for (UUID uniqueId : uniqueIds) {
+            builder.add(uniqueId);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Creates a new builder.
+     *
+     * @return the builder
+     */
+    public static Builder builder() {
+        return new Builder(16);
+    }
+
+    private final long[] most;
+    private final long[] least;
+
+    private CompactUuidSet(long[] most, long[] least) {
+        this.most = most;
+        this.least = least;
+    }
+
+    @Override
+    public int size() {
+        return this.most.length;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof UUID)) {
+            return false;
+        }
+        UUID uniqueId = (UUID) o;
+        return contains(uniqueId.getMostSignificantBits(), uniqueId.getLeastSignificantBits());
+    }
+
+    /**
+     * Gets if the set contains the unique id with the given bits.
+     *
+     * @param mostSigBits the most significant bits of the unique id
+     * @param leastSigBits the least significant bits of the unique id
+     * @return true if the set contains the unique id
+     */
+    public boolean contains(long mostSigBits, long leastSigBits) {
+        int low = 0;
+        int high = this.most.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compare(this.most[mid], this.least[mid], mostSigBits, leastSigBits);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Iterator<UUID> iterator() {
+        return new Iterator<UUID>() {
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return this.index < CompactUuidSet.this.most.length;
+            }
+
+            @Override
+            public UUID next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int i = this.index++;
+                return new UUID(CompactUuidSet.this.most[i], CompactUuidSet.this.least[i]);
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof CompactUuidSet) {
+            CompactUuidSet other = (CompactUuidSet) o;
+            return Arrays.equals(this.most, other.most) && Arrays.equals(this.least, other.least);
+        }
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        // matches the sum of UUID#hashCode, as required by the Set contract
+        int hash = 0;
+        for (int i = 0; i < this.most.length; i++) {
+            long bits = this.most[i] ^ this.least[i];
+            hash += ((int) (bits >> 32)) ^ (int) bits;
+        }
+        return hash;
+    }
+
+    // same ordering as UUID#compareTo
+    private static int compare(long mostA, long leastA, long mostB, long leastB) {
+        int cmp = Long.compare(mostA, mostB);
+        return cmp != 0 ? cmp : Long.compare(leastA, leastB);
+    }
+
+    /**
+     * A builder for {@link CompactUuidSet}.
+     */
+    public static final class Builder {
+        private long[] most;
+        private long[] least;
+        private int size = 0;
+
+        private Builder(int capacity) {
+            this.most = new long[Math.max(capacity, 1)];
+            this.least = new long[Math.max(capacity, 1)];
+        }
+
+        /**
+         * Adds a unique id to the set.
+         *
+         * @param uniqueId the unique id
+         * @return this builder
+         */
+        public Builder add(UUID uniqueId) {
+            return add(uniqueId.getMostSignificantBits(), uniqueId.getLeastSignificantBits());
+        }
+
+        /**
+         * Adds the unique id with the given bits to the set.
+         *
+         * @param mostSigBits the most significant bits of the unique id
+         * @param leastSigBits the least significant bits of the unique id
+         * @return this builder
+         */
+        public Builder add(long mostSigBits, long leastSigBits) {
+            if (this.size == this.most.length) {
+                int capacity = this.size + (this.size >> 1) + 1;
+                this.most = Arrays.copyOf(this.most, capacity);
+                this.least = Arrays.copyOf(this.least, capacity);
+            }
+            this.most[this.size] = mostSigBits;
+            this.least[this.size] = leastSigBits;
+            this.size++;
+            return this;
+        }
+
+        /**
+         * Builds the set.
+         *
+         * @return the set
+         */
+        public CompactUuidSet build() {
+            if (this.size == 0) {
+                return EMPTY;
+            }
+
+            long[] most = Arrays.copyOf(this.most, this.size);
+            long[] least = Arrays.copyOf(this.least, this.size);
+            if (!isSorted(most, least)) {
+                mergeSort(most, least, most.clone(), least.clone(), 0, this.size);
+            }
+
+            // remove duplicates
+            int distinct = 1;
+            for (int i = 1; i < most.length; i++) {
+                if (most[i] != most[distinct - 1] || least[i] != least[distinct - 1]) {
+                    most[distinct] = most[i];
+                    least[distinct] = least[i];
+                    distinct++;
+                }
+            }
+            if (distinct != most.length) {
+                most = Arrays.copyOf(most, distinct);
+                least = Arrays.copyOf(least, distinct);
+            }
+            return new CompactUuidSet(most, least);
+        }
+
+        private static boolean isSorted(long[] most, long[] least) {
+            for (int i = 1; i < most.length; i++) {
+                if (compare(most[i - 1], least[i - 1], most[i], least[i]) > 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // sorts [from, to) of most/least, using src as scratch space which starts as a copy
+        private static void mergeSort(long[] most, long[] least, long[] srcMost, long[] srcLeast, int from, int to) {
+            if (to - from < 2) {
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            // sort each half of src into place, using the destination as scratch space
+            mergeSort(srcMost, srcLeast, most, least, from, mid);
+            mergeSort(srcMost, srcLeast, most, least, mid, to);
+
+            int i = from;
+            int j = mid;
+            for (int k = from; k < to; k++) {
+                if (j >= to || (i < mid && compare(srcMost[i], srcLeast[i], srcMost[j], srcLeast[j]) <= 0)) {
+                    most[k] = srcMost[i];
+                    least[k] = srcLeast[i];
+                    i++;
+                } else {
+                    most[k] = srcMost[j];
+                    least[k] = srcLeast[j];
+                    j++;
+                }
+            }
+        }
+    }
+
+    private static final class Adapter extends TypeAdapter<CompactUuidSet> {
+        private static final Adapter INSTANCE = new Adapter();
+
+        @Override
+        public void write(JsonWriter out, CompactUuidSet value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginArray();
+            for (int i = 0; i < value.most.length; i++) {
+                out.value(new UUID(value.most[i], value.least[i]).toString());
+            }
+            out.endArray();
+        }
+
+        @Override
+        public CompactUuidSet read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+
+            Builder builder = new Builder(1024);
+            in.beginArray();
+            while (in.hasNext()) {
+                String string = in.nextString();
+                if (!parse(string, builder)) {
+                    builder.add(UUID.fromString(string));
+                }
+            }
+            in.endArray();
+            return builder.build();
+        }
+
+        // parses the canonical 8-4-4-4-12 form without allocating a UUID
+        private static boolean parse(String s, Builder builder) {
+            if (s.length() != 36 || s.charAt(8) != '-' || s.charAt(13) != '-' || s.charAt(18) != '-' || s.charAt(23) != '-') {
+                return false;
+            }
+            long most = 0;
+            long least = 0;
+            for (int i = 0; i < 36; i++) {
+                if (i == 8 || i == 13 || i == 18 || i == 23) {
+                    continue;
+                }
+                int digit = Character.digit(s.charAt(i), 16);
+                if (digit < 0) {
+                    return false;
+                }
+                if (i < 19) {
+                    most = (most << 4) | digit;
+                } else {
+                    least = (least << 4) | digit;
+                }
+            }
+            builder.add(most, least);
+            return true;
+        }
+    }
+}
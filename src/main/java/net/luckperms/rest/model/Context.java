@@ -25,6 +25,8 @@
 
 package net.luckperms.rest.model;
 
+import java.util.Objects;
+
 public class Context extends AbstractModel {
     private final String key;
     private final String value;
@@ -41,4 +43,18 @@ public class Context extends AbstractModel {
     public String value() {
         return this.value;
     }
+
+    @Override
+    boolean fieldsEqual(AbstractModel obj) {
+        Context other = (Context) obj;
+        return Objects.equals(this.key, other.key)
+                && Objects.equals(this.value, other.value);
+    }
+
+    @Override
+    int fieldsHashCode() {
+        int result = Objects.hashCode(this.key);
+        result = 31 * result + Objects.hashCode(this.value);
+        return result;
+    }
 }
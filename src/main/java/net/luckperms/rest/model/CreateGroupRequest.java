@@ -25,6 +25,8 @@
 
 package net.luckperms.rest.model;
 
+import java.util.Objects;
+
 public class CreateGroupRequest extends AbstractModel {
     private final String name;
 
@@ -35,4 +37,15 @@ public class CreateGroupRequest extends AbstractModel {
     public String name() {
         return this.name;
     }
+
+    @Override
+    boolean fieldsEqual(AbstractModel obj) {
+        CreateGroupRequest other = (CreateGroupRequest) obj;
+        return Objects.equals(this.name, other.name);
+    }
+
+    @Override
+    int fieldsHashCode() {
+        return Objects.hashCode(this.name);
+    }
 }
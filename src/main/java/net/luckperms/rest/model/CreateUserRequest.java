@@ -25,6 +25,7 @@
 
 package net.luckperms.rest.model;
 
+import java.util.Objects;
 import java.util.UUID;
 
 public class CreateUserRequest extends AbstractModel {
@@ -43,4 +44,18 @@ public class CreateUserRequest extends AbstractModel {
     public String username() {
         return this.username;
     }
+
+    @Override
+    boolean fieldsEqual(AbstractModel obj) {
+        CreateUserRequest other = (CreateUserRequest) obj;
+        return Objects.equals(this.uniqueId, other.uniqueId)
+                && Objects.equals(this.username, other.username);
+    }
+
+    @Override
+    int fieldsHashCode() {
+        int result = Objects.hashCode(this.uniqueId);
+        result = 31 * result + Objects.hashCode(this.username);
+        return result;
+    }
 }
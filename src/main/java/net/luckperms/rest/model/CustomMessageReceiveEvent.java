@@ -25,6 +25,8 @@
 
 package net.luckperms.rest.model;
 
+import java.util.Objects;
+
 public class CustomMessageReceiveEvent extends AbstractModel {
     private final String channelId;
     private final String payload;
@@ -41,4 +43,18 @@ public class CustomMessageReceiveEvent extends AbstractModel {
     public String payload() {
         return this.payload;
     }
+
+    @Override
+    boolean fieldsEqual(AbstractModel obj) {
+        CustomMessageReceiveEvent other = (CustomMessageReceiveEvent) obj;
+        return Objects.equals(this.channelId, other.channelId)
+                && Objects.equals(this.payload, other.payload);
+    }
+
+    @Override
+    int fieldsHashCode() {
+        int result = Objects.hashCode(this.channelId);
+        result = 31 * result + Objects.hashCode(this.payload);
+        return result;
+    }
 }
@@ -26,6 +26,7 @@
 package net.luckperms.rest.model;
 
 import java.util.Collection;
+import java.util.Objects;
 
 public class Group extends AbstractModel {
     private final String name;
@@ -61,4 +62,24 @@ public class Group extends AbstractModel {
     public Metadata metadata() {
         return this.metadata;
     }
+
+    @Override
+    boolean fieldsEqual(AbstractModel obj) {
+        Group other = (Group) obj;
+        return Objects.equals(this.name, other.name)
+                && Objects.equals(this.displayName, other.displayName)
+                && this.weight == other.weight
+                && collectionsEqual(this.nodes, other.nodes)
+                && Objects.equals(this.metadata, other.metadata);
+    }
+
+    @Override
+    int fieldsHashCode() {
+        int result = Objects.hashCode(this.name);
+        result = 31 * result + Objects.hashCode(this.displayName);
+        result = 31 * result + this.weight;
+        result = 31 * result + collectionHashCode(this.nodes);
+        result = 31 * result + Objects.hashCode(this.metadata);
+        return result;
+    }
 }
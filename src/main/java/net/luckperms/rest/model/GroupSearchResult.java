@@ -26,6 +26,7 @@
 package net.luckperms.rest.model;
 
 import java.util.Collection;
+import java.util.Objects;
 
 public class GroupSearchResult extends AbstractModel {
     private final String name;
@@ -43,4 +44,18 @@ public class GroupSearchResult extends AbstractModel {
     public Collection<Node> results() {
         return this.results;
     }
+
+    @Override
+    boolean fieldsEqual(AbstractModel obj) {
+        GroupSearchResult other = (GroupSearchResult) obj;
+        return Objects.equals(this.name, other.name)
+                && collectionsEqual(this.results, other.results);
+    }
+
+    @Override
+    int fieldsHashCode() {
+        int result = Objects.hashCode(this.name);
+        result = 31 * result + collectionHashCode(this.results);
+        return result;
+    }
 }
@@ -26,6 +26,7 @@
 package net.luckperms.rest.model;
 
 import java.util.Map;
+import java.util.Objects;
 
 public class Health extends AbstractModel {
     private final boolean healthy;
@@ -43,4 +44,18 @@ public class Health extends AbstractModel {
     public Map<String, Object> details() {
         return this.details;
     }
+
+    @Override
+    boolean fieldsEqual(AbstractModel obj) {
+        Health other = (Health) obj;
+        return this.healthy == other.healthy
+                && Objects.equals(this.details, other.details);
+    }
+
+    @Override
+    int fieldsHashCode() {
+        int result = Boolean.hashCode(this.healthy);
+        result = 31 * result + Objects.hashCode(this.details);
+        return result;
+    }
 }
@@ -0,0 +1,67 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest.model;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded pool of canonical instances of immutable values.
+ *
+ * <p>The pool is a fixed-size table with one entry per slot. If a value's slot holds an equal
+ * value, the existing instance is returned, otherwise the slot is overwritten. Frequently
+ * repeated values therefore tend to stay in the pool, and the memory used by the pool never
+ * grows, without any locking or eviction bookkeeping.</p>
+ *
+ * @param <T> the value type
+ */
+final class InternPool<T> {
+    private final AtomicReferenceArray<T> slots;
+    private final int mask;
+
+    InternPool(int size) {
+        if (Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("size must be a power of two");
+        }
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    T intern(T value) {
+        if (value == null) {
+            return null;
+        }
+
+        int hash = value.hashCode();
+        int index = (hash ^ (hash >>> 16)) & this.mask;
+
+        T existing = this.slots.get(index);
+        if (existing != null && existing.equals(value)) {
+            return existing;
+        }
+        this.slots.lazySet(index, value);
+        return value;
+    }
+}
@@ -27,6 +27,8 @@ package net.luckperms.rest.model;
 
 import com.google.gson.annotations.SerializedName;
 
+import java.util.Objects;
+
 public class LogBroadcastEvent extends AbstractModel {
 
     private final Action entry;
@@ -45,6 +47,20 @@ public class LogBroadcastEvent extends AbstractModel {
         return this.origin;
     }
 
+    @Override
+    boolean fieldsEqual(AbstractModel obj) {
+        LogBroadcastEvent other = (LogBroadcastEvent) obj;
+        return Objects.equals(this.entry, other.entry)
+                && Objects.equals(this.origin, other.origin);
+    }
+
+    @Override
+    int fieldsHashCode() {
+        int result = Objects.hashCode(this.entry);
+        result = 31 * result + Objects.hashCode(this.origin);
+        return result;
+    }
+
     public enum Origin {
 
         @SerializedName("local")
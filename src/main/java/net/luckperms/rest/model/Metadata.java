@@ -26,6 +26,7 @@
 package net.luckperms.rest.model;
 
 import java.util.Map;
+import java.util.Objects;
 
 public class Metadata extends AbstractModel {
     private final Map<String, String> meta;
@@ -55,4 +56,22 @@ public class Metadata extends AbstractModel {
     public String primaryGroup() {
         return this.primaryGroup;
     }
+
+    @Override
+    boolean fieldsEqual(AbstractModel obj) {
+        Metadata other = (Metadata) obj;
+        return Objects.equals(this.meta, other.meta)
+                && Objects.equals(this.prefix, other.prefix)
+                && Objects.equals(this.suffix, other.suffix)
+                && Objects.equals(this.primaryGroup, other.primaryGroup);
+    }
+
+    @Override
+    int fieldsHashCode() {
+        int result = Objects.hashCode(this.meta);
+        result = 31 * result + Objects.hashCode(this.prefix);
+        result = 31 * result + Objects.hashCode(this.suffix);
+        result = 31 * result + Objects.hashCode(this.primaryGroup);
+        return result;
+    }
 }
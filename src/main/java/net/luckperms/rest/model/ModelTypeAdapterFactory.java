@@ -0,0 +1,1128 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest.model;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * A Gson {@link TypeAdapterFactory} with hand-written adapters for the most frequently decoded
+ * model classes.
+ *
+ * <p>The adapters read and write the same JSON as Gson's reflective adapter, but construct
+ * models using their constructors, without reflection. This is faster, and means the models
+ * don't need to be registered for reflection when compiled to a native image.</p>
+ *
+ * <p>Contexts, node keys and group names are repeated many times across users and groups, so
+ * decoded instances are shared using bounded intern pools, reducing the memory used by
+ * long-lived models. The node lists of {@link User#nodes() users} and
+ * {@link Group#nodes() groups} are decoded directly into a {@link CompactNodeList}, without
+ * creating a {@link Node} for each element. Other lists of nodes, such as those returned by the
+ * services' {@code nodes} methods, are decoded by Gson as ordinary mutable lists.</p>
+ *
+ * <p>The client uses the shared {@link #gson() Gson instance} with this factory registered,
+ * unless it is configured with additional adapters.</p>
+ */
+public final class ModelTypeAdapterFactory implements TypeAdapterFactory {
+    private static final ModelTypeAdapterFactory INSTANCE = new ModelTypeAdapterFactory();
+    private static final Gson GSON = new GsonBuilder().registerTypeAdapterFactory(INSTANCE).create();
+
+    private static final InternPool<Context> CONTEXTS = new InternPool<>(4096);
+    private static final InternPool<Set<Context>> CONTEXT_SETS = new InternPool<>(4096);
+    private static final InternPool<String> STRINGS = new InternPool<>(65536);
+
+    /**
+     * Gets the factory.
+     *
+     * @return the factory
+     */
+    public static ModelTypeAdapterFactory create() {
+        return INSTANCE;
+    }
+
+    /**
+     * Gets a shared {@link Gson} instance with this factory registered.
+     *
+     * <p>Gson caches the adapter it creates for each type, so sharing one instance means the
+     * adapters are only created once. Use {@link Gson#newBuilder()} to derive an instance with
+     * different settings.</p>
+     *
+     * @return the shared instance
+     */
+    public static Gson gson() {
+        return GSON;
+    }
+
+    private ModelTypeAdapterFactory() {
+
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        Class<? super T> rawType = type.getRawType();
+
+        TypeAdapter<?> adapter;
+        if (rawType == Context.class) {
+            adapter = new ContextAdapter();
+        } else if (rawType == Node.class) {
+            adapter = new NodeAdapter(gson);
+        } else if (rawType == CompactNodeList.class) {
+            adapter = new CompactNodeListAdapter(gson);
+        } else if (rawType == Metadata.class) {
+            adapter = new MetadataAdapter();
+        } else if (rawType == User.class) {
+            adapter = new UserAdapter(gson);
+        } else if (rawType == Group.class) {
+            adapter = new GroupAdapter(gson);
+        } else if (rawType == UserSearchResult.class) {
+            adapter = new UserSearchResultAdapter(gson);
+        } else if (rawType == GroupSearchResult.class) {
+            adapter = new GroupSearchResultAdapter(gson);
+        } else if (rawType == PermissionCheckRequest.class) {
+            adapter = new PermissionCheckRequestAdapter(gson);
+        } else if (rawType == PermissionCheckResult.class) {
+            adapter = new PermissionCheckResultAdapter(gson);
+        } else if (rawType == Action.class) {
+            adapter = new ActionAdapter(gson);
+        } else if (rawType == Action.Source.class) {
+            adapter = new ActionSourceAdapter();
+        } else if (rawType == Action.Target.class) {
+            adapter = new ActionTargetAdapter(gson);
+        } else if (rawType == ActionPage.class) {
+            adapter = new ActionPageAdapter(gson);
+        } else if (rawType == LogBroadcastEvent.class) {
+            adapter = new LogBroadcastEventAdapter(gson);
+        } else if (rawType == PreNetworkSyncEvent.class) {
+            adapter = new PreNetworkSyncEventAdapter(gson);
+        } else if (rawType == PostNetworkSyncEvent.class) {
+            adapter = new PostNetworkSyncEventAdapter(gson);
+        } else if (rawType == PreSyncEvent.class) {
+            adapter = new EmptyAdapter<>(PreSyncEvent::new);
+        } else if (rawType == PostSyncEvent.class) {
+            adapter = new EmptyAdapter<>(PostSyncEvent::new);
+        } else if (rawType == CustomMessageReceiveEvent.class) {
+            adapter = new CustomMessageReceiveEventAdapter();
+        } else if (rawType == CompactUuidSet.class) {
+            adapter = CompactUuidSet.typeAdapter();
+        } else {
+            return null;
+        }
+        return (TypeAdapter<T>) adapter.nullSafe();
+    }
+
+    // helpers
+
+    private static String nextString(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextString();
+    }
+
+    private static Long nextLong(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextLong();
+    }
+
+    private static Boolean nextBoolean(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextBoolean();
+    }
+
+    // like Gson's reflective adapter, a null leaves a primitive field at its current value
+    private static int nextInt(JsonReader in, int current) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return current;
+        }
+        return in.nextInt();
+    }
+
+    private static boolean nextBoolean(JsonReader in, boolean current) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return current;
+        }
+        return in.nextBoolean();
+    }
+
+    private static UUID nextUuid(JsonReader in) throws IOException {
+        String string = nextString(in);
+        return string != null ? UUID.fromString(string) : null;
+    }
+
+    private static <E, C extends Collection<E>> C nextCollection(JsonReader in, TypeAdapter<E> adapter, C collection) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        in.beginArray();
+        while (in.hasNext()) {
+            collection.add(adapter.read(in));
+        }
+        in.endArray();
+        return collection;
+    }
+
+    private static Set<Context> nextContextSet(JsonReader in, TypeAdapter<Context> contextAdapter) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        in.beginArray();
+        if (!in.hasNext()) {
+            in.endArray();
+            return Collections.emptySet();
+        }
+        Set<Context> set = new LinkedHashSet<>();
+        while (in.hasNext()) {
+            set.add(contextAdapter.read(in));
+        }
+        in.endArray();
+        return CONTEXT_SETS.intern(Collections.unmodifiableSet(set));
+    }
+
+    private static List<String> nextInternedStringList(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        List<String> list = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            list.add(STRINGS.intern(nextString(in)));
+        }
+        in.endArray();
+        return list;
+    }
+
+    private static void writeUuid(JsonWriter out, UUID uuid) throws IOException {
+        out.value(uuid != null ? uuid.toString() : null);
+    }
+
+    private static <E> void writeCollection(JsonWriter out, TypeAdapter<E> adapter, Collection<E> collection) throws IOException {
+        if (collection == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginArray();
+        for (E element : collection) {
+            adapter.write(out, element);
+        }
+        out.endArray();
+    }
+
+    private static void writeStringList(JsonWriter out, List<String> list) throws IOException {
+        if (list == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginArray();
+        for (String string : list) {
+            out.value(string);
+        }
+        out.endArray();
+    }
+
+    // adapters
+
+    private static final class ContextAdapter extends TypeAdapter<Context> {
+        @Override
+        public void write(JsonWriter out, Context value) throws IOException {
+            out.beginObject();
+            out.name("key").value(value.key());
+            out.name("value").value(value.value());
+            out.endObject();
+        }
+
+        @Override
+        public Context read(JsonReader in) throws IOException {
+            String key = null;
+            String value = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "key":
+                        key = nextString(in);
+                        break;
+                    case "value":
+                        value = nextString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return CONTEXTS.intern(new Context(key, value));
+        }
+    }
+
+    private static final class NodeAdapter extends TypeAdapter<Node> {
+        private final TypeAdapter<Context> contextAdapter;
+
+        NodeAdapter(Gson gson) {
+            this.contextAdapter = gson.getAdapter(Context.class);
+        }
+
+        @Override
+        public void write(JsonWriter out, Node value) throws IOException {
+            out.beginObject();
+            out.name("key").value(value.key());
+            out.name("value").value(value.value());
+            out.name("context");
+            writeCollection(out, this.contextAdapter, value.context());
+            out.name("expiry").value(value.expiry());
+            out.endObject();
+        }
+
+        @Override
+        public Node read(JsonReader in) throws IOException {
+            return read(in, this.contextAdapter, Node::new);
+        }
+
+        static <R> R read(JsonReader in, TypeAdapter<Context> contextAdapter, NodeFactory<R> factory) throws IOException {
+            String key = null;
+            Boolean value = null;
+            Set<Context> context = null;
+            Long expiry = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "key":
+                        key = STRINGS.intern(nextString(in));
+                        break;
+                    case "value":
+                        value = nextBoolean(in);
+                        break;
+                    case "context":
+                        context = nextContextSet(in, contextAdapter);
+                        break;
+                    case "expiry":
+                        expiry = nextLong(in);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return factory.create(key, value, context, expiry);
+        }
+    }
+
+    @FunctionalInterface
+    private interface NodeFactory<R> {
+        R create(String key, Boolean value, Set<Context> context, Long expiry);
+    }
+
+    private static final class CompactNodeListAdapter extends TypeAdapter<CompactNodeList> {
+        private final TypeAdapter<Context> contextAdapter;
+        private final TypeAdapter<Node> nodeAdapter;
+
+        CompactNodeListAdapter(Gson gson) {
+            this.contextAdapter = gson.getAdapter(Context.class);
+            this.nodeAdapter = gson.getAdapter(Node.class);
+        }
+
+        @Override
+        public void write(JsonWriter out, CompactNodeList value) throws IOException {
+            writeCollection(out, this.nodeAdapter, value);
+        }
+
+        @Override
+        public CompactNodeList read(JsonReader in) throws IOException {
+            CompactNodeList.Builder builder = CompactNodeList.builder();
+            NodeFactory<CompactNodeList.Builder> factory = builder::add;
+            in.beginArray();
+            while (in.hasNext()) {
+                if (in.peek() == JsonToken.NULL) {
+                    throw new JsonSyntaxException("null node at " + in.getPath());
+                }
+                NodeAdapter.read(in, this.contextAdapter, factory);
+            }
+            in.endArray();
+            return builder.build();
+        }
+    }
+
+    private static final class MetadataAdapter extends TypeAdapter<Metadata> {
+        @Override
+        public void write(JsonWriter out, Metadata value) throws IOException {
+            out.beginObject();
+            out.name("meta");
+            if (value.meta() == null) {
+                out.nullValue();
+            } else {
+                out.beginObject();
+                for (Map.Entry<String, String> entry : value.meta().entrySet()) {
+                    out.name(String.valueOf(entry.getKey())).value(entry.getValue());
+                }
+                out.endObject();
+            }
+            out.name("prefix").value(value.prefix());
+            out.name("suffix").value(value.suffix());
+            out.name("primaryGroup").value(value.primaryGroup());
+            out.endObject();
+        }
+
+        @Override
+        public Metadata read(JsonReader in) throws IOException {
+            Map<String, String> meta = null;
+            String prefix = null;
+            String suffix = null;
+            String primaryGroup = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "meta":
+                        if (in.peek() == JsonToken.NULL) {
+                            in.nextNull();
+                            meta = null;
+                        } else {
+                            meta = new LinkedHashMap<>();
+                            in.beginObject();
+                            while (in.hasNext()) {
+                                meta.put(in.nextName(), nextString(in));
+                            }
+                            in.endObject();
+                        }
+                        break;
+                    case "prefix":
+                        prefix = nextString(in);
+                        break;
+                    case "suffix":
+                        suffix = nextString(in);
+                        break;
+                    case "primaryGroup":
+                        primaryGroup = STRINGS.intern(nextString(in));
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return new Metadata(meta, prefix, suffix, primaryGroup);
+        }
+    }
+
+    private static final class UserAdapter extends TypeAdapter<User> {
+        private final TypeAdapter<Node> nodeAdapter;
+        private final TypeAdapter<CompactNodeList> nodeListAdapter;
+        private final TypeAdapter<Metadata> metadataAdapter;
+
+        UserAdapter(Gson gson) {
+            this.nodeAdapter = gson.getAdapter(Node.class);
+            this.nodeListAdapter = gson.getAdapter(CompactNodeList.class);
+            this.metadataAdapter = gson.getAdapter(Metadata.class);
+        }
+
+        @Override
+        public void write(JsonWriter out, User value) throws IOException {
+            out.beginObject();
+            out.name("uniqueId");
+            writeUuid(out, value.uniqueId());
+            out.name("username").value(value.username());
+            out.name("parentGroups");
+            writeStringList(out, value.parentGroups());
+            out.name("nodes");
+            writeCollection(out, this.nodeAdapter, value.nodes());
+            out.name("metadata");
+            this.metadataAdapter.write(out, value.metadata());
+            out.endObject();
+        }
+
+        @Override
+        public User read(JsonReader in) throws IOException {
+            UUID uniqueId = null;
+            String username = null;
+            List<String> parentGroups = null;
+            List<Node> nodes = null;
+            Metadata metadata = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "uniqueId":
+                        uniqueId = nextUuid(in);
+                        break;
+                    case "username":
+                        username = nextString(in);
+                        break;
+                    case "parentGroups":
+                        parentGroups = nextInternedStringList(in);
+                        break;
+                    case "nodes":
+                        nodes = this.nodeListAdapter.read(in);
+                        break;
+                    case "metadata":
+                        metadata = this.metadataAdapter.read(in);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return new User(uniqueId, username, parentGroups, nodes, metadata);
+        }
+    }
+
+    private static final class GroupAdapter extends TypeAdapter<Group> {
+        private final TypeAdapter<Node> nodeAdapter;
+        private final TypeAdapter<CompactNodeList> nodeListAdapter;
+        private final TypeAdapter<Metadata> metadataAdapter;
+
+        GroupAdapter(Gson gson) {
+            this.nodeAdapter = gson.getAdapter(Node.class);
+            this.nodeListAdapter = gson.getAdapter(CompactNodeList.class);
+            this.metadataAdapter = gson.getAdapter(Metadata.class);
+        }
+
+        @Override
+        public void write(JsonWriter out, Group value) throws IOException {
+            out.beginObject();
+            out.name("name").value(value.name());
+            out.name("displayName").value(value.displayName());
+            out.name("weight").value(value.weight());
+            out.name("nodes");
+            writeCollection(out, this.nodeAdapter, value.nodes());
+            out.name("metadata");
+            this.metadataAdapter.write(out, value.metadata());
+            out.endObject();
+        }
+
+        @Override
+        public Group read(JsonReader in) throws IOException {
+            String name = null;
+            String displayName = null;
+            int weight = 0;
+            Collection<Node> nodes = null;
+            Metadata metadata = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "name":
+                        name = nextString(in);
+                        break;
+                    case "displayName":
+                        displayName = nextString(in);
+                        break;
+                    case "weight":
+                        weight = nextInt(in, weight);
+                        break;
+                    case "nodes":
+                        nodes = this.nodeListAdapter.read(in);
+                        break;
+                    case "metadata":
+                        metadata = this.metadataAdapter.read(in);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return new Group(name, displayName, weight, nodes, metadata);
+        }
+    }
+
+    private static final class UserSearchResultAdapter extends TypeAdapter<UserSearchResult> {
+        private final TypeAdapter<Node> nodeAdapter;
+
+        UserSearchResultAdapter(Gson gson) {
+            this.nodeAdapter = gson.getAdapter(Node.class);
+        }
+
+        @Override
+        public void write(JsonWriter out, UserSearchResult value) throws IOException {
+            out.beginObject();
+            out.name("uniqueId");
+            writeUuid(out, value.uniqueId());
+            out.name("results");
+            writeCollection(out, this.nodeAdapter, value.results());
+            out.endObject();
+        }
+
+        @Override
+        public UserSearchResult read(JsonReader in) throws IOException {
+            UUID uniqueId = null;
+            Collection<Node> results = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "uniqueId":
+                        uniqueId = nextUuid(in);
+                        break;
+                    case "results":
+                        results = nextCollection(in, this.nodeAdapter, new ArrayList<>());
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return new UserSearchResult(uniqueId, results);
+        }
+    }
+
+    private static final class GroupSearchResultAdapter extends TypeAdapter<GroupSearchResult> {
+        private final TypeAdapter<Node> nodeAdapter;
+
+        GroupSearchResultAdapter(Gson gson) {
+            this.nodeAdapter = gson.getAdapter(Node.class);
+        }
+
+        @Override
+        public void write(JsonWriter out, GroupSearchResult value) throws IOException {
+            out.beginObject();
+            out.name("name").value(value.name());
+            out.name("results");
+            writeCollection(out, this.nodeAdapter, value.results());
+            out.endObject();
+        }
+
+        @Override
+        public GroupSearchResult read(JsonReader in) throws IOException {
+            String name = null;
+            Collection<Node> results = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "name":
+                        name = nextString(in);
+                        break;
+                    case "results":
+                        results = nextCollection(in, this.nodeAdapter, new ArrayList<>());
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return new GroupSearchResult(name, results);
+        }
+    }
+
+    private static final class PermissionCheckRequestAdapter extends TypeAdapter<PermissionCheckRequest> {
+        private final Gson gson;
+        private final TypeAdapter<QueryOptions> queryOptionsAdapter;
+
+        // bulk checks send the same query options with every request, so the JSON for the
+        // most recent instance is kept and written as is
+        private volatile SerializedQueryOptions lastQueryOptions;
+
+        PermissionCheckRequestAdapter(Gson gson) {
+            this.gson = gson;
+            this.queryOptionsAdapter = gson.getAdapter(QueryOptions.class);
+        }
+
+        private String serialize(QueryOptions queryOptions) {
+            SerializedQueryOptions last = this.lastQueryOptions;
+            if (last == null || last.queryOptions != queryOptions) {
+                last = new SerializedQueryOptions(queryOptions, this.gson.toJson(queryOptions, QueryOptions.class));
+                this.lastQueryOptions = last;
+            }
+            return last.json;
+        }
+
+        @Override
+        public void write(JsonWriter out, PermissionCheckRequest value) throws IOException {
+            out.beginObject();
+            out.name("permission").value(value.permission());
+            out.name("queryOptions");
+            if (value.queryOptions() == null) {
+                out.nullValue();
+            } else {
+                out.jsonValue(serialize(value.queryOptions()));
+            }
+            out.endObject();
+        }
+
+        @Override
+        public PermissionCheckRequest read(JsonReader in) throws IOException {
+            String permission = null;
+            QueryOptions queryOptions = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "permission":
+                        permission = nextString(in);
+                        break;
+                    case "queryOptions":
+                        queryOptions = this.queryOptionsAdapter.read(in);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return new PermissionCheckRequest(permission, queryOptions);
+        }
+    }
+
+    private static final class SerializedQueryOptions {
+        private final QueryOptions queryOptions;
+        private final String json;
+
+        SerializedQueryOptions(QueryOptions queryOptions, String json) {
+            this.queryOptions = queryOptions;
+            this.json = json;
+        }
+    }
+
+    private static final class PermissionCheckResultAdapter extends TypeAdapter<PermissionCheckResult> {
+        private final TypeAdapter<PermissionCheckResult.Tristate> tristateAdapter;
+        private final TypeAdapter<Node> nodeAdapter;
+
+        PermissionCheckResultAdapter(Gson gson) {
+            this.tristateAdapter = gson.getAdapter(PermissionCheckResult.Tristate.class);
+            this.nodeAdapter = gson.getAdapter(Node.class);
+        }
+
+        @Override
+        public void write(JsonWriter out, PermissionCheckResult value) throws IOException {
+            out.beginObject();
+            out.name("result");
+            this.tristateAdapter.write(out, value.result());
+            out.name("node");
+            this.nodeAdapter.write(out, value.node());
+            out.endObject();
+        }
+
+        @Override
+        public PermissionCheckResult read(JsonReader in) throws IOException {
+            PermissionCheckResult.Tristate result = null;
+            Node node = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "result":
+                        result = this.tristateAdapter.read(in);
+                        break;
+                    case "node":
+                        node = this.nodeAdapter.read(in);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return new PermissionCheckResult(result, node);
+        }
+    }
+
+    private static final class ActionAdapter extends TypeAdapter<Action> {
+        private final TypeAdapter<Action.Source> sourceAdapter;
+        private final TypeAdapter<Action.Target> targetAdapter;
+
+        ActionAdapter(Gson gson) {
+            this.sourceAdapter = gson.getAdapter(Action.Source.class);
+            this.targetAdapter = gson.getAdapter(Action.Target.class);
+        }
+
+        @Override
+        public void write(JsonWriter out, Action value) throws IOException {
+            out.beginObject();
+            out.name("timestamp").value(value.timestamp());
+            out.name("source");
+            this.sourceAdapter.write(out, value.source());
+            out.name("target");
+            this.targetAdapter.write(out, value.target());
+            out.name("description").value(value.description());
+            out.endObject();
+        }
+
+        @Override
+        public Action read(JsonReader in) throws IOException {
+            Long timestamp = null;
+            Action.Source source = null;
+            Action.Target target = null;
+            String description = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "timestamp":
+                        timestamp = nextLong(in);
+                        break;
+                    case "source":
+                        source = this.sourceAdapter.read(in);
+                        break;
+                    case "target":
+                        target = this.targetAdapter.read(in);
+                        break;
+                    case "description":
+                        description = nextString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return new Action(timestamp, source, target, description);
+        }
+    }
+
+    private static final class ActionSourceAdapter extends TypeAdapter<Action.Source> {
+        @Override
+        public void write(JsonWriter out, Action.Source value) throws IOException {
+            out.beginObject();
+            out.name("uniqueId");
+            writeUuid(out, value.uniqueId());
+            out.name("name").value(value.name());
+            out.endObject();
+        }
+
+        @Override
+        public Action.Source read(JsonReader in) throws IOException {
+            UUID uniqueId = null;
+            String name = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "uniqueId":
+                        uniqueId = nextUuid(in);
+                        break;
+                    case "name":
+                        name = nextString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return new Action.Source(uniqueId, name);
+        }
+    }
+
+    private static final class ActionTargetAdapter extends TypeAdapter<Action.Target> {
+        private final TypeAdapter<Action.Target.Type> typeAdapter;
+
+        ActionTargetAdapter(Gson gson) {
+            this.typeAdapter = gson.getAdapter(Action.Target.Type.class);
+        }
+
+        @Override
+        public void write(JsonWriter out, Action.Target value) throws IOException {
+            out.beginObject();
+            out.name("uniqueId");
+            writeUuid(out, value.uniqueId());
+            out.name("name").value(value.name());
+            out.name("type");
+            this.typeAdapter.write(out, value.type());
+            out.endObject();
+        }
+
+        @Override
+        public Action.Target read(JsonReader in) throws IOException {
+            UUID uniqueId = null;
+            String name = null;
+            Action.Target.Type type = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "uniqueId":
+                        uniqueId = nextUuid(in);
+                        break;
+                    case "name":
+                        name = nextString(in);
+                        break;
+                    case "type":
+                        type = this.typeAdapter.read(in);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return new Action.Target(uniqueId, name, type);
+        }
+    }
+
+    private static final class ActionPageAdapter extends TypeAdapter<ActionPage> {
+        private final TypeAdapter<Action> actionAdapter;
+
+        ActionPageAdapter(Gson gson) {
+            this.actionAdapter = gson.getAdapter(Action.class);
+        }
+
+        @Override
+        public void write(JsonWriter out, ActionPage value) throws IOException {
+            out.beginObject();
+            out.name("entries");
+            writeCollection(out, this.actionAdapter, value.entries());
+            out.name("overallSize").value(value.overallSize());
+            out.endObject();
+        }
+
+        @Override
+        public ActionPage read(JsonReader in) throws IOException {
+            Collection<Action> entries = null;
+            int overallSize = 0;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "entries":
+                        entries = nextCollection(in, this.actionAdapter, new ArrayList<>());
+                        break;
+                    case "overallSize":
+                        overallSize = nextInt(in, overallSize);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return new ActionPage(entries, overallSize);
+        }
+    }
+
+    private static final class LogBroadcastEventAdapter extends TypeAdapter<LogBroadcastEvent> {
+        private final TypeAdapter<Action> actionAdapter;
+        private final TypeAdapter<LogBroadcastEvent.Origin> originAdapter;
+
+        LogBroadcastEventAdapter(Gson gson) {
+            this.actionAdapter = gson.getAdapter(Action.class);
+            this.originAdapter = gson.getAdapter(LogBroadcastEvent.Origin.class);
+        }
+
+        @Override
+        public void write(JsonWriter out, LogBroadcastEvent value) throws IOException {
+            out.beginObject();
+            out.name("entry");
+            this.actionAdapter.write(out, value.entry());
+            out.name("origin");
+            this.originAdapter.write(out, value.origin());
+            out.endObject();
+        }
+
+        @Override
+        public LogBroadcastEvent read(JsonReader in) throws IOException {
+            Action entry = null;
+            LogBroadcastEvent.Origin origin = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "entry":
+                        entry = this.actionAdapter.read(in);
+                        break;
+                    case "origin":
+                        origin = this.originAdapter.read(in);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return new LogBroadcastEvent(entry, origin);
+        }
+    }
+
+    private static final class PreNetworkSyncEventAdapter extends TypeAdapter<PreNetworkSyncEvent> {
+        private final TypeAdapter<SyncType> syncTypeAdapter;
+
+        PreNetworkSyncEventAdapter(Gson gson) {
+            this.syncTypeAdapter = gson.getAdapter(SyncType.class);
+        }
+
+        @Override
+        public void write(JsonWriter out, PreNetworkSyncEvent value) throws IOException {
+            out.beginObject();
+            out.name("syncId");
+            writeUuid(out, value.syncId());
+            out.name("type");
+            this.syncTypeAdapter.write(out, value.type());
+            out.name("specificUserUniqueId");
+            writeUuid(out, value.specificUserUniqueId());
+            out.endObject();
+        }
+
+        @Override
+        public PreNetworkSyncEvent read(JsonReader in) throws IOException {
+            UUID syncId = null;
+            SyncType type = null;
+            UUID specificUserUniqueId = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "syncId":
+                        syncId = nextUuid(in);
+                        break;
+                    case "type":
+                        type = this.syncTypeAdapter.read(in);
+                        break;
+                    case "specificUserUniqueId":
+                        specificUserUniqueId = nextUuid(in);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return new PreNetworkSyncEvent(syncId, type, specificUserUniqueId);
+        }
+    }
+
+    private static final class PostNetworkSyncEventAdapter extends TypeAdapter<PostNetworkSyncEvent> {
+        private final TypeAdapter<SyncType> syncTypeAdapter;
+
+        PostNetworkSyncEventAdapter(Gson gson) {
+            this.syncTypeAdapter = gson.getAdapter(SyncType.class);
+        }
+
+        @Override
+        public void write(JsonWriter out, PostNetworkSyncEvent value) throws IOException {
+            out.beginObject();
+            out.name("syncId");
+            writeUuid(out, value.syncId());
+            out.name("type");
+            this.syncTypeAdapter.write(out, value.type());
+            out.name("didSyncOccur").value(value.didSyncOccur());
+            out.name("specificUserUniqueId");
+            writeUuid(out, value.specificUserUniqueId());
+            out.endObject();
+        }
+
+        @Override
+        public PostNetworkSyncEvent read(JsonReader in) throws IOException {
+            UUID syncId = null;
+            SyncType type = null;
+            boolean didSyncOccur = false;
+            UUID specificUserUniqueId = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "syncId":
+                        syncId = nextUuid(in);
+                        break;
+                    case "type":
+                        type = this.syncTypeAdapter.read(in);
+                        break;
+                    case "didSyncOccur":
+                        didSyncOccur = nextBoolean(in, didSyncOccur);
+                        break;
+                    case "specificUserUniqueId":
+                        specificUserUniqueId = nextUuid(in);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return new PostNetworkSyncEvent(syncId, type, didSyncOccur, specificUserUniqueId);
+        }
+    }
+
+    private static final class CustomMessageReceiveEventAdapter extends TypeAdapter<CustomMessageReceiveEvent> {
+        @Override
+        public void write(JsonWriter out, CustomMessageReceiveEvent value) throws IOException {
+            out.beginObject();
+            out.name("channelId").value(value.channelId());
+            out.name("payload").value(value.payload());
+            out.endObject();
+        }
+
+        @Override
+        public CustomMessageReceiveEvent read(JsonReader in) throws IOException {
+            String channelId = null;
+            String payload = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "channelId":
+                        channelId = nextString(in);
+                        break;
+                    case "payload":
+                        payload = nextString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return new CustomMessageReceiveEvent(channelId, payload);
+        }
+    }
+
+    private static final class EmptyAdapter<T> extends TypeAdapter<T> {
+        private final Supplier<T> constructor;
+
+        EmptyAdapter(Supplier<T> constructor) {
+            this.constructor = constructor;
+        }
+
+        @Override
+        public void write(JsonWriter out, T value) throws IOException {
+            out.beginObject();
+            out.endObject();
+        }
+
+        @Override
+        public T read(JsonReader in) throws IOException {
+            in.skipValue();
+            return this.constructor.get();
+        }
+    }
+}
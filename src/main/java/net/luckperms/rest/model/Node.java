@@ -25,6 +25,7 @@
 
 package net.luckperms.rest.model;
 
+import java.util.Objects;
 import java.util.Set;
 
 public class Node extends AbstractModel {
@@ -55,4 +56,22 @@ public class Node extends AbstractModel {
     public Long expiry() {
         return this.expiry;
     }
+
+    @Override
+    boolean fieldsEqual(AbstractModel obj) {
+        Node other = (Node) obj;
+        return Objects.equals(this.key, other.key)
+                && Objects.equals(this.value, other.value)
+                && Objects.equals(this.context, other.context)
+                && Objects.equals(this.expiry, other.expiry);
+    }
+
+    @Override
+    int fieldsHashCode() {
+        int result = Objects.hashCode(this.key);
+        result = 31 * result + Objects.hashCode(this.value);
+        result = 31 * result + Objects.hashCode(this.context);
+        result = 31 * result + Objects.hashCode(this.expiry);
+        return result;
+    }
 }
@@ -25,6 +25,8 @@
 
 package net.luckperms.rest.model;
 
+import java.util.Objects;
+
 public class PermissionCheckRequest extends AbstractModel {
     private final String permission;
     private final QueryOptions queryOptions; // nullable
@@ -41,4 +43,18 @@ public class PermissionCheckRequest extends AbstractModel {
     public QueryOptions queryOptions() {
         return this.queryOptions;
     }
+
+    @Override
+    boolean fieldsEqual(AbstractModel obj) {
+        PermissionCheckRequest other = (PermissionCheckRequest) obj;
+        return Objects.equals(this.permission, other.permission)
+                && Objects.equals(this.queryOptions, other.queryOptions);
+    }
+
+    @Override
+    int fieldsHashCode() {
+        int result = Objects.hashCode(this.permission);
+        result = 31 * result + Objects.hashCode(this.queryOptions);
+        return result;
+    }
 }
@@ -27,6 +27,8 @@ package net.luckperms.rest.model;
 
 import com.google.gson.annotations.SerializedName;
 
+import java.util.Objects;
+
 public class PermissionCheckResult extends AbstractModel {
     private final Tristate result;
     private final Node node;
@@ -44,6 +46,20 @@ public class PermissionCheckResult extends AbstractModel {
         return this.node;
     }
 
+    @Override
+    boolean fieldsEqual(AbstractModel obj) {
+        PermissionCheckResult other = (PermissionCheckResult) obj;
+        return Objects.equals(this.result, other.result)
+                && Objects.equals(this.node, other.node);
+    }
+
+    @Override
+    int fieldsHashCode() {
+        int result = Objects.hashCode(this.result);
+        result = 31 * result + Objects.hashCode(this.node);
+        return result;
+    }
+
     public enum Tristate {
 
         @SerializedName("true")
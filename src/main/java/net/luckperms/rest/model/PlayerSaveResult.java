@@ -27,6 +27,7 @@ package net.luckperms.rest.model;
 
 import com.google.gson.annotations.SerializedName;
 
+import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
 
@@ -53,6 +54,22 @@ public class PlayerSaveResult extends AbstractModel {
         return this.otherUniqueIds;
     }
 
+    @Override
+    boolean fieldsEqual(AbstractModel obj) {
+        PlayerSaveResult other = (PlayerSaveResult) obj;
+        return Objects.equals(this.outcomes, other.outcomes)
+                && Objects.equals(this.previousUsername, other.previousUsername)
+                && Objects.equals(this.otherUniqueIds, other.otherUniqueIds);
+    }
+
+    @Override
+    int fieldsHashCode() {
+        int result = Objects.hashCode(this.outcomes);
+        result = 31 * result + Objects.hashCode(this.previousUsername);
+        result = 31 * result + Objects.hashCode(this.otherUniqueIds);
+        return result;
+    }
+
     public enum Outcome {
 
         @SerializedName("clean_insert")
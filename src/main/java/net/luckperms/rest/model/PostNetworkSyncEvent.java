@@ -25,6 +25,7 @@
 
 package net.luckperms.rest.model;
 
+import java.util.Objects;
 import java.util.UUID;
 
 public class PostNetworkSyncEvent extends AbstractModel {
@@ -56,4 +57,22 @@ public class PostNetworkSyncEvent extends AbstractModel {
     public UUID specificUserUniqueId() {
         return this.specificUserUniqueId;
     }
+
+    @Override
+    boolean fieldsEqual(AbstractModel obj) {
+        PostNetworkSyncEvent other = (PostNetworkSyncEvent) obj;
+        return Objects.equals(this.syncId, other.syncId)
+                && Objects.equals(this.type, other.type)
+                && this.didSyncOccur == other.didSyncOccur
+                && Objects.equals(this.specificUserUniqueId, other.specificUserUniqueId);
+    }
+
+    @Override
+    int fieldsHashCode() {
+        int result = Objects.hashCode(this.syncId);
+        result = 31 * result + Objects.hashCode(this.type);
+        result = 31 * result + Boolean.hashCode(this.didSyncOccur);
+        result = 31 * result + Objects.hashCode(this.specificUserUniqueId);
+        return result;
+    }
 }
@@ -27,4 +27,13 @@ package net.luckperms.rest.model;
 
 public class PostSyncEvent extends AbstractModel {
 
+    @Override
+    boolean fieldsEqual(AbstractModel obj) {
+        return true;
+    }
+
+    @Override
+    int fieldsHashCode() {
+        return 0;
+    }
 }
@@ -25,6 +25,7 @@
 
 package net.luckperms.rest.model;
 
+import java.util.Objects;
 import java.util.UUID;
 
 public class PreNetworkSyncEvent extends AbstractModel {
@@ -50,4 +51,20 @@ public class PreNetworkSyncEvent extends AbstractModel {
     public UUID specificUserUniqueId() {
         return this.specificUserUniqueId;
     }
+
+    @Override
+    boolean fieldsEqual(AbstractModel obj) {
+        PreNetworkSyncEvent other = (PreNetworkSyncEvent) obj;
+        return Objects.equals(this.syncId, other.syncId)
+                && Objects.equals(this.type, other.type)
+                && Objects.equals(this.specificUserUniqueId, other.specificUserUniqueId);
+    }
+
+    @Override
+    int fieldsHashCode() {
+        int result = Objects.hashCode(this.syncId);
+        result = 31 * result + Objects.hashCode(this.type);
+        result = 31 * result + Objects.hashCode(this.specificUserUniqueId);
+        return result;
+    }
 }
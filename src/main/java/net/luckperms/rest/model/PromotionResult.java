@@ -27,6 +27,8 @@ package net.luckperms.rest.model;
 
 import com.google.gson.annotations.SerializedName;
 
+import java.util.Objects;
+
 public class PromotionResult extends AbstractModel {
     private final boolean success;
     private final Status status;
@@ -56,6 +58,24 @@ public class PromotionResult extends AbstractModel {
         return this.groupTo;
     }
 
+    @Override
+    boolean fieldsEqual(AbstractModel obj) {
+        PromotionResult other = (PromotionResult) obj;
+        return this.success == other.success
+                && Objects.equals(this.status, other.status)
+                && Objects.equals(this.groupFrom, other.groupFrom)
+                && Objects.equals(this.groupTo, other.groupTo);
+    }
+
+    @Override
+    int fieldsHashCode() {
+        int result = Boolean.hashCode(this.success);
+        result = 31 * result + Objects.hashCode(this.status);
+        result = 31 * result + Objects.hashCode(this.groupFrom);
+        result = 31 * result + Objects.hashCode(this.groupTo);
+        return result;
+    }
+
     public enum Status {
 
         @SerializedName("success")
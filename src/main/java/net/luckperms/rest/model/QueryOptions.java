@@ -27,6 +27,7 @@ package net.luckperms.rest.model;
 
 import com.google.gson.annotations.SerializedName;
 
+import java.util.Objects;
 import java.util.Set;
 
 public class QueryOptions extends AbstractModel {
@@ -52,6 +53,22 @@ public class QueryOptions extends AbstractModel {
         return this.contexts;
     }
 
+    @Override
+    boolean fieldsEqual(AbstractModel obj) {
+        QueryOptions other = (QueryOptions) obj;
+        return Objects.equals(this.queryMode, other.queryMode)
+                && Objects.equals(this.flags, other.flags)
+                && Objects.equals(this.contexts, other.contexts);
+    }
+
+    @Override
+    int fieldsHashCode() {
+        int result = Objects.hashCode(this.queryMode);
+        result = 31 * result + Objects.hashCode(this.flags);
+        result = 31 * result + Objects.hashCode(this.contexts);
+        return result;
+    }
+
     public enum Mode {
 
         @SerializedName("contextual")
@@ -26,6 +26,7 @@
 package net.luckperms.rest.model;
 
 import java.util.List;
+import java.util.Objects;
 
 public class Track extends AbstractModel {
     private final String name;
@@ -43,4 +44,18 @@ public class Track extends AbstractModel {
     public List<String> groups() {
         return this.groups;
     }
+
+    @Override
+    boolean fieldsEqual(AbstractModel obj) {
+        Track other = (Track) obj;
+        return Objects.equals(this.name, other.name)
+                && Objects.equals(this.groups, other.groups);
+    }
+
+    @Override
+    int fieldsHashCode() {
+        int result = Objects.hashCode(this.name);
+        result = 31 * result + Objects.hashCode(this.groups);
+        return result;
+    }
 }
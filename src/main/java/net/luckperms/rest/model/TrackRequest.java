@@ -25,6 +25,7 @@
 
 package net.luckperms.rest.model;
 
+import java.util.Objects;
 import java.util.Set;
 
 public class TrackRequest extends AbstractModel {
@@ -43,4 +44,18 @@ public class TrackRequest extends AbstractModel {
     public Set<Context> context() {
         return this.context;
     }
+
+    @Override
+    boolean fieldsEqual(AbstractModel obj) {
+        TrackRequest other = (TrackRequest) obj;
+        return Objects.equals(this.track, other.track)
+                && Objects.equals(this.context, other.context);
+    }
+
+    @Override
+    int fieldsHashCode() {
+        int result = Objects.hashCode(this.track);
+        result = 31 * result + Objects.hashCode(this.context);
+        return result;
+    }
 }
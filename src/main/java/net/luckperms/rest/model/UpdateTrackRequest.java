@@ -26,6 +26,7 @@
 package net.luckperms.rest.model;
 
 import java.util.List;
+import java.util.Objects;
 
 public class UpdateTrackRequest extends AbstractModel {
     private final List<String> groups;
@@ -37,4 +38,15 @@ public class UpdateTrackRequest extends AbstractModel {
     public List<String> username() {
         return this.groups;
     }
+
+    @Override
+    boolean fieldsEqual(AbstractModel obj) {
+        UpdateTrackRequest other = (UpdateTrackRequest) obj;
+        return Objects.equals(this.groups, other.groups);
+    }
+
+    @Override
+    int fieldsHashCode() {
+        return Objects.hashCode(this.groups);
+    }
 }
@@ -25,6 +25,8 @@
 
 package net.luckperms.rest.model;
 
+import java.util.Objects;
+
 public class UpdateUserRequest extends AbstractModel {
     private final String username;
 
@@ -35,4 +37,15 @@ public class UpdateUserRequest extends AbstractModel {
     public String username() {
         return this.username;
     }
+
+    @Override
+    boolean fieldsEqual(AbstractModel obj) {
+        UpdateUserRequest other = (UpdateUserRequest) obj;
+        return Objects.equals(this.username, other.username);
+    }
+
+    @Override
+    int fieldsHashCode() {
+        return Objects.hashCode(this.username);
+    }
 }
@@ -26,6 +26,7 @@
 package net.luckperms.rest.model;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
 
 public class User extends AbstractModel {
@@ -62,4 +63,24 @@ public class User extends AbstractModel {
     public Metadata metadata() {
         return this.metadata;
     }
+
+    @Override
+    boolean fieldsEqual(AbstractModel obj) {
+        User other = (User) obj;
+        return Objects.equals(this.uniqueId, other.uniqueId)
+                && Objects.equals(this.username, other.username)
+                && Objects.equals(this.parentGroups, other.parentGroups)
+                && Objects.equals(this.nodes, other.nodes)
+                && Objects.equals(this.metadata, other.metadata);
+    }
+
+    @Override
+    int fieldsHashCode() {
+        int result = Objects.hashCode(this.uniqueId);
+        result = 31 * result + Objects.hashCode(this.username);
+        result = 31 * result + Objects.hashCode(this.parentGroups);
+        result = 31 * result + Objects.hashCode(this.nodes);
+        result = 31 * result + Objects.hashCode(this.metadata);
+        return result;
+    }
 }
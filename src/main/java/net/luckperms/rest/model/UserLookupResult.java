@@ -25,6 +25,7 @@
 
 package net.luckperms.rest.model;
 
+import java.util.Objects;
 import java.util.UUID;
 
 public class UserLookupResult extends AbstractModel {
@@ -43,4 +44,18 @@ public class UserLookupResult extends AbstractModel {
     public UUID uniqueId() {
         return this.uniqueId;
     }
+
+    @Override
+    boolean fieldsEqual(AbstractModel obj) {
+        UserLookupResult other = (UserLookupResult) obj;
+        return Objects.equals(this.username, other.username)
+                && Objects.equals(this.uniqueId, other.uniqueId);
+    }
+
+    @Override
+    int fieldsHashCode() {
+        int result = Objects.hashCode(this.username);
+        result = 31 * result + Objects.hashCode(this.uniqueId);
+        return result;
+    }
 }
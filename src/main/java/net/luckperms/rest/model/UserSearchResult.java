@@ -26,6 +26,7 @@
 package net.luckperms.rest.model;
 
 import java.util.Collection;
+import java.util.Objects;
 import java.util.UUID;
 
 public class UserSearchResult extends AbstractModel {
@@ -44,4 +45,18 @@ public class UserSearchResult extends AbstractModel {
     public Collection<Node> results() {
         return this.results;
     }
+
+    @Override
+    boolean fieldsEqual(AbstractModel obj) {
+        UserSearchResult other = (UserSearchResult) obj;
+        return Objects.equals(this.uniqueId, other.uniqueId)
+                && collectionsEqual(this.results, other.results);
+    }
+
+    @Override
+    int fieldsHashCode() {
+        int result = Objects.hashCode(this.uniqueId);
+        result = 31 * result + collectionHashCode(this.results);
+        return result;
+    }
 }
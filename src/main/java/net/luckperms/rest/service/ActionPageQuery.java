@@ -0,0 +1,113 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest.service;
+
+import net.luckperms.rest.model.ActionPage;
+import retrofit2.Call;
+
+import java.util.UUID;
+
+/**
+ * A paginated query against the action log.
+ */
+@FunctionalInterface
+public interface ActionPageQuery {
+
+    /**
+     * Queries all actions.
+     *
+     * @param service the action service
+     * @return the query
+     */
+    static ActionPageQuery all(ActionService service) {
+        return service::query;
+    }
+
+    /**
+     * Queries actions performed by the given source.
+     *
+     * @param service the action service
+     * @param source the unique id of the source
+     * @return the query
+     */
+    static ActionPageQuery source(ActionService service, UUID source) {
+        return (pageSize, pageNumber) -> service.querySource(source, pageSize, pageNumber);
+    }
+
+    /**
+     * Queries actions targeting the given user.
+     *
+     * @param service the action service
+     * @param user the unique id of the user
+     * @return the query
+     */
+    static ActionPageQuery targetUser(ActionService service, UUID user) {
+        return (pageSize, pageNumber) -> service.queryTargetUser(user, pageSize, pageNumber);
+    }
+
+    /**
+     * Queries actions targeting the given group.
+     *
+     * @param service the action service
+     * @param group the name of the group
+     * @return the query
+     */
+    static ActionPageQuery targetGroup(ActionService service, String group) {
+        return (pageSize, pageNumber) -> service.queryTargetGroup(group, pageSize, pageNumber);
+    }
+
+    /**
+     * Queries actions targeting the given track.
+     *
+     * @param service the action service
+     * @param track the name of the track
+     * @return the query
+     */
+    static ActionPageQuery targetTrack(ActionService service, String track) {
+        return (pageSize, pageNumber) -> service.queryTargetTrack(track, pageSize, pageNumber);
+    }
+
+    /**
+     * Queries actions matching the given search query.
+     *
+     * @param service the action service
+     * @param search the search query
+     * @return the query
+     */
+    static ActionPageQuery search(ActionService service, String search) {
+        return (pageSize, pageNumber) -> service.querySearch(search, pageSize, pageNumber);
+    }
+
+    /**
+     * Creates a call to fetch a page.
+     *
+     * @param pageSize the page size
+     * @param pageNumber the page number, starting at 1
+     * @return the call
+     */
+    Call<ActionPage> page(int pageSize, int pageNumber);
+
+}
@@ -0,0 +1,157 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest.service;
+
+import net.luckperms.rest.model.Action;
+import net.luckperms.rest.model.ActionPage;
+import retrofit2.Call;
+import retrofit2.HttpException;
+import retrofit2.Response;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A {@link Spliterator} which lazily fetches pages of actions, requesting the next page in the
+ * background while the current one is being consumed.
+ *
+ * <p>At most two pages are held in memory at once. Failed requests are thrown as
+ * {@link HttpException}s or {@link UncheckedIOException}s from the stream operation.</p>
+ */
+final class ActionPageSpliterator implements Spliterator<Action> {
+    static final int DEFAULT_PAGE_SIZE = 100;
+
+    static Stream<Action> stream(ActionPageQuery query, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("pageSize must be positive");
+        }
+        ActionPageSpliterator spliterator = new ActionPageSpliterator(query, pageSize);
+        return StreamSupport.stream(spliterator, false).onClose(spliterator::close);
+    }
+
+    private final ActionPageQuery query;
+    private final int pageSize;
+
+    private Iterator<Action> current = null;
+    private int nextPage = 1;
+    private boolean lastPage = false;
+    private long overallSize = -1;
+    private long consumed = 0;
+
+    private CompletableFuture<ActionPage> prefetch = null;
+
+    ActionPageSpliterator(ActionPageQuery query, int pageSize) {
+        this.query = query;
+        this.pageSize = pageSize;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Action> action) {
+        while (this.current == null || !this.current.hasNext()) {
+            if (this.lastPage) {
+                return false;
+            }
+            advancePage();
+        }
+
+        this.consumed++;
+        action.accept(this.current.next());
+        return true;
+    }
+
+    private void advancePage() {
+        ActionPage page = this.prefetch != null ? awaitPrefetch() : execute(this.query.page(this.pageSize, this.nextPage));
+        this.prefetch = null;
+        if (page == null) {
+            throw new IllegalStateException("empty response for page " + this.nextPage);
+        }
+        this.nextPage++;
+
+        Collection<Action> entries = page.entries();
+        this.overallSize = page.overallSize();
+        this.current = entries.iterator();
+
+        long fetched = (long) (this.nextPage - 1) * this.pageSize;
+        if (entries.size() < this.pageSize || fetched >= this.overallSize) {
+            this.lastPage = true;
+        } else {
+            startPrefetch();
+        }
+    }
+
+    private void startPrefetch() {
+        this.prefetch = Calls.enqueue(this.query.page(this.pageSize, this.nextPage));
+    }
+
+    private ActionPage awaitPrefetch() {
+        try {
+            return Calls.await(this.prefetch);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static ActionPage execute(Call<ActionPage> call) {
+        Response<ActionPage> response;
+        try {
+            response = call.execute();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (!response.isSuccessful()) {
+            throw new HttpException(response);
+        }
+        return response.body();
+    }
+
+    void close() {
+        if (this.prefetch != null) {
+            this.prefetch.cancel(false);
+        }
+    }
+
+    @Override
+    public Spliterator<Action> trySplit() {
+        return null;
+    }
+
+    @Override
+    public long estimateSize() {
+        return this.overallSize < 0 ? Long.MAX_VALUE : Math.max(0, this.overallSize - this.consumed);
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL;
+    }
+}
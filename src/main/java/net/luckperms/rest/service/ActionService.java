@@ -34,6 +34,7 @@ import retrofit2.http.POST;
 import retrofit2.http.Query;
 
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface ActionService {
 
@@ -76,4 +77,104 @@ public interface ActionService {
     @POST("/action")
     Call<Void> submit(@Body Action action);
 
+    /**
+     * Returns a lazily populated stream of all actions.
+     *
+     * <p>Pages are requested as the stream is consumed, and the next page is fetched in the
+     * background while the current one is being processed. Request failures are thrown from the
+     * terminal operation as an {@link retrofit2.HttpException} or
+     * {@link java.io.UncheckedIOException}. The stream should be closed if it is not fully
+     * consumed.</p>
+     *
+     * @param pageSize the number of actions to request per page
+     * @return a stream of actions
+     */
+    default Stream<Action> stream(int pageSize) {
+        return ActionPageSpliterator.stream(ActionPageQuery.all(this), pageSize);
+    }
+
+    default Stream<Action> stream() {
+        return stream(ActionPageSpliterator.DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Returns a lazily populated stream of actions performed by the given source.
+     *
+     * @param source the unique id of the source
+     * @param pageSize the number of actions to request per page
+     * @return a stream of actions
+     * @see #stream(int)
+     */
+    default Stream<Action> streamSource(UUID source, int pageSize) {
+        return ActionPageSpliterator.stream(ActionPageQuery.source(this, source), pageSize);
+    }
+
+    default Stream<Action> streamSource(UUID source) {
+        return streamSource(source, ActionPageSpliterator.DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Returns a lazily populated stream of actions targeting the given user.
+     *
+     * @param user the unique id of the user
+     * @param pageSize the number of actions to request per page
+     * @return a stream of actions
+     * @see #stream(int)
+     */
+    default Stream<Action> streamTargetUser(UUID user, int pageSize) {
+        return ActionPageSpliterator.stream(ActionPageQuery.targetUser(this, user), pageSize);
+    }
+
+    default Stream<Action> streamTargetUser(UUID user) {
+        return streamTargetUser(user, ActionPageSpliterator.DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Returns a lazily populated stream of actions targeting the given group.
+     *
+     * @param group the name of the group
+     * @param pageSize the number of actions to request per page
+     * @return a stream of actions
+     * @see #stream(int)
+     */
+    default Stream<Action> streamTargetGroup(String group, int pageSize) {
+        return ActionPageSpliterator.stream(ActionPageQuery.targetGroup(this, group), pageSize);
+    }
+
+    default Stream<Action> streamTargetGroup(String group) {
+        return streamTargetGroup(group, ActionPageSpliterator.DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Returns a lazily populated stream of actions targeting the given track.
+     *
+     * @param track the name of the track
+     * @param pageSize the number of actions to request per page
+     * @return a stream of actions
+     * @see #stream(int)
+     */
+    default Stream<Action> streamTargetTrack(String track, int pageSize) {
+        return ActionPageSpliterator.stream(ActionPageQuery.targetTrack(this, track), pageSize);
+    }
+
+    default Stream<Action> streamTargetTrack(String track) {
+        return streamTargetTrack(track, ActionPageSpliterator.DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Returns a lazily populated stream of actions matching the given search query.
+     *
+     * @param search the search query
+     * @param pageSize the number of actions to request per page
+     * @return a stream of actions
+     * @see #stream(int)
+     */
+    default Stream<Action> streamSearch(String search, int pageSize) {
+        return ActionPageSpliterator.stream(ActionPageQuery.search(this, search), pageSize);
+    }
+
+    default Stream<Action> streamSearch(String search) {
+        return streamSearch(search, ActionPageSpliterator.DEFAULT_PAGE_SIZE);
+    }
+
 }
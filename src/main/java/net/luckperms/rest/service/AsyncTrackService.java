@@ -0,0 +1,64 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest.service;
+
+import net.luckperms.rest.model.CreateTrackRequest;
+import net.luckperms.rest.model.Track;
+import net.luckperms.rest.model.UpdateTrackRequest;
+import retrofit2.http.Body;
+import retrofit2.http.DELETE;
+import retrofit2.http.GET;
+import retrofit2.http.PATCH;
+import retrofit2.http.POST;
+import retrofit2.http.Path;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous variant of {@link TrackService}.
+ *
+ * <p>Non-successful responses complete the returned future exceptionally with a
+ * {@link retrofit2.HttpException}.</p>
+ */
+public interface AsyncTrackService {
+
+    @GET("/track")
+    CompletableFuture<Set<String>> list();
+
+    @POST("/track")
+    CompletableFuture<Track> create(@Body CreateTrackRequest req);
+
+    @GET("/track/{name}")
+    CompletableFuture<Track> get(@Path("name") String name);
+
+    @PATCH("/track/{name}")
+    CompletableFuture<Void> update(@Path("name") String name, @Body UpdateTrackRequest req);
+
+    @DELETE("/track/{name}")
+    CompletableFuture<Void> delete(@Path("name") String name);
+
+}
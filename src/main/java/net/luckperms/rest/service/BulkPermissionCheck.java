@@ -0,0 +1,164 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest.service;
+
+import net.luckperms.rest.model.PermissionCheckRequest;
+import net.luckperms.rest.model.PermissionCheckResult;
+import net.luckperms.rest.model.QueryOptions;
+import retrofit2.Call;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+/**
+ * Performs many permission checks by pipelining individual calls, with at most
+ * {@link #MAX_CONCURRENCY} requests in flight at once.
+ *
+ * <p>If any check fails, or the returned future is cancelled, the calls still in flight are
+ * cancelled.</p>
+ *
+ * <p>Every request shares the same {@link QueryOptions} instance, which the
+ * {@link net.luckperms.rest.model.ModelTypeAdapterFactory model adapters} serialize once and
+ * then reuse.</p>
+ */
+final class BulkPermissionCheck {
+    static final int MAX_CONCURRENCY = 8;
+
+    private final List<String> permissions;
+    private final Function<String, Call<PermissionCheckResult>> callFactory;
+    private final PermissionCheckResult[] results;
+    private final AtomicReferenceArray<CompletableFuture<PermissionCheckResult>> calls;
+    private final AtomicInteger nextIndex = new AtomicInteger();
+    private final AtomicInteger remaining;
+    private final CompletableFuture<Map<String, PermissionCheckResult>> future = new CompletableFuture<>();
+
+    private BulkPermissionCheck(List<String> permissions, Function<String, Call<PermissionCheckResult>> callFactory) {
+        this.permissions = permissions;
+        this.callFactory = callFactory;
+        this.results = new PermissionCheckResult[permissions.size()];
+        this.calls = new AtomicReferenceArray<>(permissions.size());
+        this.remaining = new AtomicInteger(permissions.size());
+        this.future.whenComplete((result, error) -> {
+            if (error != null) {
+                cancelCalls();
+            }
+        });
+    }
+
+    static CompletableFuture<Map<String, PermissionCheckResult>> check(UserService service, UUID uniqueId, Collection<String> permissions, QueryOptions queryOptions) {
+        return check(permissions, permission -> service.permissionCheck(uniqueId, new PermissionCheckRequest(permission, queryOptions)));
+    }
+
+    static CompletableFuture<Map<String, PermissionCheckResult>> check(GroupService service, String name, Collection<String> permissions, QueryOptions queryOptions) {
+        return check(permissions, permission -> service.permissionCheck(name, new PermissionCheckRequest(permission, queryOptions)));
+    }
+
+    private static CompletableFuture<Map<String, PermissionCheckResult>> check(Collection<String> permissions, Function<String, Call<PermissionCheckResult>> callFactory) {
+        if (permissions.isEmpty()) {
+            return CompletableFuture.completedFuture(Collections.emptyMap());
+        }
+
+        BulkPermissionCheck check = new BulkPermissionCheck(new ArrayList<>(new LinkedHashSet<>(permissions)), callFactory);
+        int concurrency = Math.min(MAX_CONCURRENCY, check.permissions.size());
+        for (int i = 0; i < concurrency; i++) {
+            check.next();
+        }
+        return check.future;
+    }
+
+    private void next() {
+        if (this.future.isDone()) {
+            return;
+        }
+
+        int index = this.nextIndex.getAndIncrement();
+        if (index >= this.permissions.size()) {
+            return;
+        }
+
+        Call<PermissionCheckResult> call;
+        try {
+            call = this.callFactory.apply(this.permissions.get(index));
+        } catch (Exception e) {
+            this.future.completeExceptionally(e);
+            return;
+        }
+
+        CompletableFuture<PermissionCheckResult> pending = Calls.enqueue(call);
+        this.calls.set(index, pending);
+        if (this.future.isDone()) {
+            // failed while this call was being made
+            pending.cancel(false);
+            return;
+        }
+
+        pending.whenComplete((result, error) -> {
+            this.calls.set(index, null);
+            if (error != null) {
+                this.future.completeExceptionally(error);
+                return;
+            }
+            if (result == null) {
+                this.future.completeExceptionally(new IllegalStateException("empty response for permission " + this.permissions.get(index)));
+                return;
+            }
+
+            this.results[index] = result;
+            if (this.remaining.decrementAndGet() == 0) {
+                complete();
+            } else {
+                next();
+            }
+        });
+    }
+
+    private void cancelCalls() {
+        for (int i = 0; i < this.calls.length(); i++) {
+            CompletableFuture<PermissionCheckResult> call = this.calls.get(i);
+            if (call != null) {
+                call.cancel(false);
+            }
+        }
+    }
+
+    private void complete() {
+        Map<String, PermissionCheckResult> map = new LinkedHashMap<>();
+        for (int i = 0; i < this.results.length; i++) {
+            map.put(this.permissions.get(i), this.results[i]);
+        }
+        this.future.complete(Collections.unmodifiableMap(map));
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest.service;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.HttpException;
+import retrofit2.Response;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+/**
+ * Utilities for working with service {@link Call}s.
+ */
+public final class Calls {
+    private Calls() {
+    }
+
+    /**
+     * Enqueues the call, returning a future for the body of its response.
+     *
+     * <p>Non-successful responses complete the future exceptionally with a
+     * {@link HttpException}. Cancelling the future cancels the call.</p>
+     *
+     * @param call the call
+     * @param <T> the body type
+     * @return the future
+     */
+    public static <T> CompletableFuture<T> enqueue(Call<T> call) {
+        return enqueue(call, null);
+    }
+
+    /**
+     * Enqueues the call, returning a future for the body of its response which is completed
+     * using the given executor.
+     *
+     * <p>If the executor is null, or rejects the completion, the future is completed on the
+     * thread delivering the response.</p>
+     *
+     * @param call the call
+     * @param executor the executor to complete the future with, nullable
+     * @param <T> the body type
+     * @return the future
+     * @see #enqueue(Call)
+     */
+    public static <T> CompletableFuture<T> enqueue(Call<T> call, Executor executor) {
+        return enqueue(call, executor, response -> {
+            if (!response.isSuccessful()) {
+                throw new HttpException(response);
+            }
+            return response.body();
+        });
+    }
+
+    /**
+     * Enqueues the call, returning a future for its response, whether or not it was successful.
+     *
+     * @param call the call
+     * @param executor the executor to complete the future with, nullable
+     * @param <T> the body type
+     * @return the future
+     * @see #enqueue(Call, Executor)
+     */
+    public static <T> CompletableFuture<Response<T>> enqueueForResponse(Call<T> call, Executor executor) {
+        return enqueue(call, executor, Function.identity());
+    }
+
+    private static <T, R> CompletableFuture<R> enqueue(Call<T> call, Executor executor, Function<Response<T>, R> mapper) {
+        CallFuture<R> future = new CallFuture<>(call);
+        call.enqueue(new Callback<T>() {
+            @Override
+            public void onResponse(Call<T> call, Response<T> response) {
+                R result;
+                try {
+                    result = mapper.apply(response);
+                } catch (RuntimeException e) {
+                    complete(future, null, e, executor);
+                    return;
+                }
+                complete(future, result, null, executor);
+            }
+
+            @Override
+            public void onFailure(Call<T> call, Throwable t) {
+                complete(future, null, t, executor);
+            }
+        });
+        return future;
+    }
+
+    private static <R> void complete(CompletableFuture<R> future, R value, Throwable error, Executor executor) {
+        Runnable completion = () -> {
+            if (error != null) {
+                future.completeExceptionally(error);
+            } else {
+                future.complete(value);
+            }
+        };
+
+        if (executor == null) {
+            completion.run();
+            return;
+        }
+
+        try {
+            executor.execute(completion);
+        } catch (RejectedExecutionException e) {
+            completion.run();
+        }
+    }
+
+    /**
+     * Waits for the future to complete, rethrowing any failure as it was thrown by the call.
+     *
+     * @param future the future
+     * @param <T> the result type
+     * @return the result
+     * @throws IOException if the call failed, or the thread was interrupted
+     */
+    public static <T> T await(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private static final class CallFuture<T> extends CompletableFuture<T> {
+        private final Call<?> call;
+
+        CallFuture(Call<?> call) {
+            this.call = call;
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            this.call.cancel();
+            return super.cancel(mayInterruptIfRunning);
+        }
+    }
+}
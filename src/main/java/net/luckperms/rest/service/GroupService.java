@@ -33,6 +33,7 @@ import net.luckperms.rest.model.Node;
 import net.luckperms.rest.model.NodeType;
 import net.luckperms.rest.model.PermissionCheckRequest;
 import net.luckperms.rest.model.PermissionCheckResult;
+import net.luckperms.rest.model.QueryOptions;
 import net.luckperms.rest.model.TemporaryNodeMergeStrategy;
 import retrofit2.Call;
 import retrofit2.http.Body;
@@ -45,29 +46,56 @@ import retrofit2.http.PUT;
 import retrofit2.http.Path;
 import retrofit2.http.Query;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 public interface GroupService {
 
     @GET("/group")
     Call<Set<String>> list();
 
+    /**
+     * Lists all groups, decoding the response lazily as the stream is consumed.
+     *
+     * <p>The stream holds the connection open until it has been fully consumed, so it should
+     * be closed if it may not be.</p>
+     *
+     * @return the call
+     */
+    @GET("/group")
+    Call<Stream<String>> listStream();
+
     @POST("/group")
     Call<Group> create(@Body CreateGroupRequest req);
 
     @GET("/group/search")
     Call<List<GroupSearchResult>> searchNodesByKey(@Query("key") String key);
 
+    @GET("/group/search")
+    Call<Stream<GroupSearchResult>> searchNodesByKeyStream(@Query("key") String key);
+
     @GET("/group/search")
     Call<List<GroupSearchResult>> searchNodesByKeyStartsWith(@Query("keyStartsWith") String keyStartsWith);
 
+    @GET("/group/search")
+    Call<Stream<GroupSearchResult>> searchNodesByKeyStartsWithStream(@Query("keyStartsWith") String keyStartsWith);
+
     @GET("/group/search")
     Call<List<GroupSearchResult>> searchNodesByMetaKey(@Query("metaKey") String metaKey);
 
+    @GET("/group/search")
+    Call<Stream<GroupSearchResult>> searchNodesByMetaKeyStream(@Query("metaKey") String metaKey);
+
     @GET("/group/search")
     Call<List<GroupSearchResult>> searchNodesByType(@Query("type") NodeType type);
 
+    @GET("/group/search")
+    Call<Stream<GroupSearchResult>> searchNodesByTypeStream(@Query("type") NodeType type);
+
     @GET("/group/{name}")
     Call<Group> get(@Path("name") String name);
 
@@ -107,4 +135,20 @@ public interface GroupService {
     @POST("/group/{name}/permission-check")
     Call<PermissionCheckResult> permissionCheck(@Path("name") String name, @Body PermissionCheckRequest req);
 
+    /**
+     * Checks many permissions at once.
+     *
+     * <p>The checks are performed as individual requests, with a bounded number in flight at
+     * the same time. The returned future completes exceptionally if any of the checks fail, and
+     * the checks still in flight are cancelled.</p>
+     *
+     * @param name the name of the group
+     * @param permissions the permissions to check
+     * @param queryOptions the query options to use for every check, nullable
+     * @return a future encapsulating the results, keyed by permission
+     */
+    default CompletableFuture<Map<String, PermissionCheckResult>> permissionCheck(String name, Collection<String> permissions, QueryOptions queryOptions) {
+        return BulkPermissionCheck.check(this, name, permissions, queryOptions);
+    }
+
 }
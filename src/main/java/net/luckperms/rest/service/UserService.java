@@ -25,6 +25,7 @@
 
 package net.luckperms.rest.service;
 
+import net.luckperms.rest.model.CompactUuidSet;
 import net.luckperms.rest.model.CreateUserRequest;
 import net.luckperms.rest.model.DemotionResult;
 import net.luckperms.rest.model.Metadata;
@@ -34,6 +35,7 @@ import net.luckperms.rest.model.PermissionCheckRequest;
 import net.luckperms.rest.model.PermissionCheckResult;
 import net.luckperms.rest.model.PlayerSaveResult;
 import net.luckperms.rest.model.PromotionResult;
+import net.luckperms.rest.model.QueryOptions;
 import net.luckperms.rest.model.TemporaryNodeMergeStrategy;
 import net.luckperms.rest.model.TrackRequest;
 import net.luckperms.rest.model.UpdateUserRequest;
@@ -51,15 +53,39 @@ import retrofit2.http.PUT;
 import retrofit2.http.Path;
 import retrofit2.http.Query;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 public interface UserService {
 
     @GET("/user")
     Call<Set<UUID>> list();
 
+    /**
+     * Lists all users, decoding the response into a {@link CompactUuidSet} which uses much
+     * less memory than a {@link java.util.HashSet} for large numbers of users.
+     *
+     * @return the call
+     */
+    @GET("/user")
+    Call<CompactUuidSet> listCompact();
+
+    /**
+     * Lists all users, decoding the response lazily as the stream is consumed.
+     *
+     * <p>The stream holds the connection open until it has been fully consumed, so it should
+     * be closed if it may not be.</p>
+     *
+     * @return the call
+     */
+    @GET("/user")
+    Call<Stream<UUID>> listStream();
+
     @POST("/user")
     Call<PlayerSaveResult> create(@Body CreateUserRequest req);
 
@@ -72,15 +98,27 @@ public interface UserService {
     @GET("/user/search")
     Call<List<UserSearchResult>> searchNodesByKey(@Query("key") String key);
 
+    @GET("/user/search")
+    Call<Stream<UserSearchResult>> searchNodesByKeyStream(@Query("key") String key);
+
     @GET("/user/search")
     Call<List<UserSearchResult>> searchNodesByKeyStartsWith(@Query("keyStartsWith") String keyStartsWith);
 
+    @GET("/user/search")
+    Call<Stream<UserSearchResult>> searchNodesByKeyStartsWithStream(@Query("keyStartsWith") String keyStartsWith);
+
     @GET("/user/search")
     Call<List<UserSearchResult>> searchNodesByMetaKey(@Query("metaKey") String metaKey);
 
+    @GET("/user/search")
+    Call<Stream<UserSearchResult>> searchNodesByMetaKeyStream(@Query("metaKey") String metaKey);
+
     @GET("/user/search")
     Call<List<UserSearchResult>> searchNodesByType(@Query("type") NodeType type);
 
+    @GET("/user/search")
+    Call<Stream<UserSearchResult>> searchNodesByTypeStream(@Query("type") NodeType type);
+
     @GET("/user/{uniqueId}")
     Call<User> get(@Path("uniqueId") UUID uniqueId);
 
@@ -126,6 +164,22 @@ public interface UserService {
     @POST("/user/{uniqueId}/permission-check")
     Call<PermissionCheckResult> permissionCheck(@Path("uniqueId") UUID uniqueId, @Body PermissionCheckRequest req);
 
+    /**
+     * Checks many permissions at once.
+     *
+     * <p>The checks are performed as individual requests, with a bounded number in flight at
+     * the same time. The returned future completes exceptionally if any of the checks fail, and
+     * the checks still in flight are cancelled.</p>
+     *
+     * @param uniqueId the unique id of the user
+     * @param permissions the permissions to check
+     * @param queryOptions the query options to use for every check, nullable
+     * @return a future encapsulating the results, keyed by permission
+     */
+    default CompletableFuture<Map<String, PermissionCheckResult>> permissionCheck(UUID uniqueId, Collection<String> permissions, QueryOptions queryOptions) {
+        return BulkPermissionCheck.check(this, uniqueId, permissions, queryOptions);
+    }
+
     @POST("/user/{uniqueId}/promote")
     Call<PromotionResult> promote(@Path("uniqueId") UUID uniqueId, @Body TrackRequest req);
 
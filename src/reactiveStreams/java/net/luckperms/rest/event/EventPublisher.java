@@ -0,0 +1,397 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.luckperms.rest.event;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A Reactive Streams {@link Publisher} of the events from an {@link EventCall}.
+ *
+ * <p>Each subscriber gets its own {@link EventProducer}. Events are only delivered when the
+ * subscriber has requested them, and what happens to events which arrive before then depends
+ * on the {@link OverflowPolicy}:</p>
+ * <ul>
+ *     <li>{@link OverflowPolicy#DROP_OLDEST} and {@link OverflowPolicy#COALESCE} keep up to
+ *     {@link #BUFFER_SIZE} undelivered events per subscriber, discarding events once that is
+ *     full. Events are delivered on the thread calling {@link Subscription#request(long)} or
+ *     on the thread which received the event, and the connection is never paused.</li>
+ *     <li>{@link OverflowPolicy#BLOCK} holds each event until it has been requested, which
+ *     pauses the connection once the stream's own buffer is full. Events are delivered on the
+ *     client's event handler executor; without one, the subscriber is sent
+ *     {@link Subscriber#onError(Throwable)} with an {@link IllegalStateException}.</li>
+ * </ul>
+ *
+ * <p>The subscription passed to {@link Subscriber#onSubscribe(Subscription)} is also an
+ * {@link EventSubscription}, so the number of events discarded for a subscriber can be read
+ * from {@link EventSubscription#droppedEvents()}.</p>
+ *
+ * <p>The publisher never completes on its own. Connection errors are handled by reconnecting,
+ * so they are not signalled to the subscriber; only a failure to connect initially results in
+ * {@link Subscriber#onError(Throwable)}. Cancelling the subscription closes the producer.</p>
+ *
+ * <p>This class is part of the optional {@code reactiveStreams} feature, which requires the
+ * {@code org.reactivestreams:reactive-streams} dependency.</p>
+ *
+ * @param <E> the event type
+ */
+public final class EventPublisher<E> implements Publisher<E> {
+    static final int BUFFER_SIZE = 1024;
+
+    /**
+     * Creates a publisher for the given event call, which discards the oldest events when a
+     * subscriber falls behind.
+     *
+     * @param call the event call
+     * @param <E> the event type
+     * @return a publisher
+     */
+    public static <E> EventPublisher<E> of(EventCall<E> call) {
+        return of(call, OverflowPolicy.DROP_OLDEST);
+    }
+
+    /**
+     * Creates a publisher for the given event call.
+     *
+     * @param call the event call
+     * @param overflowPolicy what to do if a subscriber falls too far behind
+     * @param <E> the event type
+     * @return a publisher
+     */
+    public static <E> EventPublisher<E> of(EventCall<E> call, OverflowPolicy overflowPolicy) {
+        return new EventPublisher<>(call, Objects.requireNonNull(overflowPolicy, "overflowPolicy"));
+    }
+
+    private final EventCall<E> call;
+    private final OverflowPolicy overflowPolicy;
+
+    private EventPublisher(EventCall<E> call, OverflowPolicy overflowPolicy) {
+        this.call = Objects.requireNonNull(call, "call");
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super E> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber");
+
+        EventProducer<E> producer;
+        try {
+            producer = this.call.subscribe();
+        } catch (Exception e) {
+            subscriber.onSubscribe(EmptySubscription.INSTANCE);
+            subscriber.onError(e);
+            return;
+        }
+
+        if (this.overflowPolicy == OverflowPolicy.BLOCK) {
+            BlockingSubscription<E> subscription = new BlockingSubscription<>(subscriber, producer);
+            subscriber.onSubscribe(subscription);
+            subscription.start();
+        } else {
+            QueueSubscription<E> subscription = new QueueSubscription<>(subscriber, producer, this.overflowPolicy);
+            subscriber.onSubscribe(subscription);
+            subscription.start();
+        }
+    }
+
+    /**
+     * Buffers events in a bounded queue, fed directly by the producer.
+     */
+    private static final class QueueSubscription<E> implements Subscription, EventSubscription {
+        private final Subscriber<? super E> subscriber;
+        private final EventProducer<E> producer;
+        private final OverflowPolicy overflowPolicy;
+
+        // guarded by this
+        private final ArrayDeque<E> queue = new ArrayDeque<>();
+        private long demand = 0;
+        private long dropped = 0;
+        private boolean cancelled = false;
+        private Throwable error = null;
+
+        /** Ensures only one thread signals the subscriber at a time */
+        private final AtomicInteger wip = new AtomicInteger();
+
+        QueueSubscription(Subscriber<? super E> subscriber, EventProducer<E> producer, OverflowPolicy overflowPolicy) {
+            this.subscriber = subscriber;
+            this.producer = producer;
+            this.overflowPolicy = overflowPolicy;
+        }
+
+        void start() {
+            synchronized (this) {
+                if (this.cancelled) {
+                    return;
+                }
+            }
+            this.producer.subscribe(this::enqueue);
+        }
+
+        private void enqueue(E event) {
+            synchronized (this) {
+                if (this.cancelled) {
+                    return;
+                }
+                if (this.queue.size() >= BUFFER_SIZE) {
+                    if (this.overflowPolicy == OverflowPolicy.COALESCE) {
+                        this.dropped += this.queue.size();
+                        this.queue.clear();
+                    } else {
+                        this.queue.poll();
+                        this.dropped++;
+                    }
+                }
+                this.queue.add(event);
+            }
+            drain();
+        }
+
+        @Override
+        public void request(long n) {
+            synchronized (this) {
+                if (this.cancelled) {
+                    return;
+                }
+                if (n <= 0) {
+                    this.error = new IllegalArgumentException("non-positive request: " + n);
+                } else {
+                    long sum = this.demand + n;
+                    this.demand = sum < 0 ? Long.MAX_VALUE : sum;
+                }
+            }
+            drain();
+        }
+
+        private void drain() {
+            if (this.wip.getAndIncrement() != 0) {
+                // another thread is signalling, and will pick up the change
+                return;
+            }
+
+            int missed = 1;
+            do {
+                while (true) {
+                    E event;
+                    Throwable error;
+                    synchronized (this) {
+                        if (this.cancelled) {
+                            return;
+                        }
+                        error = this.error;
+                        event = error == null && this.demand != 0 ? this.queue.poll() : null;
+                        if (event == null && error == null) {
+                            break;
+                        }
+                        if (event != null && this.demand != Long.MAX_VALUE) {
+                            this.demand--;
+                        }
+                    }
+
+                    if (error != null) {
+                        cancel();
+                        this.subscriber.onError(error);
+                        return;
+                    }
+                    try {
+                        this.subscriber.onNext(event);
+                    } catch (Throwable t) {
+                        cancel();
+                        return;
+                    }
+                }
+                missed = this.wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        @Override
+        public synchronized long droppedEvents() {
+            return this.dropped;
+        }
+
+        @Override
+        public void cancel() {
+            synchronized (this) {
+                if (this.cancelled) {
+                    return;
+                }
+                this.cancelled = true;
+                this.queue.clear();
+            }
+            this.producer.close();
+        }
+
+        @Override
+        public void close() {
+            cancel();
+        }
+    }
+
+    /**
+     * Holds each event on the producer's buffered delivery thread until the subscriber has
+     * requested it, so that the stream itself waits for the subscriber.
+     */
+    private static final class BlockingSubscription<E> implements Subscription, EventSubscription {
+        private final Subscriber<? super E> subscriber;
+        private final EventProducer<E> producer;
+        private volatile EventSubscription subscription;
+
+        // guarded by this
+        private long demand = 0;
+        private boolean delivering = false;
+        private boolean cancelled = false;
+        private Throwable error = null;
+
+        BlockingSubscription(Subscriber<? super E> subscriber, EventProducer<E> producer) {
+            this.subscriber = subscriber;
+            this.producer = producer;
+        }
+
+        void start() {
+            synchronized (this) {
+                if (this.cancelled) {
+                    return;
+                }
+            }
+            try {
+                this.subscription = this.producer.subscribe(this::deliver, OverflowPolicy.BLOCK);
+            } catch (IllegalStateException e) {
+                // no event handler executor to wait on
+                if (terminate()) {
+                    this.subscriber.onError(e);
+                }
+            }
+        }
+
+        private void deliver(E event) {
+            synchronized (this) {
+                try {
+                    while (this.demand == 0 && !this.cancelled && this.error == null) {
+                        wait();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                if (this.cancelled || this.error != null) {
+                    return;
+                }
+                if (this.demand != Long.MAX_VALUE) {
+                    this.demand--;
+                }
+                this.delivering = true;
+            }
+
+            try {
+                this.subscriber.onNext(event);
+            } catch (Throwable t) {
+                cancel();
+                return;
+            }
+
+            Throwable error;
+            synchronized (this) {
+                this.delivering = false;
+                error = this.error;
+            }
+            // a bad request made from within onNext
+            if (error != null && terminate()) {
+                this.subscriber.onError(error);
+            }
+        }
+
+        @Override
+        public void request(long n) {
+            Throwable error = null;
+            synchronized (this) {
+                if (this.cancelled) {
+                    return;
+                }
+                if (n <= 0) {
+                    this.error = new IllegalArgumentException("non-positive request: " + n);
+                    if (!this.delivering) {
+                        error = this.error;
+                    }
+                } else {
+                    long sum = this.demand + n;
+                    this.demand = sum < 0 ? Long.MAX_VALUE : sum;
+                }
+                notifyAll();
+            }
+            if (error != null && terminate()) {
+                this.subscriber.onError(error);
+            }
+        }
+
+        /**
+         * Cancels the subscription, returning whether this call did so.
+         */
+        private boolean terminate() {
+            synchronized (this) {
+                if (this.cancelled) {
+                    return false;
+                }
+                this.cancelled = true;
+                notifyAll();
+            }
+            this.producer.close();
+            return true;
+        }
+
+        @Override
+        public long droppedEvents() {
+            EventSubscription subscription = this.subscription;
+            return subscription == null ? 0 : subscription.droppedEvents();
+        }
+
+        @Override
+        public void cancel() {
+            terminate();
+        }
+
+        @Override
+        public void close() {
+            cancel();
+        }
+    }
+
+    private enum EmptySubscription implements Subscription {
+        INSTANCE;
+
+        @Override
+        public void request(long n) {
+
+        }
+
+        @Override
+        public void cancel() {
+
+        }
+    }
+}
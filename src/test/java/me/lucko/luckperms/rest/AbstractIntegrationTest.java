@@ -36,6 +36,7 @@ import org.testcontainers.junit.jupiter.Testcontainers;
 import org.testcontainers.utility.DockerImageName;
 
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -49,6 +50,10 @@ public class AbstractIntegrationTest {
         return createClient(container);
     }
 
+    protected LuckPermsRestClient createClient(Consumer<LuckPermsRestClient.Builder> configurer) {
+        return createClient(container, configurer);
+    }
+
     protected static GenericContainer<?> createContainer() {
         return new GenericContainer<>(DockerImageName.parse("ghcr.io/luckperms/rest-api"))
                 .withLogConsumer(new Slf4jLogConsumer(LoggerFactory.getLogger(AbstractIntegrationTest.class)))
@@ -60,13 +65,19 @@ public class AbstractIntegrationTest {
     }
 
     protected static LuckPermsRestClient createClient(GenericContainer<?> container) {
+        return createClient(container, builder -> {});
+    }
+
+    protected static LuckPermsRestClient createClient(GenericContainer<?> container, Consumer<LuckPermsRestClient.Builder> configurer) {
         assertTrue(container.isRunning());
 
         String host = container.getHost();
         Integer port = container.getFirstMappedPort();
         String baseUrl = "http://" + host + ":" + port + "/";
 
-        return LuckPermsRestClient.builder().baseUrl(baseUrl).build();
+        LuckPermsRestClient.Builder builder = LuckPermsRestClient.builder().baseUrl(baseUrl);
+        configurer.accept(builder);
+        return builder.build();
     }
 
     protected static String randomName() {
@@ -26,17 +26,30 @@
 package me.lucko.luckperms.rest;
 
 import net.luckperms.rest.LuckPermsRestClient;
+import net.luckperms.rest.actionlog.ActionLogExporter;
+import net.luckperms.rest.actionlog.ActionLogStore;
+import net.luckperms.rest.actionlog.ActionLogTailer;
+import net.luckperms.rest.actionlog.ExportStats;
 import net.luckperms.rest.model.Action;
 import net.luckperms.rest.model.ActionPage;
+import net.luckperms.rest.service.ActionPageQuery;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.testcontainers.shaded.com.google.common.collect.ImmutableList;
 import retrofit2.Response;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -55,6 +68,85 @@ public class ActionServiceTest extends AbstractIntegrationTest {
         assertTrue(resp.isSuccessful());
     }
 
+    @Test
+    public void testStore(@TempDir Path directory) throws IOException {
+        LuckPermsRestClient client = createClient();
+
+        long time = System.currentTimeMillis() / 1000L;
+        Action.Source source = new Action.Source(UUID.randomUUID(), randomName());
+        String group = randomName();
+
+        for (int i = 0; i < 5; i++) {
+            client.actions().submit(new Action(time + i, source,
+                    new Action.Target(null, group, Action.Target.Type.GROUP),
+                    "test store action " + i
+            )).execute();
+        }
+
+        ActionPage remote = client.actions().querySource(source.uniqueId()).execute().body();
+        assertNotNull(remote);
+
+        try (ActionLogStore store = ActionLogStore.builder(directory).open()) {
+            ActionLogExporter.builder(ActionPageQuery.source(client.actions(), source.uniqueId()))
+                    .build()
+                    .export(action -> {
+                        try {
+                            store.add(action);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+
+            assertEquals(5, store.size());
+            assertEquals(ImmutableList.copyOf(remote.entries()), store.querySource(source.uniqueId()).entries());
+            assertEquals(ImmutableList.copyOf(remote.entries()), store.queryTargetGroup(group).entries());
+            assertEquals(2, store.querySearch("STORE ACTION", 2, 2).entries().size());
+        }
+
+        // reopen from disk
+        try (ActionLogStore store = ActionLogStore.builder(directory).open()) {
+            assertEquals(5, store.size());
+            assertFalse(store.addAll(remote.entries()) > 0);
+            assertEquals(ImmutableList.copyOf(remote.entries()), store.querySource(source.uniqueId()).entries());
+        }
+    }
+
+    @Test
+    public void testTailer() throws IOException {
+        LuckPermsRestClient client = createClient();
+
+        long time = System.currentTimeMillis() / 1000L;
+        Action.Source source = new Action.Source(UUID.randomUUID(), randomName());
+
+        ActionLogTailer tailer = ActionLogTailer.builder(ActionPageQuery.source(client.actions(), source.uniqueId()))
+                .pageSize(2)
+                .build();
+        assertEquals(ImmutableList.of(), tailer.poll());
+
+        List<Action> actions = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Action action = new Action(time + i, source,
+                    new Action.Target(UUID.randomUUID(), randomName(), Action.Target.Type.USER),
+                    "test action " + i
+            );
+            client.actions().submit(action).execute();
+            actions.add(action);
+        }
+
+        assertEquals(actions, tailer.poll());
+        assertEquals(ImmutableList.of(), tailer.poll());
+
+        // an action with the same timestamp as the newest one seen
+        Action sameTime = new Action(time + 2, source,
+                new Action.Target(null, randomName(), Action.Target.Type.GROUP),
+                "test action 3"
+        );
+        client.actions().submit(sameTime).execute();
+
+        assertEquals(ImmutableList.of(sameTime), tailer.poll());
+        assertEquals(ImmutableList.of(), tailer.poll());
+    }
+
     @Test
     public void testQuery() throws IOException {
         LuckPermsRestClient client = createClient();
@@ -114,6 +206,38 @@ public class ActionServiceTest extends AbstractIntegrationTest {
         ActionPage body3 = resp3.body();
         assertNotNull(body3);
         assertEquals(3, body3.overallSize());
+
+        // test streaming all pages
+        List<Action> streamed;
+        try (Stream<Action> stream = client.actions().stream(5)) {
+            streamed = stream.collect(Collectors.toList());
+        }
+        assertEquals(23, streamed.size());
+        assertEquals(
+                ImmutableList.of("test 0", "test 1", "test 2", "test 3", "test 4"),
+                streamed.subList(0, 5).stream().map(Action::description).collect(Collectors.toList())
+        );
+        assertEquals(3, client.actions().streamSource(source.uniqueId(), 2).count());
+
+        // test parallel export
+        List<Action> exported = new ArrayList<>();
+        ExportStats stats = ActionLogExporter.builder(ActionPageQuery.all(client.actions()))
+                .pageSize(4)
+                .parallelism(3)
+                .build()
+                .export(exported::add);
+        assertEquals(streamed, exported);
+        assertEquals(23, stats.actions());
+        assertEquals(6, stats.pages());
+        assertEquals(6, stats.totalPages());
+
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        stats = ActionLogExporter.builder(ActionPageQuery.source(client.actions(), source.uniqueId()))
+                .build()
+                .exportNdjson(ndjson);
+        assertEquals(3, stats.actions());
+        assertEquals(ndjson.size(), stats.bytes());
+        assertEquals(3, ndjson.toString("UTF-8").split("\n").length);
     }
 
 }
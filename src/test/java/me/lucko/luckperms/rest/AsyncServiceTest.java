@@ -0,0 +1,96 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.rest;
+
+import net.luckperms.rest.LuckPermsRestClient;
+import net.luckperms.rest.model.CreateUserRequest;
+import net.luckperms.rest.model.Node;
+import net.luckperms.rest.model.PlayerSaveResult;
+import net.luckperms.rest.model.User;
+import org.junit.jupiter.api.Test;
+import retrofit2.HttpException;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AsyncServiceTest extends AbstractIntegrationTest {
+
+    @Test
+    public void testAsyncUserService() throws Exception {
+        LuckPermsRestClient client = createClient();
+
+        UUID uuid = UUID.randomUUID();
+        String username = randomName();
+
+        // create a user
+        PlayerSaveResult saveResult = client.async().users().create(new CreateUserRequest(uuid, username)).get(30, TimeUnit.SECONDS);
+        assertNotNull(saveResult);
+
+        // add a node
+        List<Node> nodes = client.async().users().nodesAdd(uuid, new Node("test.node", true, Collections.emptySet(), null)).get(30, TimeUnit.SECONDS);
+        assertTrue(nodes.contains(new Node("test.node", true, Collections.emptySet(), null)));
+
+        // read the user
+        User user = client.async().users().get(uuid).get(30, TimeUnit.SECONDS);
+        assertEquals(username, user.username());
+
+        // unknown users complete exceptionally
+        ExecutionException e = assertThrows(ExecutionException.class, () -> client.async().users().get(UUID.randomUUID()).get(30, TimeUnit.SECONDS));
+        assertInstanceOf(HttpException.class, e.getCause());
+        assertEquals(404, ((HttpException) e.getCause()).code());
+
+        client.close();
+    }
+
+    @Test
+    public void testAsyncExecutor() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor(r -> new Thread(r, "async-test-executor"));
+        LuckPermsRestClient client = createClient(builder -> builder.asyncExecutor(executor));
+
+        String thread = client.async().misc().health()
+                .thenApply(health -> {
+                    assertTrue(health.healthy());
+                    return Thread.currentThread().getName();
+                })
+                .get(30, TimeUnit.SECONDS);
+        assertEquals("async-test-executor", thread);
+
+        client.close();
+        executor.shutdown();
+    }
+
+}
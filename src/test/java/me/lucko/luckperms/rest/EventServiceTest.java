@@ -28,6 +28,8 @@ package me.lucko.luckperms.rest;
 import net.luckperms.rest.LuckPermsRestClient;
 import net.luckperms.rest.event.EventCall;
 import net.luckperms.rest.event.EventProducer;
+import net.luckperms.rest.event.EventSubscription;
+import net.luckperms.rest.event.OverflowPolicy;
 import net.luckperms.rest.model.Action;
 import net.luckperms.rest.model.CustomMessage;
 import net.luckperms.rest.model.CustomMessageReceiveEvent;
@@ -78,6 +80,65 @@ public class EventServiceTest extends AbstractIntegrationTest {
         assertNotSame(event.entry(), exampleAction);
     }
 
+    @Test
+    public void testSharedEventSubscription() throws Exception {
+        LuckPermsRestClient client = createClient();
+
+        Action exampleAction = new Action(
+                System.currentTimeMillis() / 1000L,
+                new Action.Source(UUID.randomUUID(), randomName()),
+                new Action.Target(UUID.randomUUID(), randomName(), Action.Target.Type.USER),
+                "hello world"
+        );
+
+        // two subscriptions to the same endpoint share a connection
+        EventProducer<LogBroadcastEvent> first = client.events().logBroadcast().subscribe();
+        AwaitingConsumer<LogBroadcastEvent> firstConsumer = new AwaitingConsumer<>();
+        first.subscribe(firstConsumer);
+
+        EventCall<LogBroadcastEvent> call = client.events().logBroadcast();
+        LogBroadcastEvent event = testEvent(call, 5, () -> {
+            try {
+                client.actions().submit(exampleAction).execute();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        assertEquals(exampleAction, event.entry());
+
+        // closing the second subscription does not affect the first
+        firstConsumer.await(5, TimeUnit.SECONDS);
+        assertEquals(1, firstConsumer.getResults().size());
+        assertEquals(exampleAction, firstConsumer.getResults().get(0).entry());
+
+        first.close();
+    }
+
+    @Test
+    public void testBufferedEventSubscription() throws Exception {
+        LuckPermsRestClient client = createClient();
+
+        Action exampleAction = new Action(
+                System.currentTimeMillis() / 1000L,
+                new Action.Source(UUID.randomUUID(), randomName()),
+                new Action.Target(UUID.randomUUID(), randomName(), Action.Target.Type.USER),
+                "hello world"
+        );
+
+        EventProducer<LogBroadcastEvent> producer = client.events().logBroadcast().subscribe();
+        AwaitingConsumer<LogBroadcastEvent> consumer = new AwaitingConsumer<>();
+        EventSubscription subscription = producer.subscribe(consumer, OverflowPolicy.DROP_OLDEST);
+
+        client.actions().submit(exampleAction).execute();
+
+        consumer.await(5, TimeUnit.SECONDS);
+        assertEquals(1, consumer.getResults().size());
+        assertEquals(exampleAction, consumer.getResults().get(0).entry());
+        assertEquals(0, subscription.droppedEvents());
+
+        producer.close();
+    }
+
     @Test
     public void testCustomMessageReceiveEvent() throws Exception {
         try (Network network = Network.newNetwork(); GenericContainer<?> redis = new GenericContainer<>(DockerImageName.parse("redis"))) {
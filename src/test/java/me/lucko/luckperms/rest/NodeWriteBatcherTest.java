@@ -0,0 +1,116 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.rest;
+
+import net.luckperms.rest.LuckPermsRestClient;
+import net.luckperms.rest.batch.NodeWriteBatcher;
+import net.luckperms.rest.model.CreateGroupRequest;
+import net.luckperms.rest.model.CreateUserRequest;
+import net.luckperms.rest.model.Node;
+import org.junit.jupiter.api.Test;
+import retrofit2.Response;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class NodeWriteBatcherTest extends AbstractIntegrationTest {
+
+    @Test
+    public void testUserNodeWriteBatching() throws Exception {
+        LuckPermsRestClient client = createClient(builder -> builder.nodeWriteBatching(100, TimeUnit.MILLISECONDS));
+        NodeWriteBatcher batcher = client.nodeWriteBatcher();
+
+        UUID uuid = UUID.randomUUID();
+        String username = randomName();
+
+        // create a user
+        assertTrue(client.users().create(new CreateUserRequest(uuid, username)).execute().isSuccessful());
+
+        List<CompletableFuture<List<Node>>> adds = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            adds.add(batcher.userNodesAdd(uuid, new Node("test.node." + i, true, Collections.emptySet(), null)));
+        }
+        CompletableFuture<Void> delete = batcher.userNodesDelete(uuid, new Node("test.node.3", true, Collections.emptySet(), null));
+
+        for (CompletableFuture<List<Node>> add : adds) {
+            List<Node> nodes = add.get(30, TimeUnit.SECONDS);
+            assertNotNull(nodes);
+            assertTrue(nodes.contains(new Node("test.node.9", true, Collections.emptySet(), null)));
+        }
+        delete.get(30, TimeUnit.SECONDS);
+
+        Response<List<Node>> resp = client.users().nodes(uuid).execute();
+        assertTrue(resp.isSuccessful());
+        assertNotNull(resp.body());
+        assertEquals(9, resp.body().size());
+        assertFalse(resp.body().contains(new Node("test.node.3", true, Collections.emptySet(), null)));
+
+        client.close();
+    }
+
+    @Test
+    public void testGroupNodeWriteBatching() throws Exception {
+        LuckPermsRestClient client = createClient(builder -> builder.nodeWriteBatching(1, TimeUnit.MINUTES));
+        NodeWriteBatcher batcher = client.nodeWriteBatcher();
+
+        String name = randomName();
+
+        // create a group
+        assertTrue(client.groups().create(new CreateGroupRequest(name)).execute().isSuccessful());
+
+        CompletableFuture<List<Node>> add1 = batcher.groupNodesAdd(name, new Node("test.node.one", true, Collections.emptySet(), null));
+        CompletableFuture<List<Node>> add2 = batcher.groupNodesAdd(name, new Node("test.node.two", true, Collections.emptySet(), null));
+        assertFalse(add1.isDone());
+
+        // flush without waiting for the window
+        batcher.flush();
+        assertEquals(add1.get(30, TimeUnit.SECONDS), add2.get(30, TimeUnit.SECONDS));
+        assertEquals(2, add1.get().size());
+
+        // pending writes are flushed on close
+        CompletableFuture<List<Node>> add3 = batcher.groupNodesAdd(name, new Node("test.node.three", true, Collections.emptySet(), null));
+        client.close();
+        assertTrue(add3.isDone());
+        assertEquals(3, add3.get().size());
+    }
+
+    @Test
+    public void testNodeWriteBatchingNotEnabled() {
+        LuckPermsRestClient client = createClient();
+        assertThrows(IllegalStateException.class, client::nodeWriteBatcher);
+    }
+
+}
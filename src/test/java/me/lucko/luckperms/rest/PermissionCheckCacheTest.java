@@ -0,0 +1,96 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.rest;
+
+import net.luckperms.rest.LuckPermsRestClient;
+import net.luckperms.rest.cache.PermissionCheckCache;
+import net.luckperms.rest.model.Context;
+import net.luckperms.rest.model.CreateUserRequest;
+import net.luckperms.rest.model.Node;
+import net.luckperms.rest.model.PermissionCheckRequest;
+import net.luckperms.rest.model.PermissionCheckResult;
+import net.luckperms.rest.model.QueryOptions;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.shaded.com.google.common.collect.ImmutableSet;
+import retrofit2.Response;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PermissionCheckCacheTest extends AbstractIntegrationTest {
+
+    @Test
+    public void testPermissionCheckCache() throws IOException {
+        LuckPermsRestClient client = createClient(builder -> builder.permissionCheckCache(100, 1, TimeUnit.MINUTES));
+        PermissionCheckCache cache = client.permissionCheckCache();
+
+        UUID uuid = UUID.randomUUID();
+        String username = randomName();
+
+        // create a user
+        assertTrue(client.users().create(new CreateUserRequest(uuid, username)).execute().isSuccessful());
+
+        // check a permission twice
+        Response<PermissionCheckResult> resp1 = cache.check(uuid, "test.node").execute();
+        assertTrue(resp1.isSuccessful());
+        assertNotNull(resp1.body());
+        assertEquals(PermissionCheckResult.Tristate.UNDEFINED, resp1.body().result());
+
+        Response<PermissionCheckResult> resp2 = cache.check(uuid, "test.node").execute();
+        assertTrue(resp2.isSuccessful());
+        assertNotNull(resp2.body());
+        assertEquals(PermissionCheckResult.Tristate.UNDEFINED, resp2.body().result());
+
+        assertEquals(1, cache.stats().hitCount());
+        assertEquals(1, cache.stats().missCount());
+
+        // query options with the same contexts in a different order share a cache entry
+        PermissionCheckRequest req1 = new PermissionCheckRequest("test.node", new QueryOptions(null, null, ImmutableSet.of(new Context("server", "test"), new Context("world", "aaa"))));
+        PermissionCheckRequest req2 = new PermissionCheckRequest("test.node", new QueryOptions(null, null, ImmutableSet.of(new Context("world", "aaa"), new Context("server", "test"))));
+        assertTrue(cache.check(uuid, req1).execute().isSuccessful());
+        assertTrue(cache.check(uuid, req2).execute().isSuccessful());
+        assertEquals(2, cache.size());
+        assertEquals(2, cache.stats().hitCount());
+
+        // modify the user, should invalidate the cached results
+        assertTrue(client.users().nodesAdd(uuid, new Node("test.node", true, Collections.emptySet(), null)).execute().isSuccessful());
+        assertEquals(0, cache.size());
+
+        Response<PermissionCheckResult> resp3 = cache.check(uuid, "test.node").execute();
+        assertTrue(resp3.isSuccessful());
+        assertNotNull(resp3.body());
+        assertEquals(PermissionCheckResult.Tristate.TRUE, resp3.body().result());
+
+        client.close();
+    }
+
+}
@@ -0,0 +1,119 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.rest;
+
+import net.luckperms.rest.LuckPermsRestClient;
+import net.luckperms.rest.local.PermissionEvaluator;
+import net.luckperms.rest.model.Context;
+import net.luckperms.rest.model.CreateGroupRequest;
+import net.luckperms.rest.model.CreateUserRequest;
+import net.luckperms.rest.model.Node;
+import net.luckperms.rest.model.PermissionCheckRequest;
+import net.luckperms.rest.model.PermissionCheckResult;
+import net.luckperms.rest.model.QueryOptions;
+import net.luckperms.rest.model.User;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.shaded.com.google.common.collect.ImmutableList;
+import org.testcontainers.shaded.com.google.common.collect.ImmutableSet;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PermissionEvaluatorTest extends AbstractIntegrationTest {
+
+    @Test
+    public void testMatchesServer() throws IOException {
+        LuckPermsRestClient client = createClient();
+
+        // create some groups
+        String lowGroup = randomName();
+        String highGroup = randomName();
+        assertTrue(client.groups().create(new CreateGroupRequest(lowGroup)).execute().isSuccessful());
+        assertTrue(client.groups().create(new CreateGroupRequest(highGroup)).execute().isSuccessful());
+
+        assertTrue(client.groups().nodesAdd(lowGroup, ImmutableList.of(
+                new Node("weight.10", true, Collections.emptySet(), null),
+                new Node("test.conflict", false, Collections.emptySet(), null),
+                new Node("test.low", true, Collections.emptySet(), null),
+                new Node("wildcard.*", true, Collections.emptySet(), null)
+        )).execute().isSuccessful());
+        assertTrue(client.groups().nodesAdd(highGroup, ImmutableList.of(
+                new Node("weight.100", true, Collections.emptySet(), null),
+                new Node("test.conflict", true, Collections.emptySet(), null),
+                new Node("test.server", true, Collections.singleton(new Context("server", "test")), null),
+                new Node("r=regex\\.[0-9]+", true, Collections.emptySet(), null)
+        )).execute().isSuccessful());
+
+        // create a user
+        UUID uuid = UUID.randomUUID();
+        assertTrue(client.users().create(new CreateUserRequest(uuid, randomName())).execute().isSuccessful());
+        assertTrue(client.users().nodesAdd(uuid, ImmutableList.of(
+                new Node("group." + lowGroup, true, Collections.emptySet(), null),
+                new Node("group." + highGroup, true, Collections.emptySet(), null),
+                new Node("wildcard.denied", false, Collections.emptySet(), null),
+                new Node("test.expired", true, Collections.emptySet(), (System.currentTimeMillis() / 1000L) + 1),
+                new Node("test.world", true, Collections.singleton(new Context("world", "nether")), null)
+        )).execute().isSuccessful());
+
+        // wait for the temporary node to expire
+        try {
+            Thread.sleep(2000);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+
+        User user = Objects.requireNonNull(client.users().get(uuid).execute().body());
+        PermissionEvaluator evaluator = PermissionEvaluator.load(client.groups());
+
+        List<String> permissions = Arrays.asList(
+                "test.conflict", "test.low", "test.server", "test.world", "test.expired", "test.unknown",
+                "wildcard.anything", "wildcard.denied", "regex.123", "regex.abc", "group." + highGroup
+        );
+        List<QueryOptions> queryOptions = Arrays.asList(
+                null,
+                new QueryOptions(null, null, ImmutableSet.of(new Context("server", "test"), new Context("world", "nether"))),
+                new QueryOptions(QueryOptions.Mode.NON_CONTEXTUAL, null, null),
+                new QueryOptions(QueryOptions.Mode.CONTEXTUAL, EnumSet.noneOf(QueryOptions.Flag.class), ImmutableSet.of(new Context("server", "test")))
+        );
+
+        for (QueryOptions options : queryOptions) {
+            for (String permission : permissions) {
+                PermissionCheckResult expected = client.users().permissionCheck(uuid, new PermissionCheckRequest(permission, options)).execute().body();
+                PermissionCheckResult actual = evaluator.check(user, permission, options);
+                assertEquals(Objects.requireNonNull(expected).result(), actual.result(), () -> permission + " " + options);
+            }
+        }
+    }
+
+}
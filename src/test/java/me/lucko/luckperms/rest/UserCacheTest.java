@@ -0,0 +1,123 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.rest;
+
+import net.luckperms.rest.LuckPermsRestClient;
+import net.luckperms.rest.cache.CacheStats;
+import net.luckperms.rest.cache.UserCache;
+import net.luckperms.rest.model.CreateUserRequest;
+import net.luckperms.rest.model.Node;
+import net.luckperms.rest.model.User;
+import org.junit.jupiter.api.Test;
+import retrofit2.Response;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class UserCacheTest extends AbstractIntegrationTest {
+
+    @Test
+    public void testUserCache() throws IOException {
+        LuckPermsRestClient client = createClient(builder -> builder.userCache(100, 1, TimeUnit.MINUTES));
+        UserCache cache = client.userCache();
+
+        UUID uuid = UUID.randomUUID();
+        String username = randomName();
+
+        // create a user
+        assertTrue(client.users().create(new CreateUserRequest(uuid, username)).execute().isSuccessful());
+
+        // load the user into the cache
+        Response<User> resp1 = cache.get(uuid).execute();
+        assertTrue(resp1.isSuccessful());
+        User user1 = resp1.body();
+        assertNotNull(user1);
+        assertEquals(username, user1.username());
+        assertEquals(1, cache.size());
+
+        // read the user from the cache
+        Response<User> resp2 = cache.get(uuid).execute();
+        assertTrue(resp2.isSuccessful());
+        assertSame(user1, resp2.body());
+
+        CacheStats stats = cache.stats();
+        assertEquals(1, stats.hitCount());
+        assertEquals(1, stats.missCount());
+
+        // modify the user, should invalidate the cached copy
+        assertTrue(client.users().nodesAdd(uuid, new Node("test.node", true, Collections.emptySet(), null)).execute().isSuccessful());
+        assertEquals(0, cache.size());
+
+        Response<User> resp3 = cache.get(uuid).execute();
+        assertTrue(resp3.isSuccessful());
+        User user3 = resp3.body();
+        assertNotNull(user3);
+        assertTrue(user3.nodes().contains(new Node("test.node", true, Collections.emptySet(), null)));
+        assertEquals(2, cache.stats().missCount());
+
+        // unknown users are not cached
+        assertEquals(404, cache.get(UUID.randomUUID()).execute().code());
+        assertEquals(1, cache.size());
+
+        // explicit invalidation
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+
+        client.close();
+    }
+
+    @Test
+    public void testUserCacheEviction() throws IOException {
+        LuckPermsRestClient client = createClient(builder -> builder.userCache(2, 1, TimeUnit.MINUTES));
+        UserCache cache = client.userCache();
+
+        for (int i = 0; i < 3; i++) {
+            UUID uuid = UUID.randomUUID();
+            assertTrue(client.users().create(new CreateUserRequest(uuid, randomName())).execute().isSuccessful());
+            assertTrue(cache.get(uuid).execute().isSuccessful());
+        }
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.stats().evictionCount());
+
+        client.close();
+    }
+
+    @Test
+    public void testUserCacheNotEnabled() {
+        LuckPermsRestClient client = createClient();
+        assertThrows(IllegalStateException.class, client::userCache);
+    }
+
+}
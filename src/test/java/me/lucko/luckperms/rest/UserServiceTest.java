@@ -25,7 +25,14 @@
 
 package me.lucko.luckperms.rest;
 
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import net.luckperms.rest.LuckPermsRestClient;
+import net.luckperms.rest.model.CompactUuidSet;
 import net.luckperms.rest.model.Context;
 import net.luckperms.rest.model.CreateGroupRequest;
 import net.luckperms.rest.model.CreateTrackRequest;
@@ -53,12 +60,17 @@ import org.testcontainers.shaded.com.google.common.collect.ImmutableSet;
 import retrofit2.Response;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -163,6 +175,59 @@ public class UserServiceTest extends AbstractIntegrationTest {
         assertTrue(resp.isSuccessful());
         assertNotNull(resp.body());
         assertTrue(resp.body().contains(uuid));
+
+        Response<Stream<UUID>> streamResp = client.users().listStream().execute();
+        assertTrue(streamResp.isSuccessful());
+        assertNotNull(streamResp.body());
+        try (Stream<UUID> stream = streamResp.body()) {
+            assertEquals(resp.body(), stream.collect(Collectors.toSet()));
+        }
+
+        Response<CompactUuidSet> compactResp = client.users().listCompact().execute();
+        assertTrue(compactResp.isSuccessful());
+        assertNotNull(compactResp.body());
+        assertTrue(compactResp.body().contains(uuid));
+        assertEquals(resp.body(), compactResp.body());
+    }
+
+    @Test
+    public void testGsonConfigurer() throws IOException {
+        AtomicInteger reads = new AtomicInteger();
+        LuckPermsRestClient client = createClient(builder -> builder.gsonConfigurer(gson -> gson.registerTypeAdapterFactory(new TypeAdapterFactory() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+                if (type.getRawType() != User.class) {
+                    return null;
+                }
+                TypeAdapter<User> delegate = gson.getDelegateAdapter(this, TypeToken.get(User.class));
+                return (TypeAdapter<T>) new TypeAdapter<User>() {
+                    @Override
+                    public void write(JsonWriter out, User value) throws IOException {
+                        delegate.write(out, value);
+                    }
+
+                    @Override
+                    public User read(JsonReader in) throws IOException {
+                        reads.incrementAndGet();
+                        return delegate.read(in);
+                    }
+                };
+            }
+        })));
+
+        UUID uuid = UUID.randomUUID();
+        String username = randomName();
+
+        // create a user
+        assertTrue(client.users().create(new CreateUserRequest(uuid, username)).execute().isSuccessful());
+
+        // the configured adapter is used to decode responses
+        Response<User> resp = client.users().get(uuid).execute();
+        assertTrue(resp.isSuccessful());
+        assertNotNull(resp.body());
+        assertEquals(username, resp.body().username());
+        assertEquals(1, reads.get());
     }
 
     @Test
@@ -378,6 +443,11 @@ public class UserServiceTest extends AbstractIntegrationTest {
                 new UserSearchResult(uuid, ImmutableList.of(new Node("test.node.one", true, Collections.emptySet(), null)))
         ), resp1.body());
 
+        try (Stream<UserSearchResult> stream = client.users().searchNodesByKeyStream("test.node.one").execute().body()) {
+            assertNotNull(stream);
+            assertEquals(resp1.body(), stream.collect(Collectors.toList()));
+        }
+
         // searchNodesByKeyStartsWith
         Response<List<UserSearchResult>> resp2 = client.users().searchNodesByKeyStartsWith("test.node").execute();
         assertTrue(resp2.isSuccessful());
@@ -459,6 +529,49 @@ public class UserServiceTest extends AbstractIntegrationTest {
         assertEquals(new Node("test.node.three", true, Collections.singleton(new Context("server", "test")), null), resp4.body().node());
     }
 
+    @Test
+    public void testUserBulkPermissionCheck() throws Exception {
+        LuckPermsRestClient client = createClient();
+
+        UUID uuid = UUID.randomUUID();
+        String username = randomName();
+
+        // create a user
+        assertTrue(client.users().create(new CreateUserRequest(uuid, username)).execute().isSuccessful());
+
+        // set some permissions
+        assertTrue(client.users().nodesAdd(uuid, ImmutableList.of(
+                new Node("test.node.one", true, Collections.emptySet(), null),
+                new Node("test.node.two", false, Collections.emptySet(), null),
+                new Node("test.node.three", true, Collections.singleton(new Context("server", "test")), null)
+        )).execute().isSuccessful());
+
+        List<String> permissions = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            permissions.add("test.node.bulk." + i);
+        }
+        permissions.add("test.node.one");
+        permissions.add("test.node.two");
+        permissions.add("test.node.three");
+
+        Map<String, PermissionCheckResult> results = client.users().permissionCheck(uuid, permissions, null).get(30, TimeUnit.SECONDS);
+        assertEquals(permissions, new ArrayList<>(results.keySet()));
+        for (int i = 0; i < 20; i++) {
+            assertEquals(PermissionCheckResult.Tristate.UNDEFINED, results.get("test.node.bulk." + i).result());
+        }
+        assertEquals(PermissionCheckResult.Tristate.TRUE, results.get("test.node.one").result());
+        assertEquals(PermissionCheckResult.Tristate.FALSE, results.get("test.node.two").result());
+        assertEquals(PermissionCheckResult.Tristate.UNDEFINED, results.get("test.node.three").result());
+
+        Map<String, PermissionCheckResult> contextualResults = client.users().permissionCheck(
+                uuid,
+                ImmutableList.of("test.node.one", "test.node.three"),
+                new QueryOptions(null, null, ImmutableSet.of(new Context("server", "test")))
+        ).get(30, TimeUnit.SECONDS);
+        assertEquals(PermissionCheckResult.Tristate.TRUE, contextualResults.get("test.node.one").result());
+        assertEquals(PermissionCheckResult.Tristate.TRUE, contextualResults.get("test.node.three").result());
+    }
+
     @Test
     public void testUserPromoteDemote() throws IOException {
         LuckPermsRestClient client = createClient();
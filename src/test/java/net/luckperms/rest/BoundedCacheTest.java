@@ -0,0 +1,165 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest;
+
+import net.luckperms.rest.cache.CacheStats;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BoundedCacheTest {
+
+    @Test
+    public void testGetAndPut() {
+        BoundedCache<String, String> cache = new BoundedCache<>(10, 1, TimeUnit.MINUTES);
+
+        assertNull(cache.getIfPresent("a"));
+        cache.put("a", "1", cache.generation());
+        assertEquals("1", cache.getIfPresent("a"));
+        assertEquals(1, cache.size());
+
+        CacheStats stats = cache.stats();
+        assertEquals(1, stats.hitCount());
+        assertEquals(1, stats.missCount());
+        assertEquals(0, stats.evictionCount());
+    }
+
+    @Test
+    public void testEviction() {
+        BoundedCache<String, String> cache = new BoundedCache<>(2, 1, TimeUnit.MINUTES);
+
+        cache.put("a", "1", cache.generation());
+        cache.put("b", "2", cache.generation());
+        cache.put("c", "3", cache.generation());
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.stats().evictionCount());
+        assertNull(cache.getIfPresent("a"));
+
+        // entries which have been read since the last sweep get a second chance
+        cache.put("d", "4", cache.generation());
+        assertEquals("4", cache.getIfPresent("d"));
+        cache.put("e", "5", cache.generation());
+        assertEquals("4", cache.getIfPresent("d"));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testExpiry() throws InterruptedException {
+        BoundedCache<String, String> cache = new BoundedCache<>(10, 1, TimeUnit.MILLISECONDS);
+
+        cache.put("a", "1", cache.generation());
+        Thread.sleep(10);
+        assertNull(cache.getIfPresent("a"));
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.stats().evictionCount());
+    }
+
+    @Test
+    public void testStaleLoadDiscarded() {
+        BoundedCache<String, String> cache = new BoundedCache<>(10, 1, TimeUnit.MINUTES);
+
+        long generation = cache.generation();
+        cache.invalidate("a");
+        cache.put("a", "stale", generation);
+        assertNull(cache.getIfPresent("a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testInvalidateGroup() {
+        BoundedCache<String, String> cache = new BoundedCache<>(10, 1, TimeUnit.MINUTES, key -> key.substring(0, 1));
+
+        cache.put("a1", "1", cache.generation());
+        cache.put("a2", "2", cache.generation());
+        cache.put("b1", "3", cache.generation());
+
+        cache.invalidateGroup("a");
+        assertNull(cache.getIfPresent("a1"));
+        assertNull(cache.getIfPresent("a2"));
+        assertEquals("3", cache.getIfPresent("b1"));
+        assertEquals(1, cache.size());
+
+        // groups are still tracked for keys added after an invalidation
+        cache.put("a3", "4", cache.generation());
+        cache.invalidateGroup("a");
+        assertNull(cache.getIfPresent("a3"));
+
+        BoundedCache<String, String> ungrouped = new BoundedCache<>(10, 1, TimeUnit.MINUTES);
+        assertThrows(IllegalStateException.class, () -> ungrouped.invalidateGroup("a"));
+    }
+
+    @Test
+    public void testConcurrentAccess() throws Exception {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(100, 1, TimeUnit.MINUTES, key -> key % 10);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < 100_000; i++) {
+                        int key = random.nextInt(500);
+                        Integer value = cache.getIfPresent(key);
+                        if (value == null) {
+                            cache.put(key, key, cache.generation());
+                        } else {
+                            assertEquals(key, value.intValue());
+                        }
+                        if (i % 1000 == 0) {
+                            cache.invalidateGroup(key % 10);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertTrue(cache.size() <= 100);
+
+        // every remaining entry can still be invalidated through its group
+        for (int group = 0; group < 10; group++) {
+            cache.invalidateGroup(group);
+        }
+        assertEquals(0, cache.size());
+    }
+
+}
@@ -0,0 +1,203 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest;
+
+import net.luckperms.rest.model.ModelTypeAdapterFactory;
+import net.luckperms.rest.service.EventService;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CacheInvalidatorTest {
+    private static final String ALL = "all";
+
+    private final StubEventServer server = new StubEventServer();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final EventCallAdapterFactory factory = new EventCallAdapterFactory(this.server.client(), ModelTypeAdapterFactory.gson(), this.executor, null);
+    private final CacheInvalidator invalidator = new CacheInvalidator();
+    private final BlockingQueue<String> invalidations = new LinkedBlockingQueue<>();
+    private final Map<String, StubEventServer.Connection> connections = new HashMap<>();
+    private EventService eventService;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        this.eventService = new Retrofit.Builder()
+                .baseUrl("http://localhost/")
+                .client(this.server.client())
+                .addCallAdapterFactory(this.factory)
+                .addConverterFactory(GsonConverterFactory.create(ModelTypeAdapterFactory.gson()))
+                .build()
+                .create(EventService.class);
+
+        this.invalidator.register(new CacheInvalidator.Target() {
+            @Override
+            public void invalidate(UUID uniqueId) {
+                CacheInvalidatorTest.this.invalidations.add(uniqueId.toString());
+            }
+
+            @Override
+            public void invalidateAll() {
+                CacheInvalidatorTest.this.invalidations.add(ALL);
+            }
+        });
+        this.invalidator.start(this.eventService, this.executor);
+
+        for (int i = 0; i < 3; i++) {
+            StubEventServer.Connection connection = this.server.awaitConnection();
+            List<String> path = connection.request().url().pathSegments();
+            this.connections.put(path.get(path.size() - 1), connection);
+        }
+        await().atMost(5, TimeUnit.SECONDS).until(this.invalidator::ensureSubscribed);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        this.invalidator.close();
+        this.server.close();
+        this.factory.close();
+        this.executor.shutdownNow();
+    }
+
+    private String poll() throws InterruptedException {
+        String value = this.invalidations.poll(5, TimeUnit.SECONDS);
+        if (value == null) {
+            throw new AssertionError("timed out");
+        }
+        return value;
+    }
+
+    @Test
+    public void testStartDoesNotBlock() throws Exception {
+        List<Runnable> tasks = new ArrayList<>();
+        int connections = this.server.connectionCount();
+
+        CacheInvalidator invalidator = new CacheInvalidator();
+        try {
+            invalidator.start(this.eventService, tasks::add);
+            assertEquals(connections, this.server.connectionCount());
+            assertFalse(invalidator.ensureSubscribed());
+
+            assertEquals(1, tasks.size());
+            // subscribes on the executor, sharing the connections already open
+            tasks.get(0).run();
+            assertTrue(invalidator.ensureSubscribed());
+        } finally {
+            invalidator.close();
+        }
+    }
+
+    @Test
+    public void testSyncEvents() throws Exception {
+        assertTrue(this.invalidator.ensureSubscribed());
+
+        UUID uniqueId = UUID.randomUUID();
+        this.connections.get("pre-network-sync").send("{\"syncId\":\"" + UUID.randomUUID() + "\",\"type\":\"specific_user\",\"specificUserUniqueId\":\"" + uniqueId + "\"}");
+        assertEquals(uniqueId.toString(), poll());
+
+        this.connections.get("post-network-sync").send("{\"syncId\":\"" + UUID.randomUUID() + "\",\"type\":\"full\",\"didSyncOccur\":false}");
+        this.connections.get("post-sync").send("{}");
+        // the network sync that did not happen is ignored
+        assertEquals(ALL, poll());
+        assertTrue(this.invalidations.isEmpty());
+    }
+
+    @Test
+    public void testBadEventIgnored() throws Exception {
+        UUID uniqueId = UUID.randomUUID();
+        this.connections.get("pre-network-sync").send("{\"syncId\": [");
+        this.connections.get("pre-network-sync").send("{\"syncId\":\"" + UUID.randomUUID() + "\",\"type\":\"specific_user\",\"specificUserUniqueId\":\"" + uniqueId + "\"}");
+
+        // only the user in the valid event is invalidated
+        assertEquals(uniqueId.toString(), poll());
+        assertTrue(this.invalidations.isEmpty());
+        assertTrue(this.invalidator.ensureSubscribed());
+    }
+
+    @Test
+    public void testDisconnectAndReconnect() throws Exception {
+        assertTrue(this.invalidator.ensureSubscribed());
+
+        this.connections.get("post-sync").close();
+
+        // cached entries are dropped and not trusted until the stream is back
+        assertEquals(ALL, poll());
+        assertFalse(this.invalidator.ensureSubscribed());
+
+        StubEventServer.Connection reconnected = this.server.awaitConnection();
+        assertEquals("post-sync", reconnected.request().url().pathSegments().get(1));
+
+        // anything sent while disconnected was missed, so everything is invalidated again
+        assertEquals(ALL, poll());
+        await().atMost(5, TimeUnit.SECONDS).until(this.invalidator::ensureSubscribed);
+
+        reconnected.send("{}");
+        assertEquals(ALL, poll());
+    }
+
+    @Test
+    public void testWrites() throws Exception {
+        UUID uniqueId = UUID.randomUUID();
+        StubInterceptor stub = new StubInterceptor();
+        OkHttpClient client = new OkHttpClient.Builder()
+                .addInterceptor(this.invalidator)
+                .addInterceptor(stub)
+                .build();
+
+        client.newCall(new Request.Builder().url("http://localhost/user/" + uniqueId).build()).execute().close();
+        assertTrue(this.invalidations.isEmpty());
+
+        RequestBody body = RequestBody.create(null, new byte[0]);
+        client.newCall(new Request.Builder().url("http://localhost/user/" + uniqueId + "/permission-check").post(body).build()).execute().close();
+        assertTrue(this.invalidations.isEmpty());
+
+        client.newCall(new Request.Builder().url("http://localhost/user/" + uniqueId + "/nodes").post(body).build()).execute().close();
+        assertEquals(uniqueId.toString(), poll());
+
+        client.newCall(new Request.Builder().url("http://localhost/group/admin/nodes").post(body).build()).execute().close();
+        assertEquals(ALL, poll());
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest;
+
+import org.junit.jupiter.api.Test;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CachingCallTest {
+    private final BoundedCache<String, String> cache = new BoundedCache<>(10, 1, TimeUnit.MINUTES);
+    private final List<Runnable> tasks = new ArrayList<>();
+
+    @SuppressWarnings("unchecked")
+    private static Call<String> delegate() {
+        return mock(Call.class);
+    }
+
+    private static <T> Callback<T> callback(AtomicReference<Object> result) {
+        return new Callback<T>() {
+            @Override
+            public void onResponse(Call<T> call, Response<T> response) {
+                result.set(response.body());
+            }
+
+            @Override
+            public void onFailure(Call<T> call, Throwable t) {
+                result.set(t);
+            }
+        };
+    }
+
+    @Test
+    public void testMissPopulatesCache() throws IOException {
+        Call<String> delegate = delegate();
+        when(delegate.execute()).thenReturn(Response.success("value"));
+
+        assertEquals("value", new CachingCall<>(delegate, this.cache, "key", this.tasks::add).execute().body());
+        assertEquals("value", this.cache.getIfPresent("key"));
+    }
+
+    @Test
+    public void testEnqueuedHitUsesCallbackExecutor() {
+        this.cache.put("key", "value", this.cache.generation());
+        Call<String> delegate = delegate();
+        AtomicReference<Object> result = new AtomicReference<>();
+
+        new CachingCall<>(delegate, this.cache, "key", this.tasks::add).enqueue(callback(result));
+        assertNull(result.get());
+        assertEquals(1, this.tasks.size());
+
+        this.tasks.get(0).run();
+        assertEquals("value", result.get());
+        verify(delegate, never()).enqueue(any());
+    }
+
+    @Test
+    public void testEnqueuedMissUsesDelegate() {
+        Call<String> delegate = delegate();
+        doAnswer(invocation -> {
+            Callback<String> callback = invocation.getArgument(0);
+            callback.onResponse(delegate, Response.success("value"));
+            return null;
+        }).when(delegate).enqueue(any());
+        AtomicReference<Object> result = new AtomicReference<>();
+
+        new CachingCall<>(delegate, this.cache, "key", this.tasks::add).enqueue(callback(result));
+        assertEquals("value", result.get());
+        assertEquals("value", this.cache.getIfPresent("key"));
+        assertTrue(this.tasks.isEmpty());
+    }
+
+    @Test
+    public void testCanceledHit() {
+        this.cache.put("key", "value", this.cache.generation());
+        AtomicReference<Object> result = new AtomicReference<>();
+
+        CachingCall<String, String> call = new CachingCall<>(delegate(), this.cache, "key", this.tasks::add);
+        call.cancel();
+        assertTrue(call.isCanceled());
+        call.enqueue(callback(result));
+        this.tasks.forEach(Runnable::run);
+        assertTrue(result.get() instanceof IOException);
+
+        CachingCall<String, String> executed = new CachingCall<>(delegate(), this.cache, "key", this.tasks::add);
+        executed.cancel();
+        assertThrows(IOException.class, executed::execute);
+
+        // cancelled after being enqueued, but before the callback ran
+        CachingCall<String, String> enqueued = new CachingCall<>(delegate(), this.cache, "key", this.tasks::add);
+        result.set(null);
+        this.tasks.clear();
+        enqueued.enqueue(callback(result));
+        enqueued.cancel();
+        this.tasks.forEach(Runnable::run);
+        assertTrue(result.get() instanceof IOException);
+    }
+
+    @Test
+    public void testRejectedCallback() {
+        this.cache.put("key", "value", this.cache.generation());
+        AtomicReference<Object> result = new AtomicReference<>();
+
+        new CachingCall<>(delegate(), this.cache, "key", task -> {
+            throw new RejectedExecutionException();
+        }).enqueue(callback(result));
+        assertTrue(result.get() instanceof IOException);
+    }
+}
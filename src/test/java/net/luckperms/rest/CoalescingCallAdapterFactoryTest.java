@@ -0,0 +1,229 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest;
+
+import org.junit.jupiter.api.Test;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+import retrofit2.http.GET;
+import retrofit2.http.POST;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CoalescingCallAdapterFactoryTest {
+
+    interface TestService {
+        @GET("value")
+        Call<String> get();
+
+        @POST("value")
+        Call<String> post();
+    }
+
+    private static TestService service(StubInterceptor stub) {
+        return new Retrofit.Builder()
+                .baseUrl("http://localhost/")
+                .client(stub.client())
+                .addCallAdapterFactory(new CoalescingCallAdapterFactory())
+                .addConverterFactory(GsonConverterFactory.create())
+                .build()
+                .create(TestService.class);
+    }
+
+    private static CompletableFuture<Response<String>> enqueue(Call<String> call) {
+        CompletableFuture<Response<String>> future = new CompletableFuture<>();
+        call.enqueue(new Callback<String>() {
+            @Override
+            public void onResponse(Call<String> call, Response<String> response) {
+                future.complete(response);
+            }
+
+            @Override
+            public void onFailure(Call<String> call, Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+        return future;
+    }
+
+    private static List<CompletableFuture<Response<String>>> enqueueFollowers(TestService service, int count) {
+        List<CompletableFuture<Response<String>>> followers = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            followers.add(enqueue(service.get()));
+        }
+        return followers;
+    }
+
+    @Test
+    public void testConcurrentIdenticalGets() throws Exception {
+        StubInterceptor stub = new StubInterceptor().hold();
+        TestService service = service(stub);
+
+        CompletableFuture<Response<String>> leader = enqueue(service.get());
+        await().atMost(5, TimeUnit.SECONDS).until(() -> stub.requests() == 1);
+
+        List<CompletableFuture<Response<String>>> followers = enqueueFollowers(service, 5);
+        stub.release();
+
+        assertEquals("value", leader.get(5, TimeUnit.SECONDS).body());
+        for (CompletableFuture<Response<String>> follower : followers) {
+            assertEquals("value", follower.get(5, TimeUnit.SECONDS).body());
+        }
+        assertEquals(1, stub.requests());
+
+        // once the leader has completed, the next call makes a new request
+        assertEquals("value", service.get().execute().body());
+        assertEquals(2, stub.requests());
+    }
+
+    @Test
+    public void testLeaderFailure() throws Exception {
+        StubInterceptor stub = new StubInterceptor().hold().failFirst();
+        TestService service = service(stub);
+
+        CompletableFuture<Response<String>> leader = enqueue(service.get());
+        await().atMost(5, TimeUnit.SECONDS).until(() -> stub.requests() == 1);
+
+        List<CompletableFuture<Response<String>>> followers = enqueueFollowers(service, 3);
+        stub.release();
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IOException.class, e.getCause());
+        for (CompletableFuture<Response<String>> follower : followers) {
+            e = assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS));
+            assertEquals("stub failure", e.getCause().getMessage());
+        }
+        assertEquals(1, stub.requests());
+    }
+
+    @Test
+    public void testErrorResponseNotShared() throws Exception {
+        StubInterceptor stub = new StubInterceptor().hold().status(500);
+        TestService service = service(stub);
+
+        CompletableFuture<Response<String>> leader = enqueue(service.get());
+        await().atMost(5, TimeUnit.SECONDS).until(() -> stub.requests() == 1);
+
+        List<CompletableFuture<Response<String>>> followers = enqueueFollowers(service, 3);
+        stub.release();
+
+        assertEquals(500, leader.get(5, TimeUnit.SECONDS).code());
+        for (CompletableFuture<Response<String>> follower : followers) {
+            Response<String> response = follower.get(5, TimeUnit.SECONDS);
+            assertEquals(500, response.code());
+            // each caller gets a readable error body of its own
+            assertEquals("\"value\"", response.errorBody().string());
+        }
+        assertEquals(4, stub.requests());
+    }
+
+    @Test
+    public void testFollowerCancel() throws Exception {
+        StubInterceptor stub = new StubInterceptor().hold();
+        TestService service = service(stub);
+
+        CompletableFuture<Response<String>> leader = enqueue(service.get());
+        await().atMost(5, TimeUnit.SECONDS).until(() -> stub.requests() == 1);
+
+        Call<String> follower = service.get();
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        Thread thread = new Thread(() -> {
+            try {
+                follower.execute();
+            } catch (Throwable e) {
+                error.set(e);
+            }
+        });
+        thread.start();
+        await().atMost(5, TimeUnit.SECONDS).until(() -> thread.getState() == Thread.State.WAITING);
+
+        follower.cancel();
+        thread.join(TimeUnit.SECONDS.toMillis(5));
+
+        // the follower returns straight away, without waiting for the leader
+        assertFalse(thread.isAlive());
+        assertInstanceOf(IOException.class, error.get());
+        assertTrue(follower.isCanceled());
+        assertFalse(leader.isDone());
+
+        stub.release();
+        assertEquals("value", leader.get(5, TimeUnit.SECONDS).body());
+        assertEquals(1, stub.requests());
+    }
+
+    @Test
+    public void testEnqueuedFollowerCancel() throws Exception {
+        StubInterceptor stub = new StubInterceptor().hold();
+        TestService service = service(stub);
+
+        CompletableFuture<Response<String>> leader = enqueue(service.get());
+        await().atMost(5, TimeUnit.SECONDS).until(() -> stub.requests() == 1);
+
+        Call<String> follower = service.get();
+        CompletableFuture<Response<String>> result = enqueue(follower);
+        follower.cancel();
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IOException.class, e.getCause());
+        assertFalse(leader.isDone());
+
+        stub.release();
+        assertEquals("value", leader.get(5, TimeUnit.SECONDS).body());
+    }
+
+    @Test
+    public void testNonGetBypass() throws Exception {
+        StubInterceptor stub = new StubInterceptor().hold();
+        TestService service = service(stub);
+
+        CompletableFuture<Response<String>> first = enqueue(service.post());
+        CompletableFuture<Response<String>> second = enqueue(service.post());
+
+        // both requests reach the server while neither has completed
+        await().atMost(5, TimeUnit.SECONDS).until(() -> stub.requests() == 2);
+        stub.release();
+
+        assertEquals("value", first.get(5, TimeUnit.SECONDS).body());
+        assertEquals("value", second.get(5, TimeUnit.SECONDS).body());
+        assertEquals(2, stub.requests());
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest;
+
+import com.google.gson.Gson;
+import net.luckperms.rest.event.EventProducer;
+import net.luckperms.rest.event.OverflowPolicy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EventCallAdapterFactoryTest {
+    private final StubEventServer server = new StubEventServer();
+    private final ExecutorService readerExecutor = Executors.newCachedThreadPool(named("test-reader"));
+    private final ExecutorService handlerExecutor = Executors.newFixedThreadPool(2, named("test-handler"));
+
+    @AfterEach
+    public void tearDown() {
+        this.server.close();
+        this.readerExecutor.shutdownNow();
+        this.handlerExecutor.shutdownNow();
+    }
+
+    private static ThreadFactory named(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, prefix + "-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static String poll(BlockingQueue<String> queue) throws InterruptedException {
+        String value = queue.poll(5, TimeUnit.SECONDS);
+        if (value == null) {
+            throw new AssertionError("timed out");
+        }
+        return value;
+    }
+
+    @Test
+    public void testHandlersRunOnReaderExecutor() throws Exception {
+        EventCallAdapterFactory factory = new EventCallAdapterFactory(this.server.client(), new Gson(), this.readerExecutor, null);
+        EventProducer<String> producer = factory.subscribe(StubEventServer.URL, String.class);
+
+        BlockingQueue<String> threads = new LinkedBlockingQueue<>();
+        producer.subscribe(event -> threads.add(Thread.currentThread().getName()));
+        this.server.awaitConnection().send("\"a\"");
+
+        assertTrue(poll(threads).startsWith("test-reader-"));
+        producer.close();
+        factory.close();
+    }
+
+    @Test
+    public void testOwnedReaderExecutor() throws Exception {
+        EventCallAdapterFactory factory = new EventCallAdapterFactory(this.server.client(), new Gson(), null, null);
+        EventProducer<String> producer = factory.subscribe(StubEventServer.URL, String.class);
+
+        BlockingQueue<String> threads = new LinkedBlockingQueue<>();
+        producer.subscribe(event -> threads.add(Thread.currentThread().getName()));
+        this.server.awaitConnection().send("\"a\"");
+
+        assertTrue(poll(threads).startsWith("luckperms-rest-event-reader-"));
+        producer.close();
+        factory.close();
+    }
+
+    @Test
+    public void testHandlersRunOnHandlerExecutor() throws Exception {
+        EventCallAdapterFactory factory = new EventCallAdapterFactory(this.server.client(), new Gson(), this.readerExecutor, this.handlerExecutor);
+        EventProducer<String> slow = factory.subscribe(StubEventServer.URL, String.class);
+        EventProducer<String> fast = factory.subscribe(StubEventServer.URL, String.class);
+
+        CountDownLatch release = new CountDownLatch(1);
+        BlockingQueue<String> slowEvents = new LinkedBlockingQueue<>();
+        slow.subscribe(event -> {
+            slowEvents.add(event);
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        BlockingQueue<String> fastEvents = new LinkedBlockingQueue<>();
+        BlockingQueue<String> threads = new LinkedBlockingQueue<>();
+        fast.subscribe(event -> {
+            threads.add(Thread.currentThread().getName());
+            fastEvents.add(event);
+        });
+
+        StubEventServer.Connection connection = this.server.awaitConnection();
+        for (String event : new String[]{"a", "b", "c"}) {
+            connection.send("\"" + event + "\"");
+        }
+
+        // the blocked handler holds up neither the reader nor the other producer
+        assertEquals("a", poll(slowEvents));
+        assertEquals("a", poll(fastEvents));
+        assertEquals("b", poll(fastEvents));
+        assertEquals("c", poll(fastEvents));
+        assertTrue(poll(threads).startsWith("test-handler-"));
+
+        // and its own events are delivered in order once it resumes
+        release.countDown();
+        assertEquals("b", poll(slowEvents));
+        assertEquals("c", poll(slowEvents));
+
+        slow.close();
+        fast.close();
+        factory.close();
+    }
+
+    @Test
+    public void testBufferedSubscriptions() throws Exception {
+        EventCallAdapterFactory factory = new EventCallAdapterFactory(this.server.client(), new Gson(), this.readerExecutor, null);
+        EventProducer<String> producer = factory.subscribe(StubEventServer.URL, String.class);
+
+        // blocking would drain on the reader executor, which could be the one waiting
+        assertThrows(IllegalStateException.class, () -> producer.subscribe(event -> {}, OverflowPolicy.BLOCK));
+
+        BlockingQueue<String> events = new LinkedBlockingQueue<>();
+        BlockingQueue<String> errors = new LinkedBlockingQueue<>();
+        producer.errorHandler(e -> errors.add(e.getMessage()));
+        producer.subscribe(event -> {
+            if (event.equals("bad")) {
+                throw new IllegalArgumentException("bad event");
+            }
+            events.add(event);
+        }, OverflowPolicy.DROP_OLDEST);
+
+        StubEventServer.Connection connection = this.server.awaitConnection();
+        connection.send("\"bad\"");
+        connection.send("\"a\"");
+
+        assertEquals("bad event", poll(errors));
+        assertEquals("a", poll(events));
+
+        producer.close();
+        factory.close();
+    }
+
+    @Test
+    public void testBlockingSubscription() throws Exception {
+        EventCallAdapterFactory factory = new EventCallAdapterFactory(this.server.client(), new Gson(), this.readerExecutor, this.handlerExecutor);
+        EventProducer<String> producer = factory.subscribe(StubEventServer.URL, String.class);
+
+        BlockingQueue<String> events = new LinkedBlockingQueue<>();
+        producer.subscribe(events::add, OverflowPolicy.BLOCK);
+        this.server.awaitConnection().send("\"a\"");
+        assertEquals("a", poll(events));
+
+        producer.close();
+        factory.close();
+    }
+
+    @Test
+    public void testStreamShared() throws Exception {
+        EventCallAdapterFactory factory = new EventCallAdapterFactory(this.server.client(), new Gson(), this.readerExecutor, null);
+        EventProducer<String> first = factory.subscribe(StubEventServer.URL, String.class);
+        EventProducer<String> second = factory.subscribe(StubEventServer.URL, String.class);
+
+        BlockingQueue<String> events = new LinkedBlockingQueue<>();
+        first.subscribe(event -> events.add("first " + event));
+        second.subscribe(event -> events.add("second " + event));
+        this.server.awaitConnection().send("\"a\"");
+
+        assertEquals("first a", poll(events));
+        assertEquals("second a", poll(events));
+        assertEquals(1, this.server.connectionCount());
+
+        // the connection is closed with the last producer, and opened again on the next subscribe
+        first.close();
+        second.close();
+        EventProducer<String> third = factory.subscribe(StubEventServer.URL, String.class);
+        third.subscribe(event -> events.add("third " + event));
+        this.server.awaitConnection().send("\"b\"");
+        assertEquals("third b", poll(events));
+        assertEquals(2, this.server.connectionCount());
+
+        third.close();
+        factory.close();
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest;
+
+import net.luckperms.rest.event.EventSubscription;
+import net.luckperms.rest.event.OverflowPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EventRingTest {
+    private static final Consumer<Exception> RETHROW = e -> {
+        throw new AssertionError(e);
+    };
+
+    /** Runs tasks only when asked to */
+    private static final class ManualExecutor implements Executor {
+        private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+        @Override
+        public void execute(Runnable command) {
+            this.tasks.add(command);
+        }
+
+        void runAll() {
+            Runnable task;
+            while ((task = this.tasks.poll()) != null) {
+                task.run();
+            }
+        }
+    }
+
+    private static List<Integer> range(int from, int to) {
+        List<Integer> list = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            list.add(i);
+        }
+        return list;
+    }
+
+    @Test
+    public void testDelivery() {
+        ManualExecutor executor = new ManualExecutor();
+        EventRing<Integer> ring = new EventRing<>(8, executor);
+        List<Integer> first = new ArrayList<>();
+        List<Integer> second = new ArrayList<>();
+        ring.subscribe(first::add, OverflowPolicy.DROP_OLDEST, RETHROW);
+
+        ring.publish(0);
+        ring.subscribe(second::add, OverflowPolicy.DROP_OLDEST, RETHROW);
+        ring.publish(1);
+        ring.publish(2);
+        executor.runAll();
+
+        assertEquals(Arrays.asList(0, 1, 2), first);
+        // subscribers only see events published after they subscribed
+        assertEquals(Arrays.asList(1, 2), second);
+    }
+
+    @Test
+    public void testDropOldest() {
+        ManualExecutor executor = new ManualExecutor();
+        EventRing<Integer> ring = new EventRing<>(4, executor);
+        List<Integer> received = new ArrayList<>();
+        EventSubscription subscription = ring.subscribe(received::add, OverflowPolicy.DROP_OLDEST, RETHROW);
+
+        for (int i = 0; i < 10; i++) {
+            ring.publish(i);
+        }
+        executor.runAll();
+
+        assertEquals(range(6, 10), received);
+        assertEquals(6, subscription.droppedEvents());
+    }
+
+    @Test
+    public void testCoalesce() {
+        ManualExecutor executor = new ManualExecutor();
+        EventRing<Integer> ring = new EventRing<>(4, executor);
+        List<Integer> received = new ArrayList<>();
+        EventSubscription subscription = ring.subscribe(received::add, OverflowPolicy.COALESCE, RETHROW);
+
+        // within capacity, nothing is dropped
+        for (int i = 0; i < 3; i++) {
+            ring.publish(i);
+        }
+        executor.runAll();
+        assertEquals(range(0, 3), received);
+
+        for (int i = 3; i < 10; i++) {
+            ring.publish(i);
+        }
+        executor.runAll();
+        assertEquals(Arrays.asList(0, 1, 2, 9), received);
+        assertEquals(6, subscription.droppedEvents());
+    }
+
+    @Test
+    public void testLappedWhileDraining() {
+        ManualExecutor executor = new ManualExecutor();
+        EventRing<Integer> ring = new EventRing<>(4, executor);
+        List<Integer> received = new ArrayList<>();
+        EventSubscription subscription = ring.subscribe(event -> {
+            received.add(event);
+            if (event == 0) {
+                // the writer laps the subscriber while it is handling an event
+                for (int i = 2; i < 10; i++) {
+                    ring.publish(i);
+                }
+            }
+        }, OverflowPolicy.DROP_OLDEST, RETHROW);
+
+        ring.publish(0);
+        ring.publish(1);
+        executor.runAll();
+
+        assertEquals(Arrays.asList(0, 6, 7, 8, 9), received);
+        assertEquals(5, subscription.droppedEvents());
+    }
+
+    @Test
+    public void testBlock() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            EventRing<Integer> ring = new EventRing<>(4, executor);
+            List<Integer> received = Collections.synchronizedList(new ArrayList<>());
+            EventSubscription subscription = ring.subscribe(event -> {
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                received.add(event);
+            }, OverflowPolicy.BLOCK, RETHROW);
+
+            for (int i = 0; i < 100; i++) {
+                ring.publish(i);
+                // the writer never gets more than a ring ahead
+                assertTrue(i - received.size() <= 4);
+            }
+
+            await().atMost(5, TimeUnit.SECONDS).until(() -> received.size() == 100);
+            assertEquals(range(0, 100), received);
+            assertEquals(0, subscription.droppedEvents());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testBlockReleasedOnClose() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            EventRing<Integer> ring = new EventRing<>(4, executor);
+            CountDownLatch never = new CountDownLatch(1);
+            EventSubscription subscription = ring.subscribe(event -> {
+                try {
+                    never.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, OverflowPolicy.BLOCK, RETHROW);
+
+            Thread writer = new Thread(() -> {
+                for (int i = 0; i < 10; i++) {
+                    ring.publish(i);
+                }
+            });
+            writer.start();
+            await().atMost(5, TimeUnit.SECONDS).until(() -> writer.getState() == Thread.State.TIMED_WAITING || writer.getState() == Thread.State.WAITING);
+            assertTrue(writer.isAlive());
+
+            subscription.close();
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+            assertFalse(writer.isAlive());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testConsumerErrors() {
+        ManualExecutor executor = new ManualExecutor();
+        EventRing<Integer> ring = new EventRing<>(4, executor);
+        List<Exception> errors = new ArrayList<>();
+        List<Integer> received = new ArrayList<>();
+        ring.subscribe(event -> {
+            if (event == 1) {
+                throw new IllegalArgumentException("bad event");
+            }
+            received.add(event);
+        }, OverflowPolicy.DROP_OLDEST, errors::add);
+
+        for (int i = 0; i < 3; i++) {
+            ring.publish(i);
+        }
+        executor.runAll();
+
+        // the error is reported, and delivery carries on
+        assertEquals(1, errors.size());
+        assertEquals("bad event", errors.get(0).getMessage());
+        assertEquals(Arrays.asList(0, 2), received);
+    }
+}
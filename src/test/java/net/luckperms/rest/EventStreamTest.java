@@ -0,0 +1,224 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.launchdarkly.eventsource.StreamException;
+import net.luckperms.rest.event.EventGap;
+import net.luckperms.rest.event.EventProducer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EventStreamTest {
+    private final StubEventServer server = new StubEventServer();
+    private final ExecutorService readerExecutor = Executors.newCachedThreadPool();
+    private final AtomicInteger decoded = new AtomicInteger();
+    private final Gson gson = new GsonBuilder().registerTypeAdapter(TestEvent.class, new CountingAdapter()).create();
+    private final EventCallAdapterFactory factory = new EventCallAdapterFactory(this.server.client(), this.gson, this.readerExecutor, null);
+
+    @AfterEach
+    public void tearDown() {
+        this.server.close();
+        this.factory.close();
+        this.readerExecutor.shutdownNow();
+    }
+
+    private static <T> T poll(BlockingQueue<T> queue) throws InterruptedException {
+        T value = queue.poll(5, TimeUnit.SECONDS);
+        if (value == null) {
+            throw new AssertionError("timed out");
+        }
+        return value;
+    }
+
+    @Test
+    public void testDecodedOnceForAllProducers() throws Exception {
+        EventProducer<TestEvent> first = this.factory.subscribe(StubEventServer.URL, TestEvent.class);
+        EventProducer<TestEvent> second = this.factory.subscribe(StubEventServer.URL, TestEvent.class);
+        BlockingQueue<TestEvent> firstEvents = new LinkedBlockingQueue<>();
+        BlockingQueue<TestEvent> secondEvents = new LinkedBlockingQueue<>();
+        first.subscribe(firstEvents::add);
+        first.subscribe(firstEvents::add);
+        second.subscribe(secondEvents::add);
+
+        StubEventServer.Connection connection = this.server.awaitConnection();
+        connection.send("\"a\"");
+        connection.send("\"b\"");
+
+        TestEvent a = poll(firstEvents);
+        assertEquals("a", a.value);
+        assertSame(a, poll(firstEvents));
+        assertSame(a, poll(secondEvents));
+        assertEquals("b", poll(secondEvents).value);
+
+        // decoded with the client's Gson, once per event
+        assertEquals(2, this.decoded.get());
+
+        first.close();
+        second.close();
+    }
+
+    @Test
+    public void testNotDecodedWithoutListeners() throws Exception {
+        EventProducer<TestEvent> producer = this.factory.subscribe(StubEventServer.URL, TestEvent.class);
+        StubEventServer.Connection connection = this.server.awaitConnection();
+        connection.send("\"unheard\"");
+        // give the reader time to skip the event
+        Thread.sleep(200);
+
+        BlockingQueue<TestEvent> events = new LinkedBlockingQueue<>();
+        producer.subscribe(events::add);
+        connection.send("\"heard\"");
+
+        // every decoded event was delivered, so nothing was decoded while nobody was listening
+        TestEvent event = poll(events);
+        int delivered = 1;
+        if (event.value.equals("unheard")) {
+            // the reader was slower than the sleep, so the handler was already registered
+            event = poll(events);
+            delivered++;
+        }
+        assertEquals("heard", event.value);
+        assertEquals(delivered, this.decoded.get());
+
+        producer.close();
+    }
+
+    @Test
+    public void testDecodeFailure() throws Exception {
+        EventProducer<TestEvent> producer = this.factory.subscribe(StubEventServer.URL, TestEvent.class);
+        BlockingQueue<TestEvent> events = new LinkedBlockingQueue<>();
+        BlockingQueue<Exception> errors = new LinkedBlockingQueue<>();
+        producer.subscribe(events::add);
+        producer.errorHandler(errors::add);
+
+        StubEventServer.Connection connection = this.server.awaitConnection();
+        connection.send("{not json");
+        connection.send("\"a\"");
+
+        assertTrue(poll(errors).getMessage() != null);
+        assertEquals("a", poll(events).value);
+
+        producer.close();
+    }
+
+    @Test
+    public void testReconnectWithLastEventId() throws Exception {
+        EventProducer<TestEvent> producer = this.factory.subscribe(StubEventServer.URL, TestEvent.class);
+        BlockingQueue<TestEvent> events = new LinkedBlockingQueue<>();
+        BlockingQueue<Exception> errors = new LinkedBlockingQueue<>();
+        BlockingQueue<EventGap> gaps = new LinkedBlockingQueue<>();
+        producer.subscribe(events::add);
+        producer.errorHandler(errors::add);
+        producer.gapHandler(gaps::add);
+
+        StubEventServer.Connection first = this.server.awaitConnection();
+        assertNull(first.request().header("Last-Event-ID"));
+        first.send("1", "\"a\"");
+        first.send("2", "\"b\"");
+        assertEquals("a", poll(events).value);
+        assertEquals("b", poll(events).value);
+
+        long droppedAt = System.currentTimeMillis();
+        first.close();
+        assertInstanceOf(StreamException.class, poll(errors));
+
+        // resumes from the last event received
+        StubEventServer.Connection second = this.server.awaitConnection();
+        assertEquals("2", second.request().header("Last-Event-ID"));
+
+        EventGap gap = poll(gaps);
+        assertEquals("2", gap.lastEventId());
+        assertTrue(gap.disconnectedAt() >= droppedAt);
+        assertTrue(gap.reconnectedAt() >= gap.disconnectedAt());
+        assertTrue(gaps.isEmpty());
+
+        second.send("3", "\"c\"");
+        assertEquals("c", poll(events).value);
+
+        producer.close();
+    }
+
+    @Test
+    public void testReconnectBackoff() throws Exception {
+        EventProducer<TestEvent> producer = this.factory.subscribe(StubEventServer.URL, TestEvent.class);
+        producer.subscribe(event -> {});
+
+        // the retry delay starts at a second and doubles, with up to half taken off as jitter
+        StubEventServer.Connection connection = this.server.awaitConnection();
+        long[] delays = new long[2];
+        for (int i = 0; i < delays.length; i++) {
+            long closedAt = System.nanoTime();
+            connection.close();
+            connection = this.server.awaitConnection();
+            delays[i] = TimeUnit.NANOSECONDS.toMillis(connection.openedAt() - closedAt);
+        }
+
+        assertTrue(delays[0] >= 450 && delays[0] < 1500, "first delay " + delays[0]);
+        assertTrue(delays[1] >= 950, "second delay " + delays[1]);
+
+        producer.close();
+    }
+
+    static final class TestEvent {
+        private final String value;
+
+        TestEvent(String value) {
+            this.value = value;
+        }
+    }
+
+    private final class CountingAdapter extends TypeAdapter<TestEvent> {
+        @Override
+        public void write(JsonWriter out, TestEvent value) throws IOException {
+            out.value(value.value);
+        }
+
+        @Override
+        public TestEvent read(JsonReader in) throws IOException {
+            EventStreamTest.this.decoded.incrementAndGet();
+            return new TestEvent(in.nextString());
+        }
+    }
+}
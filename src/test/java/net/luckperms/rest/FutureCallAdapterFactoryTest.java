@@ -0,0 +1,122 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest;
+
+import org.junit.jupiter.api.Test;
+import retrofit2.HttpException;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+import retrofit2.http.GET;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FutureCallAdapterFactoryTest {
+
+    interface TestService {
+        @GET("value")
+        CompletableFuture<String> get();
+
+        @GET("value")
+        CompletableFuture<Response<String>> getResponse();
+    }
+
+    private static TestService service(StubInterceptor stub, boolean coalescing) {
+        // registered in the same order as the client
+        Retrofit.Builder builder = new Retrofit.Builder()
+                .baseUrl("http://localhost/")
+                .client(stub.client())
+                .addCallAdapterFactory(new FutureCallAdapterFactory(null))
+                .addConverterFactory(GsonConverterFactory.create())
+                .validateEagerly(true);
+        if (coalescing) {
+            builder.addCallAdapterFactory(new CoalescingCallAdapterFactory());
+        }
+        return builder.build().create(TestService.class);
+    }
+
+    @Test
+    public void testBodyAndResponse() throws Exception {
+        StubInterceptor stub = new StubInterceptor();
+        TestService service = service(stub, false);
+
+        assertEquals("value", service.get().get(5, TimeUnit.SECONDS));
+        Response<String> response = service.getResponse().get(5, TimeUnit.SECONDS);
+        assertEquals(200, response.code());
+        assertEquals("value", response.body());
+    }
+
+    @Test
+    public void testErrorResponse() throws Exception {
+        StubInterceptor stub = new StubInterceptor().status(404);
+        TestService service = service(stub, false);
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> service.get().get(5, TimeUnit.SECONDS));
+        assertInstanceOf(HttpException.class, e.getCause());
+        assertEquals(404, service.getResponse().get(5, TimeUnit.SECONDS).code());
+    }
+
+    @Test
+    public void testCancelCancelsCall() {
+        StubInterceptor stub = new StubInterceptor().hold();
+        TestService service = service(stub, false);
+
+        CompletableFuture<String> future = service.get();
+        await().atMost(5, TimeUnit.SECONDS).until(() -> stub.requests() == 1);
+
+        // cancelling without interruption still cancels the request
+        assertTrue(future.cancel(false));
+        assertTrue(future.isCancelled());
+        stub.release();
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> stub.canceled() == 1);
+    }
+
+    @Test
+    public void testCoalescing() throws Exception {
+        StubInterceptor stub = new StubInterceptor().hold();
+        TestService service = service(stub, true);
+
+        CompletableFuture<String> leader = service.get();
+        await().atMost(5, TimeUnit.SECONDS).until(() -> stub.requests() == 1);
+        CompletableFuture<String> follower = service.get();
+        CompletableFuture<Response<String>> responseFollower = service.getResponse();
+        stub.release();
+
+        assertEquals("value", leader.get(5, TimeUnit.SECONDS));
+        assertEquals("value", follower.get(5, TimeUnit.SECONDS));
+        assertEquals("value", responseFollower.get(5, TimeUnit.SECONDS).body());
+        assertEquals(1, stub.requests());
+    }
+}
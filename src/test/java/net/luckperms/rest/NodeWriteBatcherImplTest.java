@@ -0,0 +1,133 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest;
+
+import net.luckperms.rest.model.ModelTypeAdapterFactory;
+import net.luckperms.rest.model.Node;
+import net.luckperms.rest.service.GroupService;
+import net.luckperms.rest.service.UserService;
+import org.junit.jupiter.api.Test;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class NodeWriteBatcherImplTest {
+    private static final long WINDOW_NANOS = TimeUnit.HOURS.toNanos(1);
+
+    private static NodeWriteBatcherImpl batcher(StubInterceptor stub, long closeTimeoutNanos) {
+        Retrofit retrofit = new Retrofit.Builder()
+                .baseUrl("http://localhost/")
+                .client(stub.client())
+                .addConverterFactory(GsonConverterFactory.create(ModelTypeAdapterFactory.gson()))
+                .build();
+        return new NodeWriteBatcherImpl(retrofit.create(UserService.class), retrofit.create(GroupService.class), WINDOW_NANOS, closeTimeoutNanos);
+    }
+
+    private static Node node(String key) {
+        return new Node(key, true, Collections.emptySet(), null);
+    }
+
+    @Test
+    public void testBatching() throws Exception {
+        StubInterceptor stub = new StubInterceptor().body("[{\"key\":\"a\",\"value\":true,\"context\":[]}]");
+        NodeWriteBatcherImpl batcher = batcher(stub, TimeUnit.SECONDS.toNanos(5));
+        UUID uniqueId = UUID.randomUUID();
+
+        CompletableFuture<List<Node>> first = batcher.userNodesAdd(uniqueId, node("a"));
+        CompletableFuture<List<Node>> second = batcher.userNodesAdd(uniqueId, node("b"));
+        CompletableFuture<Void> delete = batcher.userNodesDelete(uniqueId, node("c"));
+        batcher.flush();
+
+        assertEquals("a", first.get(5, TimeUnit.SECONDS).get(0).key());
+        assertEquals(first.get(), second.get(5, TimeUnit.SECONDS));
+        delete.get(5, TimeUnit.SECONDS);
+
+        // one request for the two additions, one for the removal
+        assertEquals(2, stub.requests());
+        batcher.close();
+    }
+
+    @Test
+    public void testCloseDrains() throws Exception {
+        StubInterceptor stub = new StubInterceptor().body("[]");
+        NodeWriteBatcherImpl batcher = batcher(stub, TimeUnit.SECONDS.toNanos(5));
+
+        CompletableFuture<List<Node>> future = batcher.groupNodesAdd("test", node("a"));
+        batcher.close();
+
+        assertTrue(future.isDone());
+        assertEquals(Collections.emptyList(), future.get());
+        assertEquals(1, stub.requests());
+    }
+
+    @Test
+    public void testSubmitAfterClose() {
+        StubInterceptor stub = new StubInterceptor();
+        NodeWriteBatcherImpl batcher = batcher(stub, TimeUnit.SECONDS.toNanos(5));
+        batcher.close();
+
+        CompletableFuture<List<Node>> future = batcher.groupNodesAdd("test", node("a"));
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+        assertEquals(0, stub.requests());
+    }
+
+    @Test
+    public void testCloseTimeout() {
+        StubInterceptor stub = new StubInterceptor().hold().body("[]");
+        NodeWriteBatcherImpl batcher = batcher(stub, TimeUnit.MILLISECONDS.toNanos(100));
+        UUID uniqueId = UUID.randomUUID();
+
+        CompletableFuture<List<Node>> add = batcher.userNodesAdd(uniqueId, node("a"));
+        batcher.flush();
+        // queued behind the add, so not sent before the timeout
+        CompletableFuture<Void> delete = batcher.userNodesDelete(uniqueId, node("a"));
+        batcher.close();
+
+        try {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> add.get(1, TimeUnit.SECONDS));
+            assertInstanceOf(TimeoutException.class, e.getCause());
+            e = assertThrows(ExecutionException.class, () -> delete.get(1, TimeUnit.SECONDS));
+            assertInstanceOf(TimeoutException.class, e.getCause());
+        } finally {
+            stub.release();
+        }
+        assertEquals(1, stub.requests());
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest;
+
+import net.luckperms.rest.model.Context;
+import net.luckperms.rest.model.QueryOptions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+public class PermissionCheckKeyTest {
+
+    private static QueryOptions contexts(Context... contexts) {
+        return new QueryOptions(QueryOptions.Mode.CONTEXTUAL, null, new HashSet<>(Arrays.asList(contexts)));
+    }
+
+    @Test
+    public void testNormalisation() {
+        UUID uuid = UUID.randomUUID();
+
+        // permission and contexts are case-insensitive, and context order doesn't matter
+        assertEquals(
+                new PermissionCheckKey(uuid, "Some.Permission", contexts(new Context("Server", "Survival"), new Context("world", "nether"))),
+                new PermissionCheckKey(uuid, "some.permission", contexts(new Context("world", "NETHER"), new Context("server", "survival")))
+        );
+        assertEquals(
+                new PermissionCheckKey(uuid, "test", new QueryOptions(null, EnumSet.of(QueryOptions.Flag.RESOLVE_INHERITANCE), null)),
+                new PermissionCheckKey(uuid, "test", new QueryOptions(null, EnumSet.of(QueryOptions.Flag.RESOLVE_INHERITANCE), null))
+        );
+    }
+
+    @Test
+    public void testDistinct() {
+        UUID uuid = UUID.randomUUID();
+
+        assertNotEquals(new PermissionCheckKey(uuid, "test", null), new PermissionCheckKey(UUID.randomUUID(), "test", null));
+        assertNotEquals(new PermissionCheckKey(uuid, "test", null), new PermissionCheckKey(uuid, "test2", null));
+        assertNotEquals(new PermissionCheckKey(uuid, "test", null), new PermissionCheckKey(uuid, "test", contexts()));
+        assertNotEquals(
+                new PermissionCheckKey(uuid, "test", new QueryOptions(null, Collections.emptySet(), null)),
+                new PermissionCheckKey(uuid, "test", new QueryOptions(null, EnumSet.of(QueryOptions.Flag.RESOLVE_INHERITANCE), null))
+        );
+
+        // the separator between a context key and value must not be ambiguous
+        assertNotEquals(
+                new PermissionCheckKey(uuid, "test", contexts(new Context("a=b", "c"))),
+                new PermissionCheckKey(uuid, "test", contexts(new Context("a", "b=c")))
+        );
+        assertNotEquals(
+                new PermissionCheckKey(uuid, "test", contexts(new Context("a", "b"), new Context("c", "d"))),
+                new PermissionCheckKey(uuid, "test", contexts(new Context("a", "c"), new Context("b", "d")))
+        );
+    }
+
+}
@@ -0,0 +1,70 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import org.junit.jupiter.api.Test;
+import retrofit2.Converter;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class StreamingConverterFactoryTest {
+
+    @SuppressWarnings("unchecked")
+    private static Stream<String> decode(String json) throws IOException {
+        Converter<ResponseBody, ?> converter = new StreamingConverterFactory(new Gson())
+                .responseBodyConverter(TypeToken.getParameterized(Stream.class, String.class).getType(), new Annotation[0], null);
+        return (Stream<String>) converter.convert(ResponseBody.create(MediaType.get("application/json"), json));
+    }
+
+    @Test
+    public void testElements() throws IOException {
+        try (Stream<String> stream = decode("[\"a\", \"b\", \"c\"]")) {
+            assertEquals(Arrays.asList("a", "b", "c"), stream.collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void testNullElements() throws IOException {
+        try (Stream<String> stream = decode("[\"a\", null, \"b\"]")) {
+            assertFalse(stream.spliterator().hasCharacteristics(Spliterator.NONNULL));
+        }
+        try (Stream<String> stream = decode("[\"a\", null, \"b\"]")) {
+            assertEquals(Arrays.asList("a", null, "b"), stream.collect(Collectors.toList()));
+        }
+    }
+}
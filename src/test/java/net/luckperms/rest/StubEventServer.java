@@ -0,0 +1,148 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest;
+
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSink;
+import okio.Okio;
+import okio.Pipe;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves server-sent event streams from an OkHttp interceptor, with each connection's body
+ * written by the test as it goes.
+ */
+class StubEventServer implements Interceptor, AutoCloseable {
+    static final HttpUrl URL = HttpUrl.get("http://localhost/event/test");
+
+    private static final MediaType EVENT_STREAM = MediaType.get("text/event-stream");
+
+    private final BlockingQueue<Connection> connections = new LinkedBlockingQueue<>();
+    private final List<Connection> opened = new CopyOnWriteArrayList<>();
+
+    OkHttpClient client() {
+        return new OkHttpClient.Builder().addInterceptor(this).build();
+    }
+
+    /**
+     * Waits for the next connection to be opened.
+     *
+     * @return the connection
+     */
+    Connection awaitConnection() throws InterruptedException {
+        Connection connection = this.connections.poll(10, TimeUnit.SECONDS);
+        if (connection == null) {
+            throw new AssertionError("no connection was opened");
+        }
+        return connection;
+    }
+
+    int connectionCount() {
+        return this.opened.size();
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Connection connection = new Connection(chain.request());
+        this.opened.add(connection);
+        this.connections.add(connection);
+        return new Response.Builder()
+                .request(chain.request())
+                .protocol(Protocol.HTTP_1_1)
+                .code(200)
+                .message("OK")
+                .body(ResponseBody.create(EVENT_STREAM, -1, Okio.buffer(connection.pipe.source())))
+                .build();
+    }
+
+    @Override
+    public void close() {
+        for (Connection connection : this.opened) {
+            connection.close();
+        }
+    }
+
+    static final class Connection {
+        private final Request request;
+        private final Pipe pipe = new Pipe(64 * 1024);
+        private final BufferedSink sink = Okio.buffer(this.pipe.sink());
+        private final long openedAt = System.nanoTime();
+
+        Connection(Request request) {
+            this.request = request;
+        }
+
+        Request request() {
+            return this.request;
+        }
+
+        long openedAt() {
+            return this.openedAt;
+        }
+
+        void send(String id, String data) {
+            try {
+                synchronized (this) {
+                    if (id != null) {
+                        this.sink.writeUtf8("id: ").writeUtf8(id).writeUtf8("\n");
+                    }
+                    this.sink.writeUtf8("data: ").writeUtf8(data).writeUtf8("\n\n");
+                    this.sink.flush();
+                }
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+        }
+
+        void send(String data) {
+            send(null, data);
+        }
+
+        /**
+         * Ends the response body, as if the server dropped the connection.
+         */
+        synchronized void close() {
+            try {
+                this.sink.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+}
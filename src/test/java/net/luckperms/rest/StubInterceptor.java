@@ -0,0 +1,120 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An OkHttp interceptor which answers every request locally, counting the requests it
+ * receives and optionally holding them until {@link #release()} is called.
+ */
+class StubInterceptor implements Interceptor {
+    private static final MediaType JSON = MediaType.get("application/json");
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger canceled = new AtomicInteger();
+    private final CountDownLatch gate = new CountDownLatch(1);
+
+    private volatile boolean held;
+    private volatile int status = 200;
+    private volatile boolean failFirst;
+    private volatile String body = "\"value\"";
+
+    OkHttpClient client() {
+        return new OkHttpClient.Builder().addInterceptor(this).build();
+    }
+
+    StubInterceptor hold() {
+        this.held = true;
+        return this;
+    }
+
+    StubInterceptor status(int status) {
+        this.status = status;
+        return this;
+    }
+
+    StubInterceptor failFirst() {
+        this.failFirst = true;
+        return this;
+    }
+
+    StubInterceptor body(String body) {
+        this.body = body;
+        return this;
+    }
+
+    void release() {
+        this.gate.countDown();
+    }
+
+    int requests() {
+        return this.requests.get();
+    }
+
+    int canceled() {
+        return this.canceled.get();
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        int request = this.requests.incrementAndGet();
+        if (this.held) {
+            try {
+                if (!this.gate.await(10, TimeUnit.SECONDS)) {
+                    throw new InterruptedIOException("gate not released");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+        }
+        if (chain.call().isCanceled()) {
+            this.canceled.incrementAndGet();
+        }
+        if (this.failFirst && request == 1) {
+            throw new IOException("stub failure");
+        }
+        return new Response.Builder()
+                .request(chain.request())
+                .protocol(Protocol.HTTP_1_1)
+                .code(this.status)
+                .message("stub")
+                .body(ResponseBody.create(JSON, this.body))
+                .build();
+    }
+}
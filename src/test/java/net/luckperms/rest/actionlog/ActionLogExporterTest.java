@@ -0,0 +1,192 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest.actionlog;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import net.luckperms.rest.model.Action;
+import net.luckperms.rest.model.ActionPage;
+import net.luckperms.rest.service.ActionPageQuery;
+import okhttp3.Request;
+import okio.Timeout;
+import org.junit.jupiter.api.Test;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ActionLogExporterTest {
+    private static final int TOTAL = 9;
+    private static final int PAGE_SIZE = 2;
+
+    private final List<Action> log = new ArrayList<>();
+
+    public ActionLogExporterTest() {
+        for (int i = 0; i < TOTAL; i++) {
+            this.log.add(new Action(
+                    (long) i,
+                    new Action.Source(UUID.randomUUID(), "source"),
+                    new Action.Target(UUID.randomUUID(), "target", Action.Target.Type.USER),
+                    "action <" + i + ">"
+            ));
+        }
+    }
+
+    private ActionPageQuery query() {
+        return (pageSize, pageNumber) -> {
+            int from = Math.min(this.log.size(), (pageNumber - 1) * pageSize);
+            int to = Math.min(this.log.size(), from + pageSize);
+            return new PageCall(new ActionPage(new ArrayList<>(this.log.subList(from, to)), this.log.size()));
+        };
+    }
+
+    @Test
+    public void testExportInOrder() throws IOException {
+        List<Action> exported = new ArrayList<>();
+        ExportStats stats = ActionLogExporter.builder(query())
+                .pageSize(PAGE_SIZE)
+                .parallelism(3)
+                .build()
+                .export(exported::add);
+
+        assertEquals(this.log, exported);
+        assertEquals(TOTAL, stats.actions());
+        assertEquals(5, stats.pages());
+        assertEquals(5, stats.totalPages());
+    }
+
+    @Test
+    public void testExportNdjson() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExportStats stats = ActionLogExporter.builder(query())
+                .pageSize(PAGE_SIZE)
+                .parallelism(3)
+                .build()
+                .exportNdjson(out);
+
+        byte[] bytes = out.toByteArray();
+        assertEquals(bytes.length, stats.bytes());
+
+        String[] lines = new String(bytes, StandardCharsets.UTF_8).split("\n");
+        assertEquals(TOTAL, lines.length);
+
+        Gson gson = new Gson();
+        for (int i = 0; i < TOTAL; i++) {
+            assertEquals(this.log.get(i), gson.fromJson(lines[i], Action.class));
+        }
+        assertEquals("action <0>", gson.fromJson(lines[0], Action.class).description());
+    }
+
+    @Test
+    public void testExportNdjsonWithGson() throws IOException {
+        Gson gson = new GsonBuilder()
+                .registerTypeAdapter(Action.class, new TypeAdapter<Action>() {
+                    @Override
+                    public void write(JsonWriter out, Action value) throws IOException {
+                        out.value(value.description());
+                    }
+
+                    @Override
+                    public Action read(JsonReader in) {
+                        throw new UnsupportedOperationException();
+                    }
+                })
+                .create();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ActionLogExporter.builder(query())
+                .pageSize(PAGE_SIZE)
+                .gson(gson)
+                .build()
+                .exportNdjson(out);
+
+        String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n");
+        assertEquals(TOTAL, lines.length);
+        assertEquals("\"action <0>\"", lines[0]);
+    }
+
+    private static final class PageCall implements Call<ActionPage> {
+        private final ActionPage page;
+        private boolean executed;
+        private boolean canceled;
+
+        PageCall(ActionPage page) {
+            this.page = page;
+        }
+
+        @Override
+        public Response<ActionPage> execute() {
+            this.executed = true;
+            return Response.success(this.page);
+        }
+
+        @Override
+        public void enqueue(Callback<ActionPage> callback) {
+            callback.onResponse(this, execute());
+        }
+
+        @Override
+        public boolean isExecuted() {
+            return this.executed;
+        }
+
+        @Override
+        public void cancel() {
+            this.canceled = true;
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return this.canceled;
+        }
+
+        @Override
+        public Call<ActionPage> clone() {
+            return new PageCall(this.page);
+        }
+
+        @Override
+        public Request request() {
+            return new Request.Builder().url("http://localhost/").build();
+        }
+
+        @Override
+        public Timeout timeout() {
+            return Timeout.NONE;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest.actionlog;
+
+import net.luckperms.rest.model.Action;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ActionLogStoreTest {
+    private static final UUID SOURCE = UUID.randomUUID();
+
+    @TempDir
+    Path directory;
+
+    private static Action action(long timestamp, String description) {
+        return new Action(
+                timestamp,
+                new Action.Source(SOURCE, "source"),
+                new Action.Target(UUID.randomUUID(), "target", Action.Target.Type.USER),
+                description
+        );
+    }
+
+    private static String padded(int i) {
+        StringBuilder sb = new StringBuilder("action " + i + " ");
+        while (sb.length() < 400) {
+            sb.append('x');
+        }
+        return sb.toString();
+    }
+
+    private Path segment(int number) {
+        return this.directory.resolve(String.format("segment-%08d.log", number));
+    }
+
+    @Test
+    public void testReopen() throws IOException {
+        List<Action> actions = new ArrayList<>();
+        try (ActionLogStore store = ActionLogStore.builder(this.directory).open()) {
+            for (int i = 0; i < 10; i++) {
+                Action action = action(i, "action " + i);
+                actions.add(0, action);
+                assertTrue(store.add(action));
+            }
+            assertFalse(store.add(actions.get(0)));
+        }
+
+        try (ActionLogStore store = ActionLogStore.builder(this.directory).open()) {
+            assertEquals(10, store.size());
+            assertEquals(actions, new ArrayList<>(store.query().entries()));
+            assertEquals(actions, new ArrayList<>(store.querySource(SOURCE).entries()));
+        }
+    }
+
+    @Test
+    public void testCorruptTailIsTruncated() throws IOException {
+        try (ActionLogStore store = ActionLogStore.builder(this.directory).open()) {
+            for (int i = 0; i < 3; i++) {
+                store.add(action(i, "action " + i));
+            }
+        }
+
+        // flip the last byte of the final record's payload, leaving its length intact
+        try (FileChannel channel = FileChannel.open(segment(0), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+            channel.read(buffer, 0);
+            int end = buffer.capacity() - 1;
+            while (buffer.get(end) == 0) {
+                end--;
+            }
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) ~buffer.get(end)}), end);
+        }
+
+        Action replacement = action(10, "replacement");
+        try (ActionLogStore store = ActionLogStore.builder(this.directory).open()) {
+            assertEquals(2, store.size());
+            assertEquals("action 1", store.query().entries().iterator().next().description());
+            assertTrue(store.add(replacement));
+        }
+
+        try (ActionLogStore store = ActionLogStore.builder(this.directory).open()) {
+            assertEquals(3, store.size());
+            assertEquals(replacement, store.query().entries().iterator().next());
+        }
+    }
+
+    @Test
+    public void testMissingSegmentIsNotReused() throws IOException {
+        try (ActionLogStore store = ActionLogStore.builder(this.directory).segmentSize(1024).open()) {
+            for (int i = 0; i < 6; i++) {
+                store.add(action(i, padded(i)));
+            }
+        }
+        assertTrue(Files.exists(segment(2)));
+        assertFalse(Files.exists(segment(3)));
+
+        Files.delete(segment(1));
+        byte[] last = Files.readAllBytes(segment(2));
+
+        try (ActionLogStore store = ActionLogStore.builder(this.directory).segmentSize(1024).open()) {
+            assertEquals(4, store.size());
+            store.add(action(6, padded(6)));
+            assertEquals(5, store.size());
+            assertEquals(6L, store.query().entries().iterator().next().timestamp());
+        }
+
+        assertTrue(Files.exists(segment(3)));
+        assertArrayEquals(last, Files.readAllBytes(segment(2)));
+
+        try (ActionLogStore store = ActionLogStore.builder(this.directory).segmentSize(1024).open()) {
+            assertEquals(5, store.size());
+        }
+    }
+
+    @Test
+    public void testEmptyTrailingSegment() throws IOException {
+        try (ActionLogStore store = ActionLogStore.builder(this.directory).open()) {
+            store.add(action(0, "action 0"));
+        }
+
+        // as if the process died just after creating the next segment
+        Files.createFile(segment(1));
+
+        try (ActionLogStore store = ActionLogStore.builder(this.directory).open()) {
+            assertEquals(1, store.size());
+            assertTrue(store.add(action(1, "action 1")));
+        }
+        assertFalse(Files.exists(segment(1)));
+
+        try (ActionLogStore store = ActionLogStore.builder(this.directory).open()) {
+            assertEquals(2, store.size());
+        }
+    }
+
+    @Test
+    public void testDirectoryLocked() throws IOException {
+        try (ActionLogStore store = ActionLogStore.builder(this.directory).open()) {
+            store.add(action(0, "action 0"));
+            assertThrows(IOException.class, () -> ActionLogStore.builder(this.directory).open());
+        }
+
+        try (ActionLogStore store = ActionLogStore.builder(this.directory).open()) {
+            assertEquals(1, store.size());
+        }
+    }
+
+    @Test
+    public void testDuplicatesWithSameHash() throws IOException {
+        // "Aa" and "BB" have the same 31-based hash, so these records collide
+        try (ActionLogStore store = ActionLogStore.builder(this.directory).open()) {
+            assertTrue(store.add(action(0, "Aa")));
+            assertTrue(store.add(new Action(0L, new Action.Source(SOURCE, "source"), store.query().entries().iterator().next().target(), "BB")));
+            assertEquals(2, store.size());
+
+            List<Action> stored = new ArrayList<>(store.query().entries());
+            for (Action action : stored) {
+                assertFalse(store.add(action));
+            }
+
+            // enough to grow the table
+            List<Action> actions = new ArrayList<>();
+            for (int i = 0; i < 2000; i++) {
+                Action action = action(i, "action " + i);
+                actions.add(action);
+                assertTrue(store.add(action));
+            }
+            for (Action action : actions) {
+                assertFalse(store.add(action));
+            }
+            assertEquals(2002, store.size());
+        }
+    }
+}
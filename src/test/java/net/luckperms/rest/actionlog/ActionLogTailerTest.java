@@ -0,0 +1,265 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest.actionlog;
+
+import net.luckperms.rest.event.EventCall;
+import net.luckperms.rest.event.EventGap;
+import net.luckperms.rest.event.EventProducer;
+import net.luckperms.rest.model.Action;
+import net.luckperms.rest.model.ActionPage;
+import net.luckperms.rest.model.LogBroadcastEvent;
+import net.luckperms.rest.service.ActionPageQuery;
+import okhttp3.Request;
+import okio.Timeout;
+import org.junit.jupiter.api.Test;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ActionLogTailerTest {
+    private static final UUID SOURCE = UUID.randomUUID();
+    private static final UUID TARGET = UUID.randomUUID();
+
+    /** The log, newest first, as the api returns it */
+    private final List<Action> log = Collections.synchronizedList(new ArrayList<>());
+
+    private static Action action(long timestamp, String description) {
+        return new Action(
+                timestamp,
+                new Action.Source(SOURCE, "source"),
+                new Action.Target(TARGET, "target", Action.Target.Type.USER),
+                description
+        );
+    }
+
+    private void logged(Action... actions) {
+        for (Action action : actions) {
+            this.log.add(0, action);
+        }
+    }
+
+    private ActionPageQuery query() {
+        return (pageSize, pageNumber) -> {
+            synchronized (this.log) {
+                int from = Math.min(this.log.size(), (pageNumber - 1) * pageSize);
+                int to = Math.min(this.log.size(), from + pageSize);
+                return new PageCall(new ActionPage(new ArrayList<>(this.log.subList(from, to)), this.log.size()));
+            }
+        };
+    }
+
+    @Test
+    public void testSameSecondDuplicates() throws IOException {
+        logged(action(1, "a"), action(2, "b"), action(2, "c"));
+        ActionLogTailer tailer = ActionLogTailer.builder(query()).pageSize(2).build();
+        assertTrue(tailer.poll().isEmpty());
+
+        // more actions in the same second as the newest seen, across a page boundary
+        logged(action(2, "d"), action(2, "e"), action(2, "f"));
+        assertEquals(Arrays.asList(action(2, "d"), action(2, "e"), action(2, "f")), tailer.poll());
+        assertTrue(tailer.poll().isEmpty());
+
+        // an identical action logged again is still only seen once per second
+        logged(action(3, "g"), action(3, "g"));
+        assertEquals(Collections.singletonList(action(3, "g")), tailer.poll());
+        assertTrue(tailer.poll().isEmpty());
+    }
+
+    @Test
+    public void testOverallSizeShrinks() throws IOException {
+        logged(action(1, "a"), action(2, "b"), action(3, "c"), action(4, "d"));
+        ActionLogTailer tailer = ActionLogTailer.builder(query()).pageSize(2).build();
+        assertTrue(tailer.poll().isEmpty());
+
+        // old entries pruned while a new one was added
+        synchronized (this.log) {
+            this.log.subList(1, 4).clear();
+        }
+        logged(action(4, "e"), action(5, "f"));
+        assertEquals(Arrays.asList(action(4, "e"), action(5, "f")), tailer.poll());
+        assertTrue(tailer.poll().isEmpty());
+    }
+
+    @Test
+    public void testBroadcastOverlap() throws Exception {
+        TestProducer producer = new TestProducer();
+        List<Action> received = Collections.synchronizedList(new ArrayList<>());
+        ActionLogTailer tailer = ActionLogTailer.builder(query())
+                .since(0)
+                .pollInterval(1, TimeUnit.HOURS)
+                .logBroadcast(producer.call())
+                .build();
+        tailer.start(received::add);
+
+        try {
+            producer.broadcast(action(1, "a"));
+            await().atMost(5, TimeUnit.SECONDS).until(() -> received.size() == 1);
+
+            // the poll finds the broadcast action too, but only delivers the one missed
+            logged(action(1, "a"), action(2, "b"));
+            assertEquals(Collections.singletonList(action(2, "b")), tailer.poll());
+
+            // a late broadcast of an action already polled is ignored
+            producer.broadcast(action(2, "b"));
+            producer.broadcast(action(1, "a"));
+            assertEquals(Arrays.asList(action(1, "a"), action(2, "b")), received);
+        } finally {
+            tailer.close();
+        }
+    }
+
+    @Test
+    public void testListenerCalledWithoutLock() throws Exception {
+        TestProducer producer = new TestProducer();
+        ActionLogTailer tailer = ActionLogTailer.builder(query())
+                .since(0)
+                .pollInterval(1, TimeUnit.HOURS)
+                .logBroadcast(producer.call())
+                .build();
+
+        List<Action> received = Collections.synchronizedList(new ArrayList<>());
+        tailer.start(action -> {
+            received.add(action);
+            // would deadlock if the listener were called while holding the tailer's lock
+            CompletableFuture.runAsync(tailer::close).join();
+        });
+
+        // delivered by this thread, or by a poll which was delivering at the time
+        producer.broadcast(action(1, "a"));
+        await().atMost(5, TimeUnit.SECONDS).until(() -> producer.closed);
+        assertEquals(Collections.singletonList(action(1, "a")), received);
+    }
+
+    @Test
+    public void testGapAfterClose() throws Exception {
+        TestProducer producer = new TestProducer();
+        ActionLogTailer tailer = ActionLogTailer.builder(query())
+                .logBroadcast(producer.call())
+                .build();
+        tailer.start(action -> {});
+        tailer.close();
+
+        producer.gapHandler.accept(new EventGap(null, 0, 1));
+    }
+
+    private static final class TestProducer implements EventProducer<LogBroadcastEvent> {
+        private volatile Consumer<LogBroadcastEvent> consumer;
+        private volatile Consumer<EventGap> gapHandler;
+        private volatile boolean closed;
+
+        EventCall<LogBroadcastEvent> call() {
+            return () -> this;
+        }
+
+        void broadcast(Action action) {
+            this.consumer.accept(new LogBroadcastEvent(action, LogBroadcastEvent.Origin.LOCAL));
+        }
+
+        @Override
+        public void subscribe(Consumer<LogBroadcastEvent> consumer) {
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void errorHandler(Consumer<Exception> errorHandler) {
+        }
+
+        @Override
+        public void gapHandler(Consumer<EventGap> gapHandler) {
+            this.gapHandler = gapHandler;
+        }
+
+        @Override
+        public void close() {
+            this.closed = true;
+        }
+    }
+
+    private static final class PageCall implements Call<ActionPage> {
+        private final ActionPage page;
+        private boolean executed;
+        private boolean canceled;
+
+        PageCall(ActionPage page) {
+            this.page = page;
+        }
+
+        @Override
+        public Response<ActionPage> execute() {
+            this.executed = true;
+            return Response.success(this.page);
+        }
+
+        @Override
+        public void enqueue(Callback<ActionPage> callback) {
+            callback.onResponse(this, execute());
+        }
+
+        @Override
+        public boolean isExecuted() {
+            return this.executed;
+        }
+
+        @Override
+        public void cancel() {
+            this.canceled = true;
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return this.canceled;
+        }
+
+        @Override
+        public Call<ActionPage> clone() {
+            return new PageCall(this.page);
+        }
+
+        @Override
+        public Request request() {
+            return new Request.Builder().url("http://localhost/").build();
+        }
+
+        @Override
+        public Timeout timeout() {
+            return Timeout.NONE;
+        }
+    }
+}
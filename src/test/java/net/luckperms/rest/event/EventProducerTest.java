@@ -0,0 +1,91 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest.event;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class EventProducerTest {
+
+    @Test
+    public void testDefaultBufferedSubscribe() {
+        MinimalProducer producer = new MinimalProducer();
+        List<Integer> events = new ArrayList<>();
+        EventSubscription subscription = producer.subscribe(events::add, OverflowPolicy.DROP_OLDEST);
+
+        producer.publish(1);
+        producer.publish(2);
+        assertEquals(Arrays.asList(1, 2), events);
+        assertEquals(0, subscription.droppedEvents());
+
+        subscription.close();
+        producer.publish(3);
+        assertEquals(Arrays.asList(1, 2), events);
+    }
+
+    @Test
+    public void testDefaultGapHandler() {
+        MinimalProducer producer = new MinimalProducer();
+        producer.gapHandler(gap -> {
+            throw new AssertionError("no gaps without reconnects");
+        });
+        producer.publish(1);
+    }
+
+    /**
+     * A producer implementing only the abstract methods, as an implementation written against
+     * an older version of the interface would.
+     */
+    private static final class MinimalProducer implements EventProducer<Integer> {
+        private final List<Consumer<Integer>> consumers = new ArrayList<>();
+
+        void publish(int event) {
+            for (Consumer<Integer> consumer : this.consumers) {
+                consumer.accept(event);
+            }
+        }
+
+        @Override
+        public void subscribe(Consumer<Integer> consumer) {
+            this.consumers.add(consumer);
+        }
+
+        @Override
+        public void errorHandler(Consumer<Exception> errorHandler) {
+        }
+
+        @Override
+        public void close() {
+            this.consumers.clear();
+        }
+    }
+}
@@ -0,0 +1,361 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest.event;
+
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EventPublisherTest {
+
+    private static List<Integer> range(int from, int to) {
+        List<Integer> list = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            list.add(i);
+        }
+        return list;
+    }
+
+    @Test
+    public void testDemand() {
+        TestProducer producer = new TestProducer();
+        TestSubscriber subscriber = new TestSubscriber();
+        EventPublisher.of(producer.call()).subscribe(subscriber);
+
+        // fed directly by the producer, without a second buffer
+        assertNull(producer.policy);
+        for (int i = 0; i < 5; i++) {
+            producer.publish(i);
+        }
+        assertTrue(subscriber.events.isEmpty());
+
+        subscriber.subscription.request(2);
+        assertEquals(Arrays.asList(0, 1), subscriber.events);
+        subscriber.subscription.request(1);
+        assertEquals(Arrays.asList(0, 1, 2), subscriber.events);
+
+        // outstanding demand is used for events as they arrive
+        subscriber.subscription.request(10);
+        producer.publish(5);
+        assertEquals(range(0, 6), subscriber.events);
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        for (int i = 6; i < 100; i++) {
+            producer.publish(i);
+        }
+        assertEquals(range(0, 100), subscriber.events);
+        assertNull(subscriber.error);
+    }
+
+    @Test
+    public void testReentrantRequest() {
+        TestProducer producer = new TestProducer();
+        TestSubscriber subscriber = new TestSubscriber() {
+            @Override
+            public void onNext(Integer event) {
+                super.onNext(event);
+                this.subscription.request(1);
+            }
+        };
+        EventPublisher.of(producer.call()).subscribe(subscriber);
+
+        for (int i = 0; i < EventPublisher.BUFFER_SIZE; i++) {
+            producer.publish(i);
+        }
+        // each onNext requests the next event without recursing
+        subscriber.subscription.request(1);
+        assertEquals(range(0, EventPublisher.BUFFER_SIZE), subscriber.events);
+    }
+
+    @Test
+    public void testOverflowDropOldest() {
+        TestProducer producer = new TestProducer();
+        TestSubscriber subscriber = new TestSubscriber();
+        EventPublisher.of(producer.call()).subscribe(subscriber);
+
+        for (int i = 0; i < EventPublisher.BUFFER_SIZE + 3; i++) {
+            producer.publish(i);
+        }
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertEquals(range(3, EventPublisher.BUFFER_SIZE + 3), subscriber.events);
+        assertEquals(3, ((EventSubscription) subscriber.subscription).droppedEvents());
+    }
+
+    @Test
+    public void testOverflowCoalesce() {
+        TestProducer producer = new TestProducer();
+        TestSubscriber subscriber = new TestSubscriber();
+        EventPublisher.of(producer.call(), OverflowPolicy.COALESCE).subscribe(subscriber);
+
+        assertNull(producer.policy);
+        for (int i = 0; i < EventPublisher.BUFFER_SIZE + 3; i++) {
+            producer.publish(i);
+        }
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertEquals(range(EventPublisher.BUFFER_SIZE, EventPublisher.BUFFER_SIZE + 3), subscriber.events);
+        assertEquals(EventPublisher.BUFFER_SIZE, ((EventSubscription) subscriber.subscription).droppedEvents());
+    }
+
+    @Test
+    public void testBlock() throws InterruptedException {
+        TestProducer producer = new TestProducer();
+        producer.handlerExecutor = true;
+        TestSubscriber subscriber = new TestSubscriber();
+        EventPublisher.of(producer.call(), OverflowPolicy.BLOCK).subscribe(subscriber);
+        assertEquals(OverflowPolicy.BLOCK, producer.policy);
+
+        // the delivering thread waits for demand rather than buffering
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 3; i++) {
+                producer.publish(i);
+            }
+        });
+        writer.start();
+        awaitWaiting(writer);
+        assertTrue(subscriber.events.isEmpty());
+
+        subscriber.subscription.request(2);
+        await().atMost(5, TimeUnit.SECONDS).until(() -> subscriber.events.size() == 2);
+        awaitWaiting(writer);
+
+        subscriber.subscription.request(1);
+        writer.join(5000);
+        assertFalse(writer.isAlive());
+        assertEquals(range(0, 3), subscriber.events);
+        assertEquals(0, ((EventSubscription) subscriber.subscription).droppedEvents());
+        assertNull(subscriber.error);
+    }
+
+    @Test
+    public void testBlockCancel() throws InterruptedException {
+        TestProducer producer = new TestProducer();
+        producer.handlerExecutor = true;
+        TestSubscriber subscriber = new TestSubscriber();
+        EventPublisher.of(producer.call(), OverflowPolicy.BLOCK).subscribe(subscriber);
+
+        Thread writer = new Thread(() -> producer.publish(0));
+        writer.start();
+        awaitWaiting(writer);
+
+        subscriber.subscription.cancel();
+        writer.join(5000);
+        assertFalse(writer.isAlive());
+        assertTrue(producer.closed);
+        assertTrue(subscriber.events.isEmpty());
+    }
+
+    @Test
+    public void testBlockWithoutExecutor() {
+        TestProducer producer = new TestProducer();
+        TestSubscriber subscriber = new TestSubscriber();
+        EventPublisher.of(producer.call(), OverflowPolicy.BLOCK).subscribe(subscriber);
+
+        assertInstanceOf(IllegalStateException.class, subscriber.error);
+        assertTrue(producer.closed);
+    }
+
+    private static void awaitWaiting(Thread thread) {
+        await().atMost(5, TimeUnit.SECONDS).until(() -> thread.getState() == Thread.State.WAITING);
+    }
+
+    @Test
+    public void testCancel() {
+        TestProducer producer = new TestProducer();
+        TestSubscriber subscriber = new TestSubscriber();
+        EventPublisher.of(producer.call()).subscribe(subscriber);
+
+        subscriber.subscription.request(10);
+        producer.publish(0);
+        subscriber.subscription.cancel();
+        assertTrue(producer.closed);
+
+        producer.publish(1);
+        subscriber.subscription.request(10);
+        assertEquals(Arrays.asList(0), subscriber.events);
+        assertNull(subscriber.error);
+    }
+
+    @Test
+    public void testCancelFromOnNext() {
+        TestProducer producer = new TestProducer();
+        TestSubscriber subscriber = new TestSubscriber() {
+            @Override
+            public void onNext(Integer event) {
+                super.onNext(event);
+                this.subscription.cancel();
+            }
+        };
+        EventPublisher.of(producer.call()).subscribe(subscriber);
+
+        producer.publish(0);
+        producer.publish(1);
+        subscriber.subscription.request(10);
+        assertEquals(Arrays.asList(0), subscriber.events);
+        assertTrue(producer.closed);
+    }
+
+    @Test
+    public void testNonPositiveRequest() {
+        TestProducer producer = new TestProducer();
+        TestSubscriber subscriber = new TestSubscriber();
+        EventPublisher.of(producer.call()).subscribe(subscriber);
+
+        producer.publish(0);
+        subscriber.subscription.request(0);
+        assertInstanceOf(IllegalArgumentException.class, subscriber.error);
+        assertTrue(producer.closed);
+
+        // no further signals once terminated
+        subscriber.subscription.request(1);
+        assertTrue(subscriber.events.isEmpty());
+    }
+
+    @Test
+    public void testThrowingSubscriber() {
+        TestProducer producer = new TestProducer();
+        TestSubscriber subscriber = new TestSubscriber() {
+            @Override
+            public void onNext(Integer event) {
+                throw new IllegalStateException("broken subscriber");
+            }
+        };
+        EventPublisher.of(producer.call()).subscribe(subscriber);
+
+        subscriber.subscription.request(1);
+        producer.publish(0);
+        assertTrue(producer.closed);
+    }
+
+    @Test
+    public void testSubscribeFailure() {
+        Exception failure = new Exception("could not connect");
+        TestSubscriber subscriber = new TestSubscriber();
+        EventPublisher.<Integer>of(() -> {
+            throw failure;
+        }).subscribe(subscriber);
+
+        assertNotNull(subscriber.subscription);
+        assertEquals(failure, subscriber.error);
+        assertTrue(subscriber.events.isEmpty());
+    }
+
+    private static class TestSubscriber implements Subscriber<Integer> {
+        final List<Integer> events = Collections.synchronizedList(new ArrayList<>());
+        Subscription subscription;
+        Throwable error;
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(Integer event) {
+            this.events.add(event);
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            this.error = error;
+        }
+
+        @Override
+        public void onComplete() {
+            throw new AssertionError("the publisher never completes");
+        }
+    }
+
+    private static final class TestProducer implements EventProducer<Integer> {
+        private volatile Consumer<Integer> consumer;
+        private OverflowPolicy policy;
+        private boolean handlerExecutor;
+        private volatile boolean closed;
+
+        EventCall<Integer> call() {
+            return () -> this;
+        }
+
+        void publish(int event) {
+            if (!this.closed) {
+                this.consumer.accept(event);
+            }
+        }
+
+        @Override
+        public void subscribe(Consumer<Integer> consumer) {
+            this.consumer = consumer;
+        }
+
+        @Override
+        public EventSubscription subscribe(Consumer<Integer> consumer, OverflowPolicy overflowPolicy) {
+            if (overflowPolicy == OverflowPolicy.BLOCK && !this.handlerExecutor) {
+                throw new IllegalStateException("OverflowPolicy.BLOCK requires an event handler executor");
+            }
+            this.consumer = consumer;
+            this.policy = overflowPolicy;
+            return new EventSubscription() {
+                @Override
+                public long droppedEvents() {
+                    return 0;
+                }
+
+                @Override
+                public void close() {
+                    TestProducer.this.closed = true;
+                }
+            };
+        }
+
+        @Override
+        public void errorHandler(Consumer<Exception> errorHandler) {
+        }
+
+        @Override
+        public void gapHandler(Consumer<EventGap> gapHandler) {
+        }
+
+        @Override
+        public void close() {
+            this.closed = true;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest.local;
+
+import net.luckperms.rest.model.Context;
+import net.luckperms.rest.model.Group;
+import net.luckperms.rest.model.Node;
+import net.luckperms.rest.model.PermissionCheckResult;
+import net.luckperms.rest.model.PermissionCheckResult.Tristate;
+import net.luckperms.rest.model.QueryOptions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class PermissionEvaluatorImplTest {
+    private static final QueryOptions SERVER_TEST = new QueryOptions(null, null, Collections.singleton(new Context("server", "test")));
+
+    private static Node node(String key, boolean value) {
+        return new Node(key, value, Collections.emptySet(), null);
+    }
+
+    private static Node node(String key, boolean value, Context context) {
+        return new Node(key, value, Collections.singleton(context), null);
+    }
+
+    private static Node temporary(String key, boolean value, long expiry) {
+        return new Node(key, value, Collections.emptySet(), expiry);
+    }
+
+    private static Group group(String name, int weight, Node... nodes) {
+        return new Group(name, null, weight, Arrays.asList(nodes), null);
+    }
+
+    private static PermissionEvaluator evaluator(Group... groups) {
+        return new PermissionEvaluatorImpl(Arrays.asList(groups));
+    }
+
+    private static void assertResult(Tristate expected, Node expectedNode, PermissionCheckResult result) {
+        assertEquals(expected, result.result());
+        assertEquals(expectedNode, result.node());
+    }
+
+    @Test
+    public void testExactBeforeRegexBeforeWildcard() {
+        Node ownWildcard = node("a.*", true);
+        Node inheritedExact = node("a.b", false);
+        Node inheritedRegex = node("r=a\\.c", false);
+        Node ownExact = node("a.d", true);
+        Node ownRegex = node("r=a\\.(d|e)", false);
+
+        PermissionEvaluator evaluator = evaluator(group("parent", 0, inheritedExact, inheritedRegex));
+        List<Node> nodes = Arrays.asList(node("group.parent", true), ownWildcard, ownExact, ownRegex);
+
+        // an inherited exact or regex match still beats a wildcard held directly
+        assertResult(Tristate.FALSE, inheritedExact, evaluator.check(nodes, "a.b", null));
+        assertResult(Tristate.FALSE, inheritedRegex, evaluator.check(nodes, "a.c", null));
+        assertResult(Tristate.TRUE, ownExact, evaluator.check(nodes, "a.d", null));
+        assertResult(Tristate.FALSE, ownRegex, evaluator.check(nodes, "a.e", null));
+        assertResult(Tristate.TRUE, ownWildcard, evaluator.check(nodes, "a.f", null));
+        assertResult(Tristate.UNDEFINED, null, evaluator.check(nodes, "b", null));
+    }
+
+    @Test
+    public void testWildcardOrder() {
+        Node root = node("*", false);
+        Node shallow = node("a.*", true);
+        Node deep = node("a.b.*", false);
+
+        PermissionEvaluator evaluator = evaluator(group("parent", 0, shallow, deep));
+        List<Node> nodes = Arrays.asList(node("group.parent", true), root);
+
+        // the most specific wildcard wins, and root wildcards come last, whatever their layer
+        assertResult(Tristate.FALSE, deep, evaluator.check(nodes, "a.b.c", null));
+        assertResult(Tristate.TRUE, shallow, evaluator.check(nodes, "a.c", null));
+        assertResult(Tristate.FALSE, root, evaluator.check(nodes, "b.c", null));
+    }
+
+    @Test
+    public void testLayerPriority() {
+        Node own = node("test.own", false);
+        Node high = node("test.layer", true);
+        Node highBeforeGrandparent = node("test.grandparent", true);
+        Node grandparentBeforeLow = node("test.low", false);
+
+        PermissionEvaluator evaluator = evaluator(
+                group("high", 100, high, highBeforeGrandparent, node("group.grandparent", true)),
+                group("grandparent", 0, node("test.layer", false), node("test.grandparent", false), grandparentBeforeLow),
+                group("low", 10, node("test.layer", false), node("test.own", true), node("test.low", true))
+        );
+        List<Node> nodes = Arrays.asList(node("group.low", true), node("group.high", true), own);
+
+        // nodes held directly come first, then parents in order of weight
+        assertResult(Tristate.FALSE, own, evaluator.check(nodes, "test.own", null));
+        assertResult(Tristate.TRUE, high, evaluator.check(nodes, "test.layer", null));
+        assertResult(Tristate.TRUE, highBeforeGrandparent, evaluator.check(nodes, "test.grandparent", null));
+
+        // inheritance is depth-first, so the heavier parent's own parent beats the lighter parent
+        assertResult(Tristate.FALSE, grandparentBeforeLow, evaluator.check(nodes, "test.low", null));
+    }
+
+    @Test
+    public void testNodePriority() {
+        long future = System.currentTimeMillis() / 1000L + 3600;
+        Node general = node("test.context", true);
+        Node specific = node("test.context", false, new Context("server", "test"));
+        Node permanent = node("test.temporary", true);
+        Node temporary = temporary("test.temporary", false, future);
+        Node allowed = node("test.tie", true);
+        Node denied = node("test.tie", false);
+
+        PermissionEvaluator evaluator = evaluator();
+        List<Node> nodes = Arrays.asList(general, specific, permanent, temporary, allowed, denied);
+
+        // more specific contexts first, only when they apply
+        assertResult(Tristate.FALSE, specific, evaluator.check(nodes, "test.context", SERVER_TEST));
+        assertResult(Tristate.TRUE, general, evaluator.check(nodes, "test.context", null));
+
+        // temporary before permanent, then false before true
+        assertResult(Tristate.FALSE, temporary, evaluator.check(nodes, "test.temporary", null));
+        assertResult(Tristate.FALSE, denied, evaluator.check(nodes, "test.tie", null));
+
+        // the order the nodes are given in makes no difference
+        List<Node> reversed = Arrays.asList(denied, allowed, temporary, permanent, specific, general);
+        assertResult(Tristate.FALSE, denied, evaluator.check(reversed, "test.tie", null));
+        assertResult(Tristate.FALSE, specific, evaluator.check(reversed, "test.context", SERVER_TEST));
+    }
+
+    @Test
+    public void testExpiredNodesIgnored() {
+        long past = System.currentTimeMillis() / 1000L - 60;
+        PermissionEvaluator evaluator = evaluator(group("parent", 0, node("test.inherited", true)));
+        List<Node> nodes = Arrays.asList(
+                temporary("test.expired", true, past),
+                temporary("group.parent", true, past)
+        );
+
+        assertResult(Tristate.UNDEFINED, null, evaluator.check(nodes, "test.expired", null));
+        assertResult(Tristate.UNDEFINED, null, evaluator.check(nodes, "test.inherited", null));
+    }
+
+    @Test
+    public void testInheritanceRules() {
+        PermissionEvaluator evaluator = evaluator(
+                group("parent", 0, node("test.parent", true)),
+                group("server", 0, node("test.server", true))
+        );
+        List<Node> nodes = Arrays.asList(
+                node("group.parent", true),
+                node("group.server", true, new Context("server", "test")),
+                node("group.missing", true)
+        );
+
+        assertEquals(Tristate.TRUE, evaluator.check(nodes, "test.parent", null).result());
+        assertEquals(Tristate.UNDEFINED, evaluator.check(nodes, "test.server", null).result());
+        assertEquals(Tristate.TRUE, evaluator.check(nodes, "test.server", SERVER_TEST).result());
+
+        // negated inheritance nodes are not followed
+        assertEquals(Tristate.UNDEFINED, evaluator.check(Collections.singletonList(node("group.parent", false)), "test.parent", null).result());
+
+        // nor is anything without the resolve inheritance flag
+        QueryOptions noInheritance = new QueryOptions(null, EnumSet.of(
+                QueryOptions.Flag.INCLUDE_NODES_WITHOUT_SERVER_CONTEXT,
+                QueryOptions.Flag.INCLUDE_NODES_WITHOUT_WORLD_CONTEXT
+        ), null);
+        assertEquals(Tristate.UNDEFINED, evaluator.check(nodes, "test.parent", noInheritance).result());
+        assertEquals(Tristate.TRUE, evaluator.check(nodes, "group.parent", noInheritance).result());
+    }
+
+    @Test
+    public void testGroupCheck() {
+        Group parent = group("parent", 0, node("test.parent", true));
+        Group child = group("child", 0, node("group.parent", true), node("test.child", false));
+        PermissionEvaluator evaluator = evaluator(parent, child);
+
+        assertEquals(Tristate.TRUE, evaluator.check(child, "test.parent", null).result());
+        assertEquals(Tristate.FALSE, evaluator.check(child, "test.child", null).result());
+        assertNull(evaluator.check(parent, "test.child", null).node());
+    }
+}
@@ -0,0 +1,273 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest.local;
+
+import net.luckperms.rest.model.Group;
+import net.luckperms.rest.model.Node;
+import net.luckperms.rest.model.PermissionCheckResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class PermissionTrieTest {
+
+    private static Node node(String key, boolean value) {
+        return new Node(key, value, Collections.emptySet(), null);
+    }
+
+    private static PermissionCheckResult.Tristate check(CompiledPermissions permissions, String permission) {
+        return permissions.check(permission).result();
+    }
+
+    private static CompiledPermissions compile(Node... nodes) {
+        return new PermissionEvaluatorImpl(Collections.emptyList()).compile(Arrays.asList(nodes), null);
+    }
+
+    @Test
+    public void testExact() {
+        CompiledPermissions permissions = compile(node("some.permission", true), node("Other.Permission", false));
+
+        assertEquals(PermissionCheckResult.Tristate.TRUE, check(permissions, "some.permission"));
+        assertEquals(PermissionCheckResult.Tristate.TRUE, check(permissions, "SOME.Permission"));
+        assertEquals(PermissionCheckResult.Tristate.FALSE, check(permissions, "other.permission"));
+        assertEquals(PermissionCheckResult.Tristate.UNDEFINED, check(permissions, "some"));
+        assertEquals(PermissionCheckResult.Tristate.UNDEFINED, check(permissions, "some.permission.child"));
+    }
+
+    @Test
+    public void testWildcard() {
+        CompiledPermissions permissions = compile(
+                node("a.*", true),
+                node("a.b.*", false),
+                node("a.b.c", true)
+        );
+
+        assertEquals(PermissionCheckResult.Tristate.TRUE, check(permissions, "a.x"));
+        assertEquals(PermissionCheckResult.Tristate.TRUE, check(permissions, "a.x.y"));
+        assertEquals(PermissionCheckResult.Tristate.UNDEFINED, check(permissions, "a"));
+
+        // the most specific wildcard applies, unless there is an exact match
+        assertEquals(PermissionCheckResult.Tristate.FALSE, check(permissions, "a.b.x"));
+        assertEquals(PermissionCheckResult.Tristate.FALSE, check(permissions, "a.b.c.d"));
+        assertEquals(PermissionCheckResult.Tristate.TRUE, check(permissions, "a.b.c"));
+    }
+
+    @Test
+    public void testRootWildcards() {
+        CompiledPermissions star = compile(node("*", true), node("a.*", false));
+        assertEquals(PermissionCheckResult.Tristate.TRUE, check(star, "anything"));
+        assertEquals(PermissionCheckResult.Tristate.TRUE, check(star, "x.y.z"));
+        assertEquals(PermissionCheckResult.Tristate.FALSE, check(star, "a.b"));
+
+        CompiledPermissions quoted = compile(node("'*'", false));
+        assertEquals(PermissionCheckResult.Tristate.FALSE, check(quoted, "anything"));
+
+        // "*" takes priority over "'*'"
+        CompiledPermissions both = compile(node("'*'", false), node("*", true));
+        assertEquals(PermissionCheckResult.Tristate.TRUE, check(both, "anything"));
+    }
+
+    @Test
+    public void testRegex() {
+        CompiledPermissions permissions = compile(
+                node("R=Foo\\.(bar|baz)", false),
+                node("foo.*", true),
+                node("foo.bar", true),
+                node("r=[invalid", true)
+        );
+
+        // regex nodes beat wildcards, but not exact matches
+        assertEquals(PermissionCheckResult.Tristate.TRUE, check(permissions, "foo.bar"));
+        assertEquals(PermissionCheckResult.Tristate.FALSE, check(permissions, "foo.baz"));
+        assertEquals(PermissionCheckResult.Tristate.FALSE, check(permissions, "FOO.BAZ"));
+        assertEquals(PermissionCheckResult.Tristate.TRUE, check(permissions, "foo.qux"));
+
+        // invalid patterns never match
+        assertEquals(PermissionCheckResult.Tristate.UNDEFINED, check(permissions, "[invalid"));
+    }
+
+    @Test
+    public void testInheritedPriority() {
+        Group parent = new Group("parent", null, 0, Arrays.asList(node("a.b", false), node("c.*", true)), null);
+        PermissionEvaluatorImpl evaluator = new PermissionEvaluatorImpl(Collections.singletonList(parent));
+        CompiledPermissions permissions = evaluator.compile(Arrays.asList(node("group.parent", true), node("a.b", true), node("c.*", false)), null);
+
+        assertEquals(PermissionCheckResult.Tristate.TRUE, check(permissions, "a.b"));
+        assertEquals(PermissionCheckResult.Tristate.FALSE, check(permissions, "c.d"));
+        assertSame(PermissionCheckResult.Tristate.TRUE, check(permissions, "group.parent"));
+    }
+
+    @Test
+    public void testMatchesReference() {
+        Random random = new Random(0);
+        for (int round = 0; round < 50; round++) {
+            List<Node> nodes = randomNodes(random);
+            CompiledPermissions permissions = new PermissionEvaluatorImpl(Collections.emptyList()).compile(nodes, null);
+            Reference reference = new Reference(nodes);
+
+            for (int i = 0; i < 200; i++) {
+                String permission = randomPermission(random);
+                assertEquals(reference.lookup(permission), permissions.check(permission).node(), permission);
+            }
+        }
+    }
+
+    @Test
+    public void testUpdate() {
+        Random random = new Random(1);
+        PermissionEvaluatorImpl evaluator = new PermissionEvaluatorImpl(Collections.emptyList());
+
+        List<Node> nodes = randomNodes(random);
+        CompiledPermissions permissions = evaluator.compile(nodes, null);
+        for (int round = 0; round < 50; round++) {
+            // add and remove a few nodes
+            nodes = new ArrayList<>(nodes);
+            for (int i = 0; i < 3 && !nodes.isEmpty(); i++) {
+                nodes.remove(random.nextInt(nodes.size()));
+            }
+            for (int i = 0; i < 3; i++) {
+                nodes.add(randomNode(random));
+            }
+
+            permissions = permissions.update(nodes);
+            CompiledPermissions expected = evaluator.compile(nodes, null);
+            Reference reference = new Reference(nodes);
+
+            for (int i = 0; i < 100; i++) {
+                String permission = randomPermission(random);
+                assertEquals(expected.check(permission).node(), permissions.check(permission).node(), permission);
+                assertEquals(reference.lookup(permission), permissions.check(permission).node(), permission);
+            }
+        }
+    }
+
+    private static final String[] SEGMENTS = {"a", "b", "c", "D"};
+
+    private static List<Node> randomNodes(Random random) {
+        List<Node> nodes = new ArrayList<>();
+        int count = 1 + random.nextInt(30);
+        for (int i = 0; i < count; i++) {
+            nodes.add(randomNode(random));
+        }
+        return nodes;
+    }
+
+    private static Node randomNode(Random random) {
+        int type = random.nextInt(10);
+        String key;
+        if (type == 0) {
+            key = random.nextBoolean() ? "*" : "'*'";
+        } else if (type == 1) {
+            key = "r=" + SEGMENTS[random.nextInt(SEGMENTS.length)] + "\\..*";
+        } else {
+            key = randomPermission(random);
+            if (type < 5) {
+                key = key + ".*";
+            }
+        }
+        return node(key, random.nextBoolean());
+    }
+
+    private static String randomPermission(Random random) {
+        StringBuilder sb = new StringBuilder(SEGMENTS[random.nextInt(SEGMENTS.length)]);
+        int depth = random.nextInt(3);
+        for (int i = 0; i < depth; i++) {
+            sb.append('.').append(SEGMENTS[random.nextInt(SEGMENTS.length)]);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * A straightforward implementation of the lookup order, without a trie, for a single
+     * holder with no contexts.
+     */
+    private static final class Reference {
+        private final Map<String, Node> permissions = new HashMap<>();
+        private final List<Node> regexNodes = new ArrayList<>();
+
+        Reference(List<Node> nodes) {
+            List<Node> sorted = new ArrayList<>(nodes);
+            sorted.sort(PermissionEvaluatorImpl.NODE_PRIORITY);
+            for (Node node : sorted) {
+                String key = node.key().toLowerCase(Locale.ROOT);
+                if (this.permissions.putIfAbsent(key, node) == null && key.startsWith("r=")) {
+                    this.regexNodes.add(node);
+                }
+            }
+        }
+
+        Node lookup(String permission) {
+            permission = permission.toLowerCase(Locale.ROOT);
+            Node node = this.permissions.get(permission);
+            if (node != null) {
+                return node;
+            }
+
+            for (Node regexNode : this.regexNodes) {
+                Pattern pattern;
+                try {
+                    pattern = Pattern.compile(regexNode.key().substring(2), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+                } catch (PatternSyntaxException e) {
+                    continue;
+                }
+                if (pattern.matcher(permission).matches()) {
+                    return regexNode;
+                }
+            }
+
+            String prefix = permission;
+            int index;
+            while ((index = prefix.lastIndexOf('.')) != -1) {
+                prefix = prefix.substring(0, index);
+                node = this.permissions.get(prefix + ".*");
+                if (node != null) {
+                    return node;
+                }
+            }
+
+            for (String wildcard : new String[]{"*", "'*'"}) {
+                node = this.permissions.get(wildcard);
+                if (node != null) {
+                    return node;
+                }
+            }
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,140 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static net.luckperms.rest.model.ModelFixtures.CONTEXT;
+import static net.luckperms.rest.model.ModelFixtures.nodes;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AbstractModelTest {
+    @Test
+    public void testFieldsEqual() {
+        Node node = new Node("test.permission", true, CONTEXT, 1700000000L);
+        Node same = new Node("test.permission", true, new LinkedHashSet<>(CONTEXT), 1700000000L);
+
+        assertTrue(node.fieldsEqual(same));
+        assertTrue(same.fieldsEqual(node));
+        assertEquals(node.fieldsHashCode(), same.fieldsHashCode());
+        assertEquals(node, same);
+        assertEquals(node.hashCode(), same.hashCode());
+
+        assertFalse(node.fieldsEqual(new Node("other.permission", true, CONTEXT, 1700000000L)));
+        assertFalse(node.fieldsEqual(new Node("test.permission", false, CONTEXT, 1700000000L)));
+        assertFalse(node.fieldsEqual(new Node("test.permission", null, CONTEXT, 1700000000L)));
+        assertFalse(node.fieldsEqual(new Node("test.permission", true, Collections.emptySet(), 1700000000L)));
+        assertFalse(node.fieldsEqual(new Node("test.permission", true, CONTEXT, null)));
+    }
+
+    @Test
+    public void testFieldsEqualWithNulls() {
+        Node empty = new Node(null, null, null, null);
+        assertTrue(empty.fieldsEqual(new Node(null, null, null, null)));
+        assertEquals(new Node(null, null, null, null).fieldsHashCode(), empty.fieldsHashCode());
+        assertFalse(empty.fieldsEqual(new Node("test.permission", null, null, null)));
+        assertFalse(new Node("test.permission", null, null, null).fieldsEqual(empty));
+    }
+
+    @Test
+    public void testCollectionFieldsIgnoreCollectionType() {
+        List<Node> nodes = nodes();
+        Metadata metadata = new Metadata(Collections.singletonMap("weight", "10"), null, null, "admin");
+
+        Group list = new Group("admin", null, 10, new ArrayList<>(nodes), metadata);
+        Group compact = new Group("admin", null, 10, CompactNodeList.copyOf(nodes), metadata);
+
+        assertTrue(list.fieldsEqual(compact));
+        assertEquals(list.fieldsHashCode(), compact.fieldsHashCode());
+        assertEquals(list, compact);
+        assertEquals(list.hashCode(), compact.hashCode());
+
+        List<Node> reordered = new ArrayList<>(nodes);
+        Collections.reverse(reordered);
+        assertNotEquals(list, new Group("admin", null, 10, reordered, metadata));
+        assertNotEquals(list, new Group("admin", null, 10, nodes.subList(0, 2), metadata));
+    }
+
+    @Test
+    public void testCollectionsEqual() {
+        List<Node> nodes = nodes();
+        List<Node> reversed = new ArrayList<>(nodes);
+        Collections.reverse(reversed);
+
+        assertTrue(AbstractModel.collectionsEqual(null, null));
+        assertFalse(AbstractModel.collectionsEqual(nodes, null));
+        assertFalse(AbstractModel.collectionsEqual(null, nodes));
+        assertTrue(AbstractModel.collectionsEqual(nodes, CompactNodeList.copyOf(nodes)));
+        assertFalse(AbstractModel.collectionsEqual(nodes, reversed));
+
+        // one rule for every type of collection, so equality stays transitive
+        Set<Node> set = new LinkedHashSet<>(nodes);
+        assertTrue(AbstractModel.collectionsEqual(set, nodes));
+        assertTrue(AbstractModel.collectionsEqual(nodes, set));
+        assertFalse(AbstractModel.collectionsEqual(set, new LinkedHashSet<>(reversed)));
+        assertFalse(AbstractModel.collectionsEqual(set, reversed));
+
+        assertEquals(nodes.hashCode(), AbstractModel.collectionHashCode(nodes));
+        assertEquals(nodes.hashCode(), AbstractModel.collectionHashCode(set));
+        assertEquals(nodes.hashCode(), AbstractModel.collectionHashCode(CompactNodeList.copyOf(nodes)));
+        assertNotEquals(AbstractModel.collectionHashCode(nodes), AbstractModel.collectionHashCode(reversed));
+        assertEquals(0, AbstractModel.collectionHashCode(null));
+    }
+
+    @Test
+    public void testEqualityRequiresSameClass() {
+        Node node = new Node("test.permission", true, CONTEXT, null);
+        Node subclass = new Node("test.permission", true, CONTEXT, null) {};
+
+        assertTrue(node.fieldsEqual(subclass));
+        assertNotEquals(node, subclass);
+        assertNotEquals(subclass, node);
+        assertEquals(subclass, subclass);
+
+        // no fields, but still different models
+        assertNotEquals(new PreSyncEvent(), new PostSyncEvent());
+        assertEquals(new PreSyncEvent(), new PreSyncEvent());
+        assertNotEquals(new Context("server", "survival"), null);
+        assertNotEquals(new Context("server", "survival"), "server=survival");
+    }
+
+    @Test
+    public void testHashCodeNeverZero() {
+        PreSyncEvent event = new PreSyncEvent();
+        assertEquals(0, event.fieldsHashCode());
+        assertEquals(1, event.hashCode());
+        assertEquals(event.hashCode(), event.hashCode());
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest.model;
+
+import com.google.common.collect.ImmutableSet;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CompactNodeListTest {
+    private static final List<Set<Context>> CONTEXTS = Arrays.asList(
+            Collections.emptySet(),
+            ImmutableSet.of(new Context("server", "survival")),
+            ImmutableSet.of(new Context("server", "survival"), new Context("world", "nether")),
+            null
+    );
+
+    private static void assertAccessors(List<Node> expected, CompactNodeList list) {
+        assertEquals(expected.size(), list.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Node node = expected.get(i);
+            assertEquals(node, list.get(i), "index " + i);
+            assertEquals(node.key(), list.key(i), "index " + i);
+            assertEquals(node.value(), list.value(i), "index " + i);
+            assertEquals(node.context(), list.context(i), "index " + i);
+            assertEquals(node.expiry(), list.expiry(i), "index " + i);
+        }
+    }
+
+    @Test
+    public void testAccessorsMatchGet() {
+        List<Node> nodes = Arrays.asList(
+                new Node("test.permission", true, CONTEXTS.get(1), null),
+                new Node("group.admin", false, CONTEXTS.get(0), 1700000000L),
+                new Node("prefix.100.&c", null, CONTEXTS.get(2), null),
+                new Node("test.permission", true, CONTEXTS.get(3), 0L),
+                new Node(null, false, null, null)
+        );
+        assertAccessors(nodes, CompactNodeList.copyOf(nodes));
+
+        CompactNodeList.Builder builder = CompactNodeList.builder();
+        for (Node node : nodes) {
+            builder.add(node.key(), node.value(), node.context(), node.expiry());
+        }
+        assertAccessors(nodes, builder.build());
+    }
+
+    @Test
+    public void testCopyOf() {
+        List<Node> nodes = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            nodes.add(new Node("test.permission." + i, i % 2 == 0, CONTEXTS.get(i % 3), null));
+        }
+
+        CompactNodeList list = CompactNodeList.copyOf(nodes);
+        assertEquals(nodes, list);
+        assertEquals(list, nodes);
+        assertEquals(nodes.hashCode(), list.hashCode());
+        assertSame(list, CompactNodeList.copyOf(list));
+
+        assertEquals(Collections.emptyList(), CompactNodeList.copyOf(Collections.emptyList()));
+        assertEquals(CompactNodeList.empty(), CompactNodeList.copyOf(Collections.emptyList()));
+        assertTrue(CompactNodeList.empty().isEmpty());
+    }
+
+    @Test
+    public void testEqualsColumnWise() {
+        List<Node> nodes = Arrays.asList(
+                new Node("test.permission", true, CONTEXTS.get(1), null),
+                new Node("group.admin", false, CONTEXTS.get(0), 1700000000L),
+                new Node("prefix.100.&c", null, CONTEXTS.get(2), null),
+                new Node(null, false, CONTEXTS.get(3), null),
+                // all fields hash to zero, so the node hash code is 1
+                new Node(null, null, null, null)
+        );
+        CompactNodeList list = CompactNodeList.copyOf(nodes);
+        CompactNodeList same = CompactNodeList.copyOf(new ArrayList<>(nodes));
+
+        assertEquals(list, same);
+        assertEquals(nodes.hashCode(), list.hashCode());
+        assertEquals(list.hashCode(), same.hashCode());
+        assertEquals(nodes, list);
+        assertEquals(list, nodes);
+
+        for (int i = 0; i < nodes.size(); i++) {
+            Node node = nodes.get(i);
+            List<Node> changed = new ArrayList<>(nodes);
+            changed.set(i, new Node(node.key() + "x", node.value(), node.context(), node.expiry()));
+            assertNotEquals(list, CompactNodeList.copyOf(changed), "key " + i);
+            changed.set(i, new Node(node.key(), !Boolean.TRUE.equals(node.value()), node.context(), node.expiry()));
+            assertNotEquals(list, CompactNodeList.copyOf(changed), "value " + i);
+            changed.set(i, new Node(node.key(), node.value(), CONTEXTS.get((CONTEXTS.indexOf(node.context()) + 1) % CONTEXTS.size()), node.expiry()));
+            assertNotEquals(list, CompactNodeList.copyOf(changed), "context " + i);
+            changed.set(i, new Node(node.key(), node.value(), node.context(), node.expiry() == null ? 1L : null));
+            assertNotEquals(list, CompactNodeList.copyOf(changed), "expiry " + i);
+        }
+        assertNotEquals(list, CompactNodeList.copyOf(nodes.subList(0, 4)));
+
+        List<Node> reversed = new ArrayList<>(nodes);
+        Collections.reverse(reversed);
+        assertNotEquals(list, CompactNodeList.copyOf(reversed));
+        assertEquals(reversed.hashCode(), CompactNodeList.copyOf(reversed).hashCode());
+    }
+
+    @Test
+    public void testNullValues() {
+        List<Node> nodes = Arrays.asList(
+                new Node("a", true, null, null),
+                new Node("b", null, null, null),
+                new Node("c", false, null, null)
+        );
+        CompactNodeList list = CompactNodeList.copyOf(nodes);
+        assertEquals(Boolean.TRUE, list.value(0));
+        assertNull(list.value(1));
+        assertEquals(Boolean.FALSE, list.value(2));
+        assertAccessors(nodes, list);
+
+        CompactNodeList noNulls = CompactNodeList.copyOf(Arrays.asList(nodes.get(0), nodes.get(2)));
+        assertEquals(Boolean.TRUE, noNulls.value(0));
+        assertEquals(Boolean.FALSE, noNulls.value(1));
+    }
+
+    @Test
+    public void testExpiries() {
+        CompactNodeList none = CompactNodeList.copyOf(Arrays.asList(
+                new Node("a", true, null, null),
+                new Node("b", true, null, null)
+        ));
+        assertNull(none.expiry(0));
+        assertNull(none.expiry(1));
+
+        List<Node> nodes = Arrays.asList(
+                new Node("a", true, null, null),
+                new Node("b", true, null, 0L),
+                new Node("c", true, null, Long.MAX_VALUE),
+                new Node("d", true, null, null)
+        );
+        CompactNodeList list = CompactNodeList.copyOf(nodes);
+        assertNull(list.expiry(0));
+        assertEquals(Long.valueOf(0L), list.expiry(1));
+        assertEquals(Long.valueOf(Long.MAX_VALUE), list.expiry(2));
+        assertNull(list.expiry(3));
+    }
+
+    @Test
+    public void testGrowthPastOneWord() {
+        List<Node> nodes = new ArrayList<>();
+        // the builder starts with room for 16 nodes, and the first expiry is added after it has grown
+        for (int i = 0; i < 300; i++) {
+            Boolean value = i % 3 == 0 ? null : i % 3 == 1;
+            Long expiry = i >= 100 && i % 5 == 0 ? 1700000000L + i : null;
+            nodes.add(new Node("test.permission." + (i % 70), value, CONTEXTS.get(i % CONTEXTS.size()), expiry));
+        }
+
+        CompactNodeList.Builder builder = CompactNodeList.builder();
+        nodes.forEach(builder::add);
+        CompactNodeList list = builder.build();
+
+        assertAccessors(nodes, list);
+        for (int i : new int[]{63, 64, 127, 128, 299}) {
+            assertEquals(nodes.get(i), list.get(i));
+        }
+        assertEquals(nodes, list);
+    }
+
+    @Test
+    public void testContextsShared() {
+        Set<Context> first = new HashSet<>(CONTEXTS.get(2));
+        Set<Context> second = new HashSet<>(CONTEXTS.get(2));
+        CompactNodeList list = CompactNodeList.copyOf(Arrays.asList(
+                new Node("a", true, first, null),
+                new Node("b", true, second, null)
+        ));
+        assertSame(list.context(0), list.context(1));
+        assertSame(list.get(0).context(), list.get(1).context());
+    }
+
+    @Test
+    public void testIndexOutOfBounds() {
+        CompactNodeList list = CompactNodeList.copyOf(Collections.singletonList(new Node("a", true, null, null)));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.key(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.value(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.context(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.expiry(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> CompactNodeList.empty().get(0));
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CompactUuidSetTest {
+
+    // sorted by UUID#compareTo, which compares the bits as signed longs
+    private static final List<UUID> SIGNED_ORDER = Arrays.asList(
+            new UUID(Long.MIN_VALUE, 5),
+            new UUID(-1, Long.MIN_VALUE),
+            new UUID(-1, -1),
+            new UUID(-1, 0),
+            new UUID(0, -1),
+            new UUID(0, 0),
+            new UUID(0, 1),
+            new UUID(1, Long.MIN_VALUE),
+            new UUID(Long.MAX_VALUE, Long.MAX_VALUE)
+    );
+
+    private static List<UUID> randomUuids(int count, long seed) {
+        Random random = new Random(seed);
+        List<UUID> uuids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            uuids.add(new UUID(random.nextLong(), random.nextLong()));
+        }
+        return uuids;
+    }
+
+    @Test
+    public void testUnsortedWithDuplicates() {
+        List<UUID> input = randomUuids(500, 1);
+        input.addAll(input.subList(0, 100));
+        input.add(input.get(7));
+        Collections.shuffle(input, new Random(2));
+
+        CompactUuidSet set = CompactUuidSet.copyOf(input);
+        assertEquals(500, set.size());
+        assertEquals(new ArrayList<>(new TreeSet<>(input)), new ArrayList<>(set));
+        for (UUID uuid : input) {
+            assertTrue(set.contains(uuid));
+        }
+        assertFalse(set.contains(UUID.randomUUID()));
+        assertFalse(set.contains("not a uuid"));
+    }
+
+    @Test
+    public void testSignedOrdering() {
+        List<UUID> reversed = new ArrayList<>(SIGNED_ORDER);
+        Collections.reverse(reversed);
+
+        CompactUuidSet set = CompactUuidSet.copyOf(reversed);
+        assertEquals(SIGNED_ORDER, new ArrayList<>(set));
+        for (UUID uuid : SIGNED_ORDER) {
+            assertTrue(set.contains(uuid), uuid.toString());
+            assertTrue(set.contains(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()), uuid.toString());
+        }
+        assertFalse(set.contains(new UUID(-1, 1)));
+        assertFalse(set.contains(new UUID(Long.MIN_VALUE, 4)));
+        assertFalse(set.contains(new UUID(Long.MAX_VALUE, Long.MIN_VALUE)));
+
+        // already sorted input is kept as is
+        assertEquals(SIGNED_ORDER, new ArrayList<>(CompactUuidSet.copyOf(SIGNED_ORDER)));
+    }
+
+    @Test
+    public void testHashSetParity() {
+        List<UUID> uuids = randomUuids(200, 3);
+        uuids.addAll(SIGNED_ORDER);
+        Set<UUID> hashSet = new HashSet<>(uuids);
+        CompactUuidSet set = CompactUuidSet.copyOf(uuids);
+
+        assertEquals(hashSet.hashCode(), set.hashCode());
+        assertEquals(hashSet, set);
+        assertEquals(set, hashSet);
+        assertEquals(set, CompactUuidSet.copyOf(new ArrayList<>(hashSet)));
+
+        Set<UUID> other = new HashSet<>(hashSet);
+        other.remove(SIGNED_ORDER.get(0));
+        other.add(new UUID(42, 42));
+        assertNotEquals(other, set);
+        assertNotEquals(set, other);
+        assertNotEquals(set, CompactUuidSet.copyOf(other));
+
+        assertEquals(Collections.emptySet(), CompactUuidSet.empty());
+        assertEquals(0, CompactUuidSet.empty().hashCode());
+        assertSame(CompactUuidSet.empty(), CompactUuidSet.builder().build());
+    }
+
+    @Test
+    public void testJsonRoundTrip() throws IOException {
+        CompactUuidSet set = CompactUuidSet.copyOf(SIGNED_ORDER);
+        String json = CompactUuidSet.typeAdapter().toJson(set);
+        assertEquals(set, CompactUuidSet.typeAdapter().fromJson(json));
+
+        // upper case, and the non-canonical forms accepted by UUID#fromString
+        UUID uuid = UUID.randomUUID();
+        CompactUuidSet parsed = CompactUuidSet.typeAdapter().fromJson("[\"" + uuid.toString().toUpperCase() + "\", \"1-2-3-4-5\"]");
+        assertEquals(new HashSet<>(Arrays.asList(uuid, UUID.fromString("1-2-3-4-5"))), parsed);
+    }
+
+    @Test
+    public void testMalformedUuids() {
+        for (String malformed : Arrays.asList("not-a-uuid", "", "zzzzzzzz-0000-0000-0000-000000000000", "00000000-0000-0000-0000-00000000000g", "00000000000000000000000000000000")) {
+            assertThrows(IllegalArgumentException.class, () -> CompactUuidSet.typeAdapter().fromJson("[\"" + malformed + "\"]"), malformed);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class InternPoolTest {
+
+    @Test
+    public void testHit() {
+        InternPool<String> pool = new InternPool<>(16);
+        String first = new String("test.permission");
+        String second = new String("test.permission");
+        assertNotSame(first, second);
+
+        assertSame(first, pool.intern(first));
+        assertSame(first, pool.intern(second));
+        assertSame(first, pool.intern(first));
+    }
+
+    @Test
+    public void testOverwriteOnCollision() {
+        // a single slot, so every value collides
+        InternPool<String> pool = new InternPool<>(1);
+        String a = new String("a");
+        String b = new String("b");
+
+        assertSame(a, pool.intern(a));
+        assertSame(b, pool.intern(b));
+        assertSame(b, pool.intern(new String("b")));
+
+        // a was evicted by b, so an equal value takes its place
+        String otherA = new String("a");
+        assertSame(otherA, pool.intern(otherA));
+        assertSame(otherA, pool.intern(a));
+    }
+
+    @Test
+    public void testSameSlotDifferentValues() {
+        // "Aa" and "BB" have the same hash code, so share a slot in a pool of any size
+        InternPool<String> pool = new InternPool<>(1024);
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        String aa = new String("Aa");
+        String bb = new String("BB");
+
+        assertSame(aa, pool.intern(aa));
+        assertSame(bb, pool.intern(bb));
+        String otherAa = new String("Aa");
+        assertSame(otherAa, pool.intern(otherAa));
+    }
+
+    @Test
+    public void testNull() {
+        InternPool<String> pool = new InternPool<>(16);
+        assertNull(pool.intern(null));
+
+        String value = new String("value");
+        assertSame(value, pool.intern(value));
+        assertNull(pool.intern(null));
+        assertSame(value, pool.intern(new String("value")));
+    }
+
+    @Test
+    public void testSizeMustBePowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new InternPool<>(0));
+        assertThrows(IllegalArgumentException.class, () -> new InternPool<>(100));
+        new InternPool<>(64);
+    }
+}
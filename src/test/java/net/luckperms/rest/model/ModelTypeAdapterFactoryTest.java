@@ -0,0 +1,347 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest.model;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static net.luckperms.rest.model.ModelFixtures.CONTEXT;
+import static net.luckperms.rest.model.ModelFixtures.nodes;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class ModelTypeAdapterFactoryTest {
+    private static final Gson PLAIN = new Gson();
+    private static final Gson PLAIN_NULLS = new GsonBuilder().serializeNulls().create();
+    private static final Gson MODEL = ModelTypeAdapterFactory.gson();
+
+    private static final Type NODE_LIST = new TypeToken<List<Node>>() {}.getType();
+    private static final Type UUID_SET = new TypeToken<Set<UUID>>() {}.getType();
+
+    private static Metadata metadata() {
+        return new Metadata(ImmutableMap.of("weight", "10", "colour", "<red>"), "&c", null, "admin");
+    }
+
+    private static Action action(Action.Target.Type type) {
+        return new Action(
+                1700000000L,
+                new Action.Source(UUID.randomUUID(), "Luck"),
+                new Action.Target(type == Action.Target.Type.USER ? UUID.randomUUID() : null, "target", type),
+                "permission set test.permission true"
+        );
+    }
+
+    /**
+     * Checks that the value is written as the same JSON as a plain {@link Gson} instance, and
+     * that each can read the JSON written by the other, with and without explicit nulls and
+     * with unknown fields.
+     */
+    private static void assertRoundTrip(Object value, Type type) {
+        JsonElement plain = JsonParser.parseString(PLAIN.toJson(value, type));
+        JsonElement model = JsonParser.parseString(MODEL.toJson(value, type));
+        assertEquals(plain, model);
+
+        assertEquals(value, MODEL.fromJson(plain, type));
+        assertEquals(value, PLAIN.fromJson(model, type));
+        assertEquals(value, MODEL.fromJson(PLAIN_NULLS.toJson(value, type), type));
+
+        if (plain.isJsonObject()) {
+            JsonObject unknown = plain.getAsJsonObject().deepCopy();
+            JsonArray array = new JsonArray();
+            array.add(1);
+            array.add(JsonNull.INSTANCE);
+            array.add(new JsonObject());
+            JsonObject object = new JsonObject();
+            object.add("array", array);
+            object.addProperty("string", "value");
+            unknown.add("unknownObject", object);
+            unknown.addProperty("unknownString", "value");
+            unknown.add("unknownNull", JsonNull.INSTANCE);
+            assertEquals(value, MODEL.fromJson(unknown, type));
+        }
+
+        assertEquals("null", MODEL.toJson(null, type));
+        assertNull(MODEL.fromJson("null", type));
+    }
+
+    @Test
+    public void testFactoryCoversTypes() {
+        ModelTypeAdapterFactory factory = ModelTypeAdapterFactory.create();
+        for (Class<?> type : Arrays.asList(Context.class, Node.class, Metadata.class, User.class, Group.class,
+                UserSearchResult.class, GroupSearchResult.class, PermissionCheckRequest.class, PermissionCheckResult.class, Action.class,
+                Action.Source.class, Action.Target.class, ActionPage.class, LogBroadcastEvent.class,
+                PreNetworkSyncEvent.class, PostNetworkSyncEvent.class, PreSyncEvent.class, PostSyncEvent.class,
+                CustomMessageReceiveEvent.class, CompactNodeList.class, CompactUuidSet.class)) {
+            assertNotNull(factory.create(MODEL, TypeToken.get(type)), type.getName());
+        }
+        // left to Gson, so service results are ordinary lists
+        assertNull(factory.create(MODEL, TypeToken.get(NODE_LIST)));
+    }
+
+    @Test
+    public void testContext() {
+        assertRoundTrip(new Context("server", "survival"), Context.class);
+        assertRoundTrip(new Context(null, null), Context.class);
+    }
+
+    @Test
+    public void testNode() {
+        for (Node node : nodes()) {
+            assertRoundTrip(node, Node.class);
+        }
+        assertRoundTrip(new Node(null, null, null, null), Node.class);
+    }
+
+    @Test
+    public void testNodeList() {
+        assertRoundTrip(nodes(), NODE_LIST);
+        assertRoundTrip(Collections.emptyList(), NODE_LIST);
+
+        // only user and group nodes are compact, other lists stay mutable
+        List<Node> decoded = MODEL.fromJson(PLAIN.toJson(nodes()), NODE_LIST);
+        assertEquals(ArrayList.class, decoded.getClass());
+        decoded.add(new Node("added", true, null, null));
+
+        CompactNodeList compact = MODEL.fromJson(PLAIN.toJson(nodes()), CompactNodeList.class);
+        assertEquals(nodes(), compact);
+        assertEquals(PLAIN.toJson(nodes()), MODEL.toJson(compact));
+        assertEquals(CompactNodeList.class, MODEL.fromJson(PLAIN.toJson(new User(UUID.randomUUID(), "Luck", null, nodes(), null)), User.class).nodes().getClass());
+        assertEquals(CompactNodeList.class, MODEL.fromJson(PLAIN.toJson(new Group("admin", null, 10, nodes(), null)), Group.class).nodes().getClass());
+    }
+
+    @Test
+    public void testMetadata() {
+        assertRoundTrip(metadata(), Metadata.class);
+        assertRoundTrip(new Metadata(Collections.emptyMap(), null, null, null), Metadata.class);
+        assertRoundTrip(new Metadata(null, null, null, null), Metadata.class);
+    }
+
+    @Test
+    public void testUser() {
+        UUID uniqueId = UUID.randomUUID();
+        assertRoundTrip(new User(uniqueId, "Luck", Arrays.asList("default", "admin"), nodes(), metadata()), User.class);
+        assertRoundTrip(new User(uniqueId, "Luck", Collections.emptyList(), CompactNodeList.copyOf(nodes()), metadata()), User.class);
+        assertRoundTrip(new User(uniqueId, null, null, null, null), User.class);
+    }
+
+    @Test
+    public void testUnknownNodeFields() {
+        User user = new User(UUID.randomUUID(), "Luck", Collections.singletonList("default"), nodes(), metadata());
+        JsonObject json = PLAIN.toJsonTree(user).getAsJsonObject();
+        for (JsonElement node : json.getAsJsonArray("nodes")) {
+            node.getAsJsonObject().addProperty("type", "permission");
+            node.getAsJsonObject().add("unknown", new JsonArray());
+        }
+        assertEquals(user, MODEL.fromJson(json, User.class));
+    }
+
+    @Test
+    public void testGroup() {
+        assertRoundTrip(new Group("admin", "Administrator", 100, nodes(), metadata()), Group.class);
+        assertRoundTrip(new Group("default", null, 0, Collections.emptyList(), null), Group.class);
+        assertRoundTrip(new Group(null, null, 0, null, null), Group.class);
+    }
+
+    @Test
+    public void testSearchResults() {
+        assertRoundTrip(new UserSearchResult(UUID.randomUUID(), nodes()), UserSearchResult.class);
+        assertRoundTrip(new UserSearchResult(null, null), UserSearchResult.class);
+        assertRoundTrip(new GroupSearchResult("admin", nodes()), GroupSearchResult.class);
+        assertRoundTrip(new GroupSearchResult(null, null), GroupSearchResult.class);
+    }
+
+    @Test
+    public void testPermissionCheckRequest() {
+        QueryOptions queryOptions = new QueryOptions(QueryOptions.Mode.CONTEXTUAL, EnumSet.of(QueryOptions.Flag.RESOLVE_INHERITANCE), CONTEXT);
+        assertRoundTrip(new PermissionCheckRequest("test.permission", queryOptions), PermissionCheckRequest.class);
+        assertRoundTrip(new PermissionCheckRequest("test.permission", new QueryOptions(null, null, null)), PermissionCheckRequest.class);
+        assertRoundTrip(new PermissionCheckRequest("test.permission", null), PermissionCheckRequest.class);
+        assertRoundTrip(new PermissionCheckRequest(null, null), PermissionCheckRequest.class);
+    }
+
+    @Test
+    public void testQueryOptionsSerializedOnce() {
+        AtomicInteger writes = new AtomicInteger();
+        Gson gson = MODEL.newBuilder().registerTypeAdapterFactory(new TypeAdapterFactory() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+                if (type.getRawType() != QueryOptions.class) {
+                    return null;
+                }
+                TypeAdapter<T> delegate = gson.getDelegateAdapter(this, type);
+                return new TypeAdapter<T>() {
+                    @Override
+                    public void write(JsonWriter out, T value) throws IOException {
+                        writes.incrementAndGet();
+                        delegate.write(out, value);
+                    }
+
+                    @Override
+                    public T read(JsonReader in) throws IOException {
+                        return delegate.read(in);
+                    }
+                };
+            }
+        }).create();
+
+        QueryOptions queryOptions = new QueryOptions(QueryOptions.Mode.CONTEXTUAL, null, CONTEXT);
+        for (String permission : Arrays.asList("a", "b", "c")) {
+            PermissionCheckRequest request = new PermissionCheckRequest(permission, queryOptions);
+            assertEquals(PLAIN.toJsonTree(request), JsonParser.parseString(gson.toJson(request)));
+        }
+        assertEquals(1, writes.get());
+
+        gson.toJson(new PermissionCheckRequest("a", new QueryOptions(QueryOptions.Mode.CONTEXTUAL, null, CONTEXT)));
+        assertEquals(2, writes.get());
+    }
+
+    @Test
+    public void testPermissionCheckResult() {
+        for (PermissionCheckResult.Tristate result : PermissionCheckResult.Tristate.values()) {
+            assertRoundTrip(new PermissionCheckResult(result, nodes().get(0)), PermissionCheckResult.class);
+            assertRoundTrip(new PermissionCheckResult(result, null), PermissionCheckResult.class);
+        }
+        assertRoundTrip(new PermissionCheckResult(null, null), PermissionCheckResult.class);
+    }
+
+    @Test
+    public void testAction() {
+        for (Action.Target.Type type : Action.Target.Type.values()) {
+            Action action = action(type);
+            assertRoundTrip(action, Action.class);
+            assertRoundTrip(action.source(), Action.Source.class);
+            assertRoundTrip(action.target(), Action.Target.class);
+        }
+        assertRoundTrip(new Action(null, null, null, null), Action.class);
+        assertRoundTrip(new Action.Source(null, null), Action.Source.class);
+        assertRoundTrip(new Action.Target(null, null, null), Action.Target.class);
+    }
+
+    @Test
+    public void testActionPage() {
+        List<Action> actions = new ArrayList<>();
+        for (Action.Target.Type type : Action.Target.Type.values()) {
+            actions.add(action(type));
+        }
+        assertRoundTrip(new ActionPage(actions, 250), ActionPage.class);
+        assertRoundTrip(new ActionPage(Collections.emptyList(), 0), ActionPage.class);
+        assertRoundTrip(new ActionPage(null, 0), ActionPage.class);
+    }
+
+    @Test
+    public void testLogBroadcastEvent() {
+        for (LogBroadcastEvent.Origin origin : LogBroadcastEvent.Origin.values()) {
+            assertRoundTrip(new LogBroadcastEvent(action(Action.Target.Type.GROUP), origin), LogBroadcastEvent.class);
+        }
+        assertRoundTrip(new LogBroadcastEvent(null, null), LogBroadcastEvent.class);
+    }
+
+    @Test
+    public void testSyncEvents() {
+        for (SyncType type : SyncType.values()) {
+            UUID user = type == SyncType.SPECIFIC_USER ? UUID.randomUUID() : null;
+            assertRoundTrip(new PreNetworkSyncEvent(UUID.randomUUID(), type, user), PreNetworkSyncEvent.class);
+            assertRoundTrip(new PostNetworkSyncEvent(UUID.randomUUID(), type, true, user), PostNetworkSyncEvent.class);
+            assertRoundTrip(new PostNetworkSyncEvent(UUID.randomUUID(), type, false, user), PostNetworkSyncEvent.class);
+        }
+        assertRoundTrip(new PreNetworkSyncEvent(null, null, null), PreNetworkSyncEvent.class);
+        assertRoundTrip(new PostNetworkSyncEvent(null, null, false, null), PostNetworkSyncEvent.class);
+        assertRoundTrip(new PreSyncEvent(), PreSyncEvent.class);
+        assertRoundTrip(new PostSyncEvent(), PostSyncEvent.class);
+    }
+
+    @Test
+    public void testCustomMessageReceiveEvent() {
+        assertRoundTrip(new CustomMessageReceiveEvent("channel", "{\"payload\": true}"), CustomMessageReceiveEvent.class);
+        assertRoundTrip(new CustomMessageReceiveEvent(null, null), CustomMessageReceiveEvent.class);
+    }
+
+    @Test
+    public void testUnknownEnumConstants() {
+        String json = "{\"result\":\"maybe\",\"node\":null}";
+        assertEquals(PLAIN.fromJson(json, PermissionCheckResult.class), MODEL.fromJson(json, PermissionCheckResult.class));
+        assertNull(MODEL.fromJson(json, PermissionCheckResult.class).result());
+
+        json = "{\"name\":\"admin\",\"type\":\"server\"}";
+        assertEquals(PLAIN.fromJson(json, Action.Target.class), MODEL.fromJson(json, Action.Target.class));
+
+        json = "{\"syncId\":\"" + UUID.randomUUID() + "\",\"type\":\"partial\"}";
+        assertEquals(PLAIN.fromJson(json, PreNetworkSyncEvent.class), MODEL.fromJson(json, PreNetworkSyncEvent.class));
+    }
+
+    @Test
+    public void testNullPrimitives() {
+        String json = "{\"entries\":[],\"overallSize\":null}";
+        assertEquals(PLAIN.fromJson(json, ActionPage.class), MODEL.fromJson(json, ActionPage.class));
+
+        json = "{\"name\":\"admin\",\"weight\":null}";
+        assertEquals(PLAIN.fromJson(json, Group.class), MODEL.fromJson(json, Group.class));
+
+        json = "{\"type\":\"full\",\"didSyncOccur\":null}";
+        assertEquals(PLAIN.fromJson(json, PostNetworkSyncEvent.class), MODEL.fromJson(json, PostNetworkSyncEvent.class));
+    }
+
+    @Test
+    public void testCompactUuidSet() {
+        List<UUID> uniqueIds = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            uniqueIds.add(UUID.randomUUID());
+        }
+        CompactUuidSet set = CompactUuidSet.copyOf(uniqueIds);
+
+        assertEquals(JsonParser.parseString(PLAIN.toJson(set, UUID_SET)), JsonParser.parseString(MODEL.toJson(set)));
+        assertEquals(set, MODEL.fromJson(PLAIN.toJson(set, UUID_SET), CompactUuidSet.class));
+        assertEquals(set, PLAIN.fromJson(MODEL.toJson(set), UUID_SET));
+        assertEquals(CompactUuidSet.empty(), MODEL.fromJson("[]", CompactUuidSet.class));
+        assertNull(MODEL.fromJson("null", CompactUuidSet.class));
+    }
+}
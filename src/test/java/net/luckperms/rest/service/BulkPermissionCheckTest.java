@@ -0,0 +1,189 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package net.luckperms.rest.service;
+
+import net.luckperms.rest.model.PermissionCheckRequest;
+import net.luckperms.rest.model.PermissionCheckResult;
+import net.luckperms.rest.model.PermissionCheckResult.Tristate;
+import okhttp3.Request;
+import okio.Timeout;
+import org.junit.jupiter.api.Test;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class BulkPermissionCheckTest {
+    private static final UUID UNIQUE_ID = UUID.randomUUID();
+
+    private final Map<String, FakeCall> calls = new LinkedHashMap<>();
+
+    private UserService service() {
+        UserService service = mock(UserService.class);
+        when(service.permissionCheck(eq(UNIQUE_ID), any(PermissionCheckRequest.class))).thenAnswer(invocation -> {
+            PermissionCheckRequest request = invocation.getArgument(1);
+            FakeCall call = new FakeCall();
+            this.calls.put(request.permission(), call);
+            return call;
+        });
+        return service;
+    }
+
+    private static List<String> permissions(int count) {
+        List<String> permissions = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            permissions.add("test.permission." + i);
+        }
+        return permissions;
+    }
+
+    @Test
+    public void testResults() throws Exception {
+        List<String> permissions = permissions(20);
+        CompletableFuture<Map<String, PermissionCheckResult>> future = BulkPermissionCheck.check(service(), UNIQUE_ID, permissions, null);
+
+        // a bounded number of calls are in flight, and each completion starts the next
+        assertEquals(BulkPermissionCheck.MAX_CONCURRENCY, this.calls.size());
+        for (int i = 0; i < permissions.size(); i++) {
+            this.calls.get(permissions.get(i)).succeed(i % 2 == 0 ? Tristate.TRUE : Tristate.FALSE);
+        }
+
+        Map<String, PermissionCheckResult> results = future.get();
+        assertEquals(permissions, new ArrayList<>(results.keySet()));
+        assertEquals(Tristate.TRUE, results.get("test.permission.0").result());
+        assertEquals(Tristate.FALSE, results.get("test.permission.1").result());
+    }
+
+    @Test
+    public void testDuplicatesAndEmpty() throws Exception {
+        assertEquals(Collections.emptyMap(), BulkPermissionCheck.check(service(), UNIQUE_ID, Collections.emptyList(), null).get());
+
+        CompletableFuture<Map<String, PermissionCheckResult>> future = BulkPermissionCheck.check(service(), UNIQUE_ID, Arrays.asList("a", "b", "a"), null);
+        assertEquals(2, this.calls.size());
+        this.calls.values().forEach(call -> call.succeed(Tristate.UNDEFINED));
+        assertEquals(Arrays.asList("a", "b"), new ArrayList<>(future.get().keySet()));
+    }
+
+    @Test
+    public void testFailureCancelsInFlight() {
+        List<String> permissions = permissions(20);
+        CompletableFuture<Map<String, PermissionCheckResult>> future = BulkPermissionCheck.check(service(), UNIQUE_ID, permissions, null);
+
+        this.calls.get("test.permission.0").fail(new IOException("test"));
+
+        ExecutionException e = assertThrows(ExecutionException.class, future::get);
+        assertEquals("test", e.getCause().getMessage());
+
+        // the other calls in flight are cancelled, and no more are made
+        assertEquals(BulkPermissionCheck.MAX_CONCURRENCY, this.calls.size());
+        for (int i = 1; i < BulkPermissionCheck.MAX_CONCURRENCY; i++) {
+            assertTrue(this.calls.get(permissions.get(i)).isCanceled());
+        }
+    }
+
+    @Test
+    public void testCancelCancelsInFlight() {
+        CompletableFuture<Map<String, PermissionCheckResult>> future = BulkPermissionCheck.check(service(), UNIQUE_ID, permissions(3), null);
+        this.calls.get("test.permission.0").succeed(Tristate.TRUE);
+        assertFalse(this.calls.get("test.permission.0").isCanceled());
+
+        future.cancel(false);
+        assertTrue(this.calls.get("test.permission.1").isCanceled());
+        assertTrue(this.calls.get("test.permission.2").isCanceled());
+    }
+
+    private static final class FakeCall implements Call<PermissionCheckResult> {
+        private Callback<PermissionCheckResult> callback;
+        private boolean canceled;
+
+        void succeed(Tristate result) {
+            this.callback.onResponse(this, Response.success(new PermissionCheckResult(result, null)));
+        }
+
+        void fail(Throwable t) {
+            this.callback.onFailure(this, t);
+        }
+
+        @Override
+        public void enqueue(Callback<PermissionCheckResult> callback) {
+            this.callback = callback;
+        }
+
+        @Override
+        public Response<PermissionCheckResult> execute() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isExecuted() {
+            return this.callback != null;
+        }
+
+        @Override
+        public void cancel() {
+            this.canceled = true;
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return this.canceled;
+        }
+
+        @Override
+        public Call<PermissionCheckResult> clone() {
+            return new FakeCall();
+        }
+
+        @Override
+        public Request request() {
+            return new Request.Builder().url("http://localhost/").build();
+        }
+
+        @Override
+        public Timeout timeout() {
+            return Timeout.NONE;
+        }
+    }
+}